@@ -0,0 +1,40 @@
+package com.geofencing.engine.config;
+
+import com.geofencing.engine.controller.GpsBinaryWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Raw (non-STOMP) WebSocket endpoint for binary GPS frames.
+ *
+ * Lives next to the STOMP endpoint of WebSocketConfig:
+ * - /ws/gps-stream: STOMP + JSON, for browsers and single scooters
+ * - /ws/gps-binary: fixed-layout binary frames of many pings, for gateways
+ *   (see GpsBinaryProtocol for the wire format)
+ *
+ * No SockJS fallback: binary gateways speak native WebSocket.
+ */
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class BinaryWebSocketConfig implements WebSocketConfigurer {
+
+    private final GpsBinaryWebSocketHandler gpsBinaryWebSocketHandler;
+
+    @Value("${geofencing.websocket.binary.endpoint:/ws/gps-binary}")
+    private String binaryEndpoint;
+
+    @Value("${geofencing.websocket.allowed-origins:*}")
+    private String allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        // Clients connect to: ws://localhost:8080/ws/gps-binary
+        registry.addHandler(gpsBinaryWebSocketHandler, binaryEndpoint)
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+}
@@ -9,6 +9,7 @@ import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
@@ -17,7 +18,7 @@ import java.time.Duration;
  * Redis configuration for caching zone geometries.
  *
  * Architecture Decision:
- * We use Redis to cache zone polygons in WKT (Well-Known Text) format.
+ * We use Redis to cache zone polygons as one binary snapshot (WKB geometries).
  * This allows us to perform point-in-polygon checks in memory using JTS,
  * avoiding database queries for every GPS event.
  *
@@ -45,7 +46,6 @@ public class RedisConfig {
      * RedisTemplate for manual cache operations.
      *
      * We use String keys and generic values to support different data types:
-     * - Zone geometries (String in WKT format)
      * - Zone metadata (JSON objects)
      * - Statistics counters (Long)
      */
@@ -67,6 +67,22 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * RedisTemplate for the binary zone set snapshot (see ZoneSnapshotCodec).
+     *
+     * Values are raw bytes - no JSON or String encoding on top of the
+     * already compact WKB payload.
+     */
+    @Bean
+    public RedisTemplate<String, byte[]> zoneSnapshotRedisTemplate(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(new StringRedisSerializer());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        return template;
+    }
+
     /**
      * Cache manager for Spring's @Cacheable annotation.
      *
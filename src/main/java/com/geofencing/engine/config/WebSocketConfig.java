@@ -20,6 +20,8 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
  * - /app/*: Client messages (e.g., /app/gps for GPS data)
  * - /topic/*: Public broadcasts (e.g., /topic/alerts)
  * - /user/*: Private user-specific messages
+ *
+ * Gateways streaming large volumes use the binary endpoint instead (BinaryWebSocketConfig).
  */
 @Configuration
 @EnableWebSocketMessageBroker
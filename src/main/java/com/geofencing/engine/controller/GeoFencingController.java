@@ -1,9 +1,11 @@
 package com.geofencing.engine.controller;
 
 import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.NearbyZoneRecord;
 import com.geofencing.engine.dto.ZoneViolationRecord;
 import com.geofencing.engine.entity.NoParkingZone;
 import com.geofencing.engine.service.GeoFencingService;
+import com.geofencing.engine.service.GpsStreamIngestService;
 import com.geofencing.engine.service.ZoneCacheService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,11 +15,15 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +36,7 @@ import java.util.Map;
  * 2. View all zones
  * 3. Check cache status
  * 4. View violation history
+ * 5. Bulk-check a stream of GPS events (NDJSON)
  *
  * Use this for manual testing before implementing WebSocket.
  */
@@ -42,6 +49,7 @@ public class GeoFencingController {
 
     private final GeoFencingService geoFencingService;
     private final ZoneCacheService zoneCacheService;
+    private final GpsStreamIngestService gpsStreamIngestService;
 
     /**
      * Test endpoint: Send a GPS event and check for violations.
@@ -147,6 +155,37 @@ public class GeoFencingController {
         return checkViolation(event);
     }
 
+    /**
+     * Bulk check: streams NDJSON GPS events in, NDJSON results out.
+     *
+     * Meant for replaying a gateway's backlog in one request instead of one
+     * /check call per event. The body is read incrementally and checked in
+     * micro-batches; results are flushed after each batch, and the last line is
+     * a summary with the throughput (see GpsStreamIngestService).
+     *
+     * The request holds its servlet thread until the body is consumed - that's the
+     * backpressure: a client can't send faster than events are checked.
+     *
+     * Example:
+     * curl -X POST -H 'Content-Type: application/x-ndjson' --data-binary @backlog.ndjson \
+     *      'http://localhost:8080/api/geofencing/check/stream?replay=true'
+     */
+    @Operation(
+            summary = "Bulk-check a stream of GPS events",
+            description = "Reads one GPS event per line (application/x-ndjson) and streams one result per line back: " +
+                    "violations, a progress line per micro-batch and a trailing summary with events/second. " +
+                    "Set replay=true for historical data (skips the 60s staleness check)."
+    )
+    @PostMapping(value = "/check/stream", consumes = "application/x-ndjson", produces = "application/x-ndjson")
+    public void checkViolationStream(
+            @Parameter(description = "Historical replay: accept events older than 60 seconds", example = "false")
+            @RequestParam(defaultValue = "false") boolean replay,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        gpsStreamIngestService.ingest(request.getInputStream(), response.getOutputStream(), replay);
+    }
+
     /**
      * Get all active zones.
      *
@@ -163,6 +202,26 @@ public class GeoFencingController {
         return ResponseEntity.ok(zones);
     }
 
+    /**
+     * Get zones near a point, nearest first ("approaching a no-parking zone").
+     *
+     * Example:
+     * GET /api/geofencing/zones/nearby?lat=37.7800&lon=-122.4200&radius=50
+     */
+    @Operation(
+            summary = "Get no-parking zones near a point",
+            description = "Returns the zones within the radius (meters) of the point, ordered by distance. " +
+                    "Answered from the in-memory zone index; PostGIS is only queried while the zone cache is unavailable."
+    )
+    @GetMapping("/zones/nearby")
+    public ResponseEntity<List<NearbyZoneRecord>> getZonesNearby(
+        @Parameter(description = "Latitude", example = "37.7800") @RequestParam double lat,
+        @Parameter(description = "Longitude", example = "-122.4200") @RequestParam double lon,
+        @Parameter(description = "Radius in meters", example = "50") @RequestParam(defaultValue = "50") double radius
+    ) {
+        return ResponseEntity.ok(geoFencingService.getZonesNearby(lat, lon, radius));
+    }
+
     /**
      * Get cache statistics.
      *
@@ -181,7 +240,8 @@ public class GeoFencingController {
             "cachedZoneCount", stats.cachedZoneCount(),
             "databaseZoneCount", stats.databaseZoneCount(),
             "cacheHealthy", stats.isCacheHealthy(),
-            "cacheHitRate", String.format("%.1f%%", stats.cacheHitRate())
+            "cacheHitRate", String.format("%.1f%%", stats.cacheHitRate()),
+            "engineState", stats.engineState()
         ));
     }
 
@@ -0,0 +1,217 @@
+package com.geofencing.engine.controller;
+
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import com.geofencing.engine.service.GeoFencingService;
+import com.geofencing.engine.service.GpsProcessingExecutor;
+import com.geofencing.engine.service.ZoneAlertPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Checks the pings of a binary GPS frame (GpsBinaryProtocol), whatever transport it came on.
+ *
+ * Shared by the binary WebSocket endpoint and the UDP listener. Each ping is read
+ * with absolute ByteBuffer gets straight into primitives, validated, and probed
+ * against the zone index (GeoFencingService.mayViolateZone). A ping outside every
+ * zone - the common case - is accepted without allocating anything.
+ * Only hits become GpsEventRecords and go through the regular batch check
+ * (dedup, write-behind, alerts on /topic/alerts).
+ *
+ * In SEGMENT crossing mode (GeoFencingService.checksEveryPing()) the probe is
+ * skipped and every valid ping is checked: two pings outside every zone can still
+ * have crossed one, and each ping is the start of the scooter's next segment.
+ *
+ * Threading:
+ * Decoding, validation and the probe run on the calling thread, which may reuse
+ * the frame's buffer as soon as process() returns. The hits are then checked on
+ * their scooters' GPS lanes (GpsProcessingExecutor.submitGrouped), like STOMP
+ * pings: zone state, motion anchors and trajectories assume one consumer per
+ * scooter, which only holds if every transport goes through the lanes.
+ *
+ * Metrics:
+ * - geofencing.gps.binary.pings: pings received
+ * - geofencing.gps.binary.probe.hits: pings that needed the full check (all valid
+ *   pings in SEGMENT crossing mode)
+ */
+@Component
+@RequiredArgsConstructor
+public class GpsBinaryFrameProcessor {
+
+    private static final long MAX_EVENT_AGE_MILLIS = GeoFencingService.MAX_EVENT_AGE_SECONDS * 1000L;
+
+    // Same clock skew tolerance as GpsEventRecord's compact constructor
+    private static final long MAX_CLOCK_SKEW_MILLIS = 60_000;
+
+    private final GeoFencingService geoFencingService;
+    private final GpsProcessingExecutor gpsProcessingExecutor;
+    private final ZoneAlertPublisher zoneAlertPublisher;
+    private final MeterRegistry meterRegistry;
+
+    // Numeric scooter id -> scooterId used everywhere else (e.g. 42 -> "SC-042")
+    @Value("${geofencing.websocket.binary.scooter-id-format:SC-%03d}")
+    private String scooterIdFormat;
+
+    private Counter pingCounter;
+    private Counter probeHitCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        pingCounter = Counter.builder("geofencing.gps.binary.pings")
+            .description("GPS pings received in binary frames")
+            .register(meterRegistry);
+        probeHitCounter = Counter.builder("geofencing.gps.binary.probe.hits")
+            .description("Binary GPS pings that needed the full check (zone hit, cold engine or SEGMENT mode)")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Outcome of a frame.
+     *
+     * @param accepted   Pings that passed validation
+     * @param invalid    Pings rejected (stale, inaccurate, out of range)
+     * @param scooterIds Numeric scooter id of each new violation
+     * @param zoneIds    Zone id of each new violation, parallel to scooterIds
+     */
+    public record FrameResult(int accepted, int invalid, long[] scooterIds, long[] zoneIds) {
+        private static final long[] NONE = new long[0];
+
+        static FrameResult withoutViolations(int accepted, int invalid) {
+            return new FrameResult(accepted, invalid, NONE, NONE);
+        }
+
+        public int violationCount() {
+            return scooterIds.length;
+        }
+    }
+
+    /**
+     * Checks every ping of a frame that passed GpsBinaryProtocol.validate().
+     *
+     * @param frame Frame in little-endian order, positioned at its start; not read
+     *              after this method returns
+     * @return Outcome of the frame, once the hits were checked on their lanes
+     *         (completed already when there were none)
+     */
+    public CompletableFuture<FrameResult> process(ByteBuffer frame) {
+        int count = GpsBinaryProtocol.count(frame);
+        pingCounter.increment(count);
+
+        long now = System.currentTimeMillis();
+        boolean probe = !geoFencingService.checksEveryPing();
+        int invalid = 0;
+        List<GpsEventRecord> hits = null;
+        long[] hitScooterIds = null;
+
+        for (int i = 0; i < count; i++) {
+            double latitude = GpsBinaryProtocol.latitude(frame, i);
+            double longitude = GpsBinaryProtocol.longitude(frame, i);
+            long timestampMillis = GpsBinaryProtocol.timestampMillis(frame, i);
+            int flags = GpsBinaryProtocol.flags(frame, i);
+
+            if (!isValid(frame, i, latitude, longitude, timestampMillis, flags, now)) {
+                invalid++;
+                continue;
+            }
+
+            // Miss: nothing to do, nothing allocated
+            if (probe && !geoFencingService.mayViolateZone(latitude, longitude)) {
+                continue;
+            }
+
+            if (hits == null) {
+                hits = new ArrayList<>();
+                hitScooterIds = new long[count];
+            }
+            hitScooterIds[hits.size()] = GpsBinaryProtocol.scooterId(frame, i);
+            hits.add(toEvent(frame, i, latitude, longitude, timestampMillis, flags));
+        }
+
+        if (hits == null) {
+            return CompletableFuture.completedFuture(FrameResult.withoutViolations(count - invalid, invalid));
+        }
+
+        probeHitCounter.increment(hits.size());
+        int probeInvalid = invalid;
+        List<GpsEventRecord> checked = hits;
+        long[] checkedScooterIds = hitScooterIds;
+        return gpsProcessingExecutor.submitGrouped(
+                hits,
+                GpsEventRecord::scooterId,
+                geoFencingService::checkZoneViolations,
+                part -> GeoFencingService.BatchCheckResult.rejected(part.size()))
+            .thenApply(parts -> {
+                GeoFencingService.BatchCheckResult result = GeoFencingService.BatchCheckResult.merge(parts);
+                int totalInvalid = probeInvalid + result.invalid();
+
+                List<ZoneViolationRecord> violations = result.violations();
+                zoneAlertPublisher.publishViolations(violations, null);
+
+                return toResult(count - totalInvalid, totalInvalid, checked, checkedScooterIds, violations);
+            });
+    }
+
+    /**
+     * Same rules as GeoFencingService's validation, applied to the raw fields.
+     */
+    private static boolean isValid(ByteBuffer frame, int index, double latitude, double longitude,
+                                   long timestampMillis, int flags, long now) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            return false;
+        }
+        if (timestampMillis <= now - MAX_EVENT_AGE_MILLIS || timestampMillis > now + MAX_CLOCK_SKEW_MILLIS) {
+            return false;
+        }
+        return (flags & GpsBinaryProtocol.FLAG_ACCURACY) == 0
+            || GpsBinaryProtocol.accuracy(frame, index) <= GeoFencingService.MAX_ACCURACY_METERS;
+    }
+
+    private GpsEventRecord toEvent(ByteBuffer frame, int index, double latitude, double longitude,
+                                   long timestampMillis, int flags) {
+        return new GpsEventRecord(
+            String.format(scooterIdFormat, GpsBinaryProtocol.scooterId(frame, index)),
+            latitude,
+            longitude,
+            Instant.ofEpochMilli(timestampMillis),
+            (flags & GpsBinaryProtocol.FLAG_SPEED) != 0 ? GpsBinaryProtocol.speed(frame, index) : null,
+            (flags & GpsBinaryProtocol.FLAG_HEADING) != 0 ? GpsBinaryProtocol.heading(frame, index) : null,
+            (flags & GpsBinaryProtocol.FLAG_ACCURACY) != 0 ? GpsBinaryProtocol.accuracy(frame, index) : null
+        );
+    }
+
+    /**
+     * Maps each violation back to the numeric id of its scooter.
+     */
+    private static FrameResult toResult(int accepted, int invalid, List<GpsEventRecord> hits,
+                                        long[] hitScooterIds, List<ZoneViolationRecord> violations) {
+        if (violations.isEmpty()) {
+            return FrameResult.withoutViolations(accepted, invalid);
+        }
+
+        Map<String, Long> numericIds = new HashMap<>();
+        for (int i = 0; i < hits.size(); i++) {
+            numericIds.put(hits.get(i).scooterId(), hitScooterIds[i]);
+        }
+
+        long[] scooterIds = new long[violations.size()];
+        long[] zoneIds = new long[violations.size()];
+        for (int i = 0; i < violations.size(); i++) {
+            ZoneViolationRecord violation = violations.get(i);
+            scooterIds[i] = numericIds.get(violation.scooterId());
+            zoneIds[i] = violation.zoneId();
+        }
+        return new FrameResult(accepted, invalid, scooterIds, zoneIds);
+    }
+}
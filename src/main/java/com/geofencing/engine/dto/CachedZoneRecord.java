@@ -1,6 +1,15 @@
 package com.geofencing.engine.dto;
 
+import com.geofencing.engine.spatial.ZoneGeometryProfile;
+import org.locationtech.jts.algorithm.locate.PointOnGeometryLocator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.CoordinateSequence;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Location;
 import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.prep.PreparedGeometry;
+import org.locationtech.jts.geom.prep.PreparedGeometryFactory;
+import org.locationtech.jts.geom.prep.PreparedPolygon;
 
 /**
  * Cached representation of a no-parking zone for in-memory operations.
@@ -15,32 +24,53 @@ import org.locationtech.jts.geom.Polygon;
  * - Size: ~500 bytes per zone (vs ~2KB for full entity)
  * - Deserialization: ~0.01ms (vs ~0.1ms for entity)
  * - Memory: 1000 zones = 500KB (fits easily in Redis)
+ * - Redis format: see ZoneSnapshotCodec (WKB + interned names, one value per zone set)
  *
- * @param zoneId   Database ID of the zone
- * @param name     Zone name
- * @param geometry JTS Polygon for in-memory containment checks
- * @param severity Severity level (HIGH, MEDIUM, LOW)
- * @param wkt      Well-Known Text representation (for Redis storage)
+ * @param zoneId           Database ID of the zone
+ * @param name             Zone name
+ * @param geometry         JTS Polygon for in-memory containment checks
+ * @param severity         Severity level (HIGH, MEDIUM, LOW)
+ * @param preparedGeometry Prepared form of the geometry, built once when the zone is loaded
+ * @param pointLocator     Indexed point-in-area locator shared with the prepared geometry
+ * @param profile          Centroid, envelope and metric scale for grading violations
  */
 public record CachedZoneRecord(
     Long zoneId,
     String name,
     Polygon geometry,
     String severity,
-    String wkt
+    PreparedGeometry preparedGeometry,
+    PointOnGeometryLocator pointLocator,
+    ZoneGeometryProfile profile
 ) {
 
     /**
      * Factory method to create from NoParkingZone entity.
+     *
+     * The geometry is prepared here, once per zone load, so that every
+     * subsequent point test reuses the same edge index. The same goes for the
+     * metric profile used to grade violations.
      */
     public static CachedZoneRecord fromEntity(
         Long id,
         String name,
         Polygon geometry,
-        String severity,
-        String wkt
+        String severity
     ) {
-        return new CachedZoneRecord(id, name, geometry, severity, wkt);
+        PreparedGeometry prepared = null;
+        PointOnGeometryLocator locator = null;
+
+        if (geometry != null) {
+            prepared = PreparedGeometryFactory.prepare(geometry);
+            locator = ((PreparedPolygon) prepared).getPointLocator();
+
+            // The locator builds its interval index lazily on first use - force it now
+            // so the first GPS event after a reload doesn't pay for it
+            locator.locate(geometry.getEnvelopeInternal().centre());
+        }
+
+        return new CachedZoneRecord(id, name, geometry, severity, prepared, locator,
+            ZoneGeometryProfile.of(geometry));
     }
 
     /**
@@ -48,31 +78,107 @@ public record CachedZoneRecord(
      *
      * This is the core in-memory operation that makes caching valuable.
      *
-     * JTS Algorithm:
-     * 1. Uses ray-casting algorithm for point-in-polygon
-     * 2. Optimized for repeated checks on the same polygon
-     * 3. Performance: ~0.001-0.01ms per check
+     * Algorithm (IndexedPointInAreaLocator):
+     * 1. Polygon edges are stored in a sorted interval index by Y range
+     * 2. Only edges whose Y range spans the point are tested for ray crossing
+     * 3. Performance: O(log v) per check instead of O(v) for plain Polygon.contains()
+     *    (matters for detailed curb polygons with hundreds of vertices)
+     *
+     * Semantics match Polygon.contains(): points on the boundary are NOT contained.
      *
      * @param latitude  GPS latitude
      * @param longitude GPS longitude
      * @return true if point is inside the zone
      */
     public boolean contains(double latitude, double longitude) {
-        if (geometry == null) {
+        if (pointLocator == null) {
             return false;
         }
 
-        // Create a JTS Point from coordinates
-        org.locationtech.jts.geom.GeometryFactory geometryFactory =
-            new org.locationtech.jts.geom.GeometryFactory();
+        return pointLocator.locate(new Coordinate(longitude, latitude)) == Location.INTERIOR;
+    }
+
+    /**
+     * Checks if a line segment (the path between two GPS pings) touches this zone.
+     *
+     * Uses the prepared geometry, so only the polygon edges near the segment are tested.
+     *
+     * @param segment Segment in (longitude, latitude) coordinates
+     * @return true if the segment intersects the zone (interior or boundary)
+     */
+    public boolean intersects(LineString segment) {
+        return preparedGeometry != null && preparedGeometry.intersects(segment);
+    }
+
+    /**
+     * Where a segment first enters this zone: the point of its intersection with the
+     * polygon closest to the segment start (the start itself if it is inside).
+     *
+     * Computed from the ring edges directly - one segment/segment test per edge, no
+     * overlay. Segment.intersection(polygon) built a full JTS overlay graph of the
+     * polygon for every call, which on traced zones with thousands of vertices cost
+     * far more than finding the crossing in the first place.
+     *
+     * @param segment Segment in (longitude, latitude) coordinates, from the earlier ping
+     * @return Entry point (x = longitude, y = latitude), or null if the segment doesn't intersect
+     */
+    public Coordinate entryPoint(LineString segment) {
+        if (geometry == null || geometry.isEmpty()) {
+            return null;
+        }
+
+        Coordinate start = segment.getCoordinateN(0);
+        Coordinate end = segment.getCoordinateN(segment.getNumPoints() - 1);
+        if (pointLocator.locate(start) != Location.EXTERIOR) {
+            return start.copy();
+        }
 
-        org.locationtech.jts.geom.Coordinate coord =
-            new org.locationtech.jts.geom.Coordinate(longitude, latitude);
+        double dx = end.x - start.x;
+        double dy = end.y - start.y;
+        double first = Double.POSITIVE_INFINITY;
+        for (int r = 0; r <= geometry.getNumInteriorRing(); r++) {
+            CoordinateSequence ring = (r == 0 ? geometry.getExteriorRing() : geometry.getInteriorRingN(r - 1))
+                .getCoordinateSequence();
+            for (int i = 0; i < ring.size() - 1; i++) {
+                first = Math.min(first, crossingFraction(start.x, start.y, dx, dy,
+                    ring.getX(i), ring.getY(i), ring.getX(i + 1), ring.getY(i + 1)));
+            }
+        }
 
-        org.locationtech.jts.geom.Point point = geometryFactory.createPoint(coord);
+        if (first == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        return new Coordinate(start.x + first * dx, start.y + first * dy);
+    }
+
+    /**
+     * Fraction t in [0, 1] of the segment start + t * (dx, dy) where it first meets
+     * the edge (ax, ay) - (bx, by), or +infinity if they don't meet.
+     */
+    private static double crossingFraction(double px, double py, double dx, double dy,
+                                           double ax, double ay, double bx, double by) {
+        double ex = bx - ax;
+        double ey = by - ay;
+        double wx = ax - px;
+        double wy = ay - py;
+        double denominator = dx * ey - dy * ex;
 
-        // JTS contains() method - highly optimized
-        return geometry.contains(point);
+        if (denominator != 0) {
+            double t = (wx * ey - wy * ex) / denominator;
+            double u = (wx * dy - wy * dx) / denominator;
+            return t >= 0 && t <= 1 && u >= 0 && u <= 1 ? t : Double.POSITIVE_INFINITY;
+        }
+
+        // Parallel: they only meet if collinear, where the nearer end of the overlap counts
+        double lengthSquared = dx * dx + dy * dy;
+        if (wx * dy - wy * dx != 0 || lengthSquared == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double ta = (wx * dx + wy * dy) / lengthSquared;
+        double tb = ((bx - px) * dx + (by - py) * dy) / lengthSquared;
+        double low = Math.max(Math.min(ta, tb), 0);
+        double high = Math.min(Math.max(ta, tb), 1);
+        return low <= high ? low : Double.POSITIVE_INFINITY;
     }
 
     /**
@@ -0,0 +1,17 @@
+package com.geofencing.engine.dto;
+
+/**
+ * A zone near a GPS point, with its distance (for "approaching zone" warnings).
+ *
+ * @param zoneId         Database ID of the zone
+ * @param name           Zone name
+ * @param severity       Severity level (HIGH, MEDIUM, LOW)
+ * @param distanceMeters Distance from the point to the zone, in metres (0 if the point is inside)
+ */
+public record NearbyZoneRecord(
+    Long zoneId,
+    String name,
+    String severity,
+    double distanceMeters
+) {
+}
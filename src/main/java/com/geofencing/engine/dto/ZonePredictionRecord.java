@@ -0,0 +1,34 @@
+package com.geofencing.engine.dto;
+
+import java.time.Instant;
+
+/**
+ * Immutable record of a predicted zone entry: the scooter is heading into the zone.
+ *
+ * Published on /topic/alerts as PREDICTED_ENTRY, so riders can be warned before
+ * they enter a zone rather than after (see PredictiveZoneAlerter).
+ *
+ * @param scooterId      The scooter
+ * @param zoneId         The zone on the projected path
+ * @param zoneName       Human-readable zone name
+ * @param severity       Severity level from the zone configuration
+ * @param latitude       Scooter position of the ping the prediction is based on
+ * @param longitude      See latitude
+ * @param entryLatitude  Where the projected path enters the zone
+ * @param entryLongitude See entryLatitude
+ * @param secondsToEntry Time until entry at the current speed and heading
+ * @param timestamp      GPS time of the ping
+ */
+public record ZonePredictionRecord(
+    String scooterId,
+    long zoneId,
+    String zoneName,
+    String severity,
+    double latitude,
+    double longitude,
+    double entryLatitude,
+    double entryLongitude,
+    double secondsToEntry,
+    Instant timestamp
+) {
+}
@@ -0,0 +1,36 @@
+package com.geofencing.engine.dto;
+
+import com.geofencing.engine.service.ZoneTransitionType;
+
+import java.time.Instant;
+
+/**
+ * Immutable record of a scooter entering, dwelling in, or leaving a zone.
+ *
+ * Published on /topic/alerts next to violation alerts, so dashboards can show
+ * where scooters are, not just where they broke the rules.
+ *
+ * @param type         ENTER, DWELL_EXCEEDED, EXIT or CROSSED
+ * @param scooterId    The scooter
+ * @param zoneId       The zone entered, dwelt in or left
+ * @param zoneName     Human-readable zone name
+ * @param severity     Severity level from the zone configuration
+ * @param latitude     Scooter position of the ping that caused the transition
+ *                     (last known position for a timeout EXIT, estimated entry
+ *                     point for CROSSED)
+ * @param longitude    See latitude
+ * @param timestamp    GPS time of that ping (interpolated entry time for CROSSED)
+ * @param dwellSeconds Time spent in the zone so far (0 for ENTER)
+ */
+public record ZoneTransitionRecord(
+    ZoneTransitionType type,
+    String scooterId,
+    long zoneId,
+    String zoneName,
+    String severity,
+    double latitude,
+    double longitude,
+    Instant timestamp,
+    long dwellSeconds
+) {
+}
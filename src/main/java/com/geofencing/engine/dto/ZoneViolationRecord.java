@@ -1,5 +1,7 @@
 package com.geofencing.engine.dto;
 
+import com.geofencing.engine.spatial.ZoneGeometryProfile;
+
 import java.time.Instant;
 
 /**
@@ -21,7 +23,9 @@ import java.time.Instant;
  * @param longitude        GPS longitude where violation occurred
  * @param timestamp        When the violation was detected
  * @param severity         Severity level from the zone configuration
- * @param distanceToCenter Distance from scooter to zone center in meters (optional)
+ * @param distanceToCenter   Distance from scooter to zone centroid in meters (optional)
+ * @param distanceToBoundary Distance from scooter to the nearest zone edge in meters, i.e. how
+ *                           deep inside the zone it is (optional)
  */
 public record ZoneViolationRecord(
     String violationId,
@@ -32,7 +36,8 @@ public record ZoneViolationRecord(
     Double longitude,
     Instant timestamp,
     String severity,
-    Double distanceToCenter
+    Double distanceToCenter,
+    Double distanceToBoundary
 ) {
 
     /**
@@ -44,7 +49,30 @@ public record ZoneViolationRecord(
         String zoneName,
         String severity
     ) {
-        String violationId = generateViolationId(gpsEvent.scooterId(), gpsEvent.timestamp());
+        return fromGpsEvent(gpsEvent, zoneId, zoneName, severity, null);
+    }
+
+    /**
+     * Factory method for creating graded violations: distances are computed from the
+     * zone's precomputed profile (no allocation besides the record itself).
+     *
+     * @param profile Zone profile, or null if unknown (distances stay null)
+     */
+    public static ZoneViolationRecord fromGpsEvent(
+        GpsEventRecord gpsEvent,
+        Long zoneId,
+        String zoneName,
+        String severity,
+        ZoneGeometryProfile profile
+    ) {
+        String violationId = generateViolationId(gpsEvent.scooterId(), zoneId, gpsEvent.timestamp());
+
+        Double distanceToCenter = null;
+        Double distanceToBoundary = null;
+        if (profile != null) {
+            distanceToCenter = profile.distanceToCenterMeters(gpsEvent.latitude(), gpsEvent.longitude());
+            distanceToBoundary = profile.distanceToBoundaryMeters(gpsEvent.latitude(), gpsEvent.longitude());
+        }
 
         return new ZoneViolationRecord(
             violationId,
@@ -55,16 +83,20 @@ public record ZoneViolationRecord(
             gpsEvent.longitude(),
             gpsEvent.timestamp(),
             severity,
-            null // Distance calculation can be added later if needed
+            distanceToCenter,
+            distanceToBoundary
         );
     }
 
     /**
-     * Generates a unique violation ID from scooter ID and timestamp.
-     * Format: {scooterId}_{epochMillis}
+     * Generates a unique violation ID from scooter ID, zone ID and timestamp.
+     * Format: {scooterId}_{zoneId}_{epochMillis}
+     *
+     * The zone is part of the ID: a ping inside overlapping zones raises one violation
+     * per zone, and the writers treat an ID they already stored as a duplicate.
      */
-    private static String generateViolationId(String scooterId, Instant timestamp) {
-        return String.format("%s_%d", scooterId, timestamp.toEpochMilli());
+    private static String generateViolationId(String scooterId, Long zoneId, Instant timestamp) {
+        return String.format("%s_%d_%d", scooterId, zoneId, timestamp.toEpochMilli());
     }
 
     /**
@@ -20,6 +20,7 @@ import java.time.Instant;
  * Performance Strategy:
  * - Violations are batched in memory and persisted asynchronously
  * - Indexes optimize common queries (by scooter, by zone, by time)
+ * - The table is partitioned by day on timestamp (V2 migration, ViolationPartitionManager)
  * - Denormalized fields avoid JOIN overhead in analytics queries
  */
 @Entity
@@ -44,9 +45,12 @@ public class ZoneViolation {
 
     /**
      * Unique identifier for this violation event.
-     * Format: {scooterId}_{epochMillis}
+     * Format: {scooterId}_{zoneId}_{epochMillis}
+     *
+     * Unique together with timestamp (the table is partitioned by timestamp,
+     * see V2 migration).
      */
-    @Column(name = "violation_id", nullable = false, unique = true)
+    @Column(name = "violation_id", nullable = false)
     private String violationId;
 
     /**
@@ -94,6 +98,12 @@ public class ZoneViolation {
     @Column(name = "distance_to_center")
     private Double distanceToCenter;
 
+    /**
+     * Optional: Distance from scooter to the nearest zone edge (meters)
+     */
+    @Column(name = "distance_to_boundary")
+    private Double distanceToBoundary;
+
     /**
      * When this record was created in the database
      */
@@ -51,6 +51,11 @@ public interface NoParkingZoneRepository extends JpaRepository<NoParkingZone, Lo
      * - With GiST index: ~1-5ms for 1000 zones
      * - Without index: ~100-500ms (50-100x slower)
      *
+     * Boundary points: ST_Contains never counts a point on the zone's boundary, like
+     * the JTS kernel. The FLAT kernel counts some edge points as inside (see
+     * FlatPolygonStore); that disagreement is accepted, so an exact-edge fix may be
+     * answered differently here than from the in-memory index.
+     *
      * @param longitude GPS longitude in decimal degrees (-180 to 180)
      * @param latitude  GPS latitude in decimal degrees (-90 to 90)
      * @return List of zones containing this point (usually 0-1 zones)
@@ -0,0 +1,101 @@
+package com.geofencing.engine.repository;
+
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Multi-row INSERT writer for zone violations.
+ *
+ * Why not ZoneViolationRepository.saveAll()?
+ * - ZoneViolation uses GenerationType.IDENTITY, so Hibernate must read back every
+ *   generated id and silently disables JDBC batching (jdbc.batch_size is ignored)
+ * - saveAll() of 500 violations = 500 INSERT round trips
+ *
+ * This writer sends one statement per chunk:
+ *   INSERT INTO zone_violations (...) VALUES (...), (...), ... ON CONFLICT (violation_id, timestamp) DO NOTHING
+ *
+ * ON CONFLICT makes a retried batch idempotent. The unique key includes timestamp
+ * because zone_violations is partitioned by it (see V2 migration). violation_id
+ * includes the zone, so violations of one ping in overlapping zones don't conflict.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ZoneViolationBatchWriter {
+
+    // PostgreSQL allows 65535 bind parameters per statement (10 per row)
+    private static final int MAX_ROWS_PER_STATEMENT = 1000;
+
+    private static final String INSERT_PREFIX = """
+        INSERT INTO zone_violations
+            (violation_id, scooter_id, zone_id, zone_name, latitude, longitude,
+             timestamp, severity, distance_to_center, distance_to_boundary)
+        VALUES\s""";
+
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SUFFIX = " ON CONFLICT (violation_id, timestamp) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Inserts the violations using as few statements as possible.
+     *
+     * @return Number of rows inserted (duplicates are skipped)
+     */
+    public int insertAll(List<ZoneViolationRecord> violations) {
+        int inserted = 0;
+
+        for (int from = 0; from < violations.size(); from += MAX_ROWS_PER_STATEMENT) {
+            List<ZoneViolationRecord> chunk =
+                violations.subList(from, Math.min(from + MAX_ROWS_PER_STATEMENT, violations.size()));
+            inserted += insertChunk(chunk);
+        }
+
+        return inserted;
+    }
+
+    private int insertChunk(List<ZoneViolationRecord> chunk) {
+        StringBuilder sql = new StringBuilder(
+            INSERT_PREFIX.length() + chunk.size() * (ROW_PLACEHOLDER.length() + 2) + INSERT_SUFFIX.length());
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < chunk.size(); i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+        sql.append(INSERT_SUFFIX);
+
+        return jdbcTemplate.update(sql.toString(), ps -> {
+            int index = 1;
+            for (ZoneViolationRecord violation : chunk) {
+                ps.setString(index++, violation.violationId());
+                ps.setString(index++, violation.scooterId());
+                ps.setLong(index++, violation.zoneId());
+                ps.setString(index++, violation.zoneName());
+                ps.setDouble(index++, violation.latitude());
+                ps.setDouble(index++, violation.longitude());
+                ps.setTimestamp(index++, Timestamp.from(violation.timestamp()));
+                ps.setString(index++, violation.severity());
+                setNullableDouble(ps, index++, violation.distanceToCenter());
+                setNullableDouble(ps, index++, violation.distanceToBoundary());
+            }
+        });
+    }
+
+    private static void setNullableDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value != null) {
+            ps.setDouble(index, value);
+        } else {
+            ps.setNull(index, Types.DOUBLE);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.geofencing.engine.repository;
+
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import lombok.RequiredArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * Bulk ingest of zone violations with PostgreSQL COPY (binary format).
+ *
+ * Why COPY?
+ * - One multi-row INSERT still has to be parsed, planned and bound (9 params per row)
+ * - COPY streams rows straight into the table: no SQL per row, no bind parameters
+ * - Binary format skips text parsing of doubles and timestamps on the server
+ * - Typically 3-5x the rows/second of multi-row INSERTs for large bursts
+ *
+ * Trade-off: COPY has no ON CONFLICT. A batch containing an already written
+ * violation_id fails as a whole; the caller then falls back to
+ * ZoneViolationBatchWriter (which skips duplicates).
+ *
+ * Binary COPY layout:
+ * <pre>
+ *   header:  "PGCOPY\n\377\r\n\0", int32 flags (0), int32 extension length (0)
+ *   tuple:   int16 field count, then per field int32 length (-1 = NULL) + bytes
+ *   trailer: int16 -1
+ * </pre>
+ */
+@Repository
+@RequiredArgsConstructor
+public class ZoneViolationCopyWriter {
+
+    private static final String COPY_SQL = """
+        COPY zone_violations
+            (violation_id, scooter_id, zone_id, zone_name, latitude, longitude,
+             timestamp, severity, distance_to_center, distance_to_boundary)
+        FROM STDIN (FORMAT BINARY)""";
+
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0};
+    private static final short FIELD_COUNT = 10;
+
+    // PostgreSQL timestamps are microseconds since 2000-01-01 00:00:00
+    private static final LocalDateTime POSTGRES_EPOCH = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Streams the violations into zone_violations with a single COPY.
+     *
+     * @return Number of rows copied
+     * @throws org.springframework.dao.DataAccessException if the COPY fails (nothing is written)
+     */
+    public long copyAll(List<ZoneViolationRecord> violations) {
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            CopyIn copyIn = copyManager.copyIn(COPY_SQL);
+            try {
+                ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+                encodeHeader(buffer);
+
+                for (ZoneViolationRecord violation : violations) {
+                    if (buffer.remaining() < maxRowSize(violation)) {
+                        flush(copyIn, buffer);
+                    }
+                    encodeRow(buffer, violation);
+                }
+
+                buffer.putShort((short) -1);
+                flush(copyIn, buffer);
+                return copyIn.endCopy();
+            } catch (SQLException | RuntimeException e) {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                throw e;
+            }
+        });
+        return copied != null ? copied : 0L;
+    }
+
+    private static void flush(CopyIn copyIn, ByteBuffer buffer) throws SQLException {
+        copyIn.writeToCopy(buffer.array(), 0, buffer.position());
+        buffer.clear();
+    }
+
+    static void encodeHeader(ByteBuffer buffer) {
+        buffer.put(SIGNATURE);
+        buffer.putInt(0); // flags
+        buffer.putInt(0); // header extension length
+    }
+
+    static void encodeRow(ByteBuffer buffer, ZoneViolationRecord violation) {
+        buffer.putShort(FIELD_COUNT);
+        putText(buffer, violation.violationId());
+        putText(buffer, violation.scooterId());
+        putInt64(buffer, violation.zoneId());
+        putText(buffer, violation.zoneName());
+        putFloat8(buffer, violation.latitude());
+        putFloat8(buffer, violation.longitude());
+        putTimestamp(buffer, toPostgresTimestamp(violation));
+        putText(buffer, violation.severity());
+        putFloat8(buffer, violation.distanceToCenter());
+        putFloat8(buffer, violation.distanceToBoundary());
+    }
+
+    /**
+     * Worst-case encoded size of a row (UTF-8 is at most 3 bytes per char).
+     */
+    private static int maxRowSize(ZoneViolationRecord violation) {
+        int size = 2 + 10 * 4 + 8 * 6;
+        size += textSize(violation.violationId());
+        size += textSize(violation.scooterId());
+        size += textSize(violation.zoneName());
+        size += textSize(violation.severity());
+        if (size > BUFFER_SIZE) {
+            throw new IllegalArgumentException("Violation too large for COPY buffer: " + violation.violationId());
+        }
+        return size;
+    }
+
+    private static int textSize(String value) {
+        return value != null ? value.length() * 3 : 0;
+    }
+
+    /**
+     * The column is TIMESTAMP (without time zone). Like the JDBC/JPA paths, it
+     * stores the JVM-local wall-clock time of the instant.
+     */
+    private static long toPostgresTimestamp(ZoneViolationRecord violation) {
+        LocalDateTime local = LocalDateTime.ofInstant(violation.timestamp(), ZoneId.systemDefault());
+        return ChronoUnit.MICROS.between(POSTGRES_EPOCH.toInstant(ZoneOffset.UTC), local.toInstant(ZoneOffset.UTC));
+    }
+
+    private static void putText(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static void putInt64(ByteBuffer buffer, Long value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(8);
+        buffer.putLong(value);
+    }
+
+    private static void putTimestamp(ByteBuffer buffer, long value) {
+        buffer.putInt(8);
+        buffer.putLong(value);
+    }
+
+    private static void putFloat8(ByteBuffer buffer, Double value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(8);
+        buffer.putDouble(value);
+    }
+}
@@ -2,15 +2,23 @@ package com.geofencing.engine.service;
 
 import com.geofencing.engine.dto.CachedZoneRecord;
 import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.NearbyZoneRecord;
 import com.geofencing.engine.dto.ZoneViolationRecord;
 import com.geofencing.engine.entity.NoParkingZone;
 import com.geofencing.engine.entity.ZoneViolation;
 import com.geofencing.engine.repository.NoParkingZoneRepository;
 import com.geofencing.engine.repository.ZoneViolationRepository;
+import com.geofencing.engine.service.ScooterZoneStateTracker.ZoneRef;
+import com.geofencing.engine.spatial.GeoDistance;
+import com.geofencing.engine.spatial.ZoneGeometryProfile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -23,15 +31,19 @@ import java.util.List;
  *
  * Architecture (UPDATED with Redis Caching):
  * 1. Receives GPS events from WebSocket
- * 2. Checks zones from Redis cache (in-memory point-in-polygon)
- * 3. Falls back to PostGIS if cache miss
- * 4. Checks for duplicate violations (rate limiting)
- * 5. Persists violations to database
- * 6. Returns violation records for real-time alerts
+ * 2. Checks zones from the node-local zone snapshot (in-memory point-in-polygon),
+ *    skipped while a scooter stays within its safe radius (see MotionGate)
+ * 3. Falls back to PostGIS only if the zone engine is unavailable (COLD/DEGRADED)
+ * 4. Tracks each scooter's zone state - only zone ENTRY raises a violation
+ *    (ENTER/DWELL/EXIT transitions, see ScooterZoneStateTracker)
+ * 5. Checks for duplicate violations (in-memory rate limiting, see ViolationDeduplicator)
+ * 6. Queues violations for batched, asynchronous persistence (ViolationWriteBehindService)
+ * 7. Returns violation records for real-time alerts
  *
  * Performance Strategy:
- * - PRIMARY: Redis cache + JTS in-memory checks (~0.1ms per event)
- * - FALLBACK: PostGIS spatial queries if cache miss (~5ms per event)
+ * - PRIMARY: In-memory STRtree index + JTS checks (~0.002ms per event)
+ * - FALLBACK: PostGIS spatial queries if the cache is unavailable (~5ms per event)
+ *   A READY cache that finds no containing zone is authoritative - no DB query
  * - Rate limiting prevents duplicate alerts for the same scooter/zone
  *
  * Performance Improvement:
@@ -50,9 +62,83 @@ import java.util.List;
 @Slf4j
 public class GeoFencingService {
 
+    /**
+     * GPS events older than this are stale and ignored.
+     */
+    public static final int MAX_EVENT_AGE_SECONDS = 60;
+
+    /**
+     * GPS readings less accurate than this are ignored.
+     */
+    public static final double MAX_ACCURACY_METERS = 50.0;
+
     private final NoParkingZoneRepository zoneRepository;
     private final ZoneViolationRepository violationRepository;
-    private final ZoneCacheService zoneCacheService;
+    private final ZoneLookupEngine zoneLookupEngine;
+    private final ViolationDeduplicator violationDeduplicator;
+    private final ScooterZoneStateTracker scooterZoneStateTracker;
+    private final MotionGate motionGate;
+    private final TrajectoryCrossingDetector trajectoryCrossingDetector;
+    private final PredictiveZoneAlerter predictiveZoneAlerter;
+    private final ViolationWriteBehindService violationWriteBehindService;
+    private final MeterRegistry meterRegistry;
+
+    // PostGIS queries issued because the zone engine was not READY
+    private Counter fallbackQueryCounter;
+    private Counter batchEventFailureCounter;
+    private DistributionSummary batchSizeSummary;
+
+    @PostConstruct
+    void registerMetrics() {
+        fallbackQueryCounter = Counter.builder("geofencing.zone.fallback.queries")
+            .description("GPS checks answered by PostGIS because the zone engine was not READY")
+            .register(meterRegistry);
+        batchEventFailureCounter = Counter.builder("geofencing.gps.batch.failures")
+            .description("Batch events whose check threw, skipped without failing the batch")
+            .register(meterRegistry);
+        batchSizeSummary = DistributionSummary.builder("geofencing.gps.batch.size")
+            .description("GPS events per batch check")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Result of a batch check.
+     *
+     * @param received   Events in the batch
+     * @param invalid    Events rejected by validation (stale, inaccurate, no coordinates),
+     *                   whose check failed, or that were never checked (lane full)
+     * @param violations New (non-duplicate) violations, already queued for persistence
+     */
+    public record BatchCheckResult(int received, int invalid, List<ZoneViolationRecord> violations) {
+        public int accepted() {
+            return received - invalid;
+        }
+
+        /**
+         * Result for events that were never checked (their GPS lane was full): none accepted.
+         */
+        public static BatchCheckResult rejected(int received) {
+            return new BatchCheckResult(received, received, List.of());
+        }
+
+        /**
+         * Sums the results of a batch checked in parts (one per GPS lane).
+         */
+        public static BatchCheckResult merge(List<BatchCheckResult> parts) {
+            if (parts.size() == 1) {
+                return parts.get(0);
+            }
+            int received = 0;
+            int invalid = 0;
+            List<ZoneViolationRecord> violations = new ArrayList<>();
+            for (BatchCheckResult part : parts) {
+                received += part.received();
+                invalid += part.invalid();
+                violations.addAll(part.violations());
+            }
+            return new BatchCheckResult(received, invalid, violations);
+        }
+    }
 
     /**
      * Checks if a GPS point violates any no-parking zones.
@@ -61,17 +147,23 @@ public class GeoFencingService {
      *
      * Flow (UPDATED with caching):
      * 1. Validate GPS event
-     * 2. Try cache: Check cached zones using in-memory JTS point-in-polygon
-     * 3. If cache miss: Fall back to PostGIS query
-     * 4. For each violated zone, check if it's a duplicate
-     * 5. Persist new violations
-     * 6. Return violation records for alerting
+     * 2. If the zone engine is READY: reuse the zones of the scooter's last evaluated
+     *    ping if it hasn't left that ping's safe radius (MotionGate), otherwise check
+     *    the in-memory snapshot (authoritative, even when no zone contains the point)
+     * 3. If the zone engine is COLD/DEGRADED (or fails): fall back to PostGIS query
+     * 4. Compare with the scooter's zone state: only newly entered zones continue
+     *    (in SEGMENT crossing mode, zones passed through between pings are reported too;
+     *    moving scooters are also warned about the zone ahead - PredictiveZoneAlerter)
+     * 5. For each entered zone, check if it's a duplicate
+     * 6. Queue new violations for persistence (write-behind, no DB wait)
+     * 7. Return violation records for alerting
      *
      * Performance:
      * - Cache hit: ~0.1-0.5ms per event (JTS in-memory)
      * - Cache miss: ~5-10ms per event (PostGIS fallback)
      * - Cache hit rate: >99% in production
-     * - Duplicate check: ~1ms (indexed query)
+     * - Duplicate check: ~50ns (in-memory, ViolationDeduplicator)
+     * - Persistence: enqueue only - inserts are batched by ViolationWriteBehindService
      *
      * Throughput:
      * - Single thread: ~2000-5000 events/second (with cache)
@@ -81,62 +173,229 @@ public class GeoFencingService {
      * @param gpsEvent The GPS event from a scooter
      * @return List of detected violations (empty if no violations)
      */
-    @Transactional
     public List<ZoneViolationRecord> checkZoneViolation(GpsEventRecord gpsEvent) {
         log.debug("Checking zone violation for: {}", gpsEvent.toLogString());
 
         // Validate GPS event
-        if (!isValidGpsEvent(gpsEvent)) {
+        if (!isValidGpsEvent(gpsEvent, false)) {
             log.warn("Invalid GPS event received: {}", gpsEvent);
             return List.of();
         }
 
+        List<ZoneViolationRecord> violations = detectViolations(gpsEvent, false);
+
+        // Persist asynchronously (batched multi-row INSERT)
+        violationWriteBehindService.enqueueAll(violations);
+
+        return violations;
+    }
+
+    /**
+     * Checks a batch of GPS events (e.g. ~200 pings buffered by a gateway) in one pass.
+     *
+     * Compared to calling checkZoneViolation() per event:
+     * - One loop: validate, probe the zone index, deduplicate - per event, in order
+     * - All new violations are handed to the write-behind queue together
+     * - The caller sends one aggregated ack instead of one per event
+     *
+     * Events are processed in list order, so per-scooter ordering within the
+     * batch is preserved.
+     *
+     * Each event is checked on its own: one that throws (e.g. a zone lookup error) is
+     * logged, counted as invalid and skipped. The violations already detected for the
+     * rest of the batch have claimed their dedup entries and zone ENTERs, so they must
+     * still be queued - failing the whole batch would lose them for good.
+     *
+     * @param gpsEvents GPS events, in the order they were recorded
+     * @return Aggregated result (counts + new violations)
+     */
+    public BatchCheckResult checkZoneViolations(List<GpsEventRecord> gpsEvents) {
+        return checkZoneViolations(gpsEvents, false);
+    }
+
+    /**
+     * Checks a batch of GPS events, optionally as a replay of historical data.
+     *
+     * A replay (e.g. a gateway re-sending a day of buffered pings) skips the
+     * staleness check - every event would be older than MAX_EVENT_AGE_SECONDS.
+     * It also bypasses the live zone state (ScooterZoneStateTracker): historical
+     * pings must not move scooters in or out of zones now. Every replayed ping
+     * inside a zone is a violation candidate, limited by the dedup window.
+     * All other validation still applies.
+     *
+     * @param gpsEvents GPS events, in the order they were recorded
+     * @param replay    true to accept events regardless of their age
+     * @return Aggregated result (counts + new violations)
+     */
+    public BatchCheckResult checkZoneViolations(List<GpsEventRecord> gpsEvents, boolean replay) {
+        batchSizeSummary.record(gpsEvents.size());
+
+        List<ZoneViolationRecord> violations = new ArrayList<>();
+        int invalid = 0;
+
+        for (GpsEventRecord gpsEvent : gpsEvents) {
+            if (!isValidGpsEvent(gpsEvent, replay)) {
+                invalid++;
+                continue;
+            }
+            try {
+                violations.addAll(detectViolations(gpsEvent, replay));
+            } catch (RuntimeException e) {
+                invalid++;
+                batchEventFailureCounter.increment();
+                log.error("Failed to check GPS event in batch, skipping it: {}", gpsEvent.toLogString(), e);
+            }
+        }
+
+        violationWriteBehindService.enqueueAll(violations);
+
+        log.debug("Checked GPS batch: {} events, {} invalid, {} violations",
+            gpsEvents.size(), invalid, violations.size());
+
+        return new BatchCheckResult(gpsEvents.size(), invalid, violations);
+    }
+
+    /**
+     * Cheap pre-check on raw coordinates, before a GpsEventRecord is built.
+     *
+     * Returns false only when the READY zone engine knows no zone contains the
+     * point - such a ping can't produce a violation and needs no further work.
+     * Returns true for a zone hit, or whenever the engine is COLD/DEGRADED (the
+     * PostGIS fallback in checkZoneViolations() has to decide).
+     *
+     * Allocation-free for misses (see ZoneSpatialIndex.containsAny()), which lets the
+     * binary ingest path skip the ~99% of pings that are outside every zone without
+     * creating a single object. Callers skip the probe while checksEveryPing().
+     */
+    /**
+     * Whether every ping has to go through checkZoneViolations(), misses included.
+     *
+     * True in SEGMENT crossing mode: a zone can lie between two pings that are both
+     * outside every zone, and each ping starts the next segment, so mayViolateZone()
+     * can't be used to drop pings.
+     */
+    public boolean checksEveryPing() {
+        return trajectoryCrossingDetector.tracksSegments();
+    }
+
+    public boolean mayViolateZone(double latitude, double longitude) {
+        if (zoneLookupEngine.state().requiresDatabaseFallback()) {
+            return true;
+        }
+        try {
+            return zoneLookupEngine.anyContainingZone(latitude, longitude);
+        } catch (Exception e) {
+            log.error("Error probing zone index, deferring to full check", e);
+            return true;
+        }
+    }
+
+    /**
+     * Detects new (non-duplicate) violations for a validated GPS event.
+     * Does not persist them - callers queue the result for persistence.
+     *
+     * Live pings go through the scooter's zone state: only zones the scooter just
+     * ENTERED can raise a violation, so a scooter parked in a zone costs one state
+     * comparison per ping instead of a dedup lookup. The dedup window still guards
+     * the entries themselves (e.g. GPS jitter across a zone boundary).
+     */
+    private List<ZoneViolationRecord> detectViolations(GpsEventRecord gpsEvent, boolean replay) {
+        // Still within the safe radius of the last evaluated position: same zones, no geometry
+        List<ZoneRef> containingZones = replay ? null : motionGate.reuse(gpsEvent);
+        boolean withinSafeRadius = containingZones != null;
+        if (!withinSafeRadius) {
+            containingZones = findContainingZones(gpsEvent, !replay);
+        }
+
+        if (!replay) {
+            // SEGMENT mode: zones passed through since the previous ping (CROSSED alerts)
+            trajectoryCrossingDetector.update(gpsEvent, containingZones, withinSafeRadius);
+            // Warn about the zone ahead on the scooter's heading (PREDICTED_ENTRY alerts)
+            predictiveZoneAlerter.predict(gpsEvent, containingZones);
+        }
+
+        List<ZoneRef> candidateZones = replay
+            ? containingZones
+            : scooterZoneStateTracker.update(gpsEvent, containingZones);
+
+        if (candidateZones.isEmpty()) {
+            return List.of();
+        }
+
+        List<ZoneViolationRecord> violations = new ArrayList<>(candidateZones.size());
+        for (ZoneRef zone : candidateZones) {
+            ZoneViolationRecord violation = processViolation(gpsEvent, zone);
+            if (violation != null) {
+                violations.add(violation);
+            }
+        }
+
+        return violations;
+    }
+
+    /**
+     * Zones containing the GPS point: from the in-memory snapshot if the zone
+     * engine is READY (authoritative, even when empty), otherwise from PostGIS.
+     *
+     * @param anchor Whether to anchor the scooter's motion gate at this ping
+     *               (only for live pings answered from the snapshot)
+     */
+    private List<ZoneRef> findContainingZones(GpsEventRecord gpsEvent, boolean anchor) {
+        long snapshotVersion = zoneLookupEngine.currentVersion();
+
         // Try cache first (PERFORMANCE BOOST!)
         List<CachedZoneRecord> violatedCachedZones = checkViolationWithCache(gpsEvent);
 
-        // If cache is empty or returned no results, fall back to database
-        List<ZoneViolationRecord> violations = new ArrayList<>();
+        if (violatedCachedZones == null) {
+            // Cache unavailable - fall back to database query
+            fallbackQueryCounter.increment();
+            return checkViolationWithDatabase(gpsEvent);
+        }
 
-        if (violatedCachedZones != null && !violatedCachedZones.isEmpty()) {
-            // Process cached zones
+        // Cache is authoritative: an empty result means no zone contains the point
+        List<ZoneRef> zones = List.of();
+        if (!violatedCachedZones.isEmpty()) {
+            zones = new ArrayList<>(violatedCachedZones.size());
             for (CachedZoneRecord cachedZone : violatedCachedZones) {
-                violations.addAll(processViolation(gpsEvent, cachedZone));
+                zones.add(new ZoneRef(cachedZone.zoneId(), cachedZone.name(), cachedZone.severity(),
+                    cachedZone.profile()));
             }
-        } else {
-            // Fallback to database query
-            log.debug("Cache miss or empty, falling back to database query");
-            violations = checkViolationWithDatabase(gpsEvent);
         }
 
-        return violations;
+        if (anchor) {
+            motionGate.anchor(gpsEvent, zones, snapshotVersion);
+        }
+        return zones;
     }
 
     /**
      * Checks violation using cached zones (PRIMARY PATH - FAST).
      *
-     * This method uses in-memory JTS point-in-polygon checks on cached geometries.
+     * This method probes the node-local zone snapshot (ZoneLookupEngine) - no Redis
+     * round trips, no WKT parsing - and only runs the exact point-in-polygon test
+     * on zones whose envelope contains the point.
      *
-     * Performance: ~0.1-0.5ms for 1000 zones
-     * - Fetch all cached zones from Redis: ~10ms (one-time per batch)
-     * - JTS contains() check: ~0.001ms per zone
-     * - Total for single point: ~0.1ms
+     * Performance: ~1-2µs per point, independent of the number of zones
+     * - STRtree envelope filter: O(log n)
+     * - Prepared contains() check: only on the 0-2 candidate zones
+     *
+     * @return Containing zones (possibly empty), or null if the cache is unavailable
      */
     private List<CachedZoneRecord> checkViolationWithCache(GpsEventRecord gpsEvent) {
         try {
-            List<CachedZoneRecord> allCachedZones = zoneCacheService.getAllCachedZones();
-
-            if (allCachedZones.isEmpty()) {
-                return null; // Signal cache miss
+            ZoneEngineState state = zoneLookupEngine.state();
+            if (state.requiresDatabaseFallback()) {
+                log.debug("Zone engine {}, falling back to database query", state);
+                return null; // Signal cache unavailable
             }
 
-            List<CachedZoneRecord> violatedZones = new ArrayList<>();
+            List<CachedZoneRecord> violatedZones = zoneLookupEngine.findContainingZones(
+                gpsEvent.latitude(),
+                gpsEvent.longitude()
+            );
 
-            // In-memory point-in-polygon check using JTS
-            for (CachedZoneRecord zone : allCachedZones) {
-                if (zone.contains(gpsEvent.latitude(), gpsEvent.longitude())) {
-                    violatedZones.add(zone);
-                    log.debug("Cache hit: Zone {} contains point", zone.name());
-                }
+            for (CachedZoneRecord zone : violatedZones) {
+                log.debug("Cache hit: Zone {} contains point", zone.name());
             }
 
             return violatedZones;
@@ -148,14 +407,14 @@ public class GeoFencingService {
     }
 
     /**
-     * Checks violation using database query (FALLBACK PATH - SLOWER).
+     * Finds containing zones using a database query (FALLBACK PATH - SLOWER).
      *
      * This is the original implementation using PostGIS.
-     * Only called when cache is unavailable or empty.
+     * Only called when the zone engine is COLD or DEGRADED.
      *
      * Performance: ~5-10ms per GPS event
      */
-    private List<ZoneViolationRecord> checkViolationWithDatabase(GpsEventRecord gpsEvent) {
+    private List<ZoneRef> checkViolationWithDatabase(GpsEventRecord gpsEvent) {
         // Query PostGIS for zones containing this point
         List<NoParkingZone> violatedZones = zoneRepository.findZonesContainingPoint(
             gpsEvent.longitude(),
@@ -167,119 +426,41 @@ public class GeoFencingService {
             return List.of();
         }
 
-        // Process each violated zone
-        List<ZoneViolationRecord> violations = new ArrayList<>();
-
+        List<ZoneRef> zones = new ArrayList<>(violatedZones.size());
         for (NoParkingZone zone : violatedZones) {
-            // Check for duplicate
-            boolean isRecentViolation = violationRepository.hasRecentViolation(
-                gpsEvent.scooterId(),
-                zone.getId(),
-                Instant.now().minusSeconds(300)
-            );
-
-            if (isRecentViolation) {
-                log.debug("Duplicate violation (rate limited): scooter={}, zone={}",
-                    gpsEvent.scooterId(), zone.getName());
-                continue;
-            }
-
-            // Create and persist violation
-            ZoneViolationRecord violationRecord = createViolation(gpsEvent, zone);
-            violations.add(violationRecord);
-
-            log.info("Zone violation detected! Scooter: {}, Zone: {}, Severity: {}",
-                gpsEvent.scooterId(), zone.getName(), zone.getSeverity());
+            zones.add(new ZoneRef(zone.getId(), zone.getName(), zone.getSeverity(),
+                ZoneGeometryProfile.of(zone.getGeometry())));
         }
-
-        return violations;
+        return zones;
     }
 
     /**
-     * Processes a violation from cached zone data.
+     * Creates a violation for a zone the scooter entered, unless it is a duplicate.
+     *
+     * The record is written with a multi-row INSERT by the caller, not as a JPA
+     * entity: ZoneViolation's IDENTITY id would disable JDBC batching.
+     *
+     * @return The new violation, or null if it is a duplicate
      */
-    private List<ZoneViolationRecord> processViolation(
-        GpsEventRecord gpsEvent,
-        CachedZoneRecord cachedZone
-    ) {
-        // Check for duplicate violation
-        boolean isRecentViolation = violationRepository.hasRecentViolation(
-            gpsEvent.scooterId(),
-            cachedZone.zoneId(),
-            Instant.now().minusSeconds(300)
-        );
-
-        if (isRecentViolation) {
+    private ZoneViolationRecord processViolation(GpsEventRecord gpsEvent, ZoneRef zone) {
+        // Check for duplicate violation (in-memory, no DB round trip)
+        if (!violationDeduplicator.tryRecord(gpsEvent.scooterId(), zone.zoneId(), zone.severity())) {
             log.debug("Duplicate violation (rate limited): scooter={}, zone={}",
-                gpsEvent.scooterId(), cachedZone.name());
-            return List.of();
+                gpsEvent.scooterId(), zone.name());
+            return null;
         }
 
-        // Create violation record from cached data
-        ZoneViolationRecord violationRecord = ZoneViolationRecord.fromGpsEvent(
-            gpsEvent,
-            cachedZone.zoneId(),
-            cachedZone.name(),
-            cachedZone.severity()
-        );
-
-        // Persist to database
-        ZoneViolation entity = ZoneViolation.builder()
-            .violationId(violationRecord.violationId())
-            .scooterId(violationRecord.scooterId())
-            .zoneId(violationRecord.zoneId())
-            .zoneName(violationRecord.zoneName())
-            .latitude(violationRecord.latitude())
-            .longitude(violationRecord.longitude())
-            .timestamp(violationRecord.timestamp())
-            .severity(violationRecord.severity())
-            .distanceToCenter(violationRecord.distanceToCenter())
-            .build();
-
-        violationRepository.save(entity);
-
-        log.info("Zone violation detected (from cache)! Scooter: {}, Zone: {}, Severity: {}",
-            gpsEvent.scooterId(), cachedZone.name(), cachedZone.severity());
-
-        return List.of(violationRecord);
-    }
-
-    /**
-     * Creates a violation record from GPS event and zone data.
-     *
-     * This method:
-     * 1. Creates a ZoneViolationRecord (immutable DTO)
-     * 2. Converts it to ZoneViolation entity
-     * 3. Persists to database
-     * 4. Returns the record for caller to broadcast
-     *
-     * Design Pattern: DTO ↔ Entity conversion
-     * - Record: For business logic and transmission
-     * - Entity: For persistence
-     */
-    private ZoneViolationRecord createViolation(GpsEventRecord gpsEvent, NoParkingZone zone) {
-        // Create immutable violation record
+        // Graded with the zone's precomputed profile: distance to centre and to the nearest edge
         ZoneViolationRecord violationRecord = ZoneViolationRecord.fromGpsEvent(
             gpsEvent,
-            zone.getId(),
-            zone.getName(),
-            zone.getSeverity()
+            zone.zoneId(),
+            zone.name(),
+            zone.severity(),
+            zone.profile()
         );
 
-        // Convert to entity and persist
-        ZoneViolation entity = ZoneViolation.builder()
-            .violationId(violationRecord.violationId())
-            .scooterId(violationRecord.scooterId())
-            .zoneId(violationRecord.zoneId())
-            .zoneName(violationRecord.zoneName())
-            .latitude(violationRecord.latitude())
-            .longitude(violationRecord.longitude())
-            .timestamp(violationRecord.timestamp())
-            .severity(violationRecord.severity())
-            .distanceToCenter(violationRecord.distanceToCenter())
-            .build();
-
-        violationRepository.save(entity);
+        log.info("Zone violation detected! Scooter: {}, Zone: {}, Severity: {}",
+            gpsEvent.scooterId(), zone.name(), zone.severity());
 
         return violationRecord;
     }
@@ -291,16 +472,18 @@ public class GeoFencingService {
      * - Stale events (older than 60 seconds)
      * - Events with poor accuracy (> 50 meters)
      * - Events with invalid coordinates
+     *
+     * @param replay true to skip the staleness check (historical replay)
      */
-    private boolean isValidGpsEvent(GpsEventRecord gpsEvent) {
+    private boolean isValidGpsEvent(GpsEventRecord gpsEvent, boolean replay) {
         // Check if event is recent (within last 60 seconds)
-        if (!gpsEvent.isRecent(60)) {
+        if (!replay && !gpsEvent.isRecent(MAX_EVENT_AGE_SECONDS)) {
             log.warn("Stale GPS event rejected: {}", gpsEvent.toLogString());
             return false;
         }
 
         // Check GPS accuracy (if available)
-        if (!gpsEvent.hasAcceptableAccuracy(50.0)) {
+        if (!gpsEvent.hasAcceptableAccuracy(MAX_ACCURACY_METERS)) {
             log.warn("Poor GPS accuracy rejected: {}", gpsEvent.toLogString());
             return false;
         }
@@ -341,23 +524,44 @@ public class GeoFencingService {
     }
 
     /**
-     * Checks if a point is near any no-parking zone (warning system).
+     * Finds no-parking zones near a point (warning system).
      * Use case: "You are approaching a no-parking zone"
      *
+     * Answered from the in-memory zone snapshot when the zone engine is READY
+     * (STRtree probe + equirectangular distances, within 0.05% of PostGIS geography
+     * distances). Only falls back to the ST_DWithin geography query - which casts every
+     * active zone to geography - while the engine is COLD/DEGRADED.
+     *
      * @param latitude GPS latitude
      * @param longitude GPS longitude
      * @param warningDistanceMeters Distance threshold (e.g., 50 meters)
-     * @return List of nearby zones
+     * @return Nearby zones, nearest first
      */
-    public List<NoParkingZone> getZonesNearby(
+    public List<NearbyZoneRecord> getZonesNearby(
         double latitude,
         double longitude,
         double warningDistanceMeters
     ) {
-        return zoneRepository.findZonesWithinDistance(
+        if (!zoneLookupEngine.state().requiresDatabaseFallback()) {
+            return zoneLookupEngine.findZonesNearby(latitude, longitude, warningDistanceMeters);
+        }
+
+        fallbackQueryCounter.increment();
+        List<NoParkingZone> zones = zoneRepository.findZonesWithinDistance(
             longitude,
             latitude,
             warningDistanceMeters
         );
+
+        List<NearbyZoneRecord> nearby = new ArrayList<>(zones.size());
+        for (NoParkingZone zone : zones) {
+            // Already ordered by ST_Distance; the distance itself isn't returned by the query
+            double distance = zone.getGeometry().contains(zone.getGeometry().getFactory()
+                .createPoint(new Coordinate(longitude, latitude)))
+                ? 0
+                : GeoDistance.distanceToBoundaryMeters(zone.getGeometry(), latitude, longitude);
+            nearby.add(new NearbyZoneRecord(zone.getId(), zone.getName(), zone.getSeverity(), distance));
+        }
+        return nearby;
     }
 }
@@ -0,0 +1,639 @@
+package com.geofencing.engine.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Sharded, per-scooter ordered worker lanes for GPS event processing.
+ *
+ * Before: every STOMP message was processed synchronously on the
+ *         clientInboundChannel thread - slow detection stalled the broker.
+ *         A plain shared pool would fix that, but two pings of the same scooter
+ *         could then run concurrently and complete out of order, corrupting
+ *         dedup decisions and enter/exit state.
+ * After: the inbound thread only enqueues. Events are hashed by ordering key
+ *        (scooterId) onto one of N lanes; each lane has exactly one consumer
+ *        thread, so:
+ *        - events of one scooter are processed one at a time, in arrival order
+ *        - different scooters are processed in parallel on all lanes (cores)
+ *
+ * Lane design:
+ * - Lock-free ConcurrentLinkedQueue (many producers: broker threads; one consumer)
+ * - Bounded by an atomic depth counter (queue-capacity / lanes per lane)
+ * - Idle consumer parks; producers unpark it only when it is parked
+ *
+ * Multi-scooter batches (submitGrouped):
+ * A gateway batch mixes many scooters. Running it on one lane would put its pings
+ * on a different lane than the same scooters' single pings, so they could be
+ * processed concurrently and out of order. Instead the batch is split by lane
+ * (scooterId hash, order within the batch kept) and each part runs on its lane;
+ * the caller gets one future for all parts, to send one aggregated ack.
+ * Every transport that runs detection (STOMP, binary WebSocket, UDP, NDJSON
+ * ingest) goes through the lanes this way, so a scooter reporting on two
+ * transports at once still has a single consumer.
+ *
+ * Overload coalescing (submitLatest):
+ * When a lane falls behind, evaluating every queued ping of a scooter is wasted
+ * work - only its newest position decides whether it is parked in a zone.
+ * Each lane switches into coalescing mode on its own when its depth or lag
+ * (age of the oldest queued event) crosses the enter threshold, and back when
+ * both drop below the exit thresholds (hysteresis, so it doesn't flap):
+ * - The newest pending event per scooter is kept in a slot (concurrent slot map)
+ * - Each slot has exactly one lane entry, which runs whatever is in the slot when
+ *   it reaches the head; events replaced in the slot before that are dropped
+ *   before detection (superseded, not rejected - no error frame)
+ * - Per-scooter order is kept: a slot only takes newer events while nothing else
+ *   of the scooter is queued behind its entry. Any other submission for the
+ *   scooter (submit, submitGrouped, submitLatest outside coalescing mode) closes
+ *   the slot first, so the next coalesced event opens a fresh slot with a fresh
+ *   entry behind it instead of jumping ahead from the old entry's position
+ *
+ * Configuration (geofencing.processing.*):
+ * - thread-pool-size: number of lanes (0 = one per CPU core)
+ * - queue-capacity: total queued events across all lanes
+ * - rejection-policy: what happens when a lane is full (GpsRejectionPolicy)
+ * - coalescing.*: enabled, enter/exit depth (% of lane capacity), enter/exit lag
+ *
+ * Metrics (per lane, tag lane=0..N-1, to spot hot shards):
+ * - geofencing.gps.executor.queue.depth{lane}: events waiting in the lane
+ * - geofencing.gps.executor.wait{lane}: time from submit to processing start
+ * - geofencing.gps.executor.processing{lane}: time spent processing an event
+ * And for the executor:
+ * - geofencing.gps.executor.active: lanes currently processing an event
+ * - geofencing.gps.executor.rejections{policy}: events rejected or dropped
+ * - geofencing.gps.executor.coalesced: events superseded by a newer one of the same scooter
+ * - geofencing.gps.executor.coalescing{lane}: 1 while the lane is in coalescing mode
+ * - geofencing.gps.executor.coalescing.pending: scooters with a pending coalesced event
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GpsProcessingExecutor {
+
+    // Upper bound for an idle park, so shutdown is noticed without an unpark
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${geofencing.processing.thread-pool-size:0}")
+    private int threadPoolSize;
+
+    @Value("${geofencing.processing.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${geofencing.processing.rejection-policy:CALLER_RUNS}")
+    private GpsRejectionPolicy rejectionPolicy;
+
+    @Value("${geofencing.processing.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${geofencing.processing.coalescing.enabled:true}")
+    private boolean coalescingEnabled;
+
+    @Value("${geofencing.processing.coalescing.enter-depth-percent:50}")
+    private int enterDepthPercent;
+
+    @Value("${geofencing.processing.coalescing.exit-depth-percent:10}")
+    private int exitDepthPercent;
+
+    @Value("${geofencing.processing.coalescing.enter-lag-ms:500}")
+    private long enterLagMs;
+
+    @Value("${geofencing.processing.coalescing.exit-lag-ms:100}")
+    private long exitLagMs;
+
+    private Lane[] lanes;
+    private volatile boolean running;
+
+    // Open coalescing slot per ordering key, for lanes in coalescing mode
+    private final Map<String, LatestSlot> pendingLatest = new ConcurrentHashMap<>();
+
+    private Counter rejectionCounter;
+    private Counter coalescedCounter;
+
+    /**
+     * Queued task with its submit time and the callback for when it is rejected or dropped.
+     */
+    private final class GpsTask {
+        private final Runnable task;
+        private final Runnable onRejected;
+        private final long submittedAtNanos = System.nanoTime();
+
+        GpsTask(Runnable task, Runnable onRejected) {
+            this.task = task;
+            this.onRejected = onRejected;
+        }
+
+        void reject() {
+            rejectionCounter.increment();
+            notifyRejected();
+        }
+
+        void notifyRejected() {
+            if (onRejected != null) {
+                try {
+                    onRejected.run();
+                } catch (Exception e) {
+                    log.warn("GPS rejection callback failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Newest pending event of one key, run by the single lane entry queued with it.
+     *
+     * Open while it may still take newer events; closed once its entry ran or was
+     * rejected, or once another task was queued for the key behind its entry.
+     */
+    private static final class LatestSlot {
+        private GpsTask task;
+        private boolean open = true;
+
+        LatestSlot(GpsTask task) {
+            this.task = task;
+        }
+
+        /**
+         * Replaces the pending event; false if the slot is closed.
+         */
+        synchronized boolean offer(GpsTask newer) {
+            if (!open) {
+                return false;
+            }
+            task = newer;
+            return true;
+        }
+
+        synchronized void close() {
+            open = false;
+        }
+
+        /**
+         * Closes the slot and hands out its event (once).
+         */
+        synchronized GpsTask take() {
+            open = false;
+            GpsTask taken = task;
+            task = null;
+            return taken;
+        }
+    }
+
+    /**
+     * One single-consumer lane.
+     */
+    private final class Lane implements Runnable {
+        private final int index;
+        private final int capacity;
+        private final Queue<GpsTask> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger();
+        private final Timer waitTimer;
+        private final Timer processingTimer;
+        private final Thread thread;
+        private final int enterDepth;
+        private final int exitDepth;
+        private volatile boolean parked;
+        private volatile boolean busy;
+        private volatile boolean coalescing;
+
+        Lane(int index, int capacity) {
+            this.index = index;
+            this.capacity = capacity;
+            this.enterDepth = Math.max(capacity * enterDepthPercent / 100, 1);
+            this.exitDepth = capacity * exitDepthPercent / 100;
+            String lane = Integer.toString(index);
+
+            Gauge.builder("geofencing.gps.executor.queue.depth", depth, AtomicInteger::get)
+                .description("GPS events waiting in the lane")
+                .tag("lane", lane)
+                .register(meterRegistry);
+            waitTimer = Timer.builder("geofencing.gps.executor.wait")
+                .description("Time GPS events wait in the lane")
+                .tag("lane", lane)
+                .register(meterRegistry);
+            processingTimer = Timer.builder("geofencing.gps.executor.processing")
+                .description("Time spent processing a GPS event")
+                .tag("lane", lane)
+                .register(meterRegistry);
+            Gauge.builder("geofencing.gps.executor.coalescing", this, l -> l.coalescing ? 1 : 0)
+                .description("1 while the lane coalesces events per scooter")
+                .tag("lane", lane)
+                .register(meterRegistry);
+
+            thread = new Thread(this, "gps-lane-" + index);
+            thread.setDaemon(true);
+        }
+
+        /**
+         * Reserves a slot in the lane; false if the lane is full.
+         */
+        boolean tryReserve() {
+            int current;
+            do {
+                current = depth.get();
+                if (current >= capacity) {
+                    return false;
+                }
+            } while (!depth.compareAndSet(current, current + 1));
+            return true;
+        }
+
+        void enqueue(GpsTask task) {
+            queue.offer(task);
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+        }
+
+        /**
+         * Re-evaluates the overload thresholds and returns whether the lane coalesces.
+         */
+        boolean updateCoalescing() {
+            int currentDepth = depth.get();
+            GpsTask head = queue.peek();
+            long lagNanos = head == null ? 0 : System.nanoTime() - head.submittedAtNanos;
+
+            if (!coalescing) {
+                if (currentDepth >= enterDepth || lagNanos >= TimeUnit.MILLISECONDS.toNanos(enterLagMs)) {
+                    coalescing = true;
+                    log.warn("GPS lane {} overloaded (depth={}, lag={}ms), coalescing events per scooter",
+                        index, currentDepth, TimeUnit.NANOSECONDS.toMillis(lagNanos));
+                }
+            } else if (currentDepth <= exitDepth && lagNanos <= TimeUnit.MILLISECONDS.toNanos(exitLagMs)) {
+                coalescing = false;
+                log.info("GPS lane {} recovered (depth={}), coalescing off", index, currentDepth);
+            }
+            return coalescing;
+        }
+
+        /**
+         * Removes the oldest queued task (DROP_OLDEST); null if the lane is empty.
+         */
+        GpsTask pollOldest() {
+            GpsTask oldest = queue.poll();
+            if (oldest != null) {
+                depth.decrementAndGet();
+            }
+            return oldest;
+        }
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                GpsTask task = queue.poll();
+
+                if (task == null) {
+                    parked = true;
+                    // Re-check after publishing "parked" so a concurrent enqueue can't be missed
+                    if (queue.isEmpty() && running) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    parked = false;
+                    continue;
+                }
+
+                depth.decrementAndGet();
+                process(task);
+            }
+        }
+
+        private void process(GpsTask task) {
+            long startTime = System.nanoTime();
+            waitTimer.record(startTime - task.submittedAtNanos, TimeUnit.NANOSECONDS);
+            busy = true;
+            try {
+                task.task.run();
+            } catch (Exception e) {
+                log.error("GPS task failed on lane {}", index, e);
+            } finally {
+                busy = false;
+                processingTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        int laneCount = threadPoolSize > 0 ? threadPoolSize : Runtime.getRuntime().availableProcessors();
+        int laneCapacity = Math.max(queueCapacity / laneCount, 1);
+
+        rejectionCounter = Counter.builder("geofencing.gps.executor.rejections")
+            .description("GPS events rejected or dropped because their lane was full")
+            .tag("policy", rejectionPolicy.name())
+            .register(meterRegistry);
+        coalescedCounter = Counter.builder("geofencing.gps.executor.coalesced")
+            .description("GPS events dropped before detection because a newer event of the same scooter was pending")
+            .register(meterRegistry);
+        Gauge.builder("geofencing.gps.executor.coalescing.pending", pendingLatest, Map::size)
+            .description("Scooters with a pending coalesced GPS event")
+            .register(meterRegistry);
+        Gauge.builder("geofencing.gps.executor.active", this, GpsProcessingExecutor::activeLanes)
+            .description("Lanes currently processing a GPS event")
+            .register(meterRegistry);
+
+        running = true;
+        lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(i, laneCapacity);
+            lanes[i].thread.start();
+        }
+
+        log.info("GPS processing executor started: lanes={}, laneCapacity={}, rejectionPolicy={}, coalescing={}",
+            laneCount, laneCapacity, rejectionPolicy, coalescingEnabled);
+    }
+
+    /**
+     * Submits a GPS event for processing.
+     *
+     * Events with the same ordering key run one at a time, in submission order.
+     *
+     * @param orderingKey Key whose events must stay ordered (the scooterId); null = any lane
+     * @param task        Processing of the event
+     * @param onRejected  Called if the event is rejected or dropped (e.g. to send an
+     *                    error frame); may be null
+     */
+    public void submit(String orderingKey, Runnable task, Runnable onRejected) {
+        closeLatest(orderingKey);
+        enqueue(orderingKey, new GpsTask(task, onRejected));
+    }
+
+    private void enqueue(String orderingKey, GpsTask gpsTask) {
+        if (!running) {
+            gpsTask.reject();
+            return;
+        }
+
+        submitToLane(lanes[laneIndex(orderingKey)], gpsTask);
+    }
+
+    /**
+     * Splits items by the lane of their ordering key and runs each part on its lane,
+     * after everything already queued for those keys (see class doc).
+     *
+     * Items with a null key all go to one lane, picked at random for this call.
+     *
+     * @param items       Items in processing order (e.g. a gateway's GPS batch)
+     * @param orderingKey Ordering key of an item (its scooterId)
+     * @param task        Processes one part on its lane
+     * @param onRejected  Result for a part whose lane rejected or dropped it
+     * @return Results of all parts, once every part ran or was rejected; completes
+     *         exceptionally if a part's task throws
+     */
+    public <T, R> CompletableFuture<List<R>> submitGrouped(List<T> items, Function<T, String> orderingKey,
+                                                           Function<List<T>, R> task,
+                                                           Function<List<T>, R> onRejected) {
+        List<List<T>> parts = new ArrayList<>();
+        List<Integer> partLanes = new ArrayList<>();
+        int[] partOfLane = new int[lanes.length];
+        int nullKeyLane = -1;
+
+        for (T item : items) {
+            String key = orderingKey.apply(item);
+            closeLatest(key);
+            int laneIndex;
+            if (key != null) {
+                laneIndex = laneIndex(key);
+            } else {
+                if (nullKeyLane < 0) {
+                    nullKeyLane = laneIndex(null);
+                }
+                laneIndex = nullKeyLane;
+            }
+            // partOfLane holds part index + 1, 0 = no part yet
+            if (partOfLane[laneIndex] == 0) {
+                parts.add(new ArrayList<>());
+                partLanes.add(laneIndex);
+                partOfLane[laneIndex] = parts.size();
+            }
+            parts.get(partOfLane[laneIndex] - 1).add(item);
+        }
+
+        List<CompletableFuture<R>> futures = new ArrayList<>(parts.size());
+        for (int i = 0; i < parts.size(); i++) {
+            List<T> part = parts.get(i);
+            CompletableFuture<R> future = new CompletableFuture<>();
+            futures.add(future);
+            GpsTask gpsTask = new GpsTask(
+                () -> complete(future, () -> task.apply(part)),
+                () -> complete(future, () -> onRejected.apply(part)));
+            if (running) {
+                submitToLane(lanes[partLanes.get(i)], gpsTask);
+            } else {
+                gpsTask.reject();
+            }
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+            .thenApply(done -> futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    private static <R> void complete(CompletableFuture<R> future, Supplier<R> result) {
+        try {
+            future.complete(result.get());
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private void submitToLane(Lane lane, GpsTask gpsTask) {
+        if (lane.tryReserve()) {
+            lane.enqueue(gpsTask);
+            return;
+        }
+
+        switch (rejectionPolicy) {
+            case CALLER_RUNS -> waitForRoom(lane, gpsTask);
+            case DROP_OLDEST -> {
+                while (!lane.tryReserve()) {
+                    GpsTask oldest = lane.pollOldest();
+                    if (oldest != null) {
+                        oldest.reject();
+                    }
+                }
+                lane.enqueue(gpsTask);
+            }
+            case REJECT -> gpsTask.reject();
+        }
+    }
+
+    /**
+     * Submits a GPS event whose processing may be skipped if a newer event with the
+     * same key arrives first - only while the key's lane is overloaded (see class doc).
+     *
+     * Use for single position updates, where the newest position supersedes older
+     * ones; not for batches or anything else that must run once per submission.
+     *
+     * @param orderingKey Key whose events must stay ordered and may be coalesced (the scooterId)
+     * @param task        Processing of the event
+     * @param onRejected  Called if the event is rejected or dropped because the lane is
+     *                    full; not called when the event is superseded. May be null
+     */
+    public void submitLatest(String orderingKey, Runnable task, Runnable onRejected) {
+        if (!coalescingEnabled || orderingKey == null || !running
+                || !lanes[laneIndex(orderingKey)].updateCoalescing()) {
+            submit(orderingKey, task, onRejected);
+            return;
+        }
+
+        GpsTask gpsTask = new GpsTask(task, onRejected);
+        while (true) {
+            LatestSlot slot = pendingLatest.get(orderingKey);
+            if (slot != null && slot.offer(gpsTask)) {
+                // The slot's lane entry is still the last one queued for this key - it will run the new event
+                coalescedCounter.increment();
+                return;
+            }
+
+            LatestSlot fresh = new LatestSlot(gpsTask);
+            boolean installed = slot == null
+                ? pendingLatest.putIfAbsent(orderingKey, fresh) == null
+                : pendingLatest.replace(orderingKey, slot, fresh);
+            if (installed) {
+                enqueue(orderingKey, new GpsTask(
+                    () -> runLatest(orderingKey, fresh),
+                    () -> rejectLatest(orderingKey, fresh)));
+                return;
+            }
+            // Another producer changed the slot first: look again
+        }
+    }
+
+    private void runLatest(String orderingKey, LatestSlot slot) {
+        pendingLatest.remove(orderingKey, slot);
+        GpsTask latest = slot.take();
+        if (latest != null) {
+            latest.task.run();
+        }
+    }
+
+    private void rejectLatest(String orderingKey, LatestSlot slot) {
+        pendingLatest.remove(orderingKey, slot);
+        GpsTask latest = slot.take();
+        if (latest != null) {
+            // The lane entry was already counted as rejected
+            latest.notifyRejected();
+        }
+    }
+
+    /**
+     * Closes the key's open slot before another task is queued for the key, so no
+     * later coalesced event can run from the slot's (earlier) lane position.
+     */
+    private void closeLatest(String orderingKey) {
+        if (orderingKey == null || pendingLatest.isEmpty()) {
+            return;
+        }
+        LatestSlot slot = pendingLatest.remove(orderingKey);
+        if (slot != null) {
+            slot.close();
+        }
+    }
+
+    /**
+     * CALLER_RUNS on an ordered lane: running the event on the caller would let it
+     * overtake the scooter's queued events, so the caller pays for the overload by
+     * waiting until the lane has room. This throttles the broker, i.e. the clients.
+     *
+     * A lane thread never waits (e.g. a UDP frame fanning its hits out to the
+     * scooters' lanes): two full lanes waiting on each other would deadlock, so
+     * its overflow is rejected instead.
+     */
+    private void waitForRoom(Lane lane, GpsTask task) {
+        if (isLaneThread(Thread.currentThread())) {
+            task.reject();
+            return;
+        }
+        long backoffNanos = 10_000;
+        while (!lane.tryReserve()) {
+            if (!running) {
+                task.reject();
+                return;
+            }
+            LockSupport.parkNanos(backoffNanos);
+            backoffNanos = Math.min(backoffNanos * 2, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        lane.enqueue(task);
+    }
+
+    private boolean isLaneThread(Thread thread) {
+        for (Lane lane : lanes) {
+            if (lane.thread == thread) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int laneIndex(String orderingKey) {
+        if (orderingKey == null) {
+            return ThreadLocalRandom.current().nextInt(lanes.length);
+        }
+        int hash = orderingKey.hashCode();
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, lanes.length);
+    }
+
+    /**
+     * Number of GPS events waiting across all lanes.
+     */
+    public int queueDepth() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            depth += lane.depth.get();
+        }
+        return depth;
+    }
+
+    private int activeLanes() {
+        int active = 0;
+        for (Lane lane : lanes) {
+            if (lane.busy) {
+                active++;
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Lets queued events finish before the application context closes.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(shutdownTimeoutMs);
+        for (Lane lane : lanes) {
+            LockSupport.unpark(lane.thread);
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            lane.thread.join(Math.max(remainingMillis, 1));
+        }
+
+        int discarded = queueDepth();
+        if (discarded > 0) {
+            log.warn("GPS lanes did not drain within {}ms, {} events discarded", shutdownTimeoutMs, discarded);
+        }
+    }
+}
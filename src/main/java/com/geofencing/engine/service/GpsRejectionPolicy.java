@@ -0,0 +1,18 @@
+package com.geofencing.engine.service;
+
+/**
+ * What the GPS processing executor does when a lane is full.
+ *
+ * - CALLER_RUNS: the WebSocket inbound thread pays for the overload. Lanes keep
+ *   each scooter's events in order, so instead of running the event inline
+ *   (which would overtake queued events) it waits until the lane has room.
+ *   Nothing is lost; the broker slows down (natural backpressure on clients).
+ * - DROP_OLDEST: the oldest queued event is discarded (its sender gets an error
+ *   frame). Favors fresh positions - a stale GPS ping is worth little anyway.
+ * - REJECT: the incoming event is discarded and its sender gets an error frame.
+ */
+public enum GpsRejectionPolicy {
+    CALLER_RUNS,
+    DROP_OLDEST,
+    REJECT
+}
@@ -0,0 +1,254 @@
+package com.geofencing.engine.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming NDJSON bulk ingest (one GPS event per line in, one result per line out).
+ *
+ * Before: replaying a day of backlog from a gateway buffer meant one /check
+ *         request per event - millions of HTTP round trips.
+ * After: the whole backlog is POSTed as one application/x-ndjson body and
+ *        answered by one NDJSON response, both streamed:
+ *        - Jackson's streaming parser reads events as the body arrives
+ *        - Events are checked in micro-batches (GeoFencingService.checkZoneViolations),
+ *          each split onto its scooters' GPS lanes like a STOMP batch, so a scooter
+ *          that is also reporting live keeps a single consumer
+ *        - Each batch's results are written and flushed before the next batch is read
+ *        Memory stays constant (one micro-batch) whatever the body size.
+ *
+ * Output lines:
+ * - {"type":"violation", ...ZoneViolationRecord}: one per new violation
+ * - {"type":"batch","batch":n,"received":..,"invalid":..,"violations":..}: after each micro-batch
+ * - {"type":"summary","events":..,"invalid":..,"malformed":..,"violations":..,"elapsedMs":..,"eventsPerSecond":..}
+ *   as the last line (also after a syntax error, with "error" set)
+ *
+ * Lines that are valid JSON but not a valid GPS event (missing fields, future
+ * timestamp) are counted as malformed and skipped; a JSON syntax error ends the
+ * stream, since the parser can't resynchronise reliably.
+ *
+ * Metrics:
+ * - geofencing.ingest.stream.events: events read from NDJSON bodies
+ * - geofencing.ingest.stream.malformed: lines skipped as malformed
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GpsStreamIngestService {
+
+    private static final TypeReference<Map<String, Object>> VIOLATION_FIELDS = new TypeReference<>() {
+    };
+
+    private final GeoFencingService geoFencingService;
+    private final GpsProcessingExecutor gpsProcessingExecutor;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${geofencing.ingest.stream.batch-size:500}")
+    private int batchSize;
+
+    private Counter eventCounter;
+    private Counter malformedCounter;
+
+    @PostConstruct
+    void registerMetrics() {
+        eventCounter = Counter.builder("geofencing.ingest.stream.events")
+            .description("GPS events read from NDJSON bulk ingest bodies")
+            .register(meterRegistry);
+        malformedCounter = Counter.builder("geofencing.ingest.stream.malformed")
+            .description("NDJSON lines skipped because they are not a valid GPS event")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Totals of one stream (also written as the trailing summary line).
+     */
+    public record IngestSummary(long events, long invalid, long malformed, long violations,
+                                long elapsedMillis, String error) {
+        public double eventsPerSecond() {
+            return elapsedMillis > 0 ? events * 1000.0 / elapsedMillis : events;
+        }
+    }
+
+    /**
+     * Reads NDJSON GPS events from the input and streams NDJSON results to the output.
+     *
+     * @param input  NDJSON body (one GpsEventRecord per line)
+     * @param output Response body
+     * @param replay true for historical data: skips the staleness check
+     * @return Totals, as written in the summary line
+     */
+    public IngestSummary ingest(InputStream input, OutputStream output, boolean replay) throws IOException {
+        long startTime = System.nanoTime();
+        ObjectReader eventReader = objectMapper.readerFor(GpsEventRecord.class);
+
+        List<GpsEventRecord> batch = new ArrayList<>(batchSize);
+        long events = 0;
+        long invalid = 0;
+        long malformed = 0;
+        long violations = 0;
+        int batchNumber = 0;
+        String error = null;
+
+        try (JsonParser parser = objectMapper.createParser(input);
+             JsonGenerator generator = objectMapper.createGenerator(output)) {
+            // Root values are separated by newlines: "{...}\n{...}\n"
+            generator.setRootValueSeparator(null);
+
+            try {
+                JsonToken token;
+                while ((token = parser.nextToken()) != null) {
+                    if (token != JsonToken.START_OBJECT) {
+                        malformed++;
+                        parser.skipChildren();
+                        continue;
+                    }
+
+                    GpsEventRecord event;
+                    try {
+                        event = eventReader.readValue(parser);
+                    } catch (JsonParseException e) {
+                        throw e;
+                    } catch (JsonProcessingException e) {
+                        // Valid JSON, invalid event: skip the rest of this object
+                        malformed++;
+                        skipToRoot(parser);
+                        continue;
+                    }
+                    if (!hasRequiredFields(event)) {
+                        malformed++;
+                        continue;
+                    }
+                    batch.add(event);
+                    events++;
+
+                    if (batch.size() >= batchSize) {
+                        BatchTotals totals = flushBatch(batch, ++batchNumber, replay, generator);
+                        invalid += totals.invalid();
+                        violations += totals.violations();
+                    }
+                }
+            } catch (JsonParseException e) {
+                error = "Malformed JSON at line " + e.getLocation().getLineNr() + ": " + e.getOriginalMessage();
+                log.warn("NDJSON ingest stopped: {}", error);
+            }
+
+            if (!batch.isEmpty()) {
+                BatchTotals totals = flushBatch(batch, ++batchNumber, replay, generator);
+                invalid += totals.invalid();
+                violations += totals.violations();
+            }
+
+            eventCounter.increment(events);
+            malformedCounter.increment(malformed);
+
+            IngestSummary summary = new IngestSummary(events, invalid, malformed, violations,
+                (System.nanoTime() - startTime) / 1_000_000, error);
+            writeLine(generator, summaryLine(summary));
+
+            log.info("NDJSON ingest finished: {} events, {} invalid, {} malformed, {} violations, {} events/s",
+                events, invalid, malformed, violations, Math.round(summary.eventsPerSecond()));
+            return summary;
+        }
+    }
+
+    private record BatchTotals(int invalid, int violations) {
+    }
+
+    /**
+     * Checks a micro-batch, writes its results and flushes them to the client.
+     */
+    private BatchTotals flushBatch(List<GpsEventRecord> batch, int batchNumber, boolean replay,
+                                   JsonGenerator generator) throws IOException {
+        // Waits for the lanes: results are written in batch order, and a slow check
+        // pushes back on the upload
+        GeoFencingService.BatchCheckResult result = GeoFencingService.BatchCheckResult.merge(
+            gpsProcessingExecutor.submitGrouped(
+                    batch,
+                    GpsEventRecord::scooterId,
+                    part -> geoFencingService.checkZoneViolations(part, replay),
+                    part -> GeoFencingService.BatchCheckResult.rejected(part.size()))
+                .join());
+
+        for (ZoneViolationRecord violation : result.violations()) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("type", "violation");
+            line.putAll(objectMapper.convertValue(violation, VIOLATION_FIELDS));
+            writeLine(generator, line);
+        }
+
+        Map<String, Object> batchLine = new LinkedHashMap<>();
+        batchLine.put("type", "batch");
+        batchLine.put("batch", batchNumber);
+        batchLine.put("received", result.received());
+        batchLine.put("invalid", result.invalid());
+        batchLine.put("violations", result.violations().size());
+        writeLine(generator, batchLine);
+        generator.flush();
+
+        batch.clear();
+        return new BatchTotals(result.invalid(), result.violations().size());
+    }
+
+    private static Map<String, Object> summaryLine(IngestSummary summary) {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("type", "summary");
+        line.put("events", summary.events());
+        line.put("invalid", summary.invalid());
+        line.put("malformed", summary.malformed());
+        line.put("violations", summary.violations());
+        line.put("elapsedMs", summary.elapsedMillis());
+        line.put("eventsPerSecond", Math.round(summary.eventsPerSecond()));
+        if (summary.error() != null) {
+            line.put("error", summary.error());
+        }
+        return line;
+    }
+
+    /**
+     * Bean validation doesn't run on this path, so check the @NotNull fields by hand.
+     */
+    private static boolean hasRequiredFields(GpsEventRecord event) {
+        return event.scooterId() != null && event.latitude() != null
+            && event.longitude() != null && event.timestamp() != null;
+    }
+
+    private static void writeLine(JsonGenerator generator, Object value) throws IOException {
+        generator.writeObject(value);
+        generator.writeRaw('\n');
+    }
+
+    /**
+     * After a failed bind, skips the remaining tokens of the current root object.
+     */
+    private static void skipToRoot(JsonParser parser) throws IOException {
+        while (!parser.getParsingContext().inRoot()) {
+            if (parser.nextToken() == null) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.service.ScooterZoneStateTracker.ZoneRef;
+import com.geofencing.engine.spatial.GeoDistance;
+import com.geofencing.engine.spatial.ZoneSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Skips the zone lookup for pings that can't have crossed a zone boundary.
+ *
+ * Before: every ping ran the full lookup (STRtree query + point-in-polygon),
+ *         although most scooters spend their time far away from any zone.
+ * After: when a ping is fully evaluated, the scooter gets an anchor: its position,
+ *        the zones containing it, and its safe radius - the distance to the nearest
+ *        zone boundary. While later pings stay within that radius of the anchor,
+ *        they can't have entered or left any zone, so the anchor's zones are reused
+ *        and the geometry is skipped. A ping beyond the radius is evaluated and re-anchors.
+ *
+ * Safety margins:
+ * - GPS accuracy: the reported accuracy of both the anchor and the ping is added to
+ *   the displacement (default-accuracy-meters when a device doesn't report it)
+ * - Zone changes: an anchor is only valid for the snapshot version it was measured
+ *   against; any zone reload invalidates all anchors
+ * - Engine state: only used while the zone engine is READY
+ * - Age: anchors older than max-anchor-age-seconds are re-evaluated (and swept)
+ *
+ * Reported speed isn't used to extrapolate: the measured displacement already bounds
+ * how far the scooter got, whatever its speed between pings.
+ *
+ * Metrics:
+ * - geofencing.motion.gate{result=skipped|evaluated}: pings answered from the anchor vs. fully evaluated
+ * - geofencing.motion.gate.anchors: scooters with an anchor
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MotionGate {
+
+    private final ZoneLookupEngine zoneLookupEngine;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${geofencing.motion-gate.enabled:true}")
+    private boolean enabled;
+
+    @Value("${geofencing.motion-gate.max-radius-meters:500}")
+    private double maxRadiusMeters;
+
+    @Value("${geofencing.motion-gate.default-accuracy-meters:10}")
+    private double defaultAccuracyMeters;
+
+    @Value("${geofencing.motion-gate.max-anchor-age-seconds:300}")
+    private long maxAnchorAgeSeconds;
+
+    private final Map<String, Anchor> anchors = new ConcurrentHashMap<>();
+
+    private Counter skippedCounter;
+    private Counter evaluatedCounter;
+
+    /**
+     * Position of the last full evaluation, and how far the scooter may move from it.
+     */
+    private record Anchor(double latitude, double longitude, double accuracyMeters, double safeRadiusMeters,
+                          long snapshotVersion, long timestampMillis, List<ZoneRef> zones) {
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        skippedCounter = gateCounter("skipped");
+        evaluatedCounter = gateCounter("evaluated");
+        Gauge.builder("geofencing.motion.gate.anchors", anchors, Map::size)
+            .description("Scooters with a motion gate anchor")
+            .register(meterRegistry);
+    }
+
+    private Counter gateCounter(String result) {
+        return Counter.builder("geofencing.motion.gate")
+            .description("GPS pings answered from the motion gate anchor vs. fully evaluated")
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Zones containing the ping, if it is still within its scooter's safe radius.
+     *
+     * @return The anchor's zones (possibly empty), or null if the ping must be fully evaluated
+     */
+    public List<ZoneRef> reuse(GpsEventRecord gpsEvent) {
+        if (!enabled) {
+            return null;
+        }
+
+        Anchor anchor = anchors.get(gpsEvent.scooterId());
+        if (anchor == null
+            || anchor.snapshotVersion() != zoneLookupEngine.currentVersion()
+            || zoneLookupEngine.state() != ZoneEngineState.READY
+            || Math.abs(gpsEvent.timestamp().toEpochMilli() - anchor.timestampMillis()) > maxAnchorAgeSeconds * 1000) {
+            evaluatedCounter.increment();
+            return null;
+        }
+
+        double displacement = GeoDistance.distanceMeters(anchor.latitude(), anchor.longitude(),
+            gpsEvent.latitude(), gpsEvent.longitude());
+        if (displacement + anchor.accuracyMeters() + accuracyOf(gpsEvent) >= anchor.safeRadiusMeters()) {
+            evaluatedCounter.increment();
+            return null;
+        }
+
+        skippedCounter.increment();
+        return anchor.zones();
+    }
+
+    /**
+     * How far the ping is guaranteed to be from every zone boundary, from its scooter's
+     * anchor: the safe radius less the displacement and both accuracies. Used to skip
+     * work that only matters near a boundary (PredictiveZoneAlerter).
+     *
+     * @return Clearance in meters, 0 if unknown (no valid anchor, gate disabled)
+     */
+    public double clearanceMeters(GpsEventRecord gpsEvent) {
+        if (!enabled) {
+            return 0;
+        }
+
+        Anchor anchor = anchors.get(gpsEvent.scooterId());
+        if (anchor == null
+            || anchor.snapshotVersion() != zoneLookupEngine.currentVersion()
+            || Math.abs(gpsEvent.timestamp().toEpochMilli() - anchor.timestampMillis()) > maxAnchorAgeSeconds * 1000) {
+            return 0;
+        }
+
+        double displacement = GeoDistance.distanceMeters(anchor.latitude(), anchor.longitude(),
+            gpsEvent.latitude(), gpsEvent.longitude());
+        return Math.max(anchor.safeRadiusMeters() - displacement - anchor.accuracyMeters() - accuracyOf(gpsEvent), 0);
+    }
+
+    /**
+     * Anchors the scooter at a fully evaluated ping.
+     *
+     * @param gpsEvent        The evaluated ping
+     * @param zones           Zones containing it
+     * @param snapshotVersion Version of the snapshot the zones were looked up in
+     */
+    public void anchor(GpsEventRecord gpsEvent, List<ZoneRef> zones, long snapshotVersion) {
+        if (!enabled) {
+            return;
+        }
+
+        ZoneSnapshot snapshot = zoneLookupEngine.currentSnapshot();
+        if (snapshot.version() != snapshotVersion) {
+            // Zones were reloaded during the lookup - the next ping will anchor
+            anchors.remove(gpsEvent.scooterId());
+            return;
+        }
+
+        double safeRadius = snapshot.index().distanceToNearestBoundary(
+            gpsEvent.latitude(), gpsEvent.longitude(), maxRadiusMeters);
+        double accuracy = accuracyOf(gpsEvent);
+
+        if (safeRadius <= 2 * accuracy) {
+            // Hugging a boundary: no ping could ever be skipped
+            anchors.remove(gpsEvent.scooterId());
+            return;
+        }
+
+        anchors.put(gpsEvent.scooterId(), new Anchor(gpsEvent.latitude(), gpsEvent.longitude(), accuracy,
+            safeRadius, snapshotVersion, gpsEvent.timestamp().toEpochMilli(), List.copyOf(zones)));
+    }
+
+    /**
+     * Drops anchors of scooters that stopped reporting.
+     */
+    @Scheduled(fixedDelayString = "${geofencing.motion-gate.sweep-interval-ms:60000}")
+    public void evictStaleAnchors() {
+        long cutoffMillis = System.currentTimeMillis() - maxAnchorAgeSeconds * 1000;
+        int before = anchors.size();
+        anchors.values().removeIf(anchor -> anchor.timestampMillis() < cutoffMillis);
+
+        int evicted = before - anchors.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} stale motion gate anchors", evicted);
+        }
+    }
+
+    /**
+     * Number of scooters with an anchor.
+     */
+    public int anchoredScooters() {
+        return anchors.size();
+    }
+
+    private double accuracyOf(GpsEventRecord gpsEvent) {
+        return gpsEvent.accuracy() != null ? gpsEvent.accuracy() : defaultAccuracyMeters;
+    }
+}
@@ -0,0 +1,13 @@
+package com.geofencing.engine.service;
+
+/**
+ * What ViolationPartitionManager does with zone_violations partitions past retention.
+ *
+ * - DROP: delete the partition and its rows (instant, no DELETE or vacuum)
+ * - DETACH: keep the partition as a standalone table for archiving;
+ *   queries on zone_violations no longer see it
+ */
+public enum PartitionRetentionAction {
+    DROP,
+    DETACH
+}
@@ -0,0 +1,233 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.ZonePredictionRecord;
+import com.geofencing.engine.service.ScooterZoneStateTracker.ZoneRef;
+import com.geofencing.engine.spatial.GeoDistance;
+import com.geofencing.engine.spatial.ZoneSpatialIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.LineString;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Warns before a scooter enters a zone, from its reported speed and heading.
+ *
+ * Before: riders learned about a zone once they were in it (ENTER / violation).
+ * After: each moving ping is projected look-ahead-seconds ahead along its heading,
+ *        and the ray is probed against the in-memory zone index (STRtree envelope
+ *        query + prepared intersects, like SEGMENT crossing checks). The first zone
+ *        on the path is published on /topic/alerts as PREDICTED_ENTRY, with the
+ *        expected entry point and time.
+ *
+ * Never touches PostGIS: findZonesWithinDistance costs a database round trip per
+ * ping. Without a READY snapshot, no predictions are made.
+ *
+ * Skipped for pings without speed or heading, slower than min-speed-kmh (a parked
+ * or walking scooter's heading is noise), and for zones the scooter is already in.
+ * A scooter is warned about the same zone at most once per cooldown-seconds. The
+ * cooldown only applies to the zone the scooter would reach first: a scooter riding
+ * through the zone it was warned about is still warned about the next one.
+ *
+ * Runs for every ping that reaches detection. On the binary WebSocket and UDP paths,
+ * pings outside every zone stop at the miss probe in POINT crossing mode
+ * (GpsBinaryFrameProcessor), so those transports only get predictions for scooters
+ * already inside a zone - or for all pings in SEGMENT mode, which skips the probe.
+ *
+ * Cost per moving ping, cheapest checks first:
+ * - MotionGate clearance: a scooter whose look-ahead distance is shorter than its
+ *   clearance from every zone boundary can't reach a zone - no index query at all
+ *   (the common case away from zones, as for the zone lookup itself)
+ * - STRtree query for the zones along the ray
+ * - Entry points from the ring edges (CachedZoneRecord.entryPoint, no overlay), for
+ *   the zones the scooter isn't in
+ * - Cooldown: the first zone on the path is the one it was just warned about
+ *
+ * Publishing is best effort: a failed broadcast is logged and never reaches detection.
+ *
+ * Metrics:
+ * - geofencing.prediction.probes: pings projected and probed
+ * - geofencing.prediction.alerts: PREDICTED_ENTRY alerts published
+ * - geofencing.prediction.skipped{reason=clearance|cooldown}: moving pings that stopped
+ *   before the index query (clearance) or before publishing (cooldown)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PredictiveZoneAlerter {
+
+    private static final double KMH_TO_METERS_PER_SECOND = 1 / 3.6;
+
+    private final ZoneLookupEngine zoneLookupEngine;
+    private final MotionGate motionGate;
+    private final ZoneAlertPublisher zoneAlertPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${geofencing.prediction.enabled:true}")
+    private boolean enabled;
+
+    @Value("${geofencing.prediction.look-ahead-seconds:10}")
+    private double lookAheadSeconds;
+
+    @Value("${geofencing.prediction.min-speed-kmh:5}")
+    private double minSpeedKmh;
+
+    @Value("${geofencing.prediction.cooldown-seconds:60}")
+    private long cooldownSeconds;
+
+    // Last warning per scooter: a scooter heading into the same zone ping after ping is warned once
+    private final Map<String, LastWarning> lastWarnings = new ConcurrentHashMap<>();
+
+    private Counter probeCounter;
+    private Counter alertCounter;
+    private Counter clearanceSkipCounter;
+    private Counter cooldownSkipCounter;
+
+    private record LastWarning(long zoneId, long atMillis) {
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        probeCounter = Counter.builder("geofencing.prediction.probes")
+            .description("GPS pings projected ahead and probed against the zone index")
+            .register(meterRegistry);
+        alertCounter = Counter.builder("geofencing.prediction.alerts")
+            .description("PREDICTED_ENTRY alerts published")
+            .register(meterRegistry);
+        clearanceSkipCounter = skipCounter("clearance");
+        cooldownSkipCounter = skipCounter("cooldown");
+    }
+
+    private Counter skipCounter(String reason) {
+        return Counter.builder("geofencing.prediction.skipped")
+            .description("Moving pings whose prediction stopped early (no zone in reach, or in cooldown)")
+            .tag("reason", reason)
+            .register(meterRegistry);
+    }
+
+    /**
+     * Probes the ping's projected path and publishes a PREDICTED_ENTRY alert for the
+     * first zone on it.
+     *
+     * @param gpsEvent        The ping
+     * @param containingZones Zones the scooter is already in
+     * @return The published prediction, or null
+     */
+    public ZonePredictionRecord predict(GpsEventRecord gpsEvent, List<ZoneRef> containingZones) {
+        if (!enabled || gpsEvent.speed() == null || gpsEvent.heading() == null
+            || gpsEvent.speed() < minSpeedKmh
+            || zoneLookupEngine.state() != ZoneEngineState.READY) {
+            return null;
+        }
+
+        double latitude = gpsEvent.latitude();
+        double longitude = gpsEvent.longitude();
+        double speedMetersPerSecond = gpsEvent.speed() * KMH_TO_METERS_PER_SECOND;
+        double distanceMeters = speedMetersPerSecond * lookAheadSeconds;
+
+        // No zone boundary within reach of the look-ahead: nothing can be entered
+        if (distanceMeters < motionGate.clearanceMeters(gpsEvent)) {
+            clearanceSkipCounter.increment();
+            return null;
+        }
+        probeCounter.increment();
+
+        // Heading: degrees clockwise from North, so North = +latitude, East = +longitude
+        double headingRadians = Math.toRadians(gpsEvent.heading());
+        double aheadLatitude = latitude
+            + distanceMeters * Math.cos(headingRadians) / GeoDistance.metersPerDegreeLatitude(latitude);
+        double aheadLongitude = longitude
+            + distanceMeters * Math.sin(headingRadians) / GeoDistance.metersPerDegreeLongitude(latitude);
+
+        List<CachedZoneRecord> zonesOnPath = zoneLookupEngine.findCrossedZones(
+            latitude, longitude, aheadLatitude, aheadLongitude);
+        if (zonesOnPath.isEmpty()) {
+            return null;
+        }
+
+        // First zone the scooter would reach
+        LineString ray = ZoneSpatialIndex.segment(latitude, longitude, aheadLatitude, aheadLongitude);
+        CachedZoneRecord nextZone = null;
+        Coordinate nextEntry = null;
+        double nextEntryMeters = Double.POSITIVE_INFINITY;
+        for (CachedZoneRecord zone : zonesOnPath) {
+            if (containsZone(containingZones, zone.zoneId())) {
+                continue;
+            }
+            Coordinate entry = zone.entryPoint(ray);
+            if (entry == null) {
+                continue;
+            }
+            double entryMeters = GeoDistance.distanceMeters(latitude, longitude, entry.y, entry.x);
+            if (entryMeters < nextEntryMeters) {
+                nextZone = zone;
+                nextEntry = entry;
+                nextEntryMeters = entryMeters;
+            }
+        }
+        if (nextZone == null) {
+            return null;
+        }
+
+        // Still heading for the zone it was just warned about: that warning stands
+        if (inCooldown(gpsEvent, nextZone.zoneId())) {
+            cooldownSkipCounter.increment();
+            return null;
+        }
+        lastWarnings.put(gpsEvent.scooterId(), new LastWarning(nextZone.zoneId(), gpsEvent.timestamp().toEpochMilli()));
+
+        ZonePredictionRecord prediction = new ZonePredictionRecord(gpsEvent.scooterId(), nextZone.zoneId(),
+            nextZone.name(), nextZone.severity(), latitude, longitude, nextEntry.y, nextEntry.x,
+            nextEntryMeters / speedMetersPerSecond, gpsEvent.timestamp());
+
+        alertCounter.increment();
+        log.debug("Predicted zone entry: scooter={}, zone={}, in {}s", gpsEvent.scooterId(), nextZone.name(),
+            Math.round(prediction.secondsToEntry()));
+        try {
+            zoneAlertPublisher.publishPrediction(prediction);
+        } catch (RuntimeException e) {
+            log.error("Failed to broadcast zone prediction: scooter={}, zone={}", gpsEvent.scooterId(),
+                nextZone.name(), e);
+        }
+        return prediction;
+    }
+
+    /**
+     * Drops warnings whose cooldown has passed.
+     */
+    @Scheduled(fixedDelayString = "${geofencing.prediction.sweep-interval-ms:60000}")
+    public void evictExpiredWarnings() {
+        long cutoffMillis = System.currentTimeMillis() - cooldownSeconds * 1000;
+        lastWarnings.values().removeIf(warning -> warning.atMillis() < cutoffMillis);
+    }
+
+    /**
+     * Whether the scooter was warned about this zone less than cooldown-seconds ago.
+     */
+    private boolean inCooldown(GpsEventRecord gpsEvent, long zoneId) {
+        LastWarning last = lastWarnings.get(gpsEvent.scooterId());
+        return last != null
+            && last.zoneId() == zoneId
+            && gpsEvent.timestamp().toEpochMilli() - last.atMillis() < cooldownSeconds * 1000;
+    }
+
+    private static boolean containsZone(List<ZoneRef> zones, long zoneId) {
+        for (ZoneRef zone : zones) {
+            if (zone.zoneId() == zoneId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
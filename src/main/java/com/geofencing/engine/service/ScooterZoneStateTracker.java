@@ -0,0 +1,338 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.ZoneTransitionRecord;
+import com.geofencing.engine.spatial.ZoneGeometryProfile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory zone state per scooter: which zones it is in, since when, and when it last pinged.
+ *
+ * Before: every ping inside a zone was a candidate violation, and only the
+ *         dedup window kept a parked scooter from raising one every few seconds.
+ * After: a ping is compared with the scooter's state, and only transitions
+ *        produce events:
+ *        - ENTER: first ping inside a zone -> the caller raises a violation
+ *        - DWELL_EXCEEDED: inside for longer than dwell-threshold-seconds (once per stay)
+ *        - EXIT: a ping outside the zone, or no ping for exit-timeout-seconds
+ *        A scooter that stays inside (or outside) costs one state comparison per
+ *        ping - no dedup lookup.
+ *
+ * All transitions are broadcast on /topic/alerts (ZoneAlertPublisher). Broadcasting
+ * happens after the state is updated, and a failed broadcast is logged and counted,
+ * never thrown: the state already records the ENTER, so an exception here would lose
+ * the violation the caller raises for it - later pings see the same zones and never
+ * re-enter.
+ *
+ * Compact state: only scooters currently inside at least one zone have an
+ * entry (usually one zone each); a scooter outside every zone costs one map miss.
+ *
+ * Ordering: pings of a scooter arrive in order through its GPS lane. A ping older
+ * than the scooter's last ping (e.g. a late REST retry) is ignored.
+ *
+ * The timeout EXIT also covers pings this tracker never sees: the binary and UDP
+ * ingest paths skip pings outside every zone before detection, so a scooter that
+ * left a zone through them exits once its in-zone pings stop.
+ *
+ * Metrics:
+ * - geofencing.zone.state.scooters: scooters currently inside a zone
+ * - geofencing.zone.transitions{type}: transitions by type
+ * - geofencing.zone.transitions.publish.failures: transitions that could not be broadcast
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ScooterZoneStateTracker {
+
+    private final ZoneAlertPublisher zoneAlertPublisher;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${geofencing.zone-state.dwell-threshold-seconds:120}")
+    private long dwellThresholdSeconds;
+
+    @Value("${geofencing.zone-state.exit-timeout-seconds:300}")
+    private long exitTimeoutSeconds;
+
+    private final Map<String, ScooterState> states = new ConcurrentHashMap<>();
+    private final Map<ZoneTransitionType, Counter> transitionCounters = new EnumMap<>(ZoneTransitionType.class);
+    private Counter publishFailureCounter;
+
+    /**
+     * The zone attributes a transition (and the violation it raises) needs, independent
+     * of where the zone came from (in-memory snapshot or PostGIS fallback).
+     *
+     * @param profile Metric profile for grading violations, null if unknown
+     */
+    public record ZoneRef(long zoneId, String name, String severity, ZoneGeometryProfile profile) {
+
+        public ZoneRef(long zoneId, String name, String severity) {
+            this(zoneId, name, severity, null);
+        }
+    }
+
+    /**
+     * Zones a scooter is in. Guarded by its own monitor; replaced arrays, never mutated
+     * in length. Removed from the map (and flagged) once the scooter is in no zone.
+     */
+    private static final class ScooterState {
+        private ZoneRef[] zones = new ZoneRef[0];
+        private long[] enteredAtMillis = new long[0];
+        private boolean[] dwellReported = new boolean[0];
+        private long lastPingMillis;
+        private double lastLatitude;
+        private double lastLongitude;
+        private boolean removed;
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("geofencing.zone.state.scooters", states, Map::size)
+            .description("Scooters currently inside at least one zone")
+            .register(meterRegistry);
+        for (ZoneTransitionType type : ZoneTransitionType.values()) {
+            transitionCounters.put(type, Counter.builder("geofencing.zone.transitions")
+                .description("Zone transitions of scooters")
+                .tag("type", type.name())
+                .register(meterRegistry));
+        }
+        publishFailureCounter = Counter.builder("geofencing.zone.transitions.publish.failures")
+            .description("Zone transitions that could not be broadcast")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Applies a validated ping to the scooter's state and publishes its transitions.
+     *
+     * @param gpsEvent        The ping
+     * @param containingZones Zones containing the ping (empty if none)
+     * @return Zones the scooter just entered - the only ones that can raise a violation
+     */
+    public List<ZoneRef> update(GpsEventRecord gpsEvent, List<ZoneRef> containingZones) {
+        String scooterId = gpsEvent.scooterId();
+
+        while (true) {
+            ScooterState state = states.get(scooterId);
+            if (state == null) {
+                if (containingZones.isEmpty()) {
+                    return List.of(); // Was outside, still outside
+                }
+                state = new ScooterState();
+                ScooterState existing = states.putIfAbsent(scooterId, state);
+                if (existing != null) {
+                    state = existing;
+                }
+            }
+
+            List<ZoneTransitionRecord> transitions;
+            List<ZoneRef> entered;
+            synchronized (state) {
+                if (state.removed) {
+                    continue; // Concurrently emptied and removed - start over with a fresh state
+                }
+
+                long pingMillis = gpsEvent.timestamp().toEpochMilli();
+                if (pingMillis < state.lastPingMillis) {
+                    return List.of(); // Out of order - the state already reflects a newer ping
+                }
+                state.lastPingMillis = pingMillis;
+                state.lastLatitude = gpsEvent.latitude();
+                state.lastLongitude = gpsEvent.longitude();
+
+                if (sameZones(state.zones, containingZones)) {
+                    // Steady state: one comparison, plus the dwell check
+                    transitions = checkDwell(scooterId, state, pingMillis, null);
+                    entered = List.of();
+                } else {
+                    transitions = new ArrayList<>(2);
+                    entered = applyChange(scooterId, state, containingZones, pingMillis, transitions);
+                    if (state.zones.length == 0) {
+                        state.removed = true;
+                        states.remove(scooterId, state);
+                    }
+                }
+            }
+
+            publish(transitions);
+            return entered;
+        }
+    }
+
+    /**
+     * Ends stays of scooters that stopped pinging, and reports dwell for those that
+     * stay put without pinging.
+     */
+    @Scheduled(fixedDelayString = "${geofencing.zone-state.sweep-interval-ms:5000}")
+    public void sweep() {
+        long nowMillis = System.currentTimeMillis();
+        long exitTimeoutMillis = exitTimeoutSeconds * 1000;
+
+        for (Map.Entry<String, ScooterState> entry : states.entrySet()) {
+            ScooterState state = entry.getValue();
+            List<ZoneTransitionRecord> transitions;
+
+            synchronized (state) {
+                if (state.removed) {
+                    continue;
+                }
+                if (nowMillis - state.lastPingMillis >= exitTimeoutMillis) {
+                    transitions = new ArrayList<>(state.zones.length);
+                    for (int i = 0; i < state.zones.length; i++) {
+                        transitions.add(transition(ZoneTransitionType.EXIT, entry.getKey(), state, i, nowMillis));
+                    }
+                    state.removed = true;
+                    states.remove(entry.getKey(), state);
+                } else {
+                    transitions = checkDwell(entry.getKey(), state, nowMillis, null);
+                }
+            }
+
+            publish(transitions);
+        }
+    }
+
+    /**
+     * Number of scooters currently inside a zone.
+     */
+    public int trackedScooters() {
+        return states.size();
+    }
+
+    private static boolean sameZones(ZoneRef[] current, List<ZoneRef> containing) {
+        if (current.length != containing.size()) {
+            return false;
+        }
+        for (ZoneRef zone : containing) {
+            if (indexOf(current, zone.zoneId()) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(ZoneRef[] zones, long zoneId) {
+        for (int i = 0; i < zones.length; i++) {
+            if (zones[i].zoneId() == zoneId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Replaces the scooter's zone set, recording EXIT and ENTER transitions.
+     *
+     * @return Newly entered zones
+     */
+    private List<ZoneRef> applyChange(String scooterId, ScooterState state, List<ZoneRef> containing,
+                                      long pingMillis, List<ZoneTransitionRecord> transitions) {
+        for (int i = 0; i < state.zones.length; i++) {
+            if (!containsZone(containing, state.zones[i].zoneId())) {
+                transitions.add(transition(ZoneTransitionType.EXIT, scooterId, state, i, pingMillis));
+            }
+        }
+
+        int size = containing.size();
+        ZoneRef[] zones = new ZoneRef[size];
+        long[] enteredAtMillis = new long[size];
+        boolean[] dwellReported = new boolean[size];
+        List<ZoneRef> entered = new ArrayList<>(1);
+
+        for (int i = 0; i < size; i++) {
+            ZoneRef zone = containing.get(i);
+            int previous = indexOf(state.zones, zone.zoneId());
+            zones[i] = zone;
+            if (previous >= 0) {
+                enteredAtMillis[i] = state.enteredAtMillis[previous];
+                dwellReported[i] = state.dwellReported[previous];
+            } else {
+                enteredAtMillis[i] = pingMillis;
+                entered.add(zone);
+            }
+        }
+
+        state.zones = zones;
+        state.enteredAtMillis = enteredAtMillis;
+        state.dwellReported = dwellReported;
+
+        for (ZoneRef zone : entered) {
+            transitions.add(transition(ZoneTransitionType.ENTER, scooterId, state,
+                indexOf(zones, zone.zoneId()), pingMillis));
+        }
+        checkDwell(scooterId, state, pingMillis, transitions);
+        return entered;
+    }
+
+    private static boolean containsZone(List<ZoneRef> zones, long zoneId) {
+        for (ZoneRef zone : zones) {
+            if (zone.zoneId() == zoneId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Records DWELL_EXCEEDED for zones the scooter has been in for longer than the threshold.
+     *
+     * @param transitions List to add to, or null to allocate one only if needed
+     * @return The transitions (List.of() if none and none were passed in)
+     */
+    private List<ZoneTransitionRecord> checkDwell(String scooterId, ScooterState state, long nowMillis,
+                                                  List<ZoneTransitionRecord> transitions) {
+        long thresholdMillis = dwellThresholdSeconds * 1000;
+        for (int i = 0; i < state.zones.length; i++) {
+            if (!state.dwellReported[i] && nowMillis - state.enteredAtMillis[i] >= thresholdMillis) {
+                state.dwellReported[i] = true;
+                if (transitions == null) {
+                    transitions = new ArrayList<>(1);
+                }
+                transitions.add(transition(ZoneTransitionType.DWELL_EXCEEDED, scooterId, state, i, nowMillis));
+            }
+        }
+        return transitions != null ? transitions : List.of();
+    }
+
+    private static ZoneTransitionRecord transition(ZoneTransitionType type, String scooterId, ScooterState state,
+                                                   int zoneIndex, long atMillis) {
+        ZoneRef zone = state.zones[zoneIndex];
+        long dwellSeconds = type == ZoneTransitionType.ENTER
+            ? 0
+            : Math.max(atMillis - state.enteredAtMillis[zoneIndex], 0) / 1000;
+        return new ZoneTransitionRecord(type, scooterId, zone.zoneId(), zone.name(), zone.severity(),
+            state.lastLatitude, state.lastLongitude, Instant.ofEpochMilli(atMillis), dwellSeconds);
+    }
+
+    /**
+     * Counts and broadcasts transitions (also used for CROSSED by TrajectoryCrossingDetector).
+     * Best effort: a failed broadcast never reaches the caller (see class comment).
+     */
+    void publish(List<ZoneTransitionRecord> transitions) {
+        for (ZoneTransitionRecord transition : transitions) {
+            transitionCounters.get(transition.type()).increment();
+            log.debug("Zone transition: {} scooter={}, zone={}", transition.type(), transition.scooterId(),
+                transition.zoneName());
+            try {
+                zoneAlertPublisher.publishTransition(transition);
+            } catch (RuntimeException e) {
+                publishFailureCounter.increment();
+                log.error("Failed to broadcast zone transition: {} scooter={}, zone={}", transition.type(),
+                    transition.scooterId(), transition.zoneName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.ZoneTransitionRecord;
+import com.geofencing.engine.service.ScooterZoneStateTracker.ZoneRef;
+import com.geofencing.engine.spatial.GeoDistance;
+import com.geofencing.engine.spatial.ZoneSpatialIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.LineString;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Detects zones a scooter passed through between two pings (SEGMENT crossing mode).
+ *
+ * Before: only single pings were tested. A scooter at 25 km/h pinging every 20s moves
+ *         ~140m between pings and can cross a 20m no-ride strip without a ping inside it.
+ * After: each scooter's previous ping is kept, and the straight segment to the new
+ *        ping is tested against the zone index:
+ *        1. STRtree query with the segment's envelope (no geometry built on a miss)
+ *        2. Prepared intersects() against the candidate zones
+ *        3. For zones that contain neither end, a CROSSED transition is published on
+ *           /topic/alerts with the estimated entry point and entry time (interpolated
+ *           along the segment)
+ *        Zones containing an end are already handled by ScooterZoneStateTracker
+ *        (ENTER/EXIT), so they are not reported twice.
+ *
+ * Skipped when:
+ * - the gap between the pings is longer than max-gap-seconds (the straight line is
+ *   no longer a plausible path)
+ * - the new ping is within the MotionGate safe radius: both ends lie in a disk that
+ *   touches no zone boundary, so the segment can't cross one either
+ * - the zone engine isn't READY (no snapshot to test against)
+ *
+ * Every ping of the scooter has to reach update(), including pings outside all
+ * zones: the segment ends there. The binary WebSocket and UDP paths therefore
+ * skip their zone miss probe while this mode is SEGMENT (see tracksSegments()).
+ *
+ * Cost per ping: one map update, plus one envelope query. See CrossingBenchmark.
+ *
+ * Metrics:
+ * - geofencing.zone.transitions{type=CROSSED}: crossings (counted by ScooterZoneStateTracker)
+ * - geofencing.zone.crossing.tracked: scooters with a kept previous position
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TrajectoryCrossingDetector {
+
+    private final ZoneLookupEngine zoneLookupEngine;
+    private final ScooterZoneStateTracker scooterZoneStateTracker;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${geofencing.crossing.mode:POINT}")
+    private ZoneCrossingMode mode;
+
+    @Value("${geofencing.crossing.max-gap-seconds:60}")
+    private long maxGapSeconds;
+
+    private final Map<String, Position> previousPositions = new ConcurrentHashMap<>();
+
+    private record Position(double latitude, double longitude, long timestampMillis) {
+    }
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("geofencing.zone.crossing.tracked", previousPositions, Map::size)
+            .description("Scooters with a previous position kept for segment crossing checks")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Whether every ping has to reach update(), not only pings inside a zone.
+     */
+    public boolean tracksSegments() {
+        return mode == ZoneCrossingMode.SEGMENT;
+    }
+
+    /**
+     * Records the ping as the scooter's previous position and publishes the zones
+     * it crossed since the last one.
+     *
+     * @param gpsEvent         The ping
+     * @param containingZones  Zones containing the ping
+     * @param withinSafeRadius Whether the MotionGate answered this ping from its anchor
+     * @return The CROSSED transitions published (empty in POINT mode)
+     */
+    public List<ZoneTransitionRecord> update(GpsEventRecord gpsEvent, List<ZoneRef> containingZones,
+                                             boolean withinSafeRadius) {
+        if (mode != ZoneCrossingMode.SEGMENT) {
+            return List.of();
+        }
+
+        long timestampMillis = gpsEvent.timestamp().toEpochMilli();
+        Position current = new Position(gpsEvent.latitude(), gpsEvent.longitude(), timestampMillis);
+        Position previous = previousPositions.get(gpsEvent.scooterId());
+        if (previous != null && timestampMillis < previous.timestampMillis()) {
+            return List.of(); // Out of order - keep the newer position
+        }
+        previousPositions.put(gpsEvent.scooterId(), current);
+
+        if (previous == null
+            || withinSafeRadius
+            || timestampMillis - previous.timestampMillis() > maxGapSeconds * 1000
+            || zoneLookupEngine.state() != ZoneEngineState.READY) {
+            return List.of();
+        }
+
+        List<CachedZoneRecord> crossedZones = zoneLookupEngine.findCrossedZones(
+            previous.latitude(), previous.longitude(), current.latitude(), current.longitude());
+        if (crossedZones.isEmpty()) {
+            return List.of();
+        }
+
+        List<ZoneTransitionRecord> crossings = new ArrayList<>(1);
+        LineString segment = null;
+        for (CachedZoneRecord zone : crossedZones) {
+            if (containsZone(containingZones, zone.zoneId()) || zone.contains(previous.latitude(), previous.longitude())) {
+                continue; // An end is inside: ENTER/EXIT of the zone state
+            }
+            if (segment == null) {
+                segment = ZoneSpatialIndex.segment(previous.latitude(), previous.longitude(),
+                    current.latitude(), current.longitude());
+            }
+            crossings.add(crossing(gpsEvent.scooterId(), zone, segment, previous, current));
+        }
+
+        scooterZoneStateTracker.publish(crossings);
+        return crossings;
+    }
+
+    /**
+     * Drops positions too old to start a segment.
+     */
+    @Scheduled(fixedDelayString = "${geofencing.crossing.sweep-interval-ms:60000}")
+    public void evictStalePositions() {
+        long cutoffMillis = System.currentTimeMillis() - maxGapSeconds * 1000;
+        previousPositions.values().removeIf(position -> position.timestampMillis() < cutoffMillis);
+    }
+
+    private static ZoneTransitionRecord crossing(String scooterId, CachedZoneRecord zone, LineString segment,
+                                                 Position previous, Position current) {
+        Coordinate entry = zone.entryPoint(segment);
+        if (entry == null) {
+            // Touched the boundary only
+            entry = new Coordinate(previous.longitude(), previous.latitude());
+        }
+
+        // Entry time: interpolated by the distance travelled along the segment
+        double segmentMeters = GeoDistance.distanceMeters(previous.latitude(), previous.longitude(),
+            current.latitude(), current.longitude());
+        double entryMeters = GeoDistance.distanceMeters(previous.latitude(), previous.longitude(), entry.y, entry.x);
+        double fraction = segmentMeters > 0 ? Math.min(entryMeters / segmentMeters, 1) : 0;
+        long entryMillis = previous.timestampMillis()
+            + Math.round(fraction * (current.timestampMillis() - previous.timestampMillis()));
+
+        log.debug("Zone crossing: scooter={}, zone={}, entry=({}, {})", scooterId, zone.name(), entry.y, entry.x);
+
+        return new ZoneTransitionRecord(ZoneTransitionType.CROSSED, scooterId, zone.zoneId(), zone.name(),
+            zone.severity(), entry.y, entry.x, Instant.ofEpochMilli(entryMillis), 0);
+    }
+
+    private static boolean containsZone(List<ZoneRef> zones, long zoneId) {
+        for (ZoneRef zone : zones) {
+            if (zone.zoneId() == zoneId) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
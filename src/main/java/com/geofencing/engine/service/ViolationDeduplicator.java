@@ -0,0 +1,138 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dedup.DedupWindowStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-process deduplication of (scooter, zone) violations.
+ *
+ * Before: every detected violation ran ZoneViolationRepository.hasRecentViolation
+ *         (a COUNT query with a hard-coded 300s window) before saving.
+ * After: one lookup in a primitive in-memory map (DedupWindowStore), no DB round trip.
+ *
+ * Key: (scooterId.hashCode() << 32) | (zoneId & 0xFFFFFFFF)
+ * - Two scooters with colliding String hashes in the same zone share a window.
+ *   With 32-bit hashes this is rare and only suppresses a duplicate alert.
+ *
+ * Window per severity (geofencing.dedup.window-seconds.*):
+ * - HIGH zones can re-alert sooner than LOW zones if operations wants that
+ * - Unknown/null severity uses the default window
+ *
+ * Scope: windows are per node. Events of one scooter go to one node in normal
+ * operation; after a failover a scooter may get one extra alert per zone.
+ *
+ * Metrics:
+ * - geofencing.dedup.entries: recorded (scooter, zone) windows
+ * - geofencing.dedup.occupancy: entries / map capacity
+ * - geofencing.dedup.evictions: windows expired by the timing wheel
+ * - geofencing.dedup.suppressed: duplicate violations suppressed
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ViolationDeduplicator {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${geofencing.dedup.window-seconds.default:300}")
+    private long defaultWindowSeconds;
+
+    @Value("${geofencing.dedup.window-seconds.high:300}")
+    private long highWindowSeconds;
+
+    @Value("${geofencing.dedup.window-seconds.medium:300}")
+    private long mediumWindowSeconds;
+
+    @Value("${geofencing.dedup.window-seconds.low:300}")
+    private long lowWindowSeconds;
+
+    @Value("${geofencing.dedup.segments:16}")
+    private int segmentCount;
+
+    @Value("${geofencing.dedup.initial-capacity:65536}")
+    private int initialCapacity;
+
+    private DedupWindowStore store;
+    private Counter suppressedCounter;
+
+    @PostConstruct
+    void init() {
+        store = new DedupWindowStore(segmentCount, Math.max(initialCapacity / segmentCount, 4), 1000);
+
+        Gauge.builder("geofencing.dedup.entries", store, DedupWindowStore::size)
+            .description("Recorded (scooter, zone) deduplication windows")
+            .register(meterRegistry);
+
+        Gauge.builder("geofencing.dedup.occupancy", store, s -> (double) s.size() / s.capacity())
+            .description("Deduplication map entries / capacity")
+            .register(meterRegistry);
+
+        FunctionCounter.builder("geofencing.dedup.evictions", store, DedupWindowStore::evictions)
+            .description("Deduplication windows expired by the timing wheel")
+            .register(meterRegistry);
+
+        suppressedCounter = Counter.builder("geofencing.dedup.suppressed")
+            .description("Duplicate violations suppressed")
+            .register(meterRegistry);
+
+        log.info("Violation dedup windows: HIGH={}s, MEDIUM={}s, LOW={}s, default={}s",
+            highWindowSeconds, mediumWindowSeconds, lowWindowSeconds, defaultWindowSeconds);
+    }
+
+    /**
+     * Records a violation for (scooter, zone) unless one was recorded within the window.
+     *
+     * @return true if this violation should be raised, false if it is a duplicate
+     */
+    public boolean tryRecord(String scooterId, Long zoneId, String severity) {
+        boolean recorded = store.tryRecord(
+            packKey(scooterId, zoneId),
+            System.currentTimeMillis(),
+            windowSeconds(severity) * 1000);
+
+        if (!recorded) {
+            suppressedCounter.increment();
+        }
+        return recorded;
+    }
+
+    /**
+     * Forgets the window for (scooter, zone), so the next hit raises a violation again.
+     */
+    public void forget(String scooterId, Long zoneId) {
+        store.remove(packKey(scooterId, zoneId));
+    }
+
+    /**
+     * Expires windows of segments that received no traffic since their window ended.
+     */
+    @Scheduled(fixedDelayString = "${geofencing.dedup.sweep-interval-ms:1000}")
+    public void evictExpired() {
+        store.evictExpired(System.currentTimeMillis());
+    }
+
+    private long windowSeconds(String severity) {
+        if (severity == null) {
+            return defaultWindowSeconds;
+        }
+        return switch (severity) {
+            case "HIGH" -> highWindowSeconds;
+            case "MEDIUM" -> mediumWindowSeconds;
+            case "LOW" -> lowWindowSeconds;
+            default -> defaultWindowSeconds;
+        };
+    }
+
+    static long packKey(String scooterId, Long zoneId) {
+        return ((long) scooterId.hashCode() << 32) | (zoneId & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,231 @@
+package com.geofencing.engine.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains the daily partitions of zone_violations (see V2 migration).
+ *
+ * Every run (on startup and daily):
+ * 1. Creates the partitions for today .. today + create-ahead-days
+ *    (so inserts never land in the DEFAULT partition during normal operation)
+ * 2. Drops or detaches (PartitionRetentionAction) partitions whose upper bound
+ *    is older than retention-days
+ *
+ * Partitions are discovered from the catalog (pg_inherits + partition bounds),
+ * not from their names, so the attached legacy table is expired like any other
+ * partition once all of its rows are past retention.
+ *
+ * Every node runs this at startup and at the same cron time, so a run holds a
+ * PostgreSQL session-level advisory lock (pg_advisory_lock) on one connection for
+ * its whole duration. Runs on other nodes wait for it, then list the partitions
+ * again and find nothing left to do - instead of racing each other's CREATE,
+ * DROP and DETACH statements.
+ *
+ * Metrics:
+ * - geofencing.violations.partitions.created
+ * - geofencing.violations.partitions.expired{action}
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ViolationPartitionManager {
+
+    private static final String PARENT_TABLE = "zone_violations";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    // Matches the upper bound in "FOR VALUES FROM (...) TO ('2026-10-19 00:00:00')"
+    private static final Pattern UPPER_BOUND = Pattern.compile("TO \\('([^']+)'\\)");
+    private static final Pattern LOWER_BOUND = Pattern.compile("FROM \\('([^']+)'\\)");
+
+    private static final String LIST_PARTITIONS_SQL = """
+        SELECT c.relname AS name, pg_get_expr(c.relpartbound, c.oid) AS bound
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = 'zone_violations'::regclass
+        """;
+
+    // Same key on every node; released on the same connection that took it
+    private static final String LOCK_SQL = "SELECT pg_advisory_lock(hashtext('zone_violations_partitions'))";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(hashtext('zone_violations_partitions'))";
+
+    /**
+     * A partition and its range (null bound = MINVALUE/MAXVALUE or DEFAULT).
+     */
+    record PartitionInfo(String name, LocalDateTime lowerBound, LocalDateTime upperBound, boolean isDefault) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${geofencing.violations.partitions.create-ahead-days:7}")
+    private int createAheadDays;
+
+    @Value("${geofencing.violations.partitions.retention-days:90}")
+    private int retentionDays;
+
+    @Value("${geofencing.violations.partitions.retention-action:DROP}")
+    private PartitionRetentionAction retentionAction;
+
+    private Counter createdCounter;
+    private Counter expiredCounter;
+
+    @PostConstruct
+    void init() {
+        registerMetrics();
+
+        // Make sure today's partition exists before the first violation is written
+        maintainPartitions();
+    }
+
+    void registerMetrics() {
+        createdCounter = Counter.builder("geofencing.violations.partitions.created")
+            .description("Daily zone_violations partitions created")
+            .register(meterRegistry);
+        expiredCounter = Counter.builder("geofencing.violations.partitions.expired")
+            .description("zone_violations partitions removed by retention")
+            .tag("action", retentionAction.name())
+            .register(meterRegistry);
+    }
+
+    /**
+     * Daily partition maintenance (default: 00:15 every day).
+     */
+    @Scheduled(cron = "${geofencing.violations.partitions.maintenance-cron:0 15 0 * * *}")
+    public void maintainPartitions() {
+        try {
+            // Advisory locks belong to the session: lock, maintain and unlock on one connection
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                JdbcTemplate session = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+                session.execute(LOCK_SQL);
+                try {
+                    maintainPartitions(session);
+                } finally {
+                    session.execute(UNLOCK_SQL);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            // Don't throw - inserts still succeed via the DEFAULT partition
+            log.error("Violation partition maintenance failed", e);
+        }
+    }
+
+    private void maintainPartitions(JdbcTemplate session) {
+        LocalDate today = LocalDate.now();
+        List<PartitionInfo> partitions = listPartitions(session);
+
+        int created = createAhead(session, today, partitions);
+        int expired = expireOld(session, today, partitions);
+
+        log.info("Violation partition maintenance: {} created, {} {} (retention {} days)",
+            created, expired, retentionAction == PartitionRetentionAction.DROP ? "dropped" : "detached",
+            retentionDays);
+    }
+
+    private int createAhead(JdbcTemplate session, LocalDate today, List<PartitionInfo> partitions) {
+        int created = 0;
+
+        for (int i = 0; i <= createAheadDays; i++) {
+            LocalDate day = today.plusDays(i);
+            if (isCovered(day.atStartOfDay(), partitions)) {
+                continue;
+            }
+
+            String name = PARENT_TABLE + "_p" + day.format(PARTITION_SUFFIX);
+            try {
+                session.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    name, PARENT_TABLE, day, day.plusDays(1)));
+                createdCounter.increment();
+                created++;
+                log.info("Created violation partition {}", name);
+            } catch (Exception e) {
+                // Typically: the DEFAULT partition already holds rows for that day
+                log.error("Failed to create violation partition {}: {}", name, e.getMessage());
+            }
+        }
+
+        return created;
+    }
+
+    private int expireOld(JdbcTemplate session, LocalDate today, List<PartitionInfo> partitions) {
+        LocalDateTime cutoff = today.minusDays(retentionDays).atStartOfDay();
+        int expired = 0;
+
+        for (PartitionInfo partition : partitions) {
+            if (partition.isDefault() || partition.upperBound() == null
+                || partition.upperBound().isAfter(cutoff)) {
+                continue;
+            }
+
+            String sql = retentionAction == PartitionRetentionAction.DROP
+                ? String.format("DROP TABLE %s", partition.name())
+                : String.format("ALTER TABLE %s DETACH PARTITION %s", PARENT_TABLE, partition.name());
+
+            session.execute(sql);
+            expiredCounter.increment();
+            expired++;
+            log.info("Expired violation partition {} (upper bound {}) with {}",
+                partition.name(), partition.upperBound(), retentionAction);
+        }
+
+        return expired;
+    }
+
+    private static List<PartitionInfo> listPartitions(JdbcTemplate session) {
+        return session.query(LIST_PARTITIONS_SQL,
+            (rs, rowNum) -> parsePartition(rs.getString("name"), rs.getString("bound")));
+    }
+
+    private static boolean isCovered(LocalDateTime dayStart, List<PartitionInfo> partitions) {
+        for (PartitionInfo partition : partitions) {
+            if (partition.isDefault()) {
+                continue;
+            }
+            boolean afterLower = partition.lowerBound() == null || !dayStart.isBefore(partition.lowerBound());
+            boolean beforeUpper = partition.upperBound() == null || dayStart.isBefore(partition.upperBound());
+            if (afterLower && beforeUpper) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses a partition bound expression as returned by pg_get_expr(relpartbound).
+     */
+    static PartitionInfo parsePartition(String name, String bound) {
+        if ("DEFAULT".equals(bound)) {
+            return new PartitionInfo(name, null, null, true);
+        }
+        return new PartitionInfo(name, parseBound(LOWER_BOUND, bound), parseBound(UPPER_BOUND, bound), false);
+    }
+
+    private static LocalDateTime parseBound(Pattern pattern, String bound) {
+        Matcher matcher = pattern.matcher(bound);
+        if (!matcher.find()) {
+            return null; // MINVALUE / MAXVALUE
+        }
+        String value = matcher.group(1);
+        return value.length() == 10
+            ? LocalDate.parse(value).atStartOfDay()
+            : LocalDateTime.parse(value.replace(' ', 'T'));
+    }
+}
@@ -0,0 +1,15 @@
+package com.geofencing.engine.service;
+
+/**
+ * How the write-behind flusher writes a batch of violations.
+ *
+ * - BATCH: multi-row INSERT ... ON CONFLICT DO NOTHING (ZoneViolationBatchWriter).
+ *   Idempotent, good for steady traffic.
+ * - COPY: binary COPY FROM STDIN (ZoneViolationCopyWriter). Highest rows/second,
+ *   meant for bursts (e.g. a festival closure zone). Falls back to BATCH when a
+ *   COPY fails, e.g. because the batch contains an already written violation.
+ */
+public enum ViolationPersistenceMode {
+    BATCH,
+    COPY
+}
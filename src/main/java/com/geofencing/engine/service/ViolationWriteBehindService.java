@@ -0,0 +1,399 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import com.geofencing.engine.repository.ZoneViolationBatchWriter;
+import com.geofencing.engine.repository.ZoneViolationCopyWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Asynchronous, batched persistence of zone violations (write-behind).
+ *
+ * Before: every violation was saved with violationRepository.save() inside the
+ *         @Transactional detection call - one INSERT round trip per violation,
+ *         and the GPS thread waited for it.
+ * After: detection enqueues the ZoneViolationRecord and returns immediately.
+ *        A single flusher thread writes each batch with the configured
+ *        ViolationPersistenceMode:
+ *        - BATCH: multi-row INSERT (ZoneViolationBatchWriter)
+ *        - COPY: binary COPY (ZoneViolationCopyWriter), falling back to BATCH if it fails
+ *
+ * Flush triggers:
+ * - Size: batch-size violations are queued
+ * - Time: flush-interval-ms passed since the oldest violation of the batch was queued
+ *
+ * Backpressure: the queue is bounded (queue-capacity); WriteBehindOverflowPolicy
+ * decides what happens when it is full.
+ *
+ * Failure handling: a failed batch is kept and retried by the flusher, with
+ * exponential backoff (retry-backoff-ms, doubling, at most 30s) up to max-retries
+ * times. Nothing upstream would raise it again: a violation is only raised when a
+ * scooter ENTERS a zone, and the scooter is still in it. A batch that exhausts its
+ * retries - or fails while queue-capacity violations already wait for a retry - is
+ * dead-lettered: every violation is logged at ERROR (enough to re-insert it) and
+ * counted.
+ *
+ * Shutdown: @PreDestroy stops accepting and drains the queue.
+ *
+ * Metrics:
+ * - geofencing.violations.queue.depth: violations waiting to be written
+ * - geofencing.violations.flush{mode}: flush (INSERT/COPY) duration
+ * - geofencing.violations.flush.size: violations per flush
+ * - geofencing.violations.write.lag: time from enqueue to written
+ * - geofencing.violations.written / write.failed (per failed attempt) / dropped
+ * - geofencing.violations.retry.pending: violations waiting for a retry
+ * - geofencing.violations.dead.lettered: violations given up on after failed retries
+ * - geofencing.violations.copy.fallbacks: COPY batches re-written with INSERT
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ViolationWriteBehindService {
+
+    private final ZoneViolationBatchWriter batchWriter;
+    private final ZoneViolationCopyWriter copyWriter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${geofencing.violations.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${geofencing.violations.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${geofencing.violations.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${geofencing.violations.write-behind.overflow-policy:BLOCK}")
+    private WriteBehindOverflowPolicy overflowPolicy;
+
+    @Value("${geofencing.violations.persistence.mode:BATCH}")
+    private ViolationPersistenceMode persistenceMode;
+
+    @Value("${geofencing.violations.write-behind.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    @Value("${geofencing.violations.write-behind.max-retries:5}")
+    private int maxRetries;
+
+    @Value("${geofencing.violations.write-behind.retry-backoff-ms:1000}")
+    private long retryBackoffMs;
+
+    private static final long MAX_RETRY_BACKOFF_MS = 30_000;
+
+    private BlockingQueue<PendingViolation> queue;
+    // Failed batches waiting for their next attempt (written by any flushing thread, read by the flusher)
+    private final Queue<FailedBatch> retries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger retryPending = new AtomicInteger();
+    private Thread flusherThread;
+    private volatile boolean running;
+
+    private Timer flushTimer;
+    private Timer writeLagTimer;
+    private DistributionSummary flushSizeSummary;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Counter droppedCounter;
+    private Counter copyFallbackCounter;
+    private Counter deadLetterCounter;
+
+    /**
+     * Queued violation with its enqueue time (for lag metrics).
+     */
+    private record PendingViolation(ZoneViolationRecord violation, long enqueuedAtNanos) {
+    }
+
+    /**
+     * Batch whose write failed, with the attempts made so far.
+     */
+    private record FailedBatch(List<PendingViolation> batch, int attempts, long retryAtNanos) {
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        Gauge.builder("geofencing.violations.queue.depth", queue, BlockingQueue::size)
+            .description("Violations waiting to be written")
+            .register(meterRegistry);
+        flushTimer = Timer.builder("geofencing.violations.flush")
+            .description("Time spent writing one batch of violations")
+            .tag("mode", persistenceMode.name())
+            .register(meterRegistry);
+        writeLagTimer = Timer.builder("geofencing.violations.write.lag")
+            .description("Time from detection to the violation being written")
+            .register(meterRegistry);
+        flushSizeSummary = DistributionSummary.builder("geofencing.violations.flush.size")
+            .description("Violations per flush")
+            .register(meterRegistry);
+        writtenCounter = Counter.builder("geofencing.violations.written")
+            .description("Violations written to the database")
+            .register(meterRegistry);
+        failedCounter = Counter.builder("geofencing.violations.write.failed")
+            .description("Violations whose batch failed to write")
+            .register(meterRegistry);
+        droppedCounter = Counter.builder("geofencing.violations.dropped")
+            .description("Violations dropped because the write-behind queue was full")
+            .tag("policy", overflowPolicy.name())
+            .register(meterRegistry);
+        copyFallbackCounter = Counter.builder("geofencing.violations.copy.fallbacks")
+            .description("COPY batches that failed and were re-written with INSERT")
+            .register(meterRegistry);
+        Gauge.builder("geofencing.violations.retry.pending", retryPending, AtomicInteger::get)
+            .description("Violations of failed batches waiting for a retry")
+            .register(meterRegistry);
+        deadLetterCounter = Counter.builder("geofencing.violations.dead.lettered")
+            .description("Violations not persisted after exhausting their write retries")
+            .register(meterRegistry);
+
+        running = true;
+        flusherThread = new Thread(this::runFlusher, "violation-write-behind");
+        flusherThread.setDaemon(true);
+        flusherThread.start();
+
+        log.info("Violation write-behind started: mode={}, capacity={}, batchSize={}, flushInterval={}ms, overflow={}, "
+            + "maxRetries={}", persistenceMode, queueCapacity, batchSize, flushIntervalMs, overflowPolicy, maxRetries);
+    }
+
+    /**
+     * Queues a violation for persistence. Never waits on the database
+     * (except with the BLOCK/CALLER_RUNS policies when the queue is full).
+     */
+    public void enqueue(ZoneViolationRecord violation) {
+        PendingViolation pending = new PendingViolation(violation, System.nanoTime());
+
+        if (!running) {
+            // Shutting down - write directly so nothing is lost
+            flush(List.of(pending));
+            return;
+        }
+
+        if (queue.offer(pending)) {
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> {
+                try {
+                    queue.put(pending);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    dropped(violation);
+                }
+            }
+            case DROP_NEWEST -> dropped(violation);
+            case DROP_OLDEST -> {
+                while (!queue.offer(pending)) {
+                    PendingViolation oldest = queue.poll();
+                    if (oldest != null) {
+                        dropped(oldest.violation());
+                    }
+                }
+            }
+            case CALLER_RUNS -> flush(List.of(pending));
+        }
+    }
+
+    /**
+     * Queues several violations (e.g. from a GPS batch) back to back, so the
+     * flusher normally writes them in one batch.
+     */
+    public void enqueueAll(List<ZoneViolationRecord> violations) {
+        for (ZoneViolationRecord violation : violations) {
+            enqueue(violation);
+        }
+    }
+
+    /**
+     * Number of violations waiting to be written.
+     */
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void dropped(ZoneViolationRecord violation) {
+        droppedCounter.increment();
+        log.warn("Write-behind queue full, violation not persisted: {}", violation.toLogString());
+    }
+
+    /**
+     * Flusher loop: waits for the first violation, then fills the batch until it is
+     * full or the oldest violation has waited flush-interval-ms.
+     */
+    private void runFlusher() {
+        List<PendingViolation> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty() || !retries.isEmpty()) {
+            try {
+                retryDueBatches();
+
+                PendingViolation first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = first.enqueuedAtNanos() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0 || !running) {
+                        break;
+                    }
+                    PendingViolation next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                flush(batch);
+            } catch (InterruptedException e) {
+                // Stop waiting; the loop condition decides whether to drain
+                running = false;
+            } catch (Exception e) {
+                log.error("Violation write-behind flusher error", e);
+            } finally {
+                batch.clear();
+            }
+        }
+
+        log.info("Violation write-behind flusher stopped");
+    }
+
+    /**
+     * Re-writes the failed batches whose backoff has passed.
+     */
+    private void retryDueBatches() {
+        long now = System.nanoTime();
+        for (int i = retries.size(); i > 0; i--) {
+            FailedBatch failed = retries.poll();
+            if (failed == null) {
+                return;
+            }
+            if (running && failed.retryAtNanos() - now > 0) {
+                retries.offer(failed); // Not due yet
+                continue;
+            }
+            retryPending.addAndGet(-failed.batch().size());
+            log.info("Retrying write of {} violations (attempt {} of {})",
+                failed.batch().size(), failed.attempts() + 1, maxRetries + 1);
+            flush(failed.batch(), failed.attempts());
+        }
+    }
+
+    private void deadLetter(List<PendingViolation> batch, String reason) {
+        deadLetterCounter.increment(batch.size());
+        log.error("Giving up on {} violations ({}), not persisted:", batch.size(), reason);
+        for (PendingViolation pending : batch) {
+            log.error("Dead-lettered violation: {}", pending.violation().toLogString());
+        }
+    }
+
+    private void flush(List<PendingViolation> batch) {
+        flush(batch, 0);
+    }
+
+    /**
+     * Writes a batch; on failure keeps it for a retry, or dead-letters it.
+     *
+     * @param attempts Failed attempts made before this one
+     */
+    private void flush(List<PendingViolation> batch, int attempts) {
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        List<ZoneViolationRecord> violations = new ArrayList<>(batch.size());
+        for (PendingViolation pending : batch) {
+            violations.add(pending.violation());
+        }
+
+        long startTime = System.nanoTime();
+        try {
+            write(violations);
+
+            long endTime = System.nanoTime();
+            flushTimer.record(endTime - startTime, TimeUnit.NANOSECONDS);
+            flushSizeSummary.record(violations.size());
+            writtenCounter.increment(violations.size());
+            for (PendingViolation pending : batch) {
+                writeLagTimer.record(endTime - pending.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+            }
+
+            log.debug("Flushed {} violations in {}µs", violations.size(), (endTime - startTime) / 1000);
+        } catch (Exception e) {
+            failedCounter.increment(violations.size());
+            log.error("Failed to write {} violations (attempt {})", violations.size(), attempts + 1, e);
+            scheduleRetry(batch, attempts + 1);
+        }
+    }
+
+    private void scheduleRetry(List<PendingViolation> batch, int attempts) {
+        if (attempts > maxRetries) {
+            deadLetter(batch, "write failed " + attempts + " times");
+            return;
+        }
+        if (retryPending.addAndGet(batch.size()) > queueCapacity) {
+            retryPending.addAndGet(-batch.size());
+            deadLetter(batch, "retry backlog full");
+            return;
+        }
+
+        long backoffMs = Math.min(retryBackoffMs << Math.min(attempts - 1, 30), MAX_RETRY_BACKOFF_MS);
+        // The flusher clears its batch list after the flush - keep a copy
+        retries.offer(new FailedBatch(List.copyOf(batch), attempts,
+            System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(backoffMs)));
+    }
+
+    /**
+     * Writes one batch with the configured mode. A failed COPY writes nothing,
+     * so the whole batch is retried with INSERT (which also skips duplicates).
+     */
+    private void write(List<ZoneViolationRecord> violations) {
+        if (persistenceMode == ViolationPersistenceMode.COPY) {
+            try {
+                copyWriter.copyAll(violations);
+                return;
+            } catch (Exception e) {
+                copyFallbackCounter.increment();
+                log.warn("COPY of {} violations failed, falling back to batch insert: {}",
+                    violations.size(), e.getMessage());
+            }
+        }
+
+        batchWriter.insertAll(violations);
+    }
+
+    /**
+     * Stops the flusher after the queued violations are written.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        flusherThread.join(shutdownTimeoutMs);
+
+        if (flusherThread.isAlive()) {
+            log.warn("Violation write-behind did not drain within {}ms, {} violations not written, {} awaiting retry",
+                shutdownTimeoutMs, queue.size(), retryPending.get());
+            flusherThread.interrupt();
+        }
+    }
+}
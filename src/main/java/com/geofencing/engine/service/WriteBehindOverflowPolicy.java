@@ -0,0 +1,18 @@
+package com.geofencing.engine.service;
+
+/**
+ * What the violation write-behind queue does when it is full.
+ *
+ * The queue only fills up when the database can't keep up (slow or down),
+ * so the policy decides what gives: detection latency or audit completeness.
+ * - BLOCK: the GPS thread waits for space. No violation is lost, detection slows down.
+ * - DROP_NEWEST: the incoming violation is not persisted (its alert is still sent).
+ * - DROP_OLDEST: the oldest queued violation is discarded to make room.
+ * - CALLER_RUNS: the GPS thread inserts the violation itself, synchronously.
+ */
+public enum WriteBehindOverflowPolicy {
+    BLOCK,
+    DROP_NEWEST,
+    DROP_OLDEST,
+    CALLER_RUNS
+}
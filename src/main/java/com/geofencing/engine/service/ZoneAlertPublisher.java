@@ -0,0 +1,116 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.ZonePredictionRecord;
+import com.geofencing.engine.dto.ZoneTransitionRecord;
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes violation alerts over STOMP.
+ *
+ * Shared by every ingest path (single events, batches) so dashboards
+ * receive the same alert format regardless of how the GPS data arrived.
+ *
+ * Destinations:
+ * - /topic/alerts: one alert per violation, per zone transition, and per predicted
+ *   zone entry (public, dashboards)
+ * - /user/queue/notifications: one message per check listing all its violations (private, sender)
+ *
+ * Alert payloads are LinkedHashMaps, not Map.of(): zone attributes may be null
+ * (V1 allows zones without a severity), and Map.of() throws on null values.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ZoneAlertPublisher {
+
+    private static final String ALERTS_TOPIC = "/topic/alerts";
+    private static final String NOTIFICATIONS_QUEUE = "/queue/notifications";
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    /**
+     * Broadcasts one alert per violation and notifies the sender once.
+     *
+     * @param violations Violations to publish (nothing is sent if empty)
+     * @param recipient  Principal name of the sender; null = no private notification
+     */
+    public void publishViolations(List<ZoneViolationRecord> violations, String recipient) {
+        if (violations.isEmpty()) {
+            return;
+        }
+
+        for (ZoneViolationRecord violation : violations) {
+            publishAlert(violation);
+        }
+
+        if (recipient != null) {
+            Map<String, Object> notification = Map.of(
+                    "status", "VIOLATION",
+                    "message", "You have entered a restricted zone!",
+                    "violations", violations,
+                    "timestamp", Instant.now().toString()
+            );
+            messagingTemplate.convertAndSendToUser(recipient, NOTIFICATIONS_QUEUE, notification);
+        }
+    }
+
+    /**
+     * Broadcasts a violation alert to all subscribers of /topic/alerts.
+     */
+    public void publishAlert(ZoneViolationRecord violation) {
+        Map<String, Object> alert = new LinkedHashMap<>();
+        alert.put("type", "VIOLATION");
+        alert.put("scooterId", violation.scooterId());
+        alert.put("zoneName", violation.zoneName());
+        alert.put("severity", violation.severity());
+        alert.put("latitude", violation.latitude());
+        alert.put("longitude", violation.longitude());
+        alert.put("timestamp", Instant.now().toString());
+        messagingTemplate.convertAndSend(ALERTS_TOPIC, alert);
+    }
+
+    /**
+     * Broadcasts a zone transition (ENTER, DWELL_EXCEEDED, EXIT) to /topic/alerts.
+     */
+    public void publishTransition(ZoneTransitionRecord transition) {
+        Map<String, Object> alert = new LinkedHashMap<>();
+        alert.put("type", transition.type().name());
+        alert.put("scooterId", transition.scooterId());
+        alert.put("zoneId", transition.zoneId());
+        alert.put("zoneName", transition.zoneName());
+        alert.put("severity", transition.severity());
+        alert.put("latitude", transition.latitude());
+        alert.put("longitude", transition.longitude());
+        alert.put("dwellSeconds", transition.dwellSeconds());
+        alert.put("timestamp", transition.timestamp().toString());
+        messagingTemplate.convertAndSend(ALERTS_TOPIC, alert);
+    }
+
+    /**
+     * Broadcasts a PREDICTED_ENTRY alert (scooter heading into a zone) to /topic/alerts.
+     */
+    public void publishPrediction(ZonePredictionRecord prediction) {
+        Map<String, Object> alert = new LinkedHashMap<>();
+        alert.put("type", "PREDICTED_ENTRY");
+        alert.put("scooterId", prediction.scooterId());
+        alert.put("zoneId", prediction.zoneId());
+        alert.put("zoneName", prediction.zoneName());
+        alert.put("severity", prediction.severity());
+        alert.put("latitude", prediction.latitude());
+        alert.put("longitude", prediction.longitude());
+        alert.put("entryLatitude", prediction.entryLatitude());
+        alert.put("entryLongitude", prediction.entryLongitude());
+        alert.put("secondsToEntry", Math.round(prediction.secondsToEntry()));
+        alert.put("timestamp", prediction.timestamp().toString());
+        messagingTemplate.convertAndSend(ALERTS_TOPIC, alert);
+    }
+}
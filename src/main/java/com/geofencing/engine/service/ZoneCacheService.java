@@ -3,19 +3,18 @@ package com.geofencing.engine.service;
 import com.geofencing.engine.dto.CachedZoneRecord;
 import com.geofencing.engine.entity.NoParkingZone;
 import com.geofencing.engine.repository.NoParkingZoneRepository;
+import com.geofencing.engine.spatial.ZoneSnapshotCodec;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.locationtech.jts.geom.Polygon;
-import org.locationtech.jts.io.WKTReader;
-import org.locationtech.jts.io.WKTWriter;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -35,9 +34,29 @@ import java.util.concurrent.TimeUnit;
  *
  * Architecture:
  * 1. Cache Warming: Load all zones on startup
- * 2. Cache Format: Store as WKT strings in Redis
+ * 2. Cache Format: One binary snapshot of the whole zone set (WKB + interned names,
+ *    see ZoneSnapshotCodec) - a node loads every zone with a single GET
  * 3. Cache Refresh: Scheduled task every 30 minutes
  * 4. Cache Invalidation: Manual trigger when zones change
+ * 5. Distribution: Every refresh publishes the snapshot together with its version
+ *    ("zones:version"); each node polls the version and reloads its in-heap
+ *    ZoneSnapshot only when it changes
+ *
+ * Publishing is atomic (one Lua script sets both keys): the version key never
+ * points ahead of the stored snapshot. If it did, every node would re-GET the
+ * multi-MB snapshot on each poll without ever confirming its sync, and go
+ * DEGRADED. A refresh whose version was overtaken by another node's publish
+ * retries with the next version, so the last refresh to publish wins.
+ *
+ * Redis only distributes the zone set; detection doesn't depend on it. If the
+ * publish fails (e.g. Redis down at startup), the refresh still installs the zones
+ * it just loaded, as LOCAL_VERSION, so the node serves them instead of staying COLD
+ * and sending every ping to PostGIS. Once Redis answers again, the published zone
+ * set replaces it on the next poll, or the next refresh publishes this one.
+ *
+ * Two-level cache:
+ * - L1: Immutable parsed snapshot in ZoneLookupEngine (read by every GPS event, no I/O)
+ * - L2: Redis (shared across nodes, read only when the version changes)
  *
  * Interview Talking Point:
  * "This demonstrates understanding of caching strategies, distributed systems,
@@ -51,18 +70,54 @@ public class ZoneCacheService {
 
     private final NoParkingZoneRepository zoneRepository;
     private final RedisTemplate<String, String> stringRedisTemplate;
+    private final RedisTemplate<String, byte[]> zoneSnapshotRedisTemplate;
+    private final ZoneLookupEngine zoneLookupEngine;
 
-    // Redis key prefix for zone geometries
-    private static final String ZONE_KEY_PREFIX = "zone:geometry:";
-    private static final String ZONE_METADATA_PREFIX = "zone:metadata:";
-    private static final String ALL_ZONES_KEY = "zones:active";
+    // Redis keys: binary zone set snapshot + its version (polled by every node)
+    private static final String ZONES_SNAPSHOT_KEY = "zones:snapshot";
+    private static final String ZONES_VERSION_KEY = "zones:version";
 
     // TTL for cached zones (60 minutes)
     private static final long CACHE_TTL_MINUTES = 60;
 
-    // JTS readers/writers for WKT conversion
-    private final WKTReader wktReader = new WKTReader();
-    private final WKTWriter wktWriter = new WKTWriter();
+    // Publishes are retried when another node publishes in between; more than this means a bug
+    private static final int MAX_PUBLISH_ATTEMPTS = 5;
+
+    /**
+     * Stores the snapshot and its version together, unless a version at least as new
+     * is already published. Returns the published version afterwards.
+     *
+     * KEYS: snapshot, version. ARGV: version, payload, TTL in seconds.
+     */
+    private static final RedisScript<Long> PUBLISH_SNAPSHOT_SCRIPT = RedisScript.of("""
+        local published = tonumber(redis.call('GET', KEYS[2]) or '0')
+        local version = tonumber(ARGV[1])
+        if version <= published then
+            return published
+        end
+        redis.call('SET', KEYS[1], ARGV[2], 'EX', ARGV[3])
+        redis.call('SET', KEYS[2], ARGV[1])
+        return version
+        """, Long.class);
+
+    /**
+     * Deletes the snapshot and bumps the version in one step. Returns the new version.
+     *
+     * KEYS: snapshot, version.
+     */
+    private static final RedisScript<Long> CLEAR_SNAPSHOT_SCRIPT = RedisScript.of("""
+        redis.call('DEL', KEYS[1])
+        return redis.call('INCR', KEYS[2])
+        """, Long.class);
+
+    /**
+     * Version of a zone set installed from the database without being published.
+     * Published versions start at 1, so it never matches one.
+     */
+    static final long LOCAL_VERSION = 0L;
+
+    // Published version whose payload this node already read (installed, or found equal to its own)
+    private volatile long loadedPublishedVersion = -1;
 
     /**
      * Cache warming on application startup.
@@ -118,169 +173,222 @@ public class ZoneCacheService {
         }
     }
 
+    /**
+     * Polls the shared zone set version and reloads the local snapshot when it changed.
+     *
+     * This is how a zone refresh on one node reaches every other node:
+     * - Cost when nothing changed: one Redis GET per poll interval (not per GPS event)
+     * - Cost on change: one GET of the binary snapshot, decoded off the hot path
+     *
+     * If Redis is unreachable the node keeps serving its current snapshot until
+     * it exceeds the allowed staleness (then the engine reports DEGRADED).
+     */
+    @Scheduled(fixedDelayString = "${geofencing.cache.zones.version-poll-interval-ms:1000}",
+               initialDelayString = "${geofencing.cache.zones.version-poll-interval-ms:1000}")
+    public void syncSnapshotWithRedis() {
+        try {
+            String versionValue = stringRedisTemplate.opsForValue().get(ZONES_VERSION_KEY);
+            if (versionValue == null) {
+                return; // No node has published a zone set yet
+            }
+
+            long version = Long.parseLong(versionValue);
+            if (version == zoneLookupEngine.currentVersion() || version == loadedPublishedVersion) {
+                // The stored snapshot is the installed one - nothing to load
+                zoneLookupEngine.markSynced();
+                return;
+            }
+
+            reloadSnapshot(version);
+        } catch (Exception e) {
+            log.warn("Zone snapshot sync failed, keeping snapshot v{}: {}",
+                zoneLookupEngine.currentVersion(), e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the binary zone set from Redis and installs it as the local snapshot.
+     *
+     * Snapshot and version are published atomically, so the payload normally carries
+     * publishedVersion. Whatever version it carries, once it has been read the node is
+     * in sync with Redis: it is installed if it differs from the local snapshot, and
+     * not read again until the published version changes.
+     *
+     * @param publishedVersion Version currently published in the version key
+     */
+    private synchronized void reloadSnapshot(long publishedVersion) {
+        if (publishedVersion == zoneLookupEngine.currentVersion() || publishedVersion == loadedPublishedVersion) {
+            return; // Installed by a concurrent refresh
+        }
+
+        long startTime = System.nanoTime();
+        byte[] payload = zoneSnapshotRedisTemplate.opsForValue().get(ZONES_SNAPSHOT_KEY);
+
+        if (payload == null) {
+            // Zone set was cleared (or expired) - go COLD so GPS events use the database
+            if (zoneLookupEngine.isLoaded()) {
+                zoneLookupEngine.clear();
+            }
+            return;
+        }
+
+        ZoneSnapshotCodec.DecodedSnapshot decoded = ZoneSnapshotCodec.decode(payload);
+        loadedPublishedVersion = publishedVersion;
+        if (decoded.version() == zoneLookupEngine.currentVersion()) {
+            zoneLookupEngine.markSynced(); // Redis holds the installed snapshot
+            return;
+        }
+
+        zoneLookupEngine.install(decoded.version(), decoded.zones());
+
+        log.info("Loaded zone snapshot v{} from Redis: {} zones, {} bytes in {}ms",
+            decoded.version(), decoded.zones().size(), payload.length,
+            (System.nanoTime() - startTime) / 1_000_000);
+    }
+
+    /**
+     * Version currently published in the version key (0 if none).
+     */
+    private long publishedVersion() {
+        String version = stringRedisTemplate.opsForValue().get(ZONES_VERSION_KEY);
+        return version != null ? Long.parseLong(version) : 0L;
+    }
+
+    /**
+     * Publishes a zone set as the next version: snapshot and version in one atomic step.
+     *
+     * @return The published version and its payload
+     */
+    private PublishedSnapshot publish(List<CachedZoneRecord> zones) {
+        long version = publishedVersion() + 1;
+        for (int attempt = 1; attempt <= MAX_PUBLISH_ATTEMPTS; attempt++) {
+            byte[] payload = ZoneSnapshotCodec.encode(version, zones);
+            Long published = zoneSnapshotRedisTemplate.execute(PUBLISH_SNAPSHOT_SCRIPT,
+                List.of(ZONES_SNAPSHOT_KEY, ZONES_VERSION_KEY),
+                Long.toString(version).getBytes(StandardCharsets.US_ASCII),
+                payload,
+                Long.toString(TimeUnit.MINUTES.toSeconds(CACHE_TTL_MINUTES)).getBytes(StandardCharsets.US_ASCII));
+            if (published == null) {
+                throw new IllegalStateException("Zone snapshot publish returned no version");
+            }
+            if (published == version) {
+                return new PublishedSnapshot(version, payload);
+            }
+            // Another node published v{published} since we read the version - go after it
+            log.info("Zone set v{} was overtaken by v{}, publishing again", version, published);
+            version = published + 1;
+        }
+        throw new IllegalStateException("Zone snapshot not published after " + MAX_PUBLISH_ATTEMPTS + " attempts");
+    }
+
+    private record PublishedSnapshot(long version, byte[] payload) {
+    }
+
     /**
      * Refreshes all active zones in the cache.
      *
      * Strategy:
      * 1. Fetch all active zones from database
-     * 2. Convert geometries to WKT format
-     * 3. Store in Redis with TTL
-     * 4. Maintain a set of active zone IDs for quick lookup
+     * 2. Encode the whole zone set into one binary snapshot (ZoneSnapshotCodec),
+     *    as the version after the published one
+     * 3. Store it in Redis with TTL and publish its version, atomically
+     * 4. Install the new snapshot locally (ZoneLookupEngine) - also if the publish
+     *    failed, as LOCAL_VERSION (see class doc)
+     *
+     * Other nodes notice the new version on their next poll and load the
+     * snapshot with a single GET.
      *
      * @return Number of zones cached
      */
-    public int refreshAllZones() {
+    public synchronized int refreshAllZones() {
         List<NoParkingZone> activeZones = zoneRepository.findByActiveTrue();
 
         if (activeZones.isEmpty()) {
             log.warn("No active zones found in database");
-            return 0;
         }
 
-        int cachedCount = 0;
-        List<String> zoneIds = new ArrayList<>();
+        List<CachedZoneRecord> cachedZones = new ArrayList<>(activeZones.size());
 
         for (NoParkingZone zone : activeZones) {
+            if (zone.getGeometry() == null) {
+                log.warn("Zone {} has null geometry, skipping cache", zone.getId());
+                continue;
+            }
             try {
-                cacheZone(zone);
-                zoneIds.add(String.valueOf(zone.getId()));
-                cachedCount++;
+                cachedZones.add(CachedZoneRecord.fromEntity(
+                    zone.getId(), zone.getName(), zone.getGeometry(), zone.getSeverity()));
             } catch (Exception e) {
                 log.error("Failed to cache zone: {}", zone.getId(), e);
             }
         }
 
-        // Store list of active zone IDs for quick iteration
-        stringRedisTemplate.delete(ALL_ZONES_KEY);
-        if (!zoneIds.isEmpty()) {
-            stringRedisTemplate.opsForSet().add(ALL_ZONES_KEY, zoneIds.toArray(new String[0]));
-            stringRedisTemplate.expire(ALL_ZONES_KEY, CACHE_TTL_MINUTES, TimeUnit.MINUTES);
-        }
-
-        log.info("Cached {} zones in Redis", cachedCount);
-        return cachedCount;
-    }
-
-    /**
-     * Caches a single zone in Redis.
-     *
-     * Redis Storage Format:
-     * - Key: "zone:geometry:{zoneId}"
-     * - Value: WKT string (e.g., "POLYGON((-122.41 37.77, ...))")
-     * - Key: "zone:metadata:{zoneId}"
-     * - Value: JSON with name, severity, etc.
-     */
-    private void cacheZone(NoParkingZone zone) {
-        if (zone.getGeometry() == null) {
-            log.warn("Zone {} has null geometry, skipping cache", zone.getId());
-            return;
+        PublishedSnapshot published;
+        try {
+            published = publish(cachedZones);
+        } catch (RuntimeException e) {
+            log.warn("Zone set not published to Redis ({}), installing {} zones locally as v{}",
+                e.getMessage(), cachedZones.size(), LOCAL_VERSION);
+            // Whatever Redis holds no longer matches the installed snapshot: load it when reachable
+            loadedPublishedVersion = -1;
+            zoneLookupEngine.install(LOCAL_VERSION, cachedZones);
+            return cachedZones.size();
         }
 
-        // Convert JTS Polygon to WKT string
-        String wkt = wktWriter.write(zone.getGeometry());
-
-        // Store geometry
-        String geometryKey = ZONE_KEY_PREFIX + zone.getId();
-        stringRedisTemplate.opsForValue().set(geometryKey, wkt, CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+        log.info("Cached {} zones in Redis (zone set v{}, {} bytes)",
+            cachedZones.size(), published.version(), published.payload().length);
 
-        // Store metadata as JSON string
-        String metadataKey = ZONE_METADATA_PREFIX + zone.getId();
-        String metadata = String.format(
-            "{\"id\":%d,\"name\":\"%s\",\"severity\":\"%s\"}",
-            zone.getId(), zone.getName(), zone.getSeverity()
-        );
-        stringRedisTemplate.opsForValue().set(metadataKey, metadata, CACHE_TTL_MINUTES, TimeUnit.MINUTES);
+        // Swap in a fresh snapshot built from exactly what was cached
+        zoneLookupEngine.install(published.version(), cachedZones);
 
-        log.debug("Cached zone: id={}, name={}", zone.getId(), zone.getName());
+        return cachedZones.size();
     }
 
     /**
      * Gets all cached zones as CachedZoneRecord objects.
      *
-     * This is called by GeoFencingService for each GPS event.
+     * Note: GPS events don't call this - they read the node-local
+     * ZoneSnapshot (see ZoneLookupEngine). This remains for admin/diagnostic use.
      *
      * Performance:
-     * - Redis GET for all zone IDs: ~1ms
-     * - Redis MGET for all geometries: ~2ms
-     * - WKT parsing to JTS Polygon: ~1ms per zone
-     * - Total for 1000 zones: ~20ms (one-time cost per check)
-     *
-     * Optimization Opportunity:
-     * For even better performance, we could keep zones in application memory
-     * and only use Redis for persistence/sharing across instances.
+     * - One Redis GET for the whole zone set
+     * - WKB decoding, no text parsing
      */
     public List<CachedZoneRecord> getAllCachedZones() {
-        // Get list of active zone IDs
-        Set<String> zoneIds = stringRedisTemplate.opsForSet().members(ALL_ZONES_KEY);
+        byte[] payload = zoneSnapshotRedisTemplate.opsForValue().get(ZONES_SNAPSHOT_KEY);
 
-        if (zoneIds == null || zoneIds.isEmpty()) {
+        if (payload == null) {
             log.warn("No zones found in cache, falling back to database");
             refreshAllZones();
-            zoneIds = stringRedisTemplate.opsForSet().members(ALL_ZONES_KEY);
+            return zoneLookupEngine.currentIndex().zones();
         }
 
-        List<CachedZoneRecord> cachedZones = new ArrayList<>();
-
-        for (String zoneIdStr : zoneIds) {
-            try {
-                Long zoneId = Long.parseLong(zoneIdStr);
-                CachedZoneRecord cachedZone = getCachedZone(zoneId);
-                if (cachedZone != null) {
-                    cachedZones.add(cachedZone);
-                }
-            } catch (Exception e) {
-                log.error("Failed to retrieve cached zone: {}", zoneIdStr, e);
-            }
-        }
-
-        return cachedZones;
+        return ZoneSnapshotCodec.decode(payload).zones();
     }
 
     /**
-     * Gets a single cached zone by ID.
+     * Gets a single cached zone by ID from this node's snapshot.
      */
     public CachedZoneRecord getCachedZone(Long zoneId) {
-        try {
-            // Get geometry WKT
-            String geometryKey = ZONE_KEY_PREFIX + zoneId;
-            String wkt = stringRedisTemplate.opsForValue().get(geometryKey);
-
-            if (wkt == null) {
-                log.debug("Zone {} not found in cache", zoneId);
-                return null;
+        for (CachedZoneRecord zone : zoneLookupEngine.currentIndex().zones()) {
+            if (zone.zoneId().equals(zoneId)) {
+                return zone;
             }
-
-            // Get metadata
-            String metadataKey = ZONE_METADATA_PREFIX + zoneId;
-            String metadata = stringRedisTemplate.opsForValue().get(metadataKey);
-
-            // Parse WKT to JTS Polygon
-            Polygon polygon = (Polygon) wktReader.read(wkt);
-
-            // Parse metadata (simple JSON parsing)
-            String name = extractJsonField(metadata, "name");
-            String severity = extractJsonField(metadata, "severity");
-
-            return CachedZoneRecord.fromEntity(zoneId, name, polygon, severity, wkt);
-
-        } catch (Exception e) {
-            log.error("Failed to parse cached zone: {}", zoneId, e);
-            return null;
         }
+
+        log.debug("Zone {} not found in cache", zoneId);
+        return null;
     }
 
     /**
      * Invalidates a specific zone in the cache.
      * Call this when a zone is updated in the database.
+     *
+     * The zone set is stored as one snapshot, so invalidation re-publishes it
+     * from the database (source of truth): updated zones are reloaded,
+     * deactivated or deleted zones drop out.
      */
     public void invalidateZone(Long zoneId) {
-        String geometryKey = ZONE_KEY_PREFIX + zoneId;
-        String metadataKey = ZONE_METADATA_PREFIX + zoneId;
-
-        stringRedisTemplate.delete(geometryKey);
-        stringRedisTemplate.delete(metadataKey);
-        stringRedisTemplate.opsForSet().remove(ALL_ZONES_KEY, String.valueOf(zoneId));
-
+        refreshAllZones();
         log.info("Invalidated cached zone: {}", zoneId);
     }
 
@@ -289,50 +397,28 @@ public class ZoneCacheService {
      * Use with caution - system will fall back to database queries until cache is rebuilt.
      */
     public void clearCache() {
-        Set<String> zoneIds = stringRedisTemplate.opsForSet().members(ALL_ZONES_KEY);
-
-        if (zoneIds != null) {
-            for (String zoneId : zoneIds) {
-                invalidateZone(Long.parseLong(zoneId));
-            }
-        }
-
-        stringRedisTemplate.delete(ALL_ZONES_KEY);
+        zoneSnapshotRedisTemplate.execute(CLEAR_SNAPSHOT_SCRIPT, List.of(ZONES_SNAPSHOT_KEY, ZONES_VERSION_KEY));
+        zoneLookupEngine.clear();
         log.info("Cleared all cached zones");
     }
 
     /**
      * Gets cache statistics for monitoring.
+     *
+     * cachedZoneCount is the number of zones in this node's snapshot
+     * (what GPS events are actually checked against).
      */
     public CacheStats getCacheStats() {
-        Set<String> zoneIds = stringRedisTemplate.opsForSet().members(ALL_ZONES_KEY);
-        int cachedZoneCount = (zoneIds != null) ? zoneIds.size() : 0;
+        int cachedZoneCount = zoneLookupEngine.currentIndex().size();
         int databaseZoneCount = (int) zoneRepository.countByActiveTrue();
 
-        return new CacheStats(cachedZoneCount, databaseZoneCount);
-    }
-
-    /**
-     * Simple JSON field extractor (avoids Jackson dependency for this simple case).
-     */
-    private String extractJsonField(String json, String field) {
-        if (json == null) return null;
-
-        String pattern = "\"" + field + "\":\"";
-        int start = json.indexOf(pattern);
-        if (start == -1) return null;
-
-        start += pattern.length();
-        int end = json.indexOf("\"", start);
-        if (end == -1) return null;
-
-        return json.substring(start, end);
+        return new CacheStats(cachedZoneCount, databaseZoneCount, zoneLookupEngine.state());
     }
 
     /**
      * Cache statistics record for monitoring.
      */
-    public record CacheStats(int cachedZoneCount, int databaseZoneCount) {
+    public record CacheStats(int cachedZoneCount, int databaseZoneCount, ZoneEngineState engineState) {
         public boolean isCacheHealthy() {
             return cachedZoneCount > 0 && cachedZoneCount == databaseZoneCount;
         }
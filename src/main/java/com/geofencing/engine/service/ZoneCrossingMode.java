@@ -0,0 +1,15 @@
+package com.geofencing.engine.service;
+
+/**
+ * How zones are matched against a scooter's pings.
+ *
+ * - POINT: each ping is tested on its own. A fast scooter (or one that pings every
+ *   10-30 seconds) can pass through a narrow strip without any ping inside it.
+ * - SEGMENT: in addition, the straight path from the scooter's previous ping is
+ *   tested against the zones; zones it passes through are reported as CROSSED
+ *   (TrajectoryCrossingDetector).
+ */
+public enum ZoneCrossingMode {
+    POINT,
+    SEGMENT
+}
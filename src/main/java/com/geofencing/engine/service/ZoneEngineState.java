@@ -0,0 +1,25 @@
+package com.geofencing.engine.service;
+
+/**
+ * Availability state of the in-memory zone engine (ZoneLookupEngine).
+ *
+ * The state decides who answers a GPS check:
+ * - READY: the node-local snapshot is authoritative. An empty result means
+ *   "no zone contains this point" - the database is NOT consulted.
+ * - DEGRADED: a snapshot is loaded but hasn't been confirmed against Redis for
+ *   longer than the allowed staleness, so it can't be trusted. Checks go to PostGIS.
+ * - COLD: no snapshot has been installed yet (startup, or warm-up failed).
+ *   Checks go to PostGIS.
+ */
+public enum ZoneEngineState {
+    READY,
+    DEGRADED,
+    COLD;
+
+    /**
+     * Whether GPS checks must be answered by the database instead of the cache.
+     */
+    public boolean requiresDatabaseFallback() {
+        return this != READY;
+    }
+}
@@ -0,0 +1,291 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.dto.NearbyZoneRecord;
+import com.geofencing.engine.spatial.FlatPolygonStore;
+import com.geofencing.engine.spatial.ZoneCellCovering;
+import com.geofencing.engine.spatial.ZoneContainmentKernel;
+import com.geofencing.engine.spatial.ZoneSnapshot;
+import com.geofencing.engine.spatial.ZoneSpatialIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * In-process zone lookup engine backed by an STRtree spatial index.
+ *
+ * Before: GeoFencingService read every zone from Redis and tested each one for every GPS event.
+ * After: GPS events are checked against a node-local, immutable zone snapshot (no I/O),
+ *        and only zones whose bounding box contains the point are tested.
+ *
+ * Lifecycle:
+ * 1. ZoneCacheService loads the active zones (from the DB on refresh, or from Redis
+ *    when it notices a new zone set version)
+ * 2. It calls install() with the zones and their version
+ * 3. A new immutable ZoneSnapshot (with its STRtree) is built off the hot path
+ * 4. The reference is swapped atomically - readers see either the old or the new snapshot
+ *
+ * Metrics (via Actuator /actuator/metrics):
+ * - geofencing.zone.index.size: number of indexed zones
+ * - geofencing.zone.index.depth: STRtree height
+ * - geofencing.zone.index.rebuild: rebuild duration
+ * - geofencing.zone.snapshot.version: version of the installed zone set
+ * - geofencing.zone.engine.state{state=READY|DEGRADED|COLD}: 1 for the current state, 0 otherwise
+ * - geofencing.zone.cells.count: cells in the snapshot's cell covering (0 when disabled)
+ * - geofencing.zone.cells.level: finest covering level the cell budget allowed
+ * - geofencing.zone.cells.resolved.ratio: fraction of point lookups answered without a polygon
+ *   test, since the snapshot was installed
+ * - geofencing.zone.index.vectorized: zones tested with the SIMD edge loop
+ *
+ * Cell covering (geofencing.zone-index.cell-covering.*, see ZoneCellCovering):
+ * Each snapshot is built with a grid of INTERIOR / BOUNDARY cells, so point lookups far
+ * from any zone edge skip the exact polygon test. max-cells bounds its size: large zone
+ * sets get coarser boundary cells rather than an unbounded covering.
+ *
+ * Containment kernel (geofencing.zone-index.containment-kernel, see ZoneContainmentKernel):
+ * FLAT packs each snapshot's polygons into primitive arrays for an allocation-free
+ * crossing-number test; JTS keeps the per-zone IndexedPointInAreaLocator.
+ * With FLAT, zones of at least vector-kernel.min-vertices vertices run the edge loop with
+ * the JDK Vector API, when the JVM was started with --add-modules jdk.incubator.vector
+ * (as the Docker image is). Otherwise they stay on the scalar loop - same results.
+ *
+ * State (see ZoneEngineState):
+ * Every successful refresh or version check with Redis calls markSynced(). If that
+ * hasn't happened for max-staleness-seconds, the snapshot is considered DEGRADED.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ZoneLookupEngine {
+
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicReference<ZoneSnapshot> snapshot = new AtomicReference<>(ZoneSnapshot.unloaded());
+
+    @Value("${geofencing.cache.zones.max-staleness-seconds:300}")
+    private long maxStalenessSeconds;
+
+    @Value("${geofencing.zone-index.cell-covering.enabled:true}")
+    private boolean cellCoveringEnabled;
+
+    @Value("${geofencing.zone-index.cell-covering.min-level:10}")
+    private int cellCoveringMinLevel;
+
+    @Value("${geofencing.zone-index.cell-covering.max-level:20}")
+    private int cellCoveringMaxLevel;
+
+    @Value("${geofencing.zone-index.cell-covering.max-cells:200000}")
+    private int cellCoveringMaxCells;
+
+    @Value("${geofencing.zone-index.containment-kernel:FLAT}")
+    private ZoneContainmentKernel containmentKernel = ZoneContainmentKernel.FLAT;
+
+    @Value("${geofencing.zone-index.vector-kernel.enabled:true}")
+    private boolean vectorKernelEnabled;
+
+    @Value("${geofencing.zone-index.vector-kernel.min-vertices:64}")
+    private int vectorKernelMinVertices;
+
+    // Last time the snapshot was confirmed to match the published zone set
+    private volatile long lastSyncedAtMillis;
+
+    private Timer rebuildTimer;
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("geofencing.zone.index.size", this, engine -> engine.currentIndex().size())
+            .description("Number of zones in the in-memory spatial index")
+            .register(meterRegistry);
+
+        Gauge.builder("geofencing.zone.index.depth", this, engine -> engine.currentIndex().depth())
+            .description("Depth of the in-memory STRtree")
+            .register(meterRegistry);
+
+        Gauge.builder("geofencing.zone.index.vectorized", this, engine -> engine.currentIndex().flatPolygons() != null
+                ? engine.currentIndex().flatPolygons().vectorizedZoneCount() : 0)
+            .description("Zones tested with the SIMD (Vector API) containment loop")
+            .register(meterRegistry);
+
+        Gauge.builder("geofencing.zone.snapshot.version", this, engine -> engine.currentVersion())
+            .description("Version of the zone set installed on this node")
+            .register(meterRegistry);
+
+        for (ZoneEngineState state : ZoneEngineState.values()) {
+            Gauge.builder("geofencing.zone.engine.state", this, engine -> engine.state() == state ? 1 : 0)
+                .description("Current zone engine state (1 = active)")
+                .tag("state", state.name())
+                .register(meterRegistry);
+        }
+
+        Gauge.builder("geofencing.zone.cells.count", this,
+                engine -> engine.currentCovering() != null ? engine.currentCovering().cellCount() : 0)
+            .description("Cells in the zone cell covering")
+            .register(meterRegistry);
+
+        Gauge.builder("geofencing.zone.cells.level", this,
+                engine -> engine.currentCovering() != null ? engine.currentCovering().finestLevel() : 0)
+            .description("Finest level of the zone cell covering")
+            .register(meterRegistry);
+
+        Gauge.builder("geofencing.zone.cells.resolved.ratio", this,
+                engine -> engine.currentCovering() != null ? engine.currentCovering().resolvedFraction() : Double.NaN)
+            .description("Fraction of point lookups answered by the cell covering without a polygon test")
+            .register(meterRegistry);
+
+        rebuildTimer = Timer.builder("geofencing.zone.index.rebuild")
+            .description("Time spent bulk-loading the zone spatial index")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Builds a new snapshot from the given zones and swaps it in atomically.
+     *
+     * @param version Zone set version the zones belong to
+     * @param zones   Active zones to index
+     */
+    public void install(long version, List<CachedZoneRecord> zones) {
+        long startTime = System.nanoTime();
+
+        ZoneCellCovering.Resolution resolution = cellCoveringEnabled
+            ? new ZoneCellCovering.Resolution(cellCoveringMinLevel, cellCoveringMaxLevel, cellCoveringMaxCells)
+            : null;
+        if (vectorKernelEnabled && !FlatPolygonStore.isVectorKernelAvailable()) {
+            log.warn("Vector kernel enabled but jdk.incubator.vector is not available "
+                + "(start the JVM with --add-modules jdk.incubator.vector), using the scalar loop");
+        }
+        int vectorMinVertices = vectorKernelEnabled ? vectorKernelMinVertices : Integer.MAX_VALUE;
+        ZoneSpatialIndex newIndex = new ZoneSpatialIndex(zones, resolution, containmentKernel, vectorMinVertices);
+        snapshot.set(new ZoneSnapshot(version, Instant.now(), newIndex));
+        markSynced();
+
+        long durationNanos = System.nanoTime() - startTime;
+        rebuildTimer.record(durationNanos, TimeUnit.NANOSECONDS);
+
+        ZoneCellCovering covering = newIndex.covering();
+        log.info("Zone snapshot v{} installed: {} zones, index depth {}, {} cells down to level {}, in {}ms",
+            version, newIndex.size(), newIndex.depth(),
+            covering != null ? covering.cellCount() : 0, covering != null ? covering.finestLevel() : 0,
+            durationNanos / 1_000_000);
+    }
+
+    /**
+     * Drops the installed snapshot - the engine goes COLD until the next install().
+     *
+     * Used when the published zone set disappears from Redis (cleared or expired):
+     * an empty snapshot would be READY and wrongly report "no zones" for every point.
+     */
+    public void clear() {
+        snapshot.set(ZoneSnapshot.unloaded());
+        log.info("Zone snapshot cleared, engine is COLD");
+    }
+
+    /**
+     * Records that the installed snapshot was just confirmed against the published zone set.
+     */
+    public void markSynced() {
+        lastSyncedAtMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Current engine state.
+     *
+     * - COLD: nothing installed yet
+     * - DEGRADED: installed, but not confirmed for longer than max staleness
+     * - READY: installed and confirmed recently - the snapshot is authoritative
+     */
+    public ZoneEngineState state() {
+        if (!snapshot.get().isLoaded()) {
+            return ZoneEngineState.COLD;
+        }
+
+        long sinceSyncMillis = System.currentTimeMillis() - lastSyncedAtMillis;
+        if (sinceSyncMillis > maxStalenessSeconds * 1000) {
+            return ZoneEngineState.DEGRADED;
+        }
+
+        return ZoneEngineState.READY;
+    }
+
+    /**
+     * Finds all zones of the current snapshot containing the given point.
+     */
+    public List<CachedZoneRecord> findContainingZones(double latitude, double longitude) {
+        return snapshot.get().index().findContainingZones(latitude, longitude);
+    }
+
+    /**
+     * Whether any zone of the current snapshot contains the given point (allocation-free for misses).
+     */
+    public boolean anyContainingZone(double latitude, double longitude) {
+        return snapshot.get().index().containsAny(latitude, longitude);
+    }
+
+    /**
+     * Finds all zones of the current snapshot touched by the segment between two points.
+     */
+    public List<CachedZoneRecord> findCrossedZones(double fromLatitude, double fromLongitude,
+                                                   double toLatitude, double toLongitude) {
+        return snapshot.get().index().findCrossedZones(fromLatitude, fromLongitude, toLatitude, toLongitude);
+    }
+
+    /**
+     * Zones of the current snapshot within radiusMeters of the point, nearest first.
+     */
+    public List<NearbyZoneRecord> findZonesNearby(double latitude, double longitude, double radiusMeters) {
+        return snapshot.get().index().findZonesNearby(latitude, longitude, radiusMeters);
+    }
+
+    /**
+     * Distance in metres from the point to the nearest zone boundary of the current snapshot,
+     * capped at maxMeters.
+     */
+    public double distanceToNearestBoundary(double latitude, double longitude, double maxMeters) {
+        return snapshot.get().index().distanceToNearestBoundary(latitude, longitude, maxMeters);
+    }
+
+    /**
+     * Returns the current snapshot (never null).
+     */
+    public ZoneSnapshot currentSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * Returns the spatial index of the current snapshot.
+     */
+    public ZoneSpatialIndex currentIndex() {
+        return snapshot.get().index();
+    }
+
+    /**
+     * Cell covering of the current snapshot, or null if disabled.
+     */
+    public ZoneCellCovering currentCovering() {
+        return snapshot.get().index().covering();
+    }
+
+    public long currentVersion() {
+        return snapshot.get().version();
+    }
+
+    /**
+     * Whether a zone set has been installed on this node.
+     */
+    public boolean isLoaded() {
+        return snapshot.get().isLoaded();
+    }
+
+    public boolean isEmpty() {
+        return snapshot.get().index().isEmpty();
+    }
+}
@@ -0,0 +1,18 @@
+package com.geofencing.engine.service;
+
+/**
+ * Zone state change of a scooter (see ScooterZoneStateTracker).
+ *
+ * - ENTER: the scooter's first ping inside the zone. Raises a violation.
+ * - DWELL_EXCEEDED: the scooter has stayed in the zone longer than the dwell
+ *   threshold. Sent once per stay.
+ * - EXIT: a ping outside the zone, or no ping for longer than the exit timeout.
+ * - CROSSED: the scooter passed through the zone between two pings, neither of
+ *   them inside it (see TrajectoryCrossingDetector). Not part of the zone state.
+ */
+public enum ZoneTransitionType {
+    ENTER,
+    DWELL_EXCEEDED,
+    EXIT,
+    CROSSED
+}
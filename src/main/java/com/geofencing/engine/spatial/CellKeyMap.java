@@ -0,0 +1,75 @@
+package com.geofencing.engine.spatial;
+
+/**
+ * Open-addressing hash map from cell keys (long) to zone entries (int[]).
+ *
+ * A plain HashMap<Long, int[]> would box the key on every lookup and chase a node
+ * per entry; here a lookup is a multiply, a mask and a linear probe over a long[].
+ * Sized once for its content (load factor <= 0.5) and never resized.
+ *
+ * Key 0 marks an empty slot - cell keys always carry their level (>= 1) in the top
+ * bits, so 0 is never a valid key (see ZoneCellCovering).
+ *
+ * Filled by a single builder thread, then published through a final field of the
+ * owning ZoneCellCovering; read-only (and thread-safe) from then on.
+ */
+final class CellKeyMap {
+
+    private final long[] keys;
+    private final int[][] values;
+    private final int mask;
+    private int size;
+
+    CellKeyMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity][];
+        this.mask = capacity - 1;
+    }
+
+    void put(long key, int[] value) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Cell key 0 is reserved");
+        }
+        if (size * 2 >= keys.length) {
+            throw new IllegalStateException("CellKeyMap is full: " + size + " keys");
+        }
+
+        int slot = slot(key);
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == 0) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    /**
+     * Entries of the cell, or null if the cell is not in the map.
+     */
+    int[] get(long key) {
+        int slot = slot(key);
+        while (true) {
+            long candidate = keys[slot];
+            if (candidate == key) {
+                return values[slot];
+            }
+            if (candidate == 0) {
+                return null;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        // Fibonacci hashing: neighbouring cells (consecutive x / y) spread over the table
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,236 @@
+package com.geofencing.engine.spatial;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Struct-of-arrays copy of a zone set's polygons, with an allocation-free containment test.
+ *
+ * The JTS path (CachedZoneRecord.contains -> IndexedPointInAreaLocator) allocates a
+ * Coordinate, a RayCrossingCounter and an index visitor for every zone tested on every
+ * ping. Here every ring of every zone lives in a few contiguous primitive arrays:
+ * - xs / ys: vertices (longitude / latitude), ring by ring, closing vertex repeated
+ * - slopes: for the edge starting at vertex i, dx/dy (0 for horizontal edges and ring ends)
+ * - ringStarts: ring r spans vertices [ringStarts[r], ringStarts[r + 1])
+ * - zoneRings: zone z spans rings [zoneRings[z], zoneRings[z + 1]) - shell first, then holes
+ * - per-zone envelope, checked before touching the vertices
+ *
+ * contains() is the crossing-number (even-odd) test on primitive lat/lon: a ray from the
+ * point towards +longitude flips "inside" at every edge it crosses. Parity over all rings
+ * handles holes. Per edge, the common case is one load and one comparison: each vertex's
+ * above/below test is reused by the next edge, and only the few edges straddling the
+ * point's latitude reach the multiply-add with the precomputed slope - no division.
+ * The straddle check is a branch, but a well-predicted one (almost always false); the
+ * branch-free form (xor of both conditions for every edge) measured ~2x slower.
+ *
+ * Boundary semantics (accepted disagreement): JTS (CachedZoneRecord.contains, and so
+ * ZoneCellCovering) and PostGIS ST_Contains (the repository fallback) never count a
+ * point on the boundary as contained. This test is half-open instead: a point exactly
+ * on an edge is inside when the zone's interior lies east of it, or north of it on a
+ * horizontal edge - for an axis-aligned square, the west and south edges are in, the
+ * east and north edges out. Making it match JTS would need an exact on-segment test
+ * for every straddling edge; it isn't worth it, since a GPS fix landing exactly on an
+ * edge is vanishingly rare and either answer is within GPS accuracy.
+ *
+ * Cost is linear in the zone's vertex count (JTS's indexed locator is logarithmic), but
+ * with a much smaller constant: see ContainmentBenchmark for the crossover.
+ *
+ * Large zones (traced parks and campuses, thousands of vertices) can use the SIMD edge
+ * loop instead (VectorCrossingKernel): zones with at least vectorMinVertices vertices,
+ * when the JVM runs with --add-modules jdk.incubator.vector. Without the module every
+ * zone stays on the scalar loop. Both loops give identical results.
+ *
+ * Immutable and thread-safe.
+ */
+public final class FlatPolygonStore {
+
+    private static final boolean VECTOR_MODULE_PRESENT =
+        ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] slopes;
+    private final int[] ringStarts;
+    private final int[] zoneRings;
+
+    private final double[] minXs;
+    private final double[] minYs;
+    private final double[] maxXs;
+    private final double[] maxYs;
+
+    // Zones whose rings go through VectorCrossingKernel
+    private final boolean[] vectorized;
+    private final int vectorizedCount;
+
+    private FlatPolygonStore(double[] xs, double[] ys, double[] slopes, int[] ringStarts, int[] zoneRings,
+                             double[] minXs, double[] minYs, double[] maxXs, double[] maxYs, boolean[] vectorized) {
+        this.xs = xs;
+        this.ys = ys;
+        this.slopes = slopes;
+        this.ringStarts = ringStarts;
+        this.zoneRings = zoneRings;
+        this.minXs = minXs;
+        this.minYs = minYs;
+        this.maxXs = maxXs;
+        this.maxYs = maxYs;
+        this.vectorized = vectorized;
+
+        int count = 0;
+        for (boolean zoneVectorized : vectorized) {
+            count += zoneVectorized ? 1 : 0;
+        }
+        this.vectorizedCount = count;
+    }
+
+    /**
+     * Whether the Vector API module was added to this JVM (--add-modules jdk.incubator.vector).
+     */
+    public static boolean isVectorKernelAvailable() {
+        return VECTOR_MODULE_PRESENT;
+    }
+
+    /**
+     * Packs the zones' polygons, scalar edge loop only.
+     */
+    public static FlatPolygonStore of(List<CachedZoneRecord> zones) {
+        return of(zones, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Packs the zones' polygons. Zone z of the store is zones.get(z); zones without
+     * geometry contain nothing.
+     *
+     * @param vectorMinVertices Zones with at least this many vertices use the SIMD edge
+     *                          loop, if the Vector API module is available
+     */
+    public static FlatPolygonStore of(List<CachedZoneRecord> zones, int vectorMinVertices) {
+        int vertexCount = 0;
+        int ringCount = 0;
+        for (CachedZoneRecord zone : zones) {
+            if (zone.geometry() != null && !zone.geometry().isEmpty()) {
+                vertexCount += zone.geometry().getNumPoints();
+                ringCount += 1 + zone.geometry().getNumInteriorRing();
+            }
+        }
+
+        double[] xs = new double[vertexCount];
+        double[] ys = new double[vertexCount];
+        int[] ringStarts = new int[ringCount + 1];
+        int[] zoneRings = new int[zones.size() + 1];
+        double[] minXs = new double[zones.size()];
+        double[] minYs = new double[zones.size()];
+        double[] maxXs = new double[zones.size()];
+        double[] maxYs = new double[zones.size()];
+        boolean[] vectorized = new boolean[zones.size()];
+        // Empty envelope: the envelope check rejects every point
+        Arrays.fill(minXs, Double.POSITIVE_INFINITY);
+        Arrays.fill(minYs, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxXs, Double.NEGATIVE_INFINITY);
+        Arrays.fill(maxYs, Double.NEGATIVE_INFINITY);
+
+        int vertex = 0;
+        int ring = 0;
+        for (int z = 0; z < zones.size(); z++) {
+            zoneRings[z] = ring;
+            Polygon polygon = zones.get(z).geometry();
+            if (polygon == null || polygon.isEmpty()) {
+                continue;
+            }
+
+            Envelope envelope = polygon.getEnvelopeInternal();
+            minXs[z] = envelope.getMinX();
+            minYs[z] = envelope.getMinY();
+            maxXs[z] = envelope.getMaxX();
+            maxYs[z] = envelope.getMaxY();
+            vectorized[z] = VECTOR_MODULE_PRESENT && polygon.getNumPoints() >= vectorMinVertices;
+
+            for (int r = 0; r <= polygon.getNumInteriorRing(); r++) {
+                LineString lineString = r == 0 ? polygon.getExteriorRing() : polygon.getInteriorRingN(r - 1);
+                ringStarts[ring++] = vertex;
+                for (Coordinate coordinate : lineString.getCoordinates()) {
+                    xs[vertex] = coordinate.x;
+                    ys[vertex] = coordinate.y;
+                    vertex++;
+                }
+            }
+        }
+        zoneRings[zones.size()] = ring;
+        ringStarts[ringCount] = vertex;
+
+        double[] slopes = new double[vertexCount];
+        for (int r = 0; r < ringCount; r++) {
+            for (int i = ringStarts[r]; i < ringStarts[r + 1] - 1; i++) {
+                double dy = ys[i + 1] - ys[i];
+                // Horizontal edges never straddle the ray, their slope is never used
+                slopes[i] = dy != 0 ? (xs[i + 1] - xs[i]) / dy : 0;
+            }
+        }
+
+        return new FlatPolygonStore(xs, ys, slopes, ringStarts, zoneRings, minXs, minYs, maxXs, maxYs, vectorized);
+    }
+
+    /**
+     * Whether zone z contains the point (crossing-number test, no allocation).
+     */
+    public boolean contains(int zone, double latitude, double longitude) {
+        if (longitude < minXs[zone] || longitude > maxXs[zone] || latitude < minYs[zone] || latitude > maxYs[zone]) {
+            return false;
+        }
+        if (vectorized[zone]) {
+            return containsVectorized(zone, latitude, longitude);
+        }
+
+        boolean inside = false;
+        for (int ring = zoneRings[zone]; ring < zoneRings[zone + 1]; ring++) {
+            int start = ringStarts[ring];
+            int end = ringStarts[ring + 1] - 1;
+            boolean above = ys[start] > latitude;
+            for (int i = start; i < end; i++) {
+                // Each vertex is compared once: its result is the next edge's start
+                boolean nextAbove = ys[i + 1] > latitude;
+                // The edge straddles the ray's latitude (rare, so well predicted), and meets it east of the point
+                if (above != nextAbove && longitude < xs[i] + (latitude - ys[i]) * slopes[i]) {
+                    inside = !inside;
+                }
+                above = nextAbove;
+            }
+        }
+        return inside;
+    }
+
+    private boolean containsVectorized(int zone, double latitude, double longitude) {
+        int crossings = 0;
+        for (int ring = zoneRings[zone]; ring < zoneRings[zone + 1]; ring++) {
+            crossings += VectorCrossingKernel.crossings(xs, ys, slopes, ringStarts[ring], ringStarts[ring + 1] - 1,
+                latitude, longitude);
+        }
+        return (crossings & 1) != 0;
+    }
+
+    /**
+     * Number of zones in the store.
+     */
+    public int size() {
+        return zoneRings.length - 1;
+    }
+
+    /**
+     * Total number of stored vertices (all rings, closing vertices included).
+     */
+    public int vertexCount() {
+        return xs.length;
+    }
+
+    /**
+     * Number of zones using the SIMD edge loop.
+     */
+    public int vectorizedZoneCount() {
+        return vectorizedCount;
+    }
+}
@@ -0,0 +1,124 @@
+package com.geofencing.engine.spatial;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+
+/**
+ * Short-range distances in metres between WGS84 coordinates.
+ *
+ * Zones and pings are stored in degrees, where one degree of longitude shrinks with
+ * latitude (111km at the equator, 88km in San Francisco). Around a GPS point we use
+ * an equirectangular projection: degrees are scaled to metres with the WGS84
+ * ellipsoid's local radii of curvature at the point's latitude, then plain planar
+ * geometry applies. No trigonometry runs per vertex - only a few per point.
+ *
+ * Error bound: within 0.05% of the ellipsoidal (geodesic) distance - what PostGIS
+ * returns for geography ST_Distance - for distances up to 5 km at latitudes between
+ * -70 and 70 degrees (checked against reference values in GeoDistanceTest). A sphere
+ * with the mean Earth radius would be off by up to 0.5%.
+ *
+ * Not suitable for long distances (tens of km) or near the poles.
+ */
+public final class GeoDistance {
+
+    /**
+     * WGS84 semi-major axis, in metres.
+     */
+    private static final double WGS84_A = 6_378_137.0;
+
+    /**
+     * WGS84 first eccentricity squared: f * (2 - f), with f = 1 / 298.257223563.
+     */
+    private static final double WGS84_E2 = (2 - 1 / 298.257223563) / 298.257223563;
+
+    private static final double RADIANS_PER_DEGREE = Math.PI / 180;
+
+    private GeoDistance() {
+    }
+
+    /**
+     * Length of one degree of latitude at the given latitude, in metres (~111km).
+     */
+    public static double metersPerDegreeLatitude(double latitude) {
+        double sinLatitude = Math.sin(latitude * RADIANS_PER_DEGREE);
+        double w = 1 - WGS84_E2 * sinLatitude * sinLatitude;
+        // Meridional radius of curvature
+        return RADIANS_PER_DEGREE * WGS84_A * (1 - WGS84_E2) / (w * Math.sqrt(w));
+    }
+
+    /**
+     * Length of one degree of longitude at the given latitude, in metres.
+     */
+    public static double metersPerDegreeLongitude(double latitude) {
+        double latitudeRadians = latitude * RADIANS_PER_DEGREE;
+        double sinLatitude = Math.sin(latitudeRadians);
+        // Prime vertical radius of curvature, times cos(latitude)
+        return RADIANS_PER_DEGREE * WGS84_A * Math.cos(latitudeRadians)
+            / Math.sqrt(1 - WGS84_E2 * sinLatitude * sinLatitude);
+    }
+
+    /**
+     * Distance between two nearby points, in metres.
+     */
+    public static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double midLatitude = (latitude1 + latitude2) / 2;
+        double x = (longitude2 - longitude1) * metersPerDegreeLongitude(midLatitude);
+        double y = (latitude2 - latitude1) * metersPerDegreeLatitude(midLatitude);
+        return Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Distance from a point to the nearest edge of a polygon (outer shell or hole), in metres.
+     *
+     * The same whether the point is inside or outside: it is how far the point can move
+     * before it may cross the boundary.
+     */
+    public static double distanceToBoundaryMeters(Polygon polygon, double latitude, double longitude) {
+        double metersPerDegreeLat = metersPerDegreeLatitude(latitude);
+        double metersPerDegreeLon = metersPerDegreeLongitude(latitude);
+
+        double minSquared = squaredDistanceToRing(polygon.getExteriorRing(), latitude, longitude,
+            metersPerDegreeLat, metersPerDegreeLon);
+        for (int i = 0; i < polygon.getNumInteriorRing(); i++) {
+            minSquared = Math.min(minSquared, squaredDistanceToRing(polygon.getInteriorRingN(i), latitude, longitude,
+                metersPerDegreeLat, metersPerDegreeLon));
+        }
+        return Math.sqrt(minSquared);
+    }
+
+    /**
+     * Squared distance from the point (the origin of the local projection) to the ring's edges.
+     */
+    private static double squaredDistanceToRing(LineString ring, double latitude, double longitude,
+                                                double metersPerDegreeLat, double metersPerDegreeLon) {
+        Coordinate[] coordinates = ring.getCoordinates();
+        double minSquared = Double.POSITIVE_INFINITY;
+
+        double x1 = (coordinates[0].x - longitude) * metersPerDegreeLon;
+        double y1 = (coordinates[0].y - latitude) * metersPerDegreeLat;
+        for (int i = 1; i < coordinates.length; i++) {
+            double x2 = (coordinates[i].x - longitude) * metersPerDegreeLon;
+            double y2 = (coordinates[i].y - latitude) * metersPerDegreeLat;
+            minSquared = Math.min(minSquared, squaredDistanceToSegment(x1, y1, x2, y2));
+            x1 = x2;
+            y1 = y2;
+        }
+        return minSquared;
+    }
+
+    /**
+     * Squared distance from the origin to the segment (x1, y1)-(x2, y2).
+     */
+    private static double squaredDistanceToSegment(double x1, double y1, double x2, double y2) {
+        double dx = x2 - x1;
+        double dy = y2 - y1;
+        double lengthSquared = dx * dx + dy * dy;
+
+        // Projection of the origin onto the segment, clamped to its ends
+        double t = lengthSquared > 0 ? Math.max(0, Math.min(1, -(x1 * dx + y1 * dy) / lengthSquared)) : 0;
+        double x = x1 + t * dx;
+        double y = y1 + t * dy;
+        return x * x + y * y;
+    }
+}
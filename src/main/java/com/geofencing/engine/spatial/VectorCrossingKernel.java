@@ -0,0 +1,69 @@
+package com.geofencing.engine.spatial;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Crossing-number edge loop over FlatPolygonStore's packed arrays, several edges per
+ * instruction with the JDK Vector API (jdk.incubator.vector).
+ *
+ * Per block of lanes (4 doubles with AVX2, 8 with AVX-512):
+ * 1. load ys[i..] and ys[i+1..], compare both with the point's latitude; an edge
+ *    straddles the ray where the two masks differ
+ * 2. blocks without a straddling edge (nearly all of them) stop there
+ * 3. otherwise compute xs[i] + (latitude - ys[i]) * slopes[i] for every lane and count
+ *    the straddling lanes where it lies east of the point
+ * The tail that doesn't fill a block runs the scalar loop.
+ *
+ * The arithmetic is the scalar kernel's, operation for operation (no FMA), so both give
+ * identical results for every point.
+ *
+ * Only loaded when the module is present: the JVM needs --add-modules jdk.incubator.vector
+ * (see FlatPolygonStore.isVectorKernelAvailable()).
+ */
+final class VectorCrossingKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private VectorCrossingKernel() {
+    }
+
+    /**
+     * Number of edges of the ring, starting at vertices [start, end), crossed by the ray
+     * from the point towards +longitude.
+     */
+    static int crossings(double[] xs, double[] ys, double[] slopes, int start, int end,
+                         double latitude, double longitude) {
+        DoubleVector latitudes = DoubleVector.broadcast(SPECIES, latitude);
+        int count = 0;
+
+        int i = start;
+        // Block loads read ys up to i + length, which is at most end (the ring's closing vertex)
+        int blockEnd = start + SPECIES.loopBound(end - start);
+        for (; i < blockEnd; i += SPECIES.length()) {
+            DoubleVector y1 = DoubleVector.fromArray(SPECIES, ys, i);
+            DoubleVector y2 = DoubleVector.fromArray(SPECIES, ys, i + 1);
+            VectorMask<Double> straddles = y1.compare(VectorOperators.GT, latitude)
+                .eq(y2.compare(VectorOperators.GT, latitude))
+                .not();
+            if (!straddles.anyTrue()) {
+                continue;
+            }
+
+            DoubleVector crossLongitudes = latitudes.sub(y1)
+                .mul(DoubleVector.fromArray(SPECIES, slopes, i))
+                .add(DoubleVector.fromArray(SPECIES, xs, i));
+            count += straddles.and(crossLongitudes.compare(VectorOperators.GT, longitude)).trueCount();
+        }
+
+        for (; i < end; i++) {
+            if ((ys[i] > latitude) != (ys[i + 1] > latitude)
+                && longitude < xs[i] + (latitude - ys[i]) * slopes[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -0,0 +1,411 @@
+package com.geofencing.engine.spatial;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Multi-level grid covering of a zone set, classifying cells as INTERIOR or BOUNDARY.
+ *
+ * Most pings inside a zone land well away from its edges, yet each one paid for an
+ * exact point-in-polygon test. The covering answers those from a precomputed grid:
+ * - the world is split into a quadtree of longitude/latitude cells (geohash-like:
+ *   level L has 2^L x 2^L cells, so level 20 cells are ~30 x 19 m in San Francisco)
+ * - every zone is covered from min-level down: cells fully inside a zone are INTERIOR
+ *   and stop there, cells crossing an edge are split again, down to the finest level
+ *   where they remain BOUNDARY. Cells outside every zone (EXTERIOR) are not stored.
+ * - the cells are disjoint: each cell lists every zone it belongs to, with its class
+ *
+ * A lookup maps the point to its cell key at each level in use and probes a primitive
+ * long -> int[] map (CellKeyMap):
+ * - no cell: the point is outside every zone - answered without a polygon test
+ * - INTERIOR entries: the point is in those zones - answered without a polygon test
+ * - BOUNDARY entries: only those zones get the exact test (CachedZoneRecord.contains)
+ *
+ * Boundary points: cells are classified from their centres, which never lie on an
+ * edge, so every point on a zone edge falls in a BOUNDARY cell and gets the index's
+ * exact test. The covering therefore has the semantics of that test: never contained
+ * with the JTS kernel (like PostGIS ST_Contains), half-open with FLAT (see FlatPolygonStore).
+ *
+ * Resolution (per zone set size):
+ * Finer cells resolve more pings but cost memory (~30 bytes per cell) and build time.
+ * max-cells caps the covering: when splitting the next level would exceed it, the
+ * covering stops at the current level. Small zone sets reach max-level; large ones
+ * settle on coarser boundary cells automatically. finestLevel() reports the outcome.
+ *
+ * Immutable once built, apart from the lookup counters (LongAdder, contention-free).
+ */
+public final class ZoneCellCovering {
+
+    /**
+     * Finest level supported by the cell key layout (28 bits per axis).
+     */
+    public static final int MAX_SUPPORTED_LEVEL = 28;
+
+    // Cells are enlarged by this margin (~0.1mm) before being classified, so that
+    // rounding in the point -> cell mapping can never put a point outside its cell's class
+    private static final double CLASSIFY_MARGIN_DEGREES = 1e-9;
+
+    private final int minLevel;
+    private final int finestLevel;
+    // Bit L set = some cell of level L is stored
+    private final long levelMask;
+    private final Envelope bounds;
+    private final CellKeyMap cells;
+
+    private final LongAdder resolvedLookups = new LongAdder();
+    private final LongAdder refinedLookups = new LongAdder();
+
+    /**
+     * Covering resolution.
+     *
+     * @param minLevel Level of the coarsest cells (root cells overlapping any zone envelope)
+     * @param maxLevel Finest level boundary cells are split down to
+     * @param maxCells Cell budget; the covering stops splitting before exceeding it
+     */
+    public record Resolution(int minLevel, int maxLevel, int maxCells) {
+
+        public Resolution {
+            if (minLevel < 1 || maxLevel > MAX_SUPPORTED_LEVEL || minLevel > maxLevel) {
+                throw new IllegalArgumentException("Cell levels must satisfy 1 <= min-level <= max-level <= "
+                    + MAX_SUPPORTED_LEVEL + ", got " + minLevel + ".." + maxLevel);
+            }
+            if (maxCells < 1) {
+                throw new IllegalArgumentException("max-cells must be positive, got " + maxCells);
+            }
+        }
+    }
+
+    /**
+     * A cell waiting to be classified.
+     *
+     * @param candidates Zones whose boundary may cross the cell
+     * @param edges      For each candidate, its edges crossing the parent cell (children only
+     *                   need to test those - the quadtree clips the edge lists as it descends)
+     * @param inside     Zones known to contain the cell
+     */
+    private record PendingCell(int x, int y, int[] candidates, int[][] edges, int[] inside) {
+    }
+
+    /**
+     * Edges of a zone (shell and holes) in degrees: edge i runs from (x1[i], y1[i]) to (x2[i], y2[i]).
+     */
+    private record ZoneEdges(double[] x1, double[] y1, double[] x2, double[] y2) {
+
+        static ZoneEdges of(Polygon polygon) {
+            int count = polygon.getNumPoints() - 1 - polygon.getNumInteriorRing();
+            ZoneEdges edges = new ZoneEdges(new double[count], new double[count], new double[count], new double[count]);
+            int edge = 0;
+            for (int ring = 0; ring <= polygon.getNumInteriorRing(); ring++) {
+                Coordinate[] coordinates = (ring == 0 ? polygon.getExteriorRing() : polygon.getInteriorRingN(ring - 1))
+                    .getCoordinates();
+                for (int i = 1; i < coordinates.length; i++, edge++) {
+                    edges.x1[edge] = coordinates[i - 1].x;
+                    edges.y1[edge] = coordinates[i - 1].y;
+                    edges.x2[edge] = coordinates[i].x;
+                    edges.y2[edge] = coordinates[i].y;
+                }
+            }
+            return edges;
+        }
+
+        int[] all() {
+            int[] indices = new int[x1.length];
+            Arrays.setAll(indices, i -> i);
+            return indices;
+        }
+
+        /**
+         * Whether edge i touches the rectangle.
+         */
+        boolean crosses(int i, double minX, double minY, double maxX, double maxY) {
+            double ax = x1[i];
+            double ay = y1[i];
+            double bx = x2[i];
+            double by = y2[i];
+            if (Math.max(ax, bx) < minX || Math.min(ax, bx) > maxX || Math.max(ay, by) < minY || Math.min(ay, by) > maxY) {
+                return false;
+            }
+            // Bounding boxes overlap: the edge misses the rectangle only if all four
+            // corners lie strictly on the same side of its line
+            double dx = bx - ax;
+            double dy = by - ay;
+            double c1 = dx * (minY - ay) - dy * (minX - ax);
+            double c2 = dx * (minY - ay) - dy * (maxX - ax);
+            double c3 = dx * (maxY - ay) - dy * (minX - ax);
+            double c4 = dx * (maxY - ay) - dy * (maxX - ax);
+            return !(c1 > 0 && c2 > 0 && c3 > 0 && c4 > 0) && !(c1 < 0 && c2 < 0 && c3 < 0 && c4 < 0);
+        }
+    }
+
+    private ZoneCellCovering(int minLevel, int finestLevel, long levelMask, Envelope bounds, CellKeyMap cells) {
+        this.minLevel = minLevel;
+        this.finestLevel = finestLevel;
+        this.levelMask = levelMask;
+        this.bounds = bounds;
+        this.cells = cells;
+    }
+
+    /**
+     * Builds the covering of a zone set.
+     *
+     * @param zones      Zones, in the order of the owning index (entries refer to their position)
+     * @param resolution Levels and cell budget
+     */
+    public static ZoneCellCovering build(List<CachedZoneRecord> zones, Resolution resolution) {
+        int minLevel = resolution.minLevel();
+
+        // Root cells: every min-level cell overlapping a zone envelope, with those zones as candidates
+        ZoneEdges[] zoneEdges = new ZoneEdges[zones.size()];
+        Map<Long, List<Integer>> roots = new LinkedHashMap<>();
+        Envelope bounds = new Envelope();
+        for (int i = 0; i < zones.size(); i++) {
+            Polygon geometry = zones.get(i).geometry();
+            if (geometry == null || geometry.isEmpty()) {
+                continue;
+            }
+            zoneEdges[i] = ZoneEdges.of(geometry);
+            Envelope envelope = geometry.getEnvelopeInternal();
+            bounds.expandToInclude(envelope);
+            for (int x = cellX(envelope.getMinX(), minLevel); x <= cellX(envelope.getMaxX(), minLevel); x++) {
+                for (int y = cellY(envelope.getMinY(), minLevel); y <= cellY(envelope.getMaxY(), minLevel); y++) {
+                    roots.computeIfAbsent(key(minLevel, x, y), k -> new ArrayList<>(1)).add(i);
+                }
+            }
+        }
+
+        List<PendingCell> frontier = new ArrayList<>(roots.size());
+        for (Map.Entry<Long, List<Integer>> root : roots.entrySet()) {
+            long key = root.getKey();
+            int[] candidates = root.getValue().stream().mapToInt(Integer::intValue).toArray();
+            int[][] edges = new int[candidates.length][];
+            for (int k = 0; k < candidates.length; k++) {
+                edges[k] = zoneEdges[candidates[k]].all();
+            }
+            frontier.add(new PendingCell(keyX(key), keyY(key), candidates, edges, new int[0]));
+        }
+
+        // Breadth-first, one level at a time, so the budget can stop the descent at any level
+        List<Long> leafKeys = new ArrayList<>();
+        List<int[]> leafEntries = new ArrayList<>();
+        long levelMask = 0;
+        int level = minLevel;
+        while (!frontier.isEmpty()) {
+            List<PendingCell> split = new ArrayList<>();
+            int leavesBefore = leafKeys.size();
+            for (PendingCell cell : frontier) {
+                classify(zones, zoneEdges, level, cell, split, leafKeys, leafEntries);
+            }
+
+            boolean canSplit = level < resolution.maxLevel()
+                && (long) leafKeys.size() + 4L * split.size() <= resolution.maxCells();
+            if (!canSplit) {
+                // Finest level reached (or budget exhausted): what still crosses an edge stays BOUNDARY
+                for (PendingCell cell : split) {
+                    leafKeys.add(key(level, cell.x(), cell.y()));
+                    leafEntries.add(entries(cell.inside(), cell.candidates()));
+                }
+                split.clear();
+            }
+            if (leafKeys.size() > leavesBefore) {
+                levelMask |= 1L << level;
+            }
+            if (split.isEmpty()) {
+                break;
+            }
+
+            frontier = new ArrayList<>(split.size() * 4);
+            for (PendingCell cell : split) {
+                for (int child = 0; child < 4; child++) {
+                    frontier.add(new PendingCell(cell.x() * 2 + (child & 1), cell.y() * 2 + (child >> 1),
+                        cell.candidates(), cell.edges(), cell.inside()));
+                }
+            }
+            level++;
+        }
+
+        // Most cells hold the same few entry lists ([zone 5 INTERIOR], ...): share the arrays
+        Map<List<Integer>, int[]> shared = new HashMap<>();
+        CellKeyMap cells = new CellKeyMap(leafKeys.size());
+        for (int i = 0; i < leafKeys.size(); i++) {
+            int[] entries = leafEntries.get(i);
+            cells.put(leafKeys.get(i),
+                shared.computeIfAbsent(Arrays.stream(entries).boxed().toList(), k -> entries));
+        }
+
+        return new ZoneCellCovering(minLevel, level, levelMask, bounds, cells);
+    }
+
+    /**
+     * Classifies one cell against its candidate zones: stores it as a leaf, or queues it
+     * for splitting when some zone's edge crosses it.
+     *
+     * A zone with no edge in the cell either contains all of it or none of it, so a
+     * single exact test at the cell centre decides (the centre can't be on the boundary).
+     */
+    private static void classify(List<CachedZoneRecord> zones, ZoneEdges[] zoneEdges, int level, PendingCell cell,
+                                 List<PendingCell> split, List<Long> leafKeys, List<int[]> leafEntries) {
+        double width = 360.0 / (1 << level);
+        double height = 180.0 / (1 << level);
+        double minX = cell.x() * width - 180 - CLASSIFY_MARGIN_DEGREES;
+        double minY = cell.y() * height - 90 - CLASSIFY_MARGIN_DEGREES;
+        double maxX = minX + width + 2 * CLASSIFY_MARGIN_DEGREES;
+        double maxY = minY + height + 2 * CLASSIFY_MARGIN_DEGREES;
+
+        int[] inside = cell.inside();
+        int[] crossing = new int[cell.candidates().length];
+        int[][] crossingEdges = new int[cell.candidates().length][];
+        int crossingCount = 0;
+        for (int k = 0; k < cell.candidates().length; k++) {
+            int zoneIndex = cell.candidates()[k];
+            ZoneEdges edges = zoneEdges[zoneIndex];
+
+            int[] parentEdges = cell.edges()[k];
+            int[] cellEdges = new int[parentEdges.length];
+            int edgeCount = 0;
+            for (int edge : parentEdges) {
+                if (edges.crosses(edge, minX, minY, maxX, maxY)) {
+                    cellEdges[edgeCount++] = edge;
+                }
+            }
+
+            if (edgeCount > 0) {
+                crossing[crossingCount] = zoneIndex;
+                crossingEdges[crossingCount++] = Arrays.copyOf(cellEdges, edgeCount);
+            } else if (zones.get(zoneIndex).contains((minY + maxY) / 2, (minX + maxX) / 2)) {
+                inside = Arrays.copyOf(inside, inside.length + 1);
+                inside[inside.length - 1] = zoneIndex;
+            }
+        }
+
+        if (crossingCount > 0) {
+            split.add(new PendingCell(cell.x(), cell.y(), Arrays.copyOf(crossing, crossingCount),
+                Arrays.copyOf(crossingEdges, crossingCount), inside));
+        } else if (inside.length > 0) {
+            leafKeys.add(key(level, cell.x(), cell.y()));
+            leafEntries.add(entries(inside, new int[0]));
+        }
+    }
+
+    /**
+     * Cell entries for a zone set, or null if the point is outside every zone's covering.
+     *
+     * Each entry encodes a zone position and its class: see zoneIndex() and isBoundary().
+     * The array is shared - callers must not modify it.
+     */
+    public int[] lookup(double latitude, double longitude) {
+        if (!bounds.intersects(longitude, latitude)) {
+            return null;
+        }
+
+        // Cell at the finest level; coarser cells are its ancestors (drop low bits)
+        int x = cellX(longitude, finestLevel);
+        int y = cellY(latitude, finestLevel);
+        for (int level = minLevel; level <= finestLevel; level++) {
+            if ((levelMask & (1L << level)) == 0) {
+                continue;
+            }
+            int shift = finestLevel - level;
+            int[] entries = cells.get(key(level, x >> shift, y >> shift));
+            if (entries != null) {
+                return entries;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Position of the entry's zone in the owning index.
+     */
+    public static int zoneIndex(int entry) {
+        return entry >>> 1;
+    }
+
+    /**
+     * Whether the entry's zone only crosses the cell (exact test needed) rather than containing it.
+     */
+    public static boolean isBoundary(int entry) {
+        return (entry & 1) != 0;
+    }
+
+    /**
+     * Counts a lookup, for resolvedFraction().
+     *
+     * @param refined Whether an exact polygon test was needed
+     */
+    public void recordLookup(boolean refined) {
+        (refined ? refinedLookups : resolvedLookups).increment();
+    }
+
+    /**
+     * Fraction of lookups answered from the cells alone, since this covering was built
+     * (NaN before the first lookup).
+     */
+    public double resolvedFraction() {
+        long resolved = resolvedLookups.sum();
+        long total = resolved + refinedLookups.sum();
+        return total == 0 ? Double.NaN : (double) resolved / total;
+    }
+
+    /**
+     * Number of stored (INTERIOR or BOUNDARY) cells.
+     */
+    public int cellCount() {
+        return cells.size();
+    }
+
+    public int minLevel() {
+        return minLevel;
+    }
+
+    /**
+     * Finest level reached: max-level, or coarser if the cell budget stopped the descent.
+     */
+    public int finestLevel() {
+        return finestLevel;
+    }
+
+    private static int[] entries(int[] inside, int[] boundary) {
+        int[] entries = new int[inside.length + boundary.length];
+        for (int i = 0; i < inside.length; i++) {
+            entries[i] = inside[i] << 1;
+        }
+        for (int i = 0; i < boundary.length; i++) {
+            entries[inside.length + i] = boundary[i] << 1 | 1;
+        }
+        return entries;
+    }
+
+    private static long key(int level, int x, int y) {
+        return (long) level << 56 | (long) x << 28 | y;
+    }
+
+    private static int keyX(long key) {
+        return (int) (key >>> 28) & 0xFFFFFFF;
+    }
+
+    private static int keyY(long key) {
+        return (int) key & 0xFFFFFFF;
+    }
+
+    private static int cellX(double longitude, int level) {
+        return clamp((int) Math.floor((longitude + 180) / 360 * (1 << level)), level);
+    }
+
+    private static int cellY(double latitude, int level) {
+        return clamp((int) Math.floor((latitude + 90) / 180 * (1 << level)), level);
+    }
+
+    private static int clamp(int cell, int level) {
+        return Math.max(0, Math.min((1 << level) - 1, cell));
+    }
+}
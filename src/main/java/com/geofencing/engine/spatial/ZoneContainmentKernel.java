@@ -0,0 +1,19 @@
+package com.geofencing.engine.spatial;
+
+/**
+ * Exact point-in-polygon test used by the zone index once a zone is a candidate.
+ */
+public enum ZoneContainmentKernel {
+
+    /**
+     * JTS IndexedPointInAreaLocator per zone (CachedZoneRecord.contains): logarithmic in
+     * the vertex count, but allocates on every test.
+     */
+    JTS,
+
+    /**
+     * Crossing-number test over the zone set packed into primitive arrays (FlatPolygonStore):
+     * linear in the vertex count, allocation-free.
+     */
+    FLAT
+}
@@ -0,0 +1,150 @@
+package com.geofencing.engine.spatial;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+
+/**
+ * Per-zone metric data, precomputed once when the zone is loaded into the cache.
+ *
+ * Holds the zone's centroid, envelope and a local metres-per-degree scale (taken at
+ * the centroid), plus every ring vertex already projected to metres around the
+ * centroid. Grading a violation is then plain arithmetic on primitive arrays:
+ * - distance to the centre: two multiplications and a square root
+ * - distance to the nearest edge: one pass over the projected segments
+ * No Coordinate, Point or other object is allocated per call.
+ *
+ * Using the centroid's scale for the whole zone adds an error that grows with the
+ * zone's north-south extent; for city zones (a few km at most) it stays well below
+ * GPS accuracy. See GeoDistance for the projection itself.
+ *
+ * Immutable and thread-safe.
+ */
+public final class ZoneGeometryProfile {
+
+    private final double centroidLatitude;
+    private final double centroidLongitude;
+    private final Envelope envelope;
+    private final double metersPerDegreeLatitude;
+    private final double metersPerDegreeLongitude;
+
+    // Ring vertices in metres around the centroid; ring i spans [ringStarts[i], ringStarts[i + 1])
+    private final double[] xs;
+    private final double[] ys;
+    private final int[] ringStarts;
+
+    // Segment ending at vertex i: direction and 1 / squared length (0 for degenerate segments)
+    private final double[] dxs;
+    private final double[] dys;
+    private final double[] inverseLengthsSquared;
+
+    private ZoneGeometryProfile(Polygon polygon) {
+        Coordinate centroid = polygon.getCentroid().getCoordinate();
+        this.centroidLatitude = centroid.y;
+        this.centroidLongitude = centroid.x;
+        this.envelope = new Envelope(polygon.getEnvelopeInternal());
+        this.metersPerDegreeLatitude = GeoDistance.metersPerDegreeLatitude(centroidLatitude);
+        this.metersPerDegreeLongitude = GeoDistance.metersPerDegreeLongitude(centroidLatitude);
+
+        int ringCount = 1 + polygon.getNumInteriorRing();
+        this.ringStarts = new int[ringCount + 1];
+        this.xs = new double[polygon.getNumPoints()];
+        this.ys = new double[polygon.getNumPoints()];
+
+        int offset = 0;
+        for (int ring = 0; ring < ringCount; ring++) {
+            ringStarts[ring] = offset;
+            LineString lineString = ring == 0 ? polygon.getExteriorRing() : polygon.getInteriorRingN(ring - 1);
+            for (Coordinate coordinate : lineString.getCoordinates()) {
+                xs[offset] = (coordinate.x - centroidLongitude) * metersPerDegreeLongitude;
+                ys[offset] = (coordinate.y - centroidLatitude) * metersPerDegreeLatitude;
+                offset++;
+            }
+        }
+        ringStarts[ringCount] = offset;
+
+        this.dxs = new double[offset];
+        this.dys = new double[offset];
+        this.inverseLengthsSquared = new double[offset];
+        for (int ring = 0; ring < ringCount; ring++) {
+            for (int i = ringStarts[ring] + 1; i < ringStarts[ring + 1]; i++) {
+                dxs[i] = xs[i] - xs[i - 1];
+                dys[i] = ys[i] - ys[i - 1];
+                double lengthSquared = dxs[i] * dxs[i] + dys[i] * dys[i];
+                inverseLengthsSquared[i] = lengthSquared > 0 ? 1 / lengthSquared : 0;
+            }
+        }
+    }
+
+    /**
+     * Builds the profile of a zone polygon (null geometry = no profile).
+     */
+    public static ZoneGeometryProfile of(Polygon polygon) {
+        return polygon != null && !polygon.isEmpty() ? new ZoneGeometryProfile(polygon) : null;
+    }
+
+    /**
+     * Distance from the point to the zone centroid, in metres.
+     */
+    public double distanceToCenterMeters(double latitude, double longitude) {
+        double x = (longitude - centroidLongitude) * metersPerDegreeLongitude;
+        double y = (latitude - centroidLatitude) * metersPerDegreeLatitude;
+        return Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Distance from the point to the nearest edge of the zone (shell or hole), in metres.
+     * The same whether the point is inside or outside.
+     */
+    public double distanceToBoundaryMeters(double latitude, double longitude) {
+        double px = (longitude - centroidLongitude) * metersPerDegreeLongitude;
+        double py = (latitude - centroidLatitude) * metersPerDegreeLatitude;
+
+        double minSquared = Double.POSITIVE_INFINITY;
+        for (int ring = 0; ring < ringStarts.length - 1; ring++) {
+            int end = ringStarts[ring + 1];
+            for (int i = ringStarts[ring] + 1; i < end; i++) {
+                double x1 = xs[i - 1] - px;
+                double y1 = ys[i - 1] - py;
+                double dx = dxs[i];
+                double dy = dys[i];
+
+                // Projection of the point onto the segment, clamped to its ends
+                // (plain comparisons: Math.min/max on doubles pay for NaN and -0.0 handling)
+                double t = -(x1 * dx + y1 * dy) * inverseLengthsSquared[i];
+                t = t < 0 ? 0 : (t > 1 ? 1 : t);
+                double x = x1 + t * dx;
+                double y = y1 + t * dy;
+                double squared = x * x + y * y;
+                if (squared < minSquared) {
+                    minSquared = squared;
+                }
+            }
+        }
+        return Math.sqrt(minSquared);
+    }
+
+    public double centroidLatitude() {
+        return centroidLatitude;
+    }
+
+    public double centroidLongitude() {
+        return centroidLongitude;
+    }
+
+    /**
+     * Zone envelope in degrees (x = longitude, y = latitude). Do not modify.
+     */
+    public Envelope envelope() {
+        return envelope;
+    }
+
+    public double metersPerDegreeLatitude() {
+        return metersPerDegreeLatitude;
+    }
+
+    public double metersPerDegreeLongitude() {
+        return metersPerDegreeLongitude;
+    }
+}
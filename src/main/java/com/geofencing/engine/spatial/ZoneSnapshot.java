@@ -0,0 +1,38 @@
+package com.geofencing.engine.spatial;
+
+import java.time.Instant;
+
+/**
+ * Immutable node-local (L1) snapshot of the active zone set.
+ *
+ * The detection path reads zones exclusively from the current snapshot, so
+ * a GPS event costs zero Redis round trips and zero WKT parsing. Redis is only
+ * the distribution layer: a snapshot is (re)loaded when the shared version
+ * key changes, and installed with a single reference swap so readers never
+ * observe a partially loaded zone set.
+ *
+ * @param version  Zone set version from Redis ({@link #UNLOADED_VERSION} before the first load)
+ * @param loadedAt When this node installed the snapshot
+ * @param index    Spatial index over the zones of this version
+ */
+public record ZoneSnapshot(long version, Instant loadedAt, ZoneSpatialIndex index) {
+
+    /**
+     * Version of the placeholder snapshot used before any zones were loaded.
+     */
+    public static final long UNLOADED_VERSION = -1L;
+
+    private static final ZoneSnapshot UNLOADED =
+        new ZoneSnapshot(UNLOADED_VERSION, Instant.EPOCH, ZoneSpatialIndex.empty());
+
+    public static ZoneSnapshot unloaded() {
+        return UNLOADED;
+    }
+
+    /**
+     * Whether a zone set has been installed on this node (possibly an empty one).
+     */
+    public boolean isLoaded() {
+        return version != UNLOADED_VERSION;
+    }
+}
@@ -0,0 +1,181 @@
+package com.geofencing.engine.spatial;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKBReader;
+import org.locationtech.jts.io.WKBWriter;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary serialization of a whole zone set.
+ *
+ * Replaces the per-zone WKT string + hand-rolled JSON metadata in Redis:
+ * - One value for the whole active zone set: a node loads everything with a single GET
+ * - Geometry as WKB: no text parsing, ~40% smaller than WKT
+ * - Severity as one byte, names in an interned table (deduplicated, any characters allowed)
+ *
+ * Layout (big-endian):
+ * <pre>
+ *   int32   magic ("GFZS")
+ *   byte    format version
+ *   int64   zone set version
+ *   int32   name count
+ *   repeat: int32 length, UTF-8 bytes
+ *   int32   zone count
+ *   repeat: int64 zone id, int32 name index, byte severity, int32 WKB length, WKB bytes
+ * </pre>
+ */
+public final class ZoneSnapshotCodec {
+
+    private static final int MAGIC = 0x47465A53; // "GFZS"
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final String[] SEVERITIES = {null, "LOW", "MEDIUM", "HIGH"};
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    private ZoneSnapshotCodec() {
+    }
+
+    /**
+     * Decoded zone set: the version it was published under and its zones.
+     */
+    public record DecodedSnapshot(long version, List<CachedZoneRecord> zones) {
+    }
+
+    /**
+     * Encodes a zone set.
+     *
+     * @param version Zone set version to embed
+     * @param zones   Zones to encode (zones without geometry are skipped)
+     * @return Serialized snapshot
+     */
+    public static byte[] encode(long version, List<CachedZoneRecord> zones) {
+        WKBWriter wkbWriter = new WKBWriter();
+
+        Map<String, Integer> nameTable = new LinkedHashMap<>();
+        List<byte[]> wkbs = new ArrayList<>(zones.size());
+        List<CachedZoneRecord> encodable = new ArrayList<>(zones.size());
+
+        int size = 4 + 1 + 8 + 4 + 4;
+
+        for (CachedZoneRecord zone : zones) {
+            if (zone.geometry() == null) {
+                continue;
+            }
+
+            String name = zone.name() != null ? zone.name() : "";
+            if (!nameTable.containsKey(name)) {
+                nameTable.put(name, nameTable.size());
+                size += 4 + name.getBytes(StandardCharsets.UTF_8).length;
+            }
+
+            byte[] wkb = wkbWriter.write(zone.geometry());
+            wkbs.add(wkb);
+            encodable.add(zone);
+            size += 8 + 4 + 1 + 4 + wkb.length;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC);
+        buffer.put(FORMAT_VERSION);
+        buffer.putLong(version);
+
+        buffer.putInt(nameTable.size());
+        for (String name : nameTable.keySet()) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        buffer.putInt(encodable.size());
+        for (int i = 0; i < encodable.size(); i++) {
+            CachedZoneRecord zone = encodable.get(i);
+            byte[] wkb = wkbs.get(i);
+
+            buffer.putLong(zone.zoneId());
+            buffer.putInt(nameTable.get(zone.name() != null ? zone.name() : ""));
+            buffer.put(severityCode(zone.severity()));
+            buffer.putInt(wkb.length);
+            buffer.put(wkb);
+        }
+
+        return buffer.array();
+    }
+
+    /**
+     * Decodes a snapshot produced by {@link #encode}.
+     *
+     * @throws IllegalArgumentException if the payload is not a valid snapshot
+     */
+    public static DecodedSnapshot decode(byte[] payload) {
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalArgumentException("Not a zone snapshot (bad magic)");
+            }
+            byte format = buffer.get();
+            if (format != FORMAT_VERSION) {
+                throw new IllegalArgumentException("Unsupported zone snapshot format: " + format);
+            }
+            long version = buffer.getLong();
+
+            String[] names = new String[buffer.getInt()];
+            for (int i = 0; i < names.length; i++) {
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                names[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            WKBReader wkbReader = new WKBReader(GEOMETRY_FACTORY);
+            int zoneCount = buffer.getInt();
+            List<CachedZoneRecord> zones = new ArrayList<>(zoneCount);
+
+            for (int i = 0; i < zoneCount; i++) {
+                long zoneId = buffer.getLong();
+                String name = names[buffer.getInt()];
+                String severity = severityName(buffer.get());
+                byte[] wkb = new byte[buffer.getInt()];
+                buffer.get(wkb);
+
+                Polygon polygon = (Polygon) wkbReader.read(wkb);
+                zones.add(CachedZoneRecord.fromEntity(zoneId, name, polygon, severity));
+            }
+
+            return new DecodedSnapshot(version, zones);
+
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | ParseException | ClassCastException e) {
+            throw new IllegalArgumentException("Corrupt zone snapshot", e);
+        }
+    }
+
+    private static byte severityCode(String severity) {
+        if (severity == null) {
+            return 0;
+        }
+        for (byte code = 1; code < SEVERITIES.length; code++) {
+            if (SEVERITIES[code].equals(severity)) {
+                return code;
+            }
+        }
+        throw new IllegalArgumentException("Unknown severity: " + severity);
+    }
+
+    private static String severityName(byte code) {
+        if (code < 0 || code >= SEVERITIES.length) {
+            throw new IllegalArgumentException("Unknown severity code: " + code);
+        }
+        return SEVERITIES[code];
+    }
+}
@@ -0,0 +1,443 @@
+package com.geofencing.engine.spatial;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.dto.NearbyZoneRecord;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Envelope;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.index.strtree.AbstractNode;
+import org.locationtech.jts.index.strtree.Boundable;
+import org.locationtech.jts.index.strtree.ItemBoundable;
+import org.locationtech.jts.index.strtree.STRtree;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable, bulk-loaded R-tree over the active zone set.
+ *
+ * Why an STRtree?
+ * - The previous lookup tested every cached zone for every GPS event: O(n) per ping
+ * - STRtree packs all zone envelopes once (Sort-Tile-Recursive bulk load)
+ * - A point query only visits the nodes whose envelopes contain the point: O(log n)
+ * - Only the few zones whose bounding box covers the point get an exact polygon test
+ *
+ * Thread-Safety:
+ * The tree is built in the constructor and never modified afterwards. Queries
+ * don't go through STRtree.query() or getRoot(): in JTS both call the synchronized
+ * build() on every call, so all detection threads would contend on the tree's
+ * monitor even though the build is long done. The root node is fetched once here
+ * and every query walks it directly (plain reads of immutable nodes), so any number
+ * of threads query it concurrently without locking. A zone refresh builds a
+ * brand-new index and swaps the reference (see ZoneLookupEngine).
+ *
+ * Performance:
+ * - Build: ~5ms for 10,000 zones
+ * - Query: ~1-2µs per point regardless of zone count (vs ~1ms linear scan at 10,000 zones)
+ *
+ * Cell covering (optional, see ZoneCellCovering):
+ * When built with a resolution, point queries (findContainingZones, containsAny) go
+ * through a precomputed grid of INTERIOR / BOUNDARY cells instead of the tree: points
+ * outside every zone or deep inside one are answered by a single hash probe per level,
+ * and only zones whose edge crosses the point's cell get the exact polygon test.
+ * Segment and distance queries always use the tree.
+ *
+ * Exact containment (see ZoneContainmentKernel):
+ * JTS runs each zone's IndexedPointInAreaLocator; FLAT runs an allocation-free
+ * crossing-number test over the zone set packed into primitive arrays (FlatPolygonStore).
+ * Tree items are zone positions in zones(), so both kernels address zones the same way.
+ */
+public final class ZoneSpatialIndex {
+
+    /**
+     * Default STRtree node capacity (JTS default, good balance of depth vs fan-out).
+     */
+    private static final int NODE_CAPACITY = 10;
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    private static final ZoneSpatialIndex EMPTY = new ZoneSpatialIndex(List.of());
+
+    private final AbstractNode root;
+    private final int size;
+    private final int depth;
+    private final List<CachedZoneRecord> zones;
+    private final ZoneCellCovering covering;
+    private final FlatPolygonStore flatPolygons;
+
+    public ZoneSpatialIndex(List<CachedZoneRecord> zones) {
+        this(zones, null);
+    }
+
+    public ZoneSpatialIndex(List<CachedZoneRecord> zones, ZoneCellCovering.Resolution resolution) {
+        this(zones, resolution, ZoneContainmentKernel.JTS);
+    }
+
+    public ZoneSpatialIndex(List<CachedZoneRecord> zones, ZoneCellCovering.Resolution resolution,
+                            ZoneContainmentKernel kernel) {
+        this(zones, resolution, kernel, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param zones             Zones to index
+     * @param resolution        Cell covering resolution, or null for tree-only point queries
+     * @param kernel            Exact point-in-polygon test
+     * @param vectorMinVertices With the FLAT kernel, zones with at least this many vertices
+     *                          use the SIMD edge loop (see FlatPolygonStore)
+     */
+    public ZoneSpatialIndex(List<CachedZoneRecord> zones, ZoneCellCovering.Resolution resolution,
+                            ZoneContainmentKernel kernel, int vectorMinVertices) {
+        this.zones = List.copyOf(zones);
+        STRtree tree = new STRtree(NODE_CAPACITY);
+
+        for (int i = 0; i < this.zones.size(); i++) {
+            CachedZoneRecord zone = this.zones.get(i);
+            if (zone.geometry() != null) {
+                tree.insert(zone.geometry().getEnvelopeInternal(), i);
+            }
+        }
+
+        // getRoot(), size() and depth() each call the synchronized build(): call them
+        // once here, queries then only walk the root (see class doc)
+        this.root = tree.getRoot();
+        this.size = tree.size();
+        this.depth = tree.depth();
+
+        this.covering = resolution != null ? ZoneCellCovering.build(this.zones, resolution) : null;
+        this.flatPolygons = kernel == ZoneContainmentKernel.FLAT
+            ? FlatPolygonStore.of(this.zones, vectorMinVertices)
+            : null;
+    }
+
+    /**
+     * Returns the shared empty index (used before the first zone load).
+     */
+    public static ZoneSpatialIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Finds all zones containing the given GPS point.
+     *
+     * Two-phase query:
+     * 1. Filter: STRtree returns only zones whose envelope contains the point
+     *    (or, with a cell covering, the point's cell gives its zones directly)
+     * 2. Refine: exact point-in-polygon test on those candidates (with a covering,
+     *    only on zones whose boundary crosses the cell)
+     *
+     * @param latitude  GPS latitude
+     * @param longitude GPS longitude
+     * @return Zones containing the point (usually 0-1 zones)
+     */
+    public List<CachedZoneRecord> findContainingZones(double latitude, double longitude) {
+        if (zones.isEmpty()) {
+            return List.of();
+        }
+        if (covering != null) {
+            return findContainingZonesByCell(latitude, longitude);
+        }
+
+        // Envelope coordinates are (x, y) = (longitude, latitude)
+        List<Integer> candidates = query(new Envelope(longitude, longitude, latitude, latitude));
+
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        List<CachedZoneRecord> containing = new ArrayList<>(1);
+        for (int i = 0; i < candidates.size(); i++) {
+            int candidate = candidates.get(i);
+            if (contains(candidate, latitude, longitude)) {
+                containing.add(zones.get(candidate));
+            }
+        }
+        return containing;
+    }
+
+    private List<CachedZoneRecord> findContainingZonesByCell(double latitude, double longitude) {
+        int[] entries = covering.lookup(latitude, longitude);
+        if (entries == null) {
+            covering.recordLookup(false);
+            return List.of();
+        }
+
+        List<CachedZoneRecord> containing = new ArrayList<>(entries.length);
+        boolean refined = false;
+        for (int entry : entries) {
+            int zone = ZoneCellCovering.zoneIndex(entry);
+            if (!ZoneCellCovering.isBoundary(entry)) {
+                containing.add(zones.get(zone));
+            } else {
+                refined = true;
+                if (contains(zone, latitude, longitude)) {
+                    containing.add(zones.get(zone));
+                }
+            }
+        }
+        covering.recordLookup(refined);
+        return containing;
+    }
+
+    /**
+     * Whether any zone contains the given GPS point.
+     *
+     * Same answer as !findContainingZones(...).isEmpty(), but walks the tree
+     * directly instead of collecting candidates: no Envelope, visitor or result
+     * list is allocated. A point outside every zone envelope (the vast majority
+     * of pings) is answered without any allocation at all; only envelope hits pay
+     * for the exact polygon test (itself allocation-free with the FLAT kernel).
+     * Used by the binary ingest path to skip misses before any event object is built.
+     *
+     * @param latitude  GPS latitude
+     * @param longitude GPS longitude
+     * @return true if at least one zone contains the point
+     */
+    public boolean containsAny(double latitude, double longitude) {
+        if (zones.isEmpty()) {
+            return false;
+        }
+        if (covering != null) {
+            return containsAnyByCell(latitude, longitude);
+        }
+        return containsAny(root, latitude, longitude);
+    }
+
+    /**
+     * Exact test of the zone at the given position, with the configured kernel.
+     */
+    private boolean contains(int zone, double latitude, double longitude) {
+        return flatPolygons != null
+            ? flatPolygons.contains(zone, latitude, longitude)
+            : zones.get(zone).contains(latitude, longitude);
+    }
+
+    private boolean containsAnyByCell(double latitude, double longitude) {
+        int[] entries = covering.lookup(latitude, longitude);
+        if (entries == null) {
+            covering.recordLookup(false);
+            return false;
+        }
+
+        // INTERIOR entries first: they answer without any polygon test
+        for (int entry : entries) {
+            if (!ZoneCellCovering.isBoundary(entry)) {
+                covering.recordLookup(false);
+                return true;
+            }
+        }
+        covering.recordLookup(true);
+        for (int entry : entries) {
+            if (contains(ZoneCellCovering.zoneIndex(entry), latitude, longitude)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean containsAny(AbstractNode node, double latitude, double longitude) {
+        List<?> children = node.getChildBoundables();
+        // Indexed loop: no iterator allocation on the hot path
+        for (int i = 0; i < children.size(); i++) {
+            Boundable child = (Boundable) children.get(i);
+            if (!((Envelope) child.getBounds()).intersects(longitude, latitude)) {
+                continue;
+            }
+            if (child instanceof AbstractNode childNode) {
+                if (containsAny(childNode, latitude, longitude)) {
+                    return true;
+                }
+            } else if (contains((Integer) ((ItemBoundable) child).getItem(), latitude, longitude)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Zone positions of the tree items whose envelope intersects the search envelope -
+     * STRtree.query() without its synchronized build() call (see class doc).
+     */
+    private List<Integer> query(Envelope search) {
+        List<Integer> found = new ArrayList<>();
+        query(root, search, found);
+        return found;
+    }
+
+    private static void query(AbstractNode node, Envelope search, List<Integer> found) {
+        List<?> children = node.getChildBoundables();
+        for (int i = 0; i < children.size(); i++) {
+            Boundable child = (Boundable) children.get(i);
+            if (!search.intersects((Envelope) child.getBounds())) {
+                continue;
+            }
+            if (child instanceof AbstractNode childNode) {
+                query(childNode, search, found);
+            } else {
+                found.add((Integer) ((ItemBoundable) child).getItem());
+            }
+        }
+    }
+
+    /**
+     * Finds all zones touched by the straight path between two GPS points.
+     *
+     * Two-phase query, like findContainingZones():
+     * 1. Filter: STRtree returns zones whose envelope intersects the segment's envelope
+     *    (no geometry is built when nothing is near - the common case)
+     * 2. Refine: prepared intersects() against the segment
+     *
+     * @return Zones the segment intersects, including those containing either end
+     */
+    public List<CachedZoneRecord> findCrossedZones(double fromLatitude, double fromLongitude,
+                                                   double toLatitude, double toLongitude) {
+        if (zones.isEmpty()) {
+            return List.of();
+        }
+
+        List<Integer> candidates = query(new Envelope(fromLongitude, toLongitude, fromLatitude, toLatitude));
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        LineString segment = segment(fromLatitude, fromLongitude, toLatitude, toLongitude);
+        List<CachedZoneRecord> crossed = new ArrayList<>(1);
+        for (int position : candidates) {
+            CachedZoneRecord candidate = zones.get(position);
+            if (candidate.intersects(segment)) {
+                crossed.add(candidate);
+            }
+        }
+        return crossed;
+    }
+
+    /**
+     * Line segment between two GPS points, in (longitude, latitude) coordinates.
+     */
+    public static LineString segment(double fromLatitude, double fromLongitude,
+                                     double toLatitude, double toLongitude) {
+        return GEOMETRY_FACTORY.createLineString(new Coordinate[]{
+            new Coordinate(fromLongitude, fromLatitude),
+            new Coordinate(toLongitude, toLatitude)
+        });
+    }
+
+    /**
+     * Finds zones within a distance of a GPS point, nearest first - the in-memory
+     * equivalent of ST_DWithin / ST_Distance on geography.
+     *
+     * 1. Filter: the point's envelope is widened by radiusMeters, converted to degrees
+     *    with the local equirectangular scale (GeoDistance), and probed in the STRtree
+     * 2. Refine: exact point-to-polygon distance for each candidate (0 inside,
+     *    otherwise the distance to the nearest edge), kept if within the radius
+     *
+     * Distances are within 0.05% of PostGIS geography distances (see GeoDistance).
+     *
+     * @param latitude     GPS latitude
+     * @param longitude    GPS longitude
+     * @param radiusMeters Search radius in metres
+     * @return Zones within the radius, ordered by distance
+     */
+    public List<NearbyZoneRecord> findZonesNearby(double latitude, double longitude, double radiusMeters) {
+        if (zones.isEmpty()) {
+            return List.of();
+        }
+
+        List<Integer> candidates = query(widen(latitude, longitude, radiusMeters));
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        List<NearbyZoneRecord> nearby = new ArrayList<>(candidates.size());
+        for (int position : candidates) {
+            CachedZoneRecord candidate = zones.get(position);
+            double distance = contains(position, latitude, longitude)
+                ? 0
+                : GeoDistance.distanceToBoundaryMeters(candidate.geometry(), latitude, longitude);
+            if (distance <= radiusMeters) {
+                nearby.add(new NearbyZoneRecord(candidate.zoneId(), candidate.name(), candidate.severity(), distance));
+            }
+        }
+        nearby.sort(Comparator.comparingDouble(NearbyZoneRecord::distanceMeters));
+        return nearby;
+    }
+
+    /**
+     * Envelope of the point, widened by a distance in metres on each side.
+     */
+    private static Envelope widen(double latitude, double longitude, double meters) {
+        double latitudeDelta = meters / GeoDistance.metersPerDegreeLatitude(latitude);
+        double longitudeDelta = meters / GeoDistance.metersPerDegreeLongitude(latitude);
+        return new Envelope(longitude - longitudeDelta, longitude + longitudeDelta,
+            latitude - latitudeDelta, latitude + latitudeDelta);
+    }
+
+    /**
+     * Distance from a GPS point to the nearest zone boundary, in metres, capped at maxMeters.
+     *
+     * Only zones whose envelope lies within maxMeters of the point can be closer than
+     * that (outside a polygon, its boundary is never nearer than its envelope), so the
+     * STRtree is queried with the point's envelope widened by maxMeters, and only those
+     * candidates get an exact edge distance (GeoDistance).
+     *
+     * @param latitude  GPS latitude
+     * @param longitude GPS longitude
+     * @param maxMeters Search radius; returned if no zone boundary is closer
+     * @return Distance in metres to the nearest boundary of any zone, at most maxMeters
+     */
+    public double distanceToNearestBoundary(double latitude, double longitude, double maxMeters) {
+        if (zones.isEmpty()) {
+            return maxMeters;
+        }
+
+        List<Integer> candidates = query(widen(latitude, longitude, maxMeters));
+
+        double nearest = maxMeters;
+        for (int position : candidates) {
+            nearest = Math.min(nearest,
+                GeoDistance.distanceToBoundaryMeters(zones.get(position).geometry(), latitude, longitude));
+        }
+        return nearest;
+    }
+
+    /**
+     * Cell covering of the zones, or null if point queries use the tree.
+     */
+    public ZoneCellCovering covering() {
+        return covering;
+    }
+
+    /**
+     * Packed polygons of the FLAT kernel, or null with the JTS kernel.
+     */
+    public FlatPolygonStore flatPolygons() {
+        return flatPolygons;
+    }
+
+    /**
+     * All zones held by this index.
+     */
+    public List<CachedZoneRecord> zones() {
+        return zones;
+    }
+
+    /**
+     * Number of zones in the index.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Height of the tree (number of levels from root to leaves).
+     * Grows logarithmically with the zone count: ~3 for 1,000 zones, ~4 for 10,000.
+     */
+    public int depth() {
+        return depth;
+    }
+
+    public boolean isEmpty() {
+        return zones.isEmpty();
+    }
+}
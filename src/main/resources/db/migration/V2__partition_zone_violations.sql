@@ -0,0 +1,143 @@
+-- ============================================================================
+-- Migration V2: Daily Range Partitioning for zone_violations
+-- ============================================================================
+-- zone_violations grows without bound (hundreds of millions of rows). As one
+-- heap, every time-range query (findByTimestampBetween..., violation stats)
+-- walks ever larger B-tree indexes, and deleting old rows means huge DELETEs.
+--
+-- CRITICAL PERFORMANCE DECISIONS:
+-- 1. Declarative RANGE partitioning on timestamp, one partition per day
+--    - Time-range queries only touch the partitions in range (partition pruning)
+--    - Retention = DROP/DETACH of a whole partition, no DELETE, no vacuum debt
+-- 2. BRIN index on timestamp instead of a B-tree
+--    - Violations are appended in time order, so block ranges map to time ranges
+--    - A few KB per partition instead of a B-tree of the whole time column
+-- 3. Existing rows are not copied: the old table is attached as the first
+--    partition (all rows up to tomorrow). ATTACH validates it with one scan.
+-- 4. PostgreSQL requires the partition key in every unique constraint:
+--    PRIMARY KEY (id, timestamp), UNIQUE (violation_id, timestamp).
+--    violation_id is {scooterId}_{epochMillis} of the same GPS event as
+--    timestamp, so this is as strict as the old UNIQUE (violation_id).
+--
+-- Partitions ahead of time and retention are managed by the application
+-- (ViolationPartitionManager). A DEFAULT partition catches rows outside all
+-- daily partitions (e.g. clock skew) so inserts never fail.
+-- ============================================================================
+
+-- ============================================================================
+-- Step 1: Move the existing table out of the way
+-- ============================================================================
+-- Index and constraint names are schema-wide, so they are renamed too.
+-- The id sequence is kept (ids continue where they left off).
+
+ALTER TABLE zone_violations RENAME TO zone_violations_legacy;
+ALTER TABLE zone_violations_legacy RENAME CONSTRAINT zone_violations_pkey TO zone_violations_legacy_pkey;
+ALTER TABLE zone_violations_legacy RENAME CONSTRAINT zone_violations_violation_id_key TO zone_violations_legacy_violation_id_key;
+ALTER TABLE zone_violations_legacy RENAME CONSTRAINT fk_zone TO fk_zone_legacy;
+
+ALTER INDEX idx_zone_violations_scooter RENAME TO idx_zone_violations_legacy_scooter;
+ALTER INDEX idx_zone_violations_zone RENAME TO idx_zone_violations_legacy_zone;
+ALTER INDEX idx_zone_violations_timestamp RENAME TO idx_zone_violations_legacy_timestamp;
+ALTER INDEX idx_zone_violations_scooter_time RENAME TO idx_zone_violations_legacy_scooter_time;
+
+ALTER SEQUENCE zone_violations_id_seq OWNED BY NONE;
+
+-- ============================================================================
+-- Step 2: Partitioned table (same columns as V1)
+-- ============================================================================
+
+CREATE TABLE zone_violations (
+    id BIGINT NOT NULL DEFAULT nextval('zone_violations_id_seq'),
+    violation_id VARCHAR(255) NOT NULL,
+
+    -- Denormalized data for fast queries (avoid joins)
+    scooter_id VARCHAR(100) NOT NULL,
+    zone_id BIGINT NOT NULL,
+    zone_name VARCHAR(255) NOT NULL,
+
+    -- Location where violation occurred
+    latitude DOUBLE PRECISION NOT NULL,
+    longitude DOUBLE PRECISION NOT NULL,
+
+    -- Timestamp of the GPS event that triggered the violation (partition key)
+    timestamp TIMESTAMP NOT NULL,
+
+    -- Severity level (denormalized from zone)
+    severity VARCHAR(50),
+
+    -- Optional: distance from scooter to zone center
+    distance_to_center DOUBLE PRECISION,
+
+    -- Audit
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT zone_violations_pkey PRIMARY KEY (id, timestamp),
+    CONSTRAINT zone_violations_violation_id_key UNIQUE (violation_id, timestamp),
+    CONSTRAINT fk_zone FOREIGN KEY (zone_id) REFERENCES no_parking_zones(id) ON DELETE CASCADE
+) PARTITION BY RANGE (timestamp);
+
+ALTER SEQUENCE zone_violations_id_seq OWNED BY zone_violations.id;
+
+-- ============================================================================
+-- Indexes for zone_violations (created on every partition automatically)
+-- ============================================================================
+
+-- Fast lookups by scooter (e.g., "show all violations for scooter X")
+CREATE INDEX idx_zone_violations_scooter ON zone_violations(scooter_id);
+
+-- Fast lookups by zone (e.g., "show all violations in zone Y")
+CREATE INDEX idx_zone_violations_zone ON zone_violations(zone_id);
+
+-- Composite index for common queries (scooter + time range)
+CREATE INDEX idx_zone_violations_scooter_time ON zone_violations(scooter_id, timestamp DESC);
+
+-- Time-range queries inside a partition: BRIN (rows arrive in time order)
+CREATE INDEX idx_zone_violations_timestamp_brin ON zone_violations
+    USING BRIN(timestamp) WITH (pages_per_range = 32);
+
+-- ============================================================================
+-- Step 3: Attach the old table as the first partition
+-- ============================================================================
+-- Covers everything before tomorrow (or after the newest existing row).
+-- Its old PK/UNIQUE indexes stay; the partitioned indexes are added to it.
+
+DO $$
+DECLARE
+    legacy_upper DATE;
+BEGIN
+    SELECT GREATEST(CURRENT_DATE + 1, COALESCE(MAX(timestamp)::date + 1, CURRENT_DATE + 1))
+    INTO legacy_upper
+    FROM zone_violations_legacy;
+
+    EXECUTE format(
+        'ALTER TABLE zone_violations ATTACH PARTITION zone_violations_legacy FOR VALUES FROM (MINVALUE) TO (%L)',
+        legacy_upper);
+
+    -- First week of daily partitions; ViolationPartitionManager keeps creating ahead
+    FOR i IN 0..6 LOOP
+        EXECUTE format(
+            'CREATE TABLE zone_violations_p%s PARTITION OF zone_violations FOR VALUES FROM (%L) TO (%L)',
+            to_char(legacy_upper + i, 'YYYYMMDD'), legacy_upper + i, legacy_upper + i + 1);
+    END LOOP;
+END $$;
+
+-- Catch-all for rows outside the daily partitions
+CREATE TABLE zone_violations_default PARTITION OF zone_violations DEFAULT;
+
+-- ============================================================================
+-- Useful Partition Queries (commented out - for reference)
+-- ============================================================================
+
+-- List partitions and their bounds
+-- SELECT c.relname, pg_get_expr(c.relpartbound, c.oid)
+-- FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+-- WHERE i.inhparent = 'zone_violations'::regclass
+-- ORDER BY c.relname;
+
+-- Verify partition pruning (only one partition should be scanned)
+-- EXPLAIN SELECT * FROM zone_violations
+-- WHERE timestamp >= CURRENT_DATE AND timestamp < CURRENT_DATE + 1;
+
+-- ============================================================================
+-- End of Migration V2
+-- ============================================================================
@@ -0,0 +1,25 @@
+-- ============================================================================
+-- Migration V3: Grade violations by position inside the zone
+-- ============================================================================
+-- The enforcement team grades violations by where in the zone the scooter was:
+-- - distance_to_center (already in V1, now filled in): metres to the zone centroid
+-- - distance_to_boundary (new): metres to the nearest zone edge, i.e. how deep
+--   inside the zone the scooter is (a scooter 1m past the edge vs. 80m inside)
+--
+-- Both are computed by the application when the violation is detected, from a
+-- per-zone profile precomputed at zone load (ZoneGeometryProfile) - no PostGIS
+-- work per violation.
+--
+-- Adding a nullable column without a default is a catalog-only change: no table
+-- rewrite, and it propagates to every partition of zone_violations. Rows written
+-- before this migration keep NULL.
+-- ============================================================================
+
+ALTER TABLE zone_violations ADD COLUMN distance_to_boundary DOUBLE PRECISION;
+
+COMMENT ON COLUMN zone_violations.distance_to_center IS 'Metres from the scooter to the zone centroid';
+COMMENT ON COLUMN zone_violations.distance_to_boundary IS 'Metres from the scooter to the nearest zone edge';
+
+-- Grading queries, e.g. "violations more than 20m inside a zone today":
+-- SELECT * FROM zone_violations
+-- WHERE timestamp >= CURRENT_DATE AND distance_to_boundary > 20;
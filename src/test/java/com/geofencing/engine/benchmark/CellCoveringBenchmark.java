@@ -0,0 +1,150 @@
+package com.geofencing.engine.benchmark;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.spatial.TestPolygons;
+import com.geofencing.engine.spatial.ZoneCellCovering;
+import com.geofencing.engine.spatial.ZoneSpatialIndex;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point lookups through the STRtree vs the INTERIOR / BOUNDARY cell covering.
+ *
+ * Zones are the CrossingBenchmark grid: 400 star polygons (~100m radius) over a
+ * 5km x 5km area of San Francisco. Half of the pings are inside a zone, within
+ * 60% of its radius of the centre (a parked scooter), the other half uniformly
+ * spread over the area (mostly outside every zone).
+ *
+ * - tree / treeAny: STRtree filter + exact polygon test
+ * - cells / cellsAny: cell covering, exact test only in BOUNDARY cells
+ * - build: building the covering of the 400 zones (paid once per snapshot install)
+ *
+ * The fraction of lookups the cells resolved on their own is printed after each fork.
+ *
+ * Run:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(cat cp.txt)" \
+ *       com.geofencing.engine.benchmark.CellCoveringBenchmark
+ * (cp.txt from: mvn dependency:build-classpath -Dmdep.outputFile=cp.txt)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellCoveringBenchmark {
+
+    private static final int PING_COUNT = 4096;
+
+    private static final ZoneCellCovering.Resolution RESOLUTION = new ZoneCellCovering.Resolution(10, 20, 200_000);
+
+    @Param({"64", "256"})
+    public int vertexCount;
+
+    private List<CachedZoneRecord> zones;
+    private ZoneSpatialIndex tree;
+    private ZoneSpatialIndex cells;
+    private double[] latitudes;
+    private double[] longitudes;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        zones = new ArrayList<>();
+        long id = 1;
+        for (int row = 0; row < 20; row++) {
+            for (int col = 0; col < 20; col++) {
+                zones.add(CachedZoneRecord.fromEntity(id, "Zone " + id,
+                    TestPolygons.star(geometryFactory, -122.45 + col * 0.0028, 37.75 + row * 0.0022,
+                        0.0012, vertexCount, id),
+                    "HIGH"));
+                id++;
+            }
+        }
+        tree = new ZoneSpatialIndex(zones);
+
+        cells = new ZoneSpatialIndex(zones, RESOLUTION);
+        System.out.printf("%nCell covering: %d cells down to level %d%n",
+            cells.covering().cellCount(), cells.covering().finestLevel());
+
+        Random random = new Random(7);
+        latitudes = new double[PING_COUNT];
+        longitudes = new double[PING_COUNT];
+        for (int i = 0; i < PING_COUNT; i++) {
+            if (i % 2 == 0) {
+                double angle = random.nextDouble() * 2 * Math.PI;
+                double radius = random.nextDouble() * 0.0012 * 0.6;
+                latitudes[i] = 37.75 + random.nextInt(20) * 0.0022 + radius * Math.sin(angle);
+                longitudes[i] = -122.45 + random.nextInt(20) * 0.0028 + radius * Math.cos(angle);
+            } else {
+                latitudes[i] = 37.75 + random.nextDouble() * 0.044;
+                longitudes[i] = -122.45 + random.nextDouble() * 0.056;
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        if (!Double.isNaN(cells.covering().resolvedFraction())) {
+            System.out.printf("%nResolved without a polygon test: %.1f%%%n", cells.covering().resolvedFraction() * 100);
+        }
+    }
+
+    @Benchmark
+    public Object tree() {
+        int i = cursor++ & (PING_COUNT - 1);
+        return tree.findContainingZones(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    public Object cells() {
+        int i = cursor++ & (PING_COUNT - 1);
+        return cells.findContainingZones(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    public boolean treeAny() {
+        int i = cursor++ & (PING_COUNT - 1);
+        return tree.containsAny(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    public boolean cellsAny() {
+        int i = cursor++ & (PING_COUNT - 1);
+        return cells.containsAny(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Object build() {
+        return ZoneCellCovering.build(zones, RESOLUTION);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CellCoveringBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
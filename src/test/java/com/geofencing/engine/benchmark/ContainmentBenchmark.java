@@ -0,0 +1,119 @@
+package com.geofencing.engine.benchmark;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.spatial.FlatPolygonStore;
+import com.geofencing.engine.spatial.TestPolygons;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plain Polygon.contains() vs prepared (indexed) containment vs the flat
+ * crossing-number kernel (FlatPolygonStore), scalar and SIMD (Vector API).
+ *
+ * Polygons are irregular star shapes around San Francisco downtown so that
+ * ray crossing has to look at a realistic mix of edges. Probe points are
+ * spread uniformly over the polygon envelope (~50% inside).
+ *
+ * Forks run with --add-modules jdk.incubator.vector so vectorContains uses the SIMD
+ * edge loop (it would silently fall back to the scalar one otherwise).
+ *
+ * Run with the GC profiler to compare allocation per test (gc.alloc.rate.norm):
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(cat cp.txt)" \
+ *       com.geofencing.engine.benchmark.ContainmentBenchmark -prof gc
+ * (cp.txt from: mvn dependency:build-classpath -Dmdep.outputFile=cp.txt)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ContainmentBenchmark {
+
+    private static final int POINT_COUNT = 1024;
+
+    @Param({"16", "64", "256", "1024", "4096"})
+    public int vertexCount;
+
+    private Polygon polygon;
+    private CachedZoneRecord cachedZone;
+    private FlatPolygonStore flatPolygons;
+    private FlatPolygonStore vectorPolygons;
+    private double[] latitudes;
+    private double[] longitudes;
+    private Point[] points;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        polygon = TestPolygons.star(geometryFactory, -122.4144, 37.7799, 0.005, vertexCount, 42);
+        cachedZone = CachedZoneRecord.fromEntity(1L, "Bench", polygon, "HIGH");
+        flatPolygons = FlatPolygonStore.of(List.of(cachedZone));
+        vectorPolygons = FlatPolygonStore.of(List.of(cachedZone), 0);
+        if (vectorPolygons.vectorizedZoneCount() == 0) {
+            throw new IllegalStateException("Vector API module missing: run with --add-modules jdk.incubator.vector");
+        }
+
+        Random random = new Random(7);
+        latitudes = new double[POINT_COUNT];
+        longitudes = new double[POINT_COUNT];
+        points = new Point[POINT_COUNT];
+        for (int i = 0; i < POINT_COUNT; i++) {
+            longitudes[i] = -122.4144 + (random.nextDouble() - 0.5) * 0.01;
+            latitudes[i] = 37.7799 + (random.nextDouble() - 0.5) * 0.01;
+            points[i] = geometryFactory.createPoint(new Coordinate(longitudes[i], latitudes[i]));
+        }
+    }
+
+    @Benchmark
+    public boolean plainContains() {
+        int i = cursor++ & (POINT_COUNT - 1);
+        return polygon.contains(points[i]);
+    }
+
+    @Benchmark
+    public boolean preparedContains() {
+        int i = cursor++ & (POINT_COUNT - 1);
+        return cachedZone.contains(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    public boolean flatContains() {
+        int i = cursor++ & (POINT_COUNT - 1);
+        return flatPolygons.contains(0, latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    public boolean vectorContains() {
+        int i = cursor++ & (POINT_COUNT - 1);
+        return vectorPolygons.contains(0, latitudes[i], longitudes[i]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ContainmentBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
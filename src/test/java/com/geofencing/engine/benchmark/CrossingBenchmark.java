@@ -0,0 +1,115 @@
+package com.geofencing.engine.benchmark;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.spatial.TestPolygons;
+import com.geofencing.engine.spatial.ZoneSpatialIndex;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-ping cost of POINT vs SEGMENT crossing mode.
+ *
+ * Zones are star polygons (~100m radius) on a grid over a 5km x 5km area of
+ * San Francisco, covering ~10% of it. Each ping moves ~150m in a random
+ * direction from the previous one (25 km/h, 20s between pings).
+ *
+ * - point: the containment lookup every mode does
+ * - segment: the same lookup plus the segment query against the previous ping
+ *   (TrajectoryCrossingDetector's geometry work)
+ *
+ * Run:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(cat cp.txt)" \
+ *       com.geofencing.engine.benchmark.CrossingBenchmark
+ * (cp.txt from: mvn dependency:build-classpath -Dmdep.outputFile=cp.txt)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CrossingBenchmark {
+
+    private static final int PING_COUNT = 4096;
+    private static final double STEP_DEGREES = 0.00135; // ~150m
+
+    @Param({"64", "256"})
+    public int vertexCount;
+
+    private ZoneSpatialIndex index;
+    private double[] latitudes;
+    private double[] longitudes;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        List<CachedZoneRecord> zones = new ArrayList<>();
+        long id = 1;
+        for (int row = 0; row < 20; row++) {
+            for (int col = 0; col < 20; col++) {
+                zones.add(CachedZoneRecord.fromEntity(id, "Zone " + id,
+                    TestPolygons.star(geometryFactory, -122.45 + col * 0.0028, 37.75 + row * 0.0022,
+                        0.0012, vertexCount, id),
+                    "HIGH"));
+                id++;
+            }
+        }
+        index = new ZoneSpatialIndex(zones);
+
+        // Random walk, wrapped into the zone area
+        Random random = new Random(7);
+        latitudes = new double[PING_COUNT];
+        longitudes = new double[PING_COUNT];
+        double lat = 37.77;
+        double lon = -122.42;
+        for (int i = 0; i < PING_COUNT; i++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            lat = 37.75 + Math.floorMod(Math.round((lat + STEP_DEGREES * Math.sin(angle) - 37.75) * 1e7), 440_000) / 1e7;
+            lon = -122.45 + Math.floorMod(Math.round((lon + STEP_DEGREES * Math.cos(angle) + 122.45) * 1e7), 560_000) / 1e7;
+            latitudes[i] = lat;
+            longitudes[i] = lon;
+        }
+    }
+
+    @Benchmark
+    public Object point() {
+        int i = cursor++ & (PING_COUNT - 1);
+        return index.findContainingZones(latitudes[i], longitudes[i]);
+    }
+
+    @Benchmark
+    public void segment(Blackhole blackhole) {
+        int i = cursor++ & (PING_COUNT - 1);
+        int previous = (i - 1) & (PING_COUNT - 1);
+        blackhole.consume(index.findContainingZones(latitudes[i], longitudes[i]));
+        blackhole.consume(index.findCrossedZones(latitudes[previous], longitudes[previous],
+            latitudes[i], longitudes[i]));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CrossingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,111 @@
+package com.geofencing.engine.benchmark;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import com.geofencing.engine.spatial.TestPolygons;
+import com.geofencing.engine.spatial.ZoneSpatialIndex;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of grading violations (distance to centre and to the nearest edge) on the
+ * detection path.
+ *
+ * Each operation is one GPS event inside a star zone, as on the violation path:
+ * - ungraded: zone lookup + violation record with null distances (before)
+ * - graded: zone lookup + violation record graded from the zone profile (after)
+ * - gradeOnly: just the two profile distances, to isolate them
+ *
+ * Run with the GC profiler to confirm grading allocates nothing beyond the record:
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(cat cp.txt)" \
+ *       com.geofencing.engine.benchmark.ViolationGradingBenchmark -prof gc
+ * (cp.txt from: mvn dependency:build-classpath -Dmdep.outputFile=cp.txt)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ViolationGradingBenchmark {
+
+    private static final int EVENT_COUNT = 1024;
+
+    @Param({"16", "64", "256"})
+    public int vertexCount;
+
+    private ZoneSpatialIndex index;
+    private CachedZoneRecord zone;
+    private GpsEventRecord[] events;
+    private int cursor;
+
+    @Setup
+    public void setUp() {
+        zone = CachedZoneRecord.fromEntity(1L, "Bench",
+            TestPolygons.star(new GeometryFactory(), -122.4144, 37.7799, 0.005, vertexCount, 42), "HIGH");
+        index = new ZoneSpatialIndex(List.of(zone));
+
+        // Events inside the zone (the inner half of the star is always inside)
+        Random random = new Random(7);
+        Instant now = Instant.now();
+        events = new GpsEventRecord[EVENT_COUNT];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            double radius = random.nextDouble() * 0.0024;
+            events[i] = new GpsEventRecord("SC-" + i, 37.7799 + radius * Math.sin(angle),
+                -122.4144 + radius * Math.cos(angle), now, null, null, 5.0);
+        }
+    }
+
+    @Benchmark
+    public void ungraded(Blackhole blackhole) {
+        GpsEventRecord event = events[cursor++ & (EVENT_COUNT - 1)];
+        for (CachedZoneRecord containing : index.findContainingZones(event.latitude(), event.longitude())) {
+            blackhole.consume(ZoneViolationRecord.fromGpsEvent(event, containing.zoneId(), containing.name(),
+                containing.severity()));
+        }
+    }
+
+    @Benchmark
+    public void graded(Blackhole blackhole) {
+        GpsEventRecord event = events[cursor++ & (EVENT_COUNT - 1)];
+        for (CachedZoneRecord containing : index.findContainingZones(event.latitude(), event.longitude())) {
+            blackhole.consume(ZoneViolationRecord.fromGpsEvent(event, containing.zoneId(), containing.name(),
+                containing.severity(), containing.profile()));
+        }
+    }
+
+    @Benchmark
+    public void gradeOnly(Blackhole blackhole) {
+        GpsEventRecord event = events[cursor++ & (EVENT_COUNT - 1)];
+        blackhole.consume(zone.profile().distanceToCenterMeters(event.latitude(), event.longitude()));
+        blackhole.consume(zone.profile().distanceToBoundaryMeters(event.latitude(), event.longitude()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ViolationGradingBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,147 @@
+package com.geofencing.engine.benchmark;
+
+import com.geofencing.engine.GeoFencingApplication;
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import com.geofencing.engine.entity.NoParkingZone;
+import com.geofencing.engine.entity.ZoneViolation;
+import com.geofencing.engine.repository.NoParkingZoneRepository;
+import com.geofencing.engine.repository.ZoneViolationBatchWriter;
+import com.geofencing.engine.repository.ZoneViolationCopyWriter;
+import com.geofencing.engine.repository.ZoneViolationRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Violation persistence throughput (rows/second):
+ * - jpaSave: violationRepository.save() per row (the previous GeoFencingService path)
+ * - batchInsert: multi-row INSERT (ZoneViolationBatchWriter, persistence mode BATCH)
+ * - copy: binary COPY (ZoneViolationCopyWriter, persistence mode COPY)
+ *
+ * Each invocation writes BATCH_SIZE rows; with @OperationsPerInvocation the
+ * reported ops/s is rows/s.
+ *
+ * Needs the docker-compose PostgreSQL and Redis running (the Spring context is
+ * booted without the web server) and at least one zone in no_parking_zones.
+ * Rows are written with a "bench-" violation_id prefix and deleted afterwards.
+ *
+ * Run:
+ *   docker-compose up -d
+ *   mvn test-compile
+ *   java -cp "target/test-classes:target/classes:$(cat cp.txt)" \
+ *       com.geofencing.engine.benchmark.ViolationPersistenceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ViolationPersistenceBenchmark {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private ConfigurableApplicationContext context;
+    private ZoneViolationRepository violationRepository;
+    private ZoneViolationBatchWriter batchWriter;
+    private ZoneViolationCopyWriter copyWriter;
+    private JdbcTemplate jdbcTemplate;
+
+    private Long zoneId;
+    private String zoneName;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(GeoFencingApplication.class)
+            .web(WebApplicationType.NONE)
+            .run("--logging.level.com.geofencing=WARN", "--logging.level.org.hibernate.SQL=WARN",
+                "--logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN");
+
+        violationRepository = context.getBean(ZoneViolationRepository.class);
+        batchWriter = context.getBean(ZoneViolationBatchWriter.class);
+        copyWriter = context.getBean(ZoneViolationCopyWriter.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        List<NoParkingZone> zones = context.getBean(NoParkingZoneRepository.class).findByActiveTrue();
+        if (zones.isEmpty()) {
+            throw new IllegalStateException("Benchmark needs at least one active zone");
+        }
+        zoneId = zones.get(0).getId();
+        zoneName = zones.get(0).getName();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM zone_violations WHERE violation_id LIKE 'bench-%'");
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void jpaSave() {
+        for (ZoneViolationRecord violation : nextBatch()) {
+            violationRepository.save(ZoneViolation.builder()
+                .violationId(violation.violationId())
+                .scooterId(violation.scooterId())
+                .zoneId(violation.zoneId())
+                .zoneName(violation.zoneName())
+                .latitude(violation.latitude())
+                .longitude(violation.longitude())
+                .timestamp(violation.timestamp())
+                .severity(violation.severity())
+                .build());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int batchInsert() {
+        return batchWriter.insertAll(nextBatch());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long copy() {
+        return copyWriter.copyAll(nextBatch());
+    }
+
+    private List<ZoneViolationRecord> nextBatch() {
+        Instant now = Instant.now();
+        List<ZoneViolationRecord> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            long n = sequence++;
+            batch.add(new ZoneViolationRecord("bench-" + n, "bench-scooter-" + (n % 5000), zoneId, zoneName,
+                37.7749 + (n % 100) * 1e-5, -122.4194, now, "HIGH", null, null));
+        }
+        return batch;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ViolationPersistenceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
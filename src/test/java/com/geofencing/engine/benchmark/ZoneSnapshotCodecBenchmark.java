@@ -0,0 +1,119 @@
+package com.geofencing.engine.benchmark;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.spatial.TestPolygons;
+import com.geofencing.engine.spatial.ZoneSnapshotCodec;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.locationtech.jts.io.WKTWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Zone set load time: binary snapshot vs the previous WKT + JSON per-zone format.
+ *
+ * Both benchmarks measure decoding only (the Redis round trips are extra for the
+ * old format: SMEMBERS + 2 GETs per zone, vs 1 GET for the snapshot).
+ * The legacy decoder mirrors the removed ZoneCacheService code: WKTReader for
+ * the geometry and indexOf-based extraction of name/severity from the JSON blob.
+ *
+ * Encoded sizes are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ZoneSnapshotCodecBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int zoneCount;
+
+    @Param({"32"})
+    public int vertexCount;
+
+    private byte[] snapshot;
+    private List<String> legacyWkts;
+    private List<String> legacyMetadata;
+
+    @Setup
+    public void setUp() {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        WKTWriter wktWriter = new WKTWriter();
+
+        List<CachedZoneRecord> zones = new ArrayList<>(zoneCount);
+        legacyWkts = new ArrayList<>(zoneCount);
+        legacyMetadata = new ArrayList<>(zoneCount);
+        long legacyBytes = 0;
+
+        for (int i = 0; i < zoneCount; i++) {
+            Polygon polygon = TestPolygons.star(geometryFactory,
+                    -122.5 + (i % 100) * 0.002, 37.7 + (i / 100) * 0.002, 0.0008, vertexCount, i);
+            String name = "Zone " + (i % 50);
+            String severity = i % 3 == 0 ? "HIGH" : "MEDIUM";
+            zones.add(CachedZoneRecord.fromEntity((long) i, name, polygon, severity));
+
+            String wkt = wktWriter.write(polygon);
+            String metadata = String.format("{\"id\":%d,\"name\":\"%s\",\"severity\":\"%s\"}", i, name, severity);
+            legacyWkts.add(wkt);
+            legacyMetadata.add(metadata);
+            legacyBytes += wkt.getBytes(StandardCharsets.UTF_8).length + metadata.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        snapshot = ZoneSnapshotCodec.encode(1L, zones);
+
+        System.out.printf("%n[zones=%d, vertices=%d] binary snapshot: %,d bytes, WKT+JSON: %,d bytes%n",
+                zoneCount, vertexCount, snapshot.length, legacyBytes);
+    }
+
+    @Benchmark
+    public List<CachedZoneRecord> binarySnapshot() {
+        return ZoneSnapshotCodec.decode(snapshot).zones();
+    }
+
+    @Benchmark
+    public List<CachedZoneRecord> legacyWktJson() throws ParseException {
+        WKTReader wktReader = new WKTReader();
+        List<CachedZoneRecord> zones = new ArrayList<>(legacyWkts.size());
+
+        for (int i = 0; i < legacyWkts.size(); i++) {
+            Polygon polygon = (Polygon) wktReader.read(legacyWkts.get(i));
+            String metadata = legacyMetadata.get(i);
+            zones.add(CachedZoneRecord.fromEntity((long) i,
+                    extractJsonField(metadata, "name"), polygon, extractJsonField(metadata, "severity")));
+        }
+        return zones;
+    }
+
+    private static String extractJsonField(String json, String field) {
+        String pattern = "\"" + field + "\":\"";
+        int start = json.indexOf(pattern) + pattern.length();
+        return json.substring(start, json.indexOf('"', start));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ZoneSnapshotCodecBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
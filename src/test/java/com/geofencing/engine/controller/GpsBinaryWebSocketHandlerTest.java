@@ -0,0 +1,173 @@
+package com.geofencing.engine.controller;
+
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import com.geofencing.engine.service.GeoFencingService;
+import com.geofencing.engine.service.GpsProcessingExecutor;
+import com.geofencing.engine.service.ZoneAlertPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GpsBinaryWebSocketHandlerTest {
+
+    private static final double ZONE_LATITUDE = 37.78;
+
+    private final GeoFencingService geoFencingService = mock(GeoFencingService.class);
+    private final GpsProcessingExecutor gpsProcessingExecutor = mock(GpsProcessingExecutor.class);
+    private final ZoneAlertPublisher zoneAlertPublisher = mock(ZoneAlertPublisher.class);
+    private final WebSocketSession session = mock(WebSocketSession.class);
+
+    private GpsBinaryWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GpsBinaryFrameProcessor frameProcessor = new GpsBinaryFrameProcessor(
+            geoFencingService, gpsProcessingExecutor, zoneAlertPublisher, registry);
+        ReflectionTestUtils.setField(frameProcessor, "scooterIdFormat", "SC-%03d");
+        frameProcessor.registerMetrics();
+        handler = new GpsBinaryWebSocketHandler(frameProcessor, registry);
+        handler.registerMetrics();
+
+        // Only points at ZONE_LATITUDE are inside a zone
+        when(geoFencingService.mayViolateZone(anyDouble(), anyDouble()))
+            .thenAnswer(invocation -> (double) invocation.getArgument(0) == ZONE_LATITUDE);
+
+        // Run the whole batch inline, as one lane
+        when(gpsProcessingExecutor.submitGrouped(anyList(), any(), any(), any())).thenAnswer(invocation -> {
+            List<GpsEventRecord> items = invocation.getArgument(0);
+            Function<List<GpsEventRecord>, Object> task = invocation.getArgument(2);
+            return CompletableFuture.completedFuture(List.of(task.apply(items)));
+        });
+    }
+
+    @Test
+    void shouldCheckOnlyProbeHitsAndAckViolations() throws Exception {
+        long now = System.currentTimeMillis();
+        ByteBuffer frame = frame(7,
+            ping(42, ZONE_LATITUDE, -122.415, now, 12.5),   // hit
+            ping(43, 37.70, -122.500, now, 5.0),            // miss
+            ping(44, ZONE_LATITUDE, -122.415, now - 120_000, 5.0), // stale
+            ping(45, ZONE_LATITUDE, -122.415, now, 80.0));  // inaccurate
+
+        ZoneViolationRecord violation = new ZoneViolationRecord(
+            null, "SC-042", 9L, "Downtown", ZONE_LATITUDE, -122.415, null, "HIGH", null, null);
+        when(geoFencingService.checkZoneViolations(anyList()))
+            .thenReturn(new GeoFencingService.BatchCheckResult(1, 0, List.of(violation)));
+
+        handler.handleMessage(session, new BinaryMessage(frame));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<GpsEventRecord>> hits = ArgumentCaptor.forClass(List.class);
+        verify(geoFencingService).checkZoneViolations(hits.capture());
+        assertThat(hits.getValue()).singleElement().satisfies(event -> {
+            assertThat(event.scooterId()).isEqualTo("SC-042");
+            assertThat(event.latitude()).isEqualTo(ZONE_LATITUDE);
+            assertThat(event.speed()).isEqualTo(12.5);
+            assertThat(event.heading()).isNull();
+        });
+        verify(zoneAlertPublisher).publishViolations(List.of(violation), null);
+
+        ByteBuffer ack = sentFrame();
+        assertThat(ack.get(3)).isEqualTo(GpsBinaryProtocol.TYPE_ACK);
+        assertThat(ack.getShort(4)).isEqualTo((short) 7);
+        assertThat(ack.getShort(6)).isEqualTo((short) 2);  // accepted
+        assertThat(ack.getShort(8)).isEqualTo((short) 2);  // invalid
+        assertThat(ack.getShort(10)).isEqualTo((short) 1); // violations
+        assertThat(ack.getLong(12)).isEqualTo(42L);
+        assertThat(ack.getLong(20)).isEqualTo(9L);
+    }
+
+    @Test
+    void shouldCheckEveryValidPingInSegmentMode() throws Exception {
+        when(geoFencingService.checksEveryPing()).thenReturn(true);
+        when(geoFencingService.checkZoneViolations(anyList()))
+            .thenReturn(new GeoFencingService.BatchCheckResult(2, 0, List.of()));
+        long now = System.currentTimeMillis();
+        ByteBuffer frame = frame(8,
+            ping(42, ZONE_LATITUDE, -122.415, now, 5.0),    // hit
+            ping(43, 37.70, -122.500, now, 5.0),            // miss, still a segment end
+            ping(44, 37.70, -122.500, now, 80.0));          // inaccurate
+
+        handler.handleMessage(session, new BinaryMessage(frame));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<GpsEventRecord>> checked = ArgumentCaptor.forClass(List.class);
+        verify(geoFencingService).checkZoneViolations(checked.capture());
+        assertThat(checked.getValue()).extracting(GpsEventRecord::scooterId).containsExactly("SC-042", "SC-043");
+        verify(geoFencingService, never()).mayViolateZone(anyDouble(), anyDouble());
+
+        ByteBuffer ack = sentFrame();
+        assertThat(ack.getShort(6)).isEqualTo((short) 2);  // accepted
+        assertThat(ack.getShort(8)).isEqualTo((short) 1);  // invalid
+        assertThat(ack.getShort(10)).isEqualTo((short) 0); // violations
+    }
+
+    @Test
+    void shouldRejectTruncatedFrame() throws Exception {
+        ByteBuffer frame = frame(3, ping(42, ZONE_LATITUDE, -122.415, System.currentTimeMillis(), 5.0));
+        frame.limit(frame.limit() - 1);
+
+        handler.handleMessage(session, new BinaryMessage(frame));
+
+        ByteBuffer error = sentFrame();
+        assertThat(error.get(3)).isEqualTo(GpsBinaryProtocol.TYPE_ERROR);
+        assertThat(error.getShort(4)).isEqualTo((short) 3);
+        assertThat(error.getShort(6)).isEqualTo((short) GpsBinaryProtocol.ERROR_MALFORMED);
+        verify(geoFencingService, never()).checkZoneViolations(anyList());
+    }
+
+    private ByteBuffer sentFrame() throws Exception {
+        ArgumentCaptor<BinaryMessage> sent = ArgumentCaptor.forClass(BinaryMessage.class);
+        verify(session).sendMessage(sent.capture());
+        return sent.getValue().getPayload().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static ByteBuffer frame(int sequence, ByteBuffer... pings) {
+        ByteBuffer frame = ByteBuffer.allocate(GpsBinaryProtocol.HEADER_SIZE + pings.length * GpsBinaryProtocol.PING_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        frame.putShort(GpsBinaryProtocol.MAGIC)
+            .put(GpsBinaryProtocol.VERSION)
+            .put(GpsBinaryProtocol.TYPE_PINGS)
+            .putShort((short) sequence)
+            .putShort((short) pings.length);
+        for (ByteBuffer ping : pings) {
+            frame.put(ping);
+        }
+        return frame.flip();
+    }
+
+    private static ByteBuffer ping(long scooterId, double latitude, double longitude, long timestampMillis,
+                                   double accuracy) {
+        ByteBuffer ping = ByteBuffer.allocate(GpsBinaryProtocol.PING_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        ping.putLong(scooterId)
+            .putInt((int) Math.round(latitude * 1e6))
+            .putInt((int) Math.round(longitude * 1e6))
+            .putLong(timestampMillis)
+            .putShort((short) 1250)
+            .putShort((short) 0)
+            .putShort((short) Math.round(accuracy * 100))
+            .putShort((short) (GpsBinaryProtocol.FLAG_SPEED | GpsBinaryProtocol.FLAG_ACCURACY));
+        return ping.flip();
+    }
+}
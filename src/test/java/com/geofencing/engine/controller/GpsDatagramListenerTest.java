@@ -0,0 +1,103 @@
+package com.geofencing.engine.controller;
+
+import com.geofencing.engine.service.GpsProcessingExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GpsDatagramListenerTest {
+
+    private final GpsBinaryFrameProcessor frameProcessor = mock(GpsBinaryFrameProcessor.class);
+    private final GpsProcessingExecutor executor = mock(GpsProcessingExecutor.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private GpsDatagramListener listener;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // Run lane tasks inline
+        doAnswer(invocation -> {
+            ((Runnable) invocation.getArgument(1)).run();
+            return null;
+        }).when(executor).submit(anyString(), any(), any());
+        when(frameProcessor.process(any())).thenReturn(
+            CompletableFuture.completedFuture(new GpsBinaryFrameProcessor.FrameResult(1, 0, new long[0], new long[0])));
+
+        listener = new GpsDatagramListener(frameProcessor, executor, registry);
+        ReflectionTestUtils.setField(listener, "port", 0);
+        ReflectionTestUtils.setField(listener, "receiveBufferBytes", 65536);
+        ReflectionTestUtils.setField(listener, "bufferPoolSize", 4);
+        ReflectionTestUtils.setField(listener, "maxTrackedSources", 10);
+        listener.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        listener.stop();
+    }
+
+    @Test
+    void shouldProcessValidFrameAndReturnBuffer() throws Exception {
+        send(frame(1));
+
+        verify(frameProcessor, timeout(5000)).process(any());
+        await().untilAsserted(() -> {
+            assertThat(registry.get("geofencing.udp.packets").tag("source", "127.0.0.1").counter().count())
+                .isEqualTo(1);
+            // All buffers back in the pool, except the one the reader is blocked receiving into
+            assertThat(registry.get("geofencing.udp.buffers.available").gauge().value()).isEqualTo(3);
+        });
+    }
+
+    @Test
+    void shouldCountMalformedDatagrams() throws Exception {
+        send(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+
+        await().untilAsserted(() ->
+            assertThat(registry.get("geofencing.udp.malformed").counter().count()).isEqualTo(1));
+        verify(frameProcessor, never()).process(any());
+    }
+
+    private void send(ByteBuffer datagram) throws Exception {
+        try (DatagramChannel client = DatagramChannel.open()) {
+            client.send(datagram, new InetSocketAddress("127.0.0.1", listener.localPort()));
+        }
+    }
+
+    private static ByteBuffer frame(int count) {
+        ByteBuffer frame = ByteBuffer.allocate(GpsBinaryProtocol.HEADER_SIZE + count * GpsBinaryProtocol.PING_SIZE)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        frame.putShort(GpsBinaryProtocol.MAGIC)
+            .put(GpsBinaryProtocol.VERSION)
+            .put(GpsBinaryProtocol.TYPE_PINGS)
+            .putShort((short) 1)
+            .putShort((short) count);
+        for (int i = 0; i < count; i++) {
+            frame.putLong(42)
+                .putInt(37_780_000)
+                .putInt(-122_415_000)
+                .putLong(System.currentTimeMillis())
+                .putLong(0);
+        }
+        return frame.flip();
+    }
+}
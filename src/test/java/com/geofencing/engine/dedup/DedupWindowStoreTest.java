@@ -0,0 +1,82 @@
+package com.geofencing.engine.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DedupWindowStoreTest {
+
+    private static final long TICK = 1000;
+
+    @Test
+    void shouldSuppressDuplicatesUntilWindowEnds() {
+        DedupWindowStore store = new DedupWindowStore(4, 16, TICK);
+        long now = 1_700_000_000_000L;
+
+        assertThat(store.tryRecord(42L, now, 300_000)).isTrue();
+        assertThat(store.tryRecord(42L, now + 299_999, 300_000)).isFalse();
+        assertThat(store.tryRecord(43L, now + 1, 300_000)).isTrue();
+
+        // Window is not extended by suppressed hits
+        assertThat(store.tryRecord(42L, now + 300_000, 300_000)).isTrue();
+    }
+
+    @Test
+    void shouldEvictExpiredWindows() {
+        DedupWindowStore store = new DedupWindowStore(4, 16, TICK);
+        long now = 1_700_000_000_000L;
+
+        for (long key = 0; key < 1000; key++) {
+            store.tryRecord(key, now, key % 2 == 0 ? 10_000 : 3_600_000);
+        }
+        assertThat(store.size()).isEqualTo(1000);
+
+        store.evictExpired(now + 20_000);
+        assertThat(store.size()).isEqualTo(500);
+        assertThat(store.evictions()).isEqualTo(500);
+
+        // Windows longer than one wheel revolution survive until they are due
+        store.evictExpired(now + 2_000_000);
+        assertThat(store.size()).isEqualTo(500);
+        store.evictExpired(now + 3_600_001 + TICK);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void shouldMatchReferenceModelUnderRandomTraffic() {
+        DedupWindowStore store = new DedupWindowStore(2, 4, TICK);
+        Map<Long, Long> reference = new HashMap<>();
+        Random random = new Random(11);
+        long now = 1_700_000_000_000L;
+
+        for (int i = 0; i < 200_000; i++) {
+            now += random.nextInt(50);
+            long key = random.nextInt(2000) - 1000;
+            long window = 1_000 + random.nextInt(30_000);
+
+            Long expiry = reference.get(key);
+            boolean expected = expiry == null || expiry <= now;
+            if (expected) {
+                reference.put(key, now + window);
+            }
+
+            assertThat(store.tryRecord(key, now, window)).isEqualTo(expected);
+
+            if (random.nextInt(1000) == 0) {
+                store.remove(key);
+                reference.remove(key);
+            }
+        }
+
+        // Swept up to the current tick: only windows that ended in this tick may linger
+        long end = now;
+        store.evictExpired(end);
+        long open = reference.values().stream().filter(expiry -> expiry > end).count();
+        long unswept = reference.values().stream().filter(expiry -> expiry >= end / TICK * TICK).count();
+        assertThat(store.size()).isBetween((int) open, (int) unswept);
+    }
+}
@@ -0,0 +1,189 @@
+package com.geofencing.engine.integration;
+
+import com.geofencing.engine.service.PartitionRetentionAction;
+import com.geofencing.engine.service.ViolationPartitionManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the V2 partitioning migration and ViolationPartitionManager against a real
+ * PostGIS database. Skipped when no Docker daemon is available.
+ */
+class ViolationPartitioningIntegrationTest {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>(
+        DockerImageName.parse("postgis/postgis:15-3.4").asCompatibleSubstituteFor("postgres"));
+
+    private static final AtomicInteger DATABASES = new AtomicInteger();
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void startPostgres() {
+        assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+        POSTGRES.start();
+    }
+
+    @AfterAll
+    static void stopPostgres() {
+        if (POSTGRES.isRunning()) {
+            POSTGRES.stop();
+        }
+    }
+
+    /**
+     * Fresh database per test, migrated from V1 like a new deployment.
+     */
+    @BeforeEach
+    void migrate() {
+        String database = "partitions_" + DATABASES.incrementAndGet();
+        new JdbcTemplate(new DriverManagerDataSource(
+            POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()))
+            .execute("CREATE DATABASE " + database);
+
+        dataSource = new DriverManagerDataSource(
+            "jdbc:postgresql://" + POSTGRES.getHost() + ":" + POSTGRES.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT)
+                + "/" + database,
+            POSTGRES.getUsername(), POSTGRES.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        Flyway.configure().dataSource(dataSource).load().migrate();
+    }
+
+    @Test
+    void shouldRouteViolationsToDailyPartitionsAfterMigration() {
+        LocalDate firstDaily = LocalDate.now().plusDays(1);
+
+        assertThat(partitionNames()).contains(
+            "zone_violations_legacy",
+            "zone_violations_default",
+            "zone_violations_p" + firstDaily.format(PARTITION_SUFFIX),
+            "zone_violations_p" + firstDaily.plusDays(6).format(PARTITION_SUFFIX));
+
+        long zoneId = jdbcTemplate.queryForObject("SELECT id FROM no_parking_zones LIMIT 1", Long.class);
+        assertThat(insertViolation(zoneId, LocalDateTime.now()))
+            .isEqualTo("zone_violations_legacy");
+        assertThat(insertViolation(zoneId, firstDaily.plusDays(2).atTime(12, 0)))
+            .isEqualTo("zone_violations_p" + firstDaily.plusDays(2).format(PARTITION_SUFFIX));
+        assertThat(insertViolation(zoneId, firstDaily.plusYears(1).atStartOfDay()))
+            .isEqualTo("zone_violations_default");
+    }
+
+    @Test
+    void shouldCreateEachPartitionOnceWhenNodesRunMaintenanceTogether() throws Exception {
+        int nodes = 4;
+        List<SimpleMeterRegistry> registries = new ArrayList<>();
+        List<ViolationPartitionManager> managers = new ArrayList<>();
+        for (int i = 0; i < nodes; i++) {
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            registries.add(registry);
+            managers.add(manager(registry, 14, PartitionRetentionAction.DROP));
+        }
+        int before = partitionNames().size();
+
+        ExecutorService pool = Executors.newFixedThreadPool(nodes);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> runs = new ArrayList<>();
+        for (ViolationPartitionManager manager : managers) {
+            runs.add(pool.submit(() -> {
+                start.await();
+                manager.maintainPartitions();
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> run : runs) {
+            run.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        // V2 covers up to today + 7; the managers add today + 8 .. today + 14 between them
+        double created = registries.stream()
+            .mapToDouble(registry -> registry.get("geofencing.violations.partitions.created").counter().count())
+            .sum();
+        assertThat(created).isEqualTo(7);
+        assertThat(partitionNames()).hasSize(before + 7)
+            .contains("zone_violations_p" + LocalDate.now().plusDays(14).format(PARTITION_SUFFIX));
+        // The lock is released: a later run still gets it
+        managers.get(0).maintainPartitions();
+        assertThat(partitionNames()).hasSize(before + 7);
+    }
+
+    @Test
+    void shouldDetachPartitionsPastRetention() {
+        LocalDate old = LocalDate.now().minusDays(100);
+        // Free the legacy range so an old daily partition can exist next to the others
+        jdbcTemplate.execute("ALTER TABLE zone_violations DETACH PARTITION zone_violations_legacy");
+        jdbcTemplate.execute(String.format(
+            "CREATE TABLE zone_violations_p%s PARTITION OF zone_violations FOR VALUES FROM ('%s') TO ('%s')",
+            old.format(PARTITION_SUFFIX), old, old.plusDays(1)));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        manager(registry, 7, PartitionRetentionAction.DETACH).maintainPartitions();
+
+        assertThat(partitionNames())
+            .doesNotContain("zone_violations_p" + old.format(PARTITION_SUFFIX))
+            .contains("zone_violations_p" + LocalDate.now().plusDays(7).format(PARTITION_SUFFIX));
+        // Detached, not dropped
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+            "zone_violations_p" + old.format(PARTITION_SUFFIX))).isTrue();
+        assertThat(registry.get("geofencing.violations.partitions.expired").counter().count()).isEqualTo(1);
+    }
+
+    private ViolationPartitionManager manager(SimpleMeterRegistry registry, int createAheadDays,
+                                              PartitionRetentionAction action) {
+        ViolationPartitionManager manager = new ViolationPartitionManager(new JdbcTemplate(dataSource), registry);
+        ReflectionTestUtils.setField(manager, "createAheadDays", createAheadDays);
+        ReflectionTestUtils.setField(manager, "retentionDays", 90);
+        ReflectionTestUtils.setField(manager, "retentionAction", action);
+        ReflectionTestUtils.invokeMethod(manager, "registerMetrics");
+        return manager;
+    }
+
+    private List<String> partitionNames() {
+        return jdbcTemplate.queryForList("""
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'zone_violations'::regclass
+            """, String.class);
+    }
+
+    /**
+     * Inserts a violation and returns the partition it landed in.
+     */
+    private String insertViolation(long zoneId, LocalDateTime timestamp) {
+        return jdbcTemplate.queryForObject("""
+            INSERT INTO zone_violations (violation_id, scooter_id, zone_id, zone_name, latitude, longitude, timestamp)
+            VALUES (?, 'SC-001', ?, 'Zone', 37.78, -122.41, ?)
+            RETURNING tableoid::regclass::text
+            """, String.class, "SC-001_" + timestamp, zoneId, timestamp);
+    }
+}
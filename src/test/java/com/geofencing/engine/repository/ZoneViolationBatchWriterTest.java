@@ -0,0 +1,54 @@
+package com.geofencing.engine.repository;
+
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ZoneViolationBatchWriterTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ZoneViolationBatchWriter writer = new ZoneViolationBatchWriter(jdbcTemplate);
+
+    @Test
+    void shouldKeepViolationsOfOverlappingZonesHitByOnePing() throws Exception {
+        GpsEventRecord ping = new GpsEventRecord("SC-001", 37.78, -122.415, Instant.now(), 12.0, 90.0, 5.0);
+        List<ZoneViolationRecord> violations = List.of(
+            ZoneViolationRecord.fromGpsEvent(ping, 1L, "Downtown", "HIGH"),
+            ZoneViolationRecord.fromGpsEvent(ping, 2L, "Market Street", "MEDIUM"));
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenReturn(2);
+
+        assertThat(writer.insertAll(violations)).isEqualTo(2);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<PreparedStatementSetter> setter = ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).update(sql.capture(), setter.capture());
+        assertThat(sql.getValue()).endsWith("ON CONFLICT (violation_id, timestamp) DO NOTHING");
+
+        // Both rows reach the statement, with conflict keys of their own
+        PreparedStatement statement = mock(PreparedStatement.class);
+        setter.getValue().setValues(statement);
+        ArgumentCaptor<String> violationIds = ArgumentCaptor.forClass(String.class);
+        verify(statement).setString(eq(1), violationIds.capture());
+        verify(statement).setString(eq(11), violationIds.capture());
+        assertThat(violationIds.getAllValues())
+            .containsExactly(violations.get(0).violationId(), violations.get(1).violationId())
+            .doesNotHaveDuplicates();
+        assertThat(violations.get(0).violationId())
+            .isEqualTo("SC-001_1_" + ping.timestamp().toEpochMilli());
+    }
+}
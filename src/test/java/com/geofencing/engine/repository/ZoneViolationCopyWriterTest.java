@@ -0,0 +1,64 @@
+package com.geofencing.engine.repository;
+
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZoneViolationCopyWriterTest {
+
+    @Test
+    void shouldEncodeBinaryCopyHeader() {
+        ByteBuffer buffer = ByteBuffer.allocate(64);
+        ZoneViolationCopyWriter.encodeHeader(buffer);
+
+        byte[] header = new byte[buffer.position()];
+        buffer.flip().get(header);
+
+        assertThat(header).hasSize(19);
+        assertThat(new String(header, 0, 6, StandardCharsets.US_ASCII)).isEqualTo("PGCOPY");
+        assertThat(header[7]).isEqualTo((byte) 0xFF);
+    }
+
+    @Test
+    void shouldEncodeRowFieldsInColumnOrder() {
+        // 2000-01-01T00:00:01 local time = 1,000,000µs after the PostgreSQL epoch
+        LocalDateTime local = LocalDateTime.of(2000, 1, 1, 0, 0, 1);
+        ZoneViolationRecord violation = new ZoneViolationRecord(
+            "s1_1", "s1", 7L, "Zone", 37.5, -122.25,
+            local.atZone(ZoneId.systemDefault()).toInstant(), null, null, 12.5);
+
+        ByteBuffer buffer = ByteBuffer.allocate(256);
+        ZoneViolationCopyWriter.encodeRow(buffer, violation);
+        buffer.flip();
+
+        assertThat(buffer.getShort()).isEqualTo((short) 10);
+        assertThat(text(buffer)).isEqualTo("s1_1");
+        assertThat(text(buffer)).isEqualTo("s1");
+        assertThat(buffer.getInt()).isEqualTo(8);
+        assertThat(buffer.getLong()).isEqualTo(7L);
+        assertThat(text(buffer)).isEqualTo("Zone");
+        assertThat(buffer.getInt()).isEqualTo(8);
+        assertThat(buffer.getDouble()).isEqualTo(37.5);
+        assertThat(buffer.getInt()).isEqualTo(8);
+        assertThat(buffer.getDouble()).isEqualTo(-122.25);
+        assertThat(buffer.getInt()).isEqualTo(8);
+        assertThat(buffer.getLong()).isEqualTo(1_000_000L);
+        assertThat(buffer.getInt()).isEqualTo(-1); // severity NULL
+        assertThat(buffer.getInt()).isEqualTo(-1); // distance_to_center NULL
+        assertThat(buffer.getInt()).isEqualTo(8);
+        assertThat(buffer.getDouble()).isEqualTo(12.5);
+        assertThat(buffer.hasRemaining()).isFalse();
+    }
+
+    private static String text(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,139 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import com.geofencing.engine.repository.NoParkingZoneRepository;
+import com.geofencing.engine.repository.ZoneViolationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class GeoFencingServiceBatchTest {
+
+    private final NoParkingZoneRepository zoneRepository = mock(NoParkingZoneRepository.class);
+    private final ZoneLookupEngine zoneLookupEngine = mock(ZoneLookupEngine.class);
+    private final ViolationWriteBehindService writeBehindService = mock(ViolationWriteBehindService.class);
+
+    private GeoFencingService service;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        ViolationDeduplicator deduplicator = new ViolationDeduplicator(registry);
+        for (String field : List.of("defaultWindowSeconds", "highWindowSeconds",
+                "mediumWindowSeconds", "lowWindowSeconds")) {
+            ReflectionTestUtils.setField(deduplicator, field, 300L);
+        }
+        ReflectionTestUtils.setField(deduplicator, "segmentCount", 4);
+        ReflectionTestUtils.setField(deduplicator, "initialCapacity", 64);
+        deduplicator.init();
+
+        ScooterZoneStateTracker stateTracker = new ScooterZoneStateTracker(mock(ZoneAlertPublisher.class), registry);
+        ReflectionTestUtils.setField(stateTracker, "dwellThresholdSeconds", 120L);
+        ReflectionTestUtils.setField(stateTracker, "exitTimeoutSeconds", 300L);
+        stateTracker.registerMetrics();
+
+        MotionGate motionGate = new MotionGate(zoneLookupEngine, registry);
+        ReflectionTestUtils.setField(motionGate, "enabled", false);
+
+        service = new GeoFencingService(zoneRepository, mock(ZoneViolationRepository.class),
+            zoneLookupEngine, deduplicator, stateTracker, motionGate,
+            new TrajectoryCrossingDetector(zoneLookupEngine, stateTracker, registry),
+            new PredictiveZoneAlerter(zoneLookupEngine, motionGate, mock(ZoneAlertPublisher.class), registry),
+            writeBehindService, registry);
+        service.registerMetrics();
+    }
+
+    @Test
+    void shouldCheckBatchInOnePassAndEnqueueOnce() {
+        CachedZoneRecord zone = squareZone();
+        when(zoneLookupEngine.state()).thenReturn(ZoneEngineState.READY);
+        when(zoneLookupEngine.findContainingZones(anyDouble(), anyDouble()))
+            .thenAnswer(invocation -> zone.contains(invocation.getArgument(0), invocation.getArgument(1))
+                ? List.of(zone) : List.of());
+
+        Instant now = Instant.now();
+        List<GpsEventRecord> batch = List.of(
+            event("s1", 37.78, -122.415, now),                  // inside -> violation
+            event("s1", 37.781, -122.415, now),                 // still inside -> no transition
+            event("s2", 37.70, -122.50, now),                   // outside
+            event("s3", 37.78, -122.415, now.minusSeconds(600)), // stale -> invalid
+            event("s4", 37.78, -122.415, now)                   // inside -> violation
+        );
+
+        GeoFencingService.BatchCheckResult result = service.checkZoneViolations(batch);
+
+        assertThat(result.received()).isEqualTo(5);
+        assertThat(result.invalid()).isEqualTo(1);
+        assertThat(result.accepted()).isEqualTo(4);
+        assertThat(result.violations()).extracting(ZoneViolationRecord::scooterId).containsExactly("s1", "s4");
+        // Graded from the zone profile: 0.0044 degrees (~387m) east of the west edge, ~54m from the centre
+        assertThat(result.violations().get(0).distanceToBoundary()).isBetween(380.0, 395.0);
+        assertThat(result.violations().get(0).distanceToCenter()).isBetween(50.0, 60.0);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ZoneViolationRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(writeBehindService, times(1)).enqueueAll(captor.capture());
+        assertThat(captor.getValue()).hasSize(2);
+        verifyNoInteractions(zoneRepository);
+    }
+
+    @Test
+    void shouldKeepBatchViolationsWhenOneEventFails() {
+        CachedZoneRecord zone = squareZone();
+        when(zoneLookupEngine.state()).thenReturn(ZoneEngineState.READY);
+        when(zoneLookupEngine.findContainingZones(anyDouble(), anyDouble())).thenAnswer(invocation -> {
+            if ((double) invocation.getArgument(0) == 37.70) {
+                throw new IllegalStateException("index failure");
+            }
+            return List.of(zone);
+        });
+        // The index failure falls back to PostGIS, which is down as well
+        when(zoneRepository.findZonesContainingPoint(anyDouble(), anyDouble()))
+            .thenThrow(new IllegalStateException("database down"));
+
+        Instant now = Instant.now();
+        GeoFencingService.BatchCheckResult result = service.checkZoneViolations(List.of(
+            event("s1", 37.78, -122.415, now),
+            event("s2", 37.70, -122.50, now),
+            event("s3", 37.78, -122.415, now)
+        ));
+
+        assertThat(result.invalid()).isEqualTo(1);
+        assertThat(result.violations()).extracting(ZoneViolationRecord::scooterId).containsExactly("s1", "s3");
+        verify(writeBehindService).enqueueAll(result.violations());
+    }
+
+    private static GpsEventRecord event(String scooterId, double lat, double lon, Instant timestamp) {
+        return new GpsEventRecord(scooterId, lat, lon, timestamp, null, null, 5.0);
+    }
+
+    private static CachedZoneRecord squareZone() {
+        Polygon polygon = new GeometryFactory().createPolygon(new Coordinate[]{
+            new Coordinate(-122.4194, 37.7749),
+            new Coordinate(-122.4194, 37.7849),
+            new Coordinate(-122.4094, 37.7849),
+            new Coordinate(-122.4094, 37.7749),
+            new Coordinate(-122.4194, 37.7749)
+        });
+        return CachedZoneRecord.fromEntity(1L, "Downtown", polygon, "HIGH");
+    }
+}
@@ -0,0 +1,230 @@
+package com.geofencing.engine.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GpsProcessingExecutorTest {
+
+    @Test
+    void shouldRejectNewestWhenQueueIsFull() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GpsProcessingExecutor executor = executor(registry, GpsRejectionPolicy.REJECT);
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        List<Integer> rejected = new CopyOnWriteArrayList<>();
+
+        CountDownLatch release = blockWorker(executor);
+        for (int i = 0; i < 4; i++) {
+            int id = i;
+            executor.submit("scooter-1", () -> processed.add(id), () -> rejected.add(id));
+        }
+        release.countDown();
+        executor.stop();
+
+        assertThat(processed).containsExactly(0, 1);
+        assertThat(rejected).containsExactly(2, 3);
+        assertThat(registry.get("geofencing.gps.executor.rejections").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldDropOldestWhenQueueIsFull() throws Exception {
+        GpsProcessingExecutor executor = executor(new SimpleMeterRegistry(), GpsRejectionPolicy.DROP_OLDEST);
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        List<Integer> rejected = new CopyOnWriteArrayList<>();
+
+        CountDownLatch release = blockWorker(executor);
+        for (int i = 0; i < 4; i++) {
+            int id = i;
+            executor.submit("scooter-1", () -> processed.add(id), () -> rejected.add(id));
+        }
+        release.countDown();
+        executor.stop();
+
+        assertThat(processed).containsExactly(2, 3);
+        assertThat(rejected).containsExactly(0, 1);
+    }
+
+    @Test
+    void shouldKeepEventsOfOneScooterInOrder() throws Exception {
+        GpsProcessingExecutor executor =
+            executor(new SimpleMeterRegistry(), GpsRejectionPolicy.CALLER_RUNS, 4, 64);
+        Map<String, List<Integer>> processed = new ConcurrentHashMap<>();
+
+        Thread[] producers = new Thread[4];
+        for (int p = 0; p < producers.length; p++) {
+            int producer = p;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    String scooterId = "scooter-" + producer + "-" + (i % 20);
+                    int sequence = i;
+                    executor.submit(scooterId,
+                        () -> processed.computeIfAbsent(scooterId, k -> new CopyOnWriteArrayList<>()).add(sequence),
+                        null);
+                }
+            });
+            producers[p].start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        executor.stop();
+
+        assertThat(processed).hasSize(80);
+        processed.values().forEach(sequence -> assertThat(sequence).hasSize(100).isSorted());
+    }
+
+    @Test
+    void shouldCoalescePendingEventsOfOverloadedLane() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        GpsProcessingExecutor executor = executor(registry, GpsRejectionPolicy.REJECT, 1, 4);
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        List<Integer> rejected = new CopyOnWriteArrayList<>();
+
+        CountDownLatch release = blockWorker(executor);
+        for (int i = 0; i < 10; i++) {
+            int id = i;
+            executor.submitLatest("scooter-1", () -> processed.add(id), () -> rejected.add(id));
+        }
+        release.countDown();
+        executor.stop();
+
+        // 0 and 1 are queued normally; from depth 2 (50% of 4) on, only the newest pending event survives
+        assertThat(processed).containsExactly(0, 1, 9);
+        assertThat(rejected).isEmpty();
+        assertThat(registry.get("geofencing.gps.executor.coalesced").counter().count()).isEqualTo(7);
+        assertThat(registry.get("geofencing.gps.executor.coalescing.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void shouldNotLetCoalescedEventsOvertakeLaterTasksOfTheSameScooter() throws Exception {
+        GpsProcessingExecutor executor = executor(new SimpleMeterRegistry(), GpsRejectionPolicy.REJECT, 1, 8);
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+
+        CountDownLatch release = blockWorker(executor);
+        // 0-3 queued normally; 4 opens a coalescing slot (depth 4 = 50% of 8)
+        for (int i = 0; i <= 4; i++) {
+            int id = i;
+            executor.submitLatest("scooter-1", () -> processed.add(id), null);
+        }
+        // A batch ping of the same scooter is queued behind the slot's entry
+        CompletableFuture<List<Integer>> batch = executor.submitGrouped(List.of(5), item -> "scooter-1",
+            part -> {
+                processed.addAll(part);
+                return part.size();
+            },
+            part -> 0);
+        // Must not replace 4 in the old slot (that would run 6 and 7 before 5): a new slot is opened
+        for (int i = 6; i <= 7; i++) {
+            int id = i;
+            executor.submitLatest("scooter-1", () -> processed.add(id), null);
+        }
+        release.countDown();
+        batch.get(10, TimeUnit.SECONDS);
+        executor.stop();
+
+        assertThat(processed).containsExactly(0, 1, 2, 3, 4, 5, 7);
+    }
+
+    @Test
+    void shouldRunBatchPartsOnTheLanesOfTheirScooters() throws Exception {
+        GpsProcessingExecutor executor =
+            executor(new SimpleMeterRegistry(), GpsRejectionPolicy.CALLER_RUNS, 4, 64);
+        Map<String, String> singleEventThreads = new ConcurrentHashMap<>();
+        Map<String, String> batchThreads = new ConcurrentHashMap<>();
+        List<String> batch = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            String scooterId = "scooter-" + (i % 10);
+            batch.add(scooterId + ":" + i);
+            executor.submit(scooterId, () -> singleEventThreads.put(scooterId, Thread.currentThread().getName()), null);
+        }
+
+        List<List<String>> parts = executor.submitGrouped(batch, item -> item.substring(0, item.indexOf(':')),
+            part -> {
+                part.forEach(item -> batchThreads.merge(item.substring(0, item.indexOf(':')),
+                    Thread.currentThread().getName(), (a, b) -> a.equals(b) ? a : "MIXED"));
+                return part;
+            },
+            part -> List.<String>of()).get(10, TimeUnit.SECONDS);
+        executor.stop();
+
+        assertThat(parts.size()).isBetween(1, 4);
+        assertThat(parts.stream().mapToInt(List::size).sum()).isEqualTo(40);
+        // Batch order kept within each part
+        parts.forEach(part -> assertThat(part).isSortedAccordingTo(
+            Comparator.comparingInt(item -> Integer.parseInt(item.substring(item.indexOf(':') + 1)))));
+        assertThat(batchThreads).isEqualTo(singleEventThreads);
+    }
+
+    @Test
+    void shouldRejectInsteadOfWaitingWhenLaneThreadOverflowsALane() throws Exception {
+        GpsProcessingExecutor executor = executor(new SimpleMeterRegistry(), GpsRejectionPolicy.CALLER_RUNS);
+        List<Integer> processed = new CopyOnWriteArrayList<>();
+        List<Integer> rejected = new CopyOnWriteArrayList<>();
+        CountDownLatch submitted = new CountDownLatch(1);
+
+        // A lane task fanning out into its own (full) lane would wait for itself forever
+        executor.submit("scooter-1", () -> {
+            for (int i = 0; i < 3; i++) {
+                int id = i;
+                executor.submit("scooter-1", () -> processed.add(id), () -> rejected.add(id));
+            }
+            submitted.countDown();
+        }, null);
+
+        assertThat(submitted.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.stop();
+
+        assertThat(processed).containsExactly(0, 1);
+        assertThat(rejected).containsExactly(2);
+    }
+
+    private static GpsProcessingExecutor executor(SimpleMeterRegistry registry, GpsRejectionPolicy policy) {
+        return executor(registry, policy, 1, 2);
+    }
+
+    private static GpsProcessingExecutor executor(
+        SimpleMeterRegistry registry, GpsRejectionPolicy policy, int lanes, int capacity) {
+        GpsProcessingExecutor executor = new GpsProcessingExecutor(registry);
+        ReflectionTestUtils.setField(executor, "threadPoolSize", lanes);
+        ReflectionTestUtils.setField(executor, "queueCapacity", capacity);
+        ReflectionTestUtils.setField(executor, "rejectionPolicy", policy);
+        ReflectionTestUtils.setField(executor, "shutdownTimeoutMs", 10_000L);
+        ReflectionTestUtils.setField(executor, "coalescingEnabled", true);
+        ReflectionTestUtils.setField(executor, "enterDepthPercent", 50);
+        ReflectionTestUtils.setField(executor, "exitDepthPercent", 10);
+        ReflectionTestUtils.setField(executor, "enterLagMs", 60_000L);
+        ReflectionTestUtils.setField(executor, "exitLagMs", 100L);
+        executor.start();
+        return executor;
+    }
+
+    /**
+     * Occupies the single worker until the returned latch is released.
+     */
+    private static CountDownLatch blockWorker(GpsProcessingExecutor executor) throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit("scooter-1", () -> {
+            started.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, null);
+        started.await(10, TimeUnit.SECONDS);
+        return release;
+    }
+}
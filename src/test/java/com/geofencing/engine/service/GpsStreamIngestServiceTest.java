@@ -0,0 +1,114 @@
+package com.geofencing.engine.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class GpsStreamIngestServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final GeoFencingService geoFencingService = mock(GeoFencingService.class);
+    private final GpsProcessingExecutor gpsProcessingExecutor = mock(GpsProcessingExecutor.class);
+
+    private final List<Integer> batchSizes = new ArrayList<>();
+    private GpsStreamIngestService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new GpsStreamIngestService(
+            geoFencingService, gpsProcessingExecutor, objectMapper, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        service.registerMetrics();
+
+        // Run the whole batch inline, as one lane
+        when(gpsProcessingExecutor.submitGrouped(anyList(), any(), any(), any())).thenAnswer(invocation -> {
+            List<GpsEventRecord> items = invocation.getArgument(0);
+            Function<List<GpsEventRecord>, Object> task = invocation.getArgument(2);
+            return CompletableFuture.completedFuture(List.of(task.apply(items)));
+        });
+
+        // One violation per batch, for the first event of the batch
+        when(geoFencingService.checkZoneViolations(anyList(), eq(true))).thenAnswer(invocation -> {
+            List<GpsEventRecord> batch = invocation.getArgument(0);
+            batchSizes.add(batch.size());
+            GpsEventRecord first = batch.get(0);
+            ZoneViolationRecord violation = ZoneViolationRecord.fromGpsEvent(first, 1L, "Downtown", "HIGH");
+            return new GeoFencingService.BatchCheckResult(batch.size(), 0, List.of(violation));
+        });
+    }
+
+    @Test
+    void shouldCheckInMicroBatchesAndEndWithSummary() throws Exception {
+        String body = String.join("\n",
+            event("SC-001"),
+            event("SC-002"),
+            "{\"scooterId\":\"SC-003\",\"latitude\":37.78}",   // valid JSON, not a valid event
+            event("SC-004"),
+            "",
+            event("SC-005"));
+
+        List<JsonNode> lines = ingest(body);
+
+        assertThat(batchSizes).containsExactly(2, 2);
+        assertThat(lines).extracting(line -> line.get("type").asText())
+            .containsExactly("violation", "batch", "violation", "batch", "summary");
+        assertThat(lines.get(0).get("scooterId").asText()).isEqualTo("SC-001");
+
+        JsonNode summary = lines.get(lines.size() - 1);
+        assertThat(summary.get("events").asLong()).isEqualTo(4);
+        assertThat(summary.get("malformed").asLong()).isEqualTo(1);
+        assertThat(summary.get("violations").asLong()).isEqualTo(2);
+        assertThat(summary.has("eventsPerSecond")).isTrue();
+        assertThat(summary.has("error")).isFalse();
+    }
+
+    @Test
+    void shouldFlushCheckedEventsAndReportSyntaxError() throws Exception {
+        String body = event("SC-001") + "\n{\"scooterId\": oops}\n" + event("SC-002");
+
+        List<JsonNode> lines = ingest(body);
+
+        assertThat(batchSizes).containsExactly(1);
+        JsonNode summary = lines.get(lines.size() - 1);
+        assertThat(summary.get("events").asLong()).isEqualTo(1);
+        assertThat(summary.get("error").asText()).startsWith("Malformed JSON at line 2");
+    }
+
+    private List<JsonNode> ingest(String body) throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        service.ingest(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), output, true);
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private static String event(String scooterId) {
+        // A day-old event: only accepted as a replay
+        return "{\"scooterId\":\"" + scooterId + "\",\"latitude\":37.78,\"longitude\":-122.415,"
+            + "\"timestamp\":\"" + Instant.now().minusSeconds(86_400) + "\"}";
+    }
+}
@@ -0,0 +1,95 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.service.ScooterZoneStateTracker.ZoneRef;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MotionGateTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ZoneLookupEngine engine;
+    private MotionGate gate;
+
+    @BeforeEach
+    void setUp() {
+        engine = new ZoneLookupEngine(registry);
+        ReflectionTestUtils.setField(engine, "maxStalenessSeconds", 300L);
+        engine.registerMetrics();
+        engine.install(1, List.of(squareZone()));
+
+        gate = new MotionGate(engine, registry);
+        ReflectionTestUtils.setField(gate, "enabled", true);
+        ReflectionTestUtils.setField(gate, "maxRadiusMeters", 500.0);
+        ReflectionTestUtils.setField(gate, "defaultAccuracyMeters", 10.0);
+        ReflectionTestUtils.setField(gate, "maxAnchorAgeSeconds", 300L);
+        gate.registerMetrics();
+    }
+
+    @Test
+    void shouldSkipPingsWithinSafeRadius() {
+        Instant now = Instant.now();
+
+        // ~880m west of the zone: safe radius is capped at 500m
+        assertThat(gate.reuse(ping(37.7799, -122.4294, now))).isNull();
+        gate.anchor(ping(37.7799, -122.4294, now), List.of(), 1);
+
+        // ~100m further north: 100 + 2 * 5m accuracy < 500m
+        assertThat(gate.reuse(ping(37.7808, -122.4294, now.plusSeconds(5)))).isEmpty();
+        // ~530m east, towards the zone: beyond the radius
+        assertThat(gate.reuse(ping(37.7799, -122.4234, now.plusSeconds(10)))).isNull();
+
+        assertThat(registry.get("geofencing.motion.gate").tag("result", "skipped").counter().count()).isEqualTo(1);
+        assertThat(registry.get("geofencing.motion.gate").tag("result", "evaluated").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldReuseZonesInsideAndInvalidateOnZoneReload() {
+        Instant now = Instant.now();
+        List<ZoneRef> zones = List.of(new ZoneRef(1L, "Downtown", "HIGH"));
+
+        // Centre of the zone: ~440m from the east/west edges
+        gate.anchor(ping(37.7799, -122.4144, now), zones, 1);
+        assertThat(gate.reuse(ping(37.7800, -122.4145, now.plusSeconds(5)))).isEqualTo(zones);
+
+        engine.install(2, List.of(squareZone()));
+        assertThat(gate.reuse(ping(37.7800, -122.4145, now.plusSeconds(10)))).isNull();
+    }
+
+    @Test
+    void shouldNotAnchorNextToBoundary() {
+        Instant now = Instant.now();
+
+        // ~9m outside the west edge: no room for 2 * 5m accuracy
+        gate.anchor(ping(37.7799, -122.4195, now), List.of(), 1);
+
+        assertThat(gate.anchoredScooters()).isZero();
+    }
+
+    private static GpsEventRecord ping(double lat, double lon, Instant timestamp) {
+        return new GpsEventRecord("SC-001", lat, lon, timestamp, null, null, 5.0);
+    }
+
+    private static CachedZoneRecord squareZone() {
+        Polygon polygon = new GeometryFactory().createPolygon(new Coordinate[]{
+            new Coordinate(-122.4194, 37.7749),
+            new Coordinate(-122.4194, 37.7849),
+            new Coordinate(-122.4094, 37.7849),
+            new Coordinate(-122.4094, 37.7749),
+            new Coordinate(-122.4194, 37.7749)
+        });
+        return CachedZoneRecord.fromEntity(1L, "Downtown", polygon, "HIGH");
+    }
+}
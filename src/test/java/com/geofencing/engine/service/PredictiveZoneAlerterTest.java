@@ -0,0 +1,218 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.ZonePredictionRecord;
+import com.geofencing.engine.service.ScooterZoneStateTracker.ZoneRef;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class PredictiveZoneAlerterTest {
+
+    private final ZoneAlertPublisher publisher = mock(ZoneAlertPublisher.class);
+
+    private MotionGate motionGate;
+    private PredictiveZoneAlerter alerter;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ZoneLookupEngine engine = new ZoneLookupEngine(registry);
+        ReflectionTestUtils.setField(engine, "maxStalenessSeconds", 300L);
+        engine.registerMetrics();
+        engine.install(1, List.of(squareZone()));
+
+        motionGate = new MotionGate(engine, registry);
+        ReflectionTestUtils.setField(motionGate, "enabled", true);
+        ReflectionTestUtils.setField(motionGate, "maxRadiusMeters", 500.0);
+        ReflectionTestUtils.setField(motionGate, "defaultAccuracyMeters", 10.0);
+        ReflectionTestUtils.setField(motionGate, "maxAnchorAgeSeconds", 300L);
+        motionGate.registerMetrics();
+
+        alerter = new PredictiveZoneAlerter(engine, motionGate, publisher, registry);
+        ReflectionTestUtils.setField(alerter, "enabled", true);
+        ReflectionTestUtils.setField(alerter, "lookAheadSeconds", 10.0);
+        ReflectionTestUtils.setField(alerter, "minSpeedKmh", 5.0);
+        ReflectionTestUtils.setField(alerter, "cooldownSeconds", 60L);
+        alerter.registerMetrics();
+    }
+
+    @Test
+    void shouldWarnAboutZoneAheadOnce() {
+        Instant now = Instant.now();
+        // ~44m west of the zone, heading east at 36 km/h (10 m/s): reaches it in ~4.4s
+        double lon = -122.4194 - 44 / 87_960.0;
+
+        ZonePredictionRecord prediction = alerter.predict(ping(lon, 36.0, 90.0, now), List.of());
+
+        assertThat(prediction).isNotNull();
+        assertThat(prediction.zoneId()).isEqualTo(1L);
+        assertThat(prediction.entryLongitude()).isCloseTo(-122.4194, within(1e-9));
+        assertThat(prediction.secondsToEntry()).isCloseTo(4.4, within(0.1));
+        verify(publisher).publishPrediction(prediction);
+
+        // Same zone again within the cooldown
+        assertThat(alerter.predict(ping(lon + 0.0001, 36.0, 90.0, now.plusSeconds(1)), List.of())).isNull();
+    }
+
+    @Test
+    void shouldWarnAboutNextZoneWhileRidingThroughTheWarnedOne() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ZoneLookupEngine engine = new ZoneLookupEngine(registry);
+        ReflectionTestUtils.setField(engine, "maxStalenessSeconds", 300L);
+        engine.registerMetrics();
+        // Two 30m strips on the same eastbound ray, 30m apart
+        CachedZoneRecord near = strip(10L, "Near", 0, 30);
+        CachedZoneRecord far = strip(11L, "Far", 60, 90);
+        engine.install(1, List.of(near, far));
+        PredictiveZoneAlerter stripAlerter = new PredictiveZoneAlerter(engine, motionGate, publisher, registry);
+        ReflectionTestUtils.setField(stripAlerter, "enabled", true);
+        ReflectionTestUtils.setField(stripAlerter, "lookAheadSeconds", 10.0);
+        ReflectionTestUtils.setField(stripAlerter, "minSpeedKmh", 5.0);
+        ReflectionTestUtils.setField(stripAlerter, "cooldownSeconds", 60L);
+        stripAlerter.registerMetrics();
+        Instant now = Instant.now();
+        List<ZoneRef> insideNear = List.of(new ZoneRef(10L, "Near", "HIGH"));
+
+        // 20m west of both, heading east at 36 km/h: both on the 100m ray, the near one first
+        ZonePredictionRecord first = stripAlerter.predict(ping(stripLongitude(-20), 36.0, 90.0, now), List.of());
+        // Inside the near strip, which is still on the ray: warned about the far one
+        ZonePredictionRecord second = stripAlerter.predict(
+            ping(stripLongitude(10), 36.0, 90.0, now.plusSeconds(1)), insideNear);
+        ZonePredictionRecord repeated = stripAlerter.predict(
+            ping(stripLongitude(15), 36.0, 90.0, now.plusSeconds(2)), insideNear);
+
+        assertThat(first).isNotNull();
+        assertThat(first.zoneId()).isEqualTo(10L);
+        assertThat(second).isNotNull();
+        assertThat(second.zoneId()).isEqualTo(11L);
+        assertThat(second.entryLongitude()).isCloseTo(stripLongitude(60), within(1e-9));
+        assertThat(repeated).isNull();
+    }
+
+    @Test
+    void shouldNotWarnWhenMovingAwaySlowOrInside() {
+        Instant now = Instant.now();
+        double lon = -122.4194 - 44 / 87_960.0;
+
+        assertThat(alerter.predict(ping(lon, 36.0, 270.0, now), List.of())).isNull();   // heading west
+        assertThat(alerter.predict(ping(lon, 3.0, 90.0, now), List.of())).isNull();    // walking speed
+        assertThat(alerter.predict(ping(lon, null, 90.0, now), List.of())).isNull();   // no speed
+        assertThat(alerter.predict(ping(-122.4190, 36.0, 90.0, now),
+            List.of(new ZoneRef(1L, "Downtown", "HIGH")))).isNull();                      // already inside
+    }
+
+    @Test
+    void shouldSkipScootersFarFromEveryBoundary() {
+        Instant now = Instant.now();
+        // ~400m west of the zone, heading east at 36 km/h: 100m of look-ahead, far short of the zone
+        GpsEventRecord ping = ping(-122.4194 - 400 / 87_960.0, 36.0, 90.0, now);
+        motionGate.anchor(ping, List.of(), 1);
+
+        assertThat(motionGate.clearanceMeters(ping)).isGreaterThan(100);
+        assertThat(alerter.predict(ping, List.of())).isNull();
+        verifyNoInteractions(publisher);
+    }
+
+    @Test
+    void shouldPredictForZonesWithoutSeverity() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ZoneLookupEngine engine = new ZoneLookupEngine(registry);
+        ReflectionTestUtils.setField(engine, "maxStalenessSeconds", 300L);
+        engine.registerMetrics();
+        engine.install(1, List.of(CachedZoneRecord.fromEntity(2L, "Unrated", squareZone().geometry(), null)));
+        ZoneAlertPublisher realPublisher = new ZoneAlertPublisher(mock(SimpMessagingTemplate.class));
+        PredictiveZoneAlerter unratedAlerter = new PredictiveZoneAlerter(engine, motionGate, realPublisher, registry);
+        ReflectionTestUtils.setField(unratedAlerter, "enabled", true);
+        ReflectionTestUtils.setField(unratedAlerter, "lookAheadSeconds", 10.0);
+        ReflectionTestUtils.setField(unratedAlerter, "minSpeedKmh", 5.0);
+        ReflectionTestUtils.setField(unratedAlerter, "cooldownSeconds", 60L);
+        unratedAlerter.registerMetrics();
+
+        ZonePredictionRecord prediction = unratedAlerter.predict(
+            ping(-122.4194 - 44 / 87_960.0, 36.0, 90.0, Instant.now()), List.of());
+
+        assertThat(prediction).isNotNull();
+        assertThat(prediction.severity()).isNull();
+    }
+
+    @Test
+    void shouldComputeEntryPointsLikeTheOverlay() {
+        GeometryFactory geometryFactory = new GeometryFactory();
+        Polygon square = squareZone().geometry();
+        Polygon withHole = (Polygon) square.difference(square.buffer(-0.003));
+        CachedZoneRecord zone = CachedZoneRecord.fromEntity(3L, "Ring", withHole, "HIGH");
+
+        Random random = new Random(3);
+        for (int i = 0; i < 2_000; i++) {
+            Coordinate from = new Coordinate(-122.425 + random.nextDouble() * 0.021, 37.77 + random.nextDouble() * 0.02);
+            Coordinate to = new Coordinate(-122.425 + random.nextDouble() * 0.021, 37.77 + random.nextDouble() * 0.02);
+            LineString ray = geometryFactory.createLineString(new Coordinate[]{from, to});
+
+            Coordinate expected = null;
+            for (Coordinate coordinate : ray.intersection(withHole).getCoordinates()) {
+                if (expected == null || coordinate.distance(from) < expected.distance(from)) {
+                    expected = coordinate;
+                }
+            }
+
+            Coordinate entry = zone.entryPoint(ray);
+            if (expected == null) {
+                assertThat(entry).as("ray %s", ray).isNull();
+            } else {
+                assertThat(entry).as("ray %s", ray).isNotNull();
+                assertThat(entry.distance(expected)).as("ray %s", ray).isLessThan(1e-9);
+            }
+        }
+    }
+
+    private static GpsEventRecord ping(double lon, Double speed, Double heading, Instant timestamp) {
+        return new GpsEventRecord("SC-001", 37.7799, lon, timestamp, speed, heading, 5.0);
+    }
+
+    /**
+     * Longitude the given number of meters east of the square zone's west edge.
+     */
+    private static double stripLongitude(double meters) {
+        return -122.4194 + meters / 87_960.0;
+    }
+
+    private static CachedZoneRecord strip(long zoneId, String name, double fromMeters, double toMeters) {
+        Polygon polygon = new GeometryFactory().createPolygon(new Coordinate[]{
+            new Coordinate(stripLongitude(fromMeters), 37.7749),
+            new Coordinate(stripLongitude(fromMeters), 37.7849),
+            new Coordinate(stripLongitude(toMeters), 37.7849),
+            new Coordinate(stripLongitude(toMeters), 37.7749),
+            new Coordinate(stripLongitude(fromMeters), 37.7749)
+        });
+        return CachedZoneRecord.fromEntity(zoneId, name, polygon, "HIGH");
+    }
+
+    private static CachedZoneRecord squareZone() {
+        Polygon polygon = new GeometryFactory().createPolygon(new Coordinate[]{
+            new Coordinate(-122.4194, 37.7749),
+            new Coordinate(-122.4194, 37.7849),
+            new Coordinate(-122.4094, 37.7849),
+            new Coordinate(-122.4094, 37.7749),
+            new Coordinate(-122.4194, 37.7749)
+        });
+        return CachedZoneRecord.fromEntity(1L, "Downtown", polygon, "HIGH");
+    }
+}
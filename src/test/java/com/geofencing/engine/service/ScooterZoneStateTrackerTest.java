@@ -0,0 +1,91 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.ZoneTransitionRecord;
+import com.geofencing.engine.service.ScooterZoneStateTracker.ZoneRef;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class ScooterZoneStateTrackerTest {
+
+    private static final ZoneRef DOWNTOWN = new ZoneRef(1L, "Downtown", "HIGH");
+    private static final ZoneRef PARK = new ZoneRef(2L, "Park", "LOW");
+
+    private final ZoneAlertPublisher publisher = mock(ZoneAlertPublisher.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ScooterZoneStateTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        tracker = new ScooterZoneStateTracker(publisher, registry);
+        ReflectionTestUtils.setField(tracker, "dwellThresholdSeconds", 60L);
+        ReflectionTestUtils.setField(tracker, "exitTimeoutSeconds", 300L);
+        tracker.registerMetrics();
+    }
+
+    @Test
+    void shouldEmitOnlyTransitions() {
+        Instant start = Instant.now().minusSeconds(200);
+
+        assertThat(tracker.update(ping(start), List.of(DOWNTOWN))).containsExactly(DOWNTOWN);
+        assertThat(tracker.update(ping(start.plusSeconds(10)), List.of(DOWNTOWN))).isEmpty();
+        assertThat(tracker.update(ping(start.plusSeconds(70)), List.of(DOWNTOWN))).isEmpty(); // dwell
+        assertThat(tracker.update(ping(start.plusSeconds(80)), List.of(DOWNTOWN, PARK))).containsExactly(PARK);
+        assertThat(tracker.update(ping(start.plusSeconds(5)), List.of())).isEmpty();          // out of order
+        assertThat(tracker.update(ping(start.plusSeconds(90)), List.of())).isEmpty();
+
+        assertThat(transitions()).extracting(t -> t.type() + ":" + t.zoneId() + ":" + t.dwellSeconds())
+            .containsExactly("ENTER:1:0", "DWELL_EXCEEDED:1:70", "ENTER:2:0", "EXIT:1:90", "EXIT:2:10");
+        assertThat(tracker.trackedScooters()).isZero();
+        assertThat(registry.get("geofencing.zone.transitions").tag("type", "EXIT").counter().count())
+            .isEqualTo(2);
+    }
+
+    @Test
+    void shouldExitScootersThatStopPinging() {
+        tracker.update(ping(Instant.now().minusSeconds(400)), List.of(DOWNTOWN));
+        assertThat(tracker.trackedScooters()).isEqualTo(1);
+
+        tracker.sweep();
+
+        assertThat(transitions()).extracting(ZoneTransitionRecord::type)
+            .containsExactly(ZoneTransitionType.ENTER, ZoneTransitionType.EXIT);
+        assertThat(tracker.trackedScooters()).isZero();
+    }
+
+    @Test
+    void shouldKeepEnteredZonesWhenBroadcastFails() {
+        ZoneRef unrated = new ZoneRef(3L, "Unrated", null);
+        doThrow(new IllegalStateException("broker down")).when(publisher).publishTransition(any());
+
+        assertThat(tracker.update(ping(Instant.now()), List.of(unrated))).containsExactly(unrated);
+
+        assertThat(tracker.trackedScooters()).isEqualTo(1);
+        assertThat(registry.get("geofencing.zone.transitions.publish.failures").counter().count())
+            .isEqualTo(1);
+    }
+
+    private List<ZoneTransitionRecord> transitions() {
+        ArgumentCaptor<ZoneTransitionRecord> captor = ArgumentCaptor.forClass(ZoneTransitionRecord.class);
+        verify(publisher, atLeastOnce()).publishTransition(captor.capture());
+        return captor.getAllValues();
+    }
+
+    private static GpsEventRecord ping(Instant timestamp) {
+        return new GpsEventRecord("SC-001", 37.78, -122.415, timestamp, null, null, 5.0);
+    }
+}
@@ -0,0 +1,93 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.dto.GpsEventRecord;
+import com.geofencing.engine.dto.ZoneTransitionRecord;
+import com.geofencing.engine.service.ScooterZoneStateTracker.ZoneRef;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class TrajectoryCrossingDetectorTest {
+
+    private final ZoneAlertPublisher publisher = mock(ZoneAlertPublisher.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private TrajectoryCrossingDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        ZoneLookupEngine engine = new ZoneLookupEngine(registry);
+        ReflectionTestUtils.setField(engine, "maxStalenessSeconds", 300L);
+        engine.registerMetrics();
+        engine.install(1, List.of(strip()));
+
+        ScooterZoneStateTracker tracker = new ScooterZoneStateTracker(publisher, registry);
+        tracker.registerMetrics();
+
+        detector = new TrajectoryCrossingDetector(engine, tracker, registry);
+        ReflectionTestUtils.setField(detector, "mode", ZoneCrossingMode.SEGMENT);
+        ReflectionTestUtils.setField(detector, "maxGapSeconds", 60L);
+        detector.registerMetrics();
+    }
+
+    @Test
+    void shouldReportStripPassedBetweenPings() {
+        Instant start = Instant.now().minusSeconds(30);
+
+        assertThat(detector.update(ping(-122.4170, start), List.of(), false)).isEmpty();
+        List<ZoneTransitionRecord> crossings = detector.update(ping(-122.4130, start.plusSeconds(20)), List.of(), false);
+
+        assertThat(crossings).hasSize(1);
+        ZoneTransitionRecord crossing = crossings.get(0);
+        assertThat(crossing.type()).isEqualTo(ZoneTransitionType.CROSSED);
+        assertThat(crossing.zoneId()).isEqualTo(7L);
+        // Enters at the strip's west edge, halfway along the segment
+        assertThat(crossing.longitude()).isCloseTo(-122.4150, within(1e-9));
+        assertThat(crossing.latitude()).isCloseTo(37.78, within(1e-9));
+        assertThat(crossing.timestamp().toEpochMilli()).isCloseTo(start.plusSeconds(10).toEpochMilli(), within(5L));
+
+        verify(publisher).publishTransition(crossing);
+        assertThat(registry.get("geofencing.zone.transitions").tag("type", "CROSSED").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLeaveZonesContainingAnEndToZoneState() {
+        Instant start = Instant.now().minusSeconds(120);
+
+        detector.update(ping(-122.4170, start), List.of(), false);
+        // Landed inside the strip: that's an ENTER, not a crossing
+        assertThat(detector.update(ping(-122.4149, start.plusSeconds(10)),
+            List.of(new ZoneRef(7L, "Strip", "HIGH")), false)).isEmpty();
+        // Too long since the last ping to assume a straight path
+        assertThat(detector.update(ping(-122.4130, start.plusSeconds(100)), List.of(), false)).isEmpty();
+    }
+
+    private static GpsEventRecord ping(double lon, Instant timestamp) {
+        return new GpsEventRecord("SC-001", 37.78, lon, timestamp, null, null, 5.0);
+    }
+
+    private static CachedZoneRecord strip() {
+        // ~18m wide north-south no-ride strip
+        Polygon polygon = new GeometryFactory().createPolygon(new Coordinate[]{
+            new Coordinate(-122.4150, 37.77),
+            new Coordinate(-122.4150, 37.79),
+            new Coordinate(-122.4148, 37.79),
+            new Coordinate(-122.4148, 37.77),
+            new Coordinate(-122.4150, 37.77)
+        });
+        return CachedZoneRecord.fromEntity(7L, "Strip", polygon, "HIGH");
+    }
+}
@@ -0,0 +1,33 @@
+package com.geofencing.engine.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ViolationPartitionManagerTest {
+
+    @Test
+    void shouldParseDailyPartitionBounds() {
+        ViolationPartitionManager.PartitionInfo partition = ViolationPartitionManager.parsePartition(
+            "zone_violations_p20261018",
+            "FOR VALUES FROM ('2026-10-18 00:00:00') TO ('2026-10-19 00:00:00')");
+
+        assertThat(partition.isDefault()).isFalse();
+        assertThat(partition.lowerBound()).isEqualTo(LocalDateTime.of(2026, 10, 18, 0, 0));
+        assertThat(partition.upperBound()).isEqualTo(LocalDateTime.of(2026, 10, 19, 0, 0));
+    }
+
+    @Test
+    void shouldParseLegacyAndDefaultPartitions() {
+        ViolationPartitionManager.PartitionInfo legacy = ViolationPartitionManager.parsePartition(
+            "zone_violations_legacy", "FOR VALUES FROM (MINVALUE) TO ('2026-10-19 00:00:00')");
+        ViolationPartitionManager.PartitionInfo fallback = ViolationPartitionManager.parsePartition(
+            "zone_violations_default", "DEFAULT");
+
+        assertThat(legacy.lowerBound()).isNull();
+        assertThat(legacy.upperBound()).isEqualTo(LocalDateTime.of(2026, 10, 19, 0, 0));
+        assertThat(fallback.isDefault()).isTrue();
+    }
+}
@@ -0,0 +1,169 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.ZoneViolationRecord;
+import com.geofencing.engine.repository.ZoneViolationBatchWriter;
+import com.geofencing.engine.repository.ZoneViolationCopyWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ViolationWriteBehindServiceTest {
+
+    @Test
+    void shouldWriteAllViolationsInBatches() throws Exception {
+        RecordingWriter writer = new RecordingWriter(null);
+        ViolationWriteBehindService service = service(writer, 10_000, 100, WriteBehindOverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 1050; i++) {
+            service.enqueue(violation(i));
+        }
+        service.stop();
+
+        assertThat(writer.written).hasSize(1050);
+        assertThat(writer.batchSizes).allMatch(size -> size <= 100);
+        assertThat(writer.batchSizes.size()).isLessThan(1050);
+    }
+
+    @Test
+    void shouldDropNewestWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingWriter writer = new RecordingWriter(release);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ViolationWriteBehindService service =
+            service(writer, registry, 10, 1, WriteBehindOverflowPolicy.DROP_NEWEST);
+
+        // First violation blocks the flusher inside the writer, then fill the queue
+        service.enqueue(violation(0));
+        writer.awaitFirstWrite();
+        for (int i = 1; i <= 15; i++) {
+            service.enqueue(violation(i));
+        }
+
+        assertThat(registry.get("geofencing.violations.dropped").counter().count()).isEqualTo(5);
+
+        release.countDown();
+        service.stop();
+        assertThat(writer.written).hasSize(11);
+    }
+
+    @Test
+    void shouldRetryFailedBatchesAndDeadLetterWhenRetriesRunOut() throws Exception {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        FailingWriter writer = new FailingWriter(Set.of("scooter-2"));
+        ViolationWriteBehindService service = service(writer, registry, 100, 1, WriteBehindOverflowPolicy.BLOCK);
+
+        service.enqueue(violation(0));
+        writer.failNextWrite = true; // violation 1 fails once, then succeeds
+        service.enqueue(violation(1));
+        service.enqueue(violation(2)); // never succeeds
+        Thread.sleep(300);
+        service.stop();
+
+        assertThat(writer.written).extracting(ZoneViolationRecord::scooterId)
+            .containsExactlyInAnyOrder("scooter-0", "scooter-1");
+        // scooter-2: first attempt + 2 retries
+        assertThat(registry.get("geofencing.violations.write.failed").counter().count()).isEqualTo(4);
+        assertThat(registry.get("geofencing.violations.dead.lettered").counter().count()).isEqualTo(1);
+        assertThat(registry.get("geofencing.violations.retry.pending").gauge().value()).isZero();
+    }
+
+    private static ViolationWriteBehindService service(
+        ZoneViolationBatchWriter writer, int capacity, int batchSize, WriteBehindOverflowPolicy policy) {
+        return service(writer, new SimpleMeterRegistry(), capacity, batchSize, policy);
+    }
+
+    private static ViolationWriteBehindService service(
+        ZoneViolationBatchWriter writer, SimpleMeterRegistry registry,
+        int capacity, int batchSize, WriteBehindOverflowPolicy policy) {
+        ViolationWriteBehindService service =
+            new ViolationWriteBehindService(writer, mock(ZoneViolationCopyWriter.class), registry);
+        ReflectionTestUtils.setField(service, "queueCapacity", capacity);
+        ReflectionTestUtils.setField(service, "batchSize", batchSize);
+        ReflectionTestUtils.setField(service, "flushIntervalMs", 20L);
+        ReflectionTestUtils.setField(service, "overflowPolicy", policy);
+        ReflectionTestUtils.setField(service, "persistenceMode", ViolationPersistenceMode.BATCH);
+        ReflectionTestUtils.setField(service, "shutdownTimeoutMs", 10_000L);
+        ReflectionTestUtils.setField(service, "maxRetries", 2);
+        ReflectionTestUtils.setField(service, "retryBackoffMs", 10L);
+        service.start();
+        return service;
+    }
+
+    private static ZoneViolationRecord violation(int i) {
+        return new ZoneViolationRecord("scooter-" + i + "_1", "scooter-" + i, 1L, "Zone",
+            37.78, -122.41, Instant.now(), "HIGH", null, null);
+    }
+
+    /**
+     * Batch writer stub that fails for some scooters, and optionally once for the next batch.
+     */
+    private static class FailingWriter extends ZoneViolationBatchWriter {
+
+        final List<ZoneViolationRecord> written = new ArrayList<>();
+        private final Set<String> alwaysFailing;
+        volatile boolean failNextWrite;
+
+        FailingWriter(Set<String> alwaysFailing) {
+            super(null);
+            this.alwaysFailing = alwaysFailing;
+        }
+
+        @Override
+        public synchronized int insertAll(List<ZoneViolationRecord> violations) {
+            if (violations.stream().anyMatch(violation -> alwaysFailing.contains(violation.scooterId()))) {
+                throw new IllegalStateException("constraint violation");
+            }
+            if (failNextWrite && violations.get(0).scooterId().equals("scooter-1")) {
+                failNextWrite = false;
+                throw new IllegalStateException("connection reset");
+            }
+            written.addAll(violations);
+            return violations.size();
+        }
+    }
+
+    /**
+     * Batch writer stub; optionally blocks inside the first write until released.
+     */
+    private static class RecordingWriter extends ZoneViolationBatchWriter {
+
+        final List<ZoneViolationRecord> written = new ArrayList<>();
+        final List<Integer> batchSizes = new ArrayList<>();
+        private final CountDownLatch release;
+        private final CountDownLatch firstWrite = new CountDownLatch(1);
+
+        RecordingWriter(CountDownLatch release) {
+            super(null);
+            this.release = release;
+        }
+
+        @Override
+        public synchronized int insertAll(List<ZoneViolationRecord> violations) {
+            firstWrite.countDown();
+            if (release != null) {
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            written.addAll(violations);
+            batchSizes.add(violations.size());
+            return violations.size();
+        }
+
+        void awaitFirstWrite() throws InterruptedException {
+            firstWrite.await(10, TimeUnit.SECONDS);
+        }
+    }
+}
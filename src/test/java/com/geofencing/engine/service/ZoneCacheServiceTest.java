@@ -0,0 +1,129 @@
+package com.geofencing.engine.service;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.entity.NoParkingZone;
+import com.geofencing.engine.repository.NoParkingZoneRepository;
+import com.geofencing.engine.spatial.ZoneSnapshotCodec;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ZoneCacheServiceTest {
+
+    private final NoParkingZoneRepository zoneRepository = mock(NoParkingZoneRepository.class);
+    private final ZoneLookupEngine engine = mock(ZoneLookupEngine.class);
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, String> stringTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, byte[]> snapshotTemplate = mock(RedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> versions = mock(ValueOperations.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, byte[]> snapshots = mock(ValueOperations.class);
+
+    private ZoneCacheService service;
+
+    @BeforeEach
+    void setUp() {
+        when(stringTemplate.opsForValue()).thenReturn(versions);
+        when(snapshotTemplate.opsForValue()).thenReturn(snapshots);
+        service = new ZoneCacheService(zoneRepository, stringTemplate, snapshotTemplate, engine);
+    }
+
+    @Test
+    void shouldStaySyncedWhenVersionKeyIsAheadOfStoredSnapshot() {
+        // Left behind by an older node that bumped the version before writing the snapshot
+        when(versions.get("zones:version")).thenReturn("6");
+        when(snapshots.get("zones:snapshot")).thenReturn(ZoneSnapshotCodec.encode(5, List.of(zone())));
+        when(engine.currentVersion()).thenReturn(5L);
+
+        service.syncSnapshotWithRedis();
+        service.syncSnapshotWithRedis();
+        service.syncSnapshotWithRedis();
+
+        // Read once, found equal to the installed snapshot, never downloaded again
+        verify(snapshots, times(1)).get("zones:snapshot");
+        verify(engine, never()).install(anyLong(), anyList());
+        verify(engine, times(3)).markSynced();
+    }
+
+    @Test
+    void shouldPublishAfterTheVersionThatOvertookIt() {
+        when(zoneRepository.findByActiveTrue()).thenReturn(List.of(zoneEntity()));
+        when(versions.get("zones:version")).thenReturn("4");
+        List<Long> attempts = new ArrayList<>();
+        when(snapshotTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any()))
+            .thenAnswer(invocation -> {
+                long version = Long.parseLong(new String((byte[]) invocation.getArgument(2), StandardCharsets.US_ASCII));
+                byte[] payload = invocation.getArgument(3);
+                assertThat(ZoneSnapshotCodec.decode(payload).version()).isEqualTo(version);
+                attempts.add(version);
+                // Another node publishes v6 while we try v5
+                return attempts.size() == 1 ? 6L : version;
+            });
+
+        assertThat(service.refreshAllZones()).isEqualTo(1);
+
+        assertThat(attempts).containsExactly(5L, 7L);
+        verify(engine).install(eq(7L), anyList());
+        verify(snapshots, never()).set(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void shouldInstallLocallyWhenPublishFails() {
+        when(zoneRepository.findByActiveTrue()).thenReturn(List.of(zoneEntity()));
+        when(versions.get("zones:version")).thenReturn("4");
+        when(snapshotTemplate.execute(any(RedisScript.class), anyList(), any(), any(), any()))
+            .thenThrow(new RedisConnectionFailureException("Redis is down"));
+
+        assertThat(service.refreshAllZones()).isEqualTo(1);
+
+        // Served from memory right away, not COLD until the next refresh
+        verify(engine).install(eq(ZoneCacheService.LOCAL_VERSION), anyList());
+    }
+
+    private static CachedZoneRecord zone() {
+        return CachedZoneRecord.fromEntity(1L, "Downtown", square(), "HIGH");
+    }
+
+    private static NoParkingZone zoneEntity() {
+        NoParkingZone zone = new NoParkingZone();
+        zone.setId(1L);
+        zone.setName("Downtown");
+        zone.setGeometry(square());
+        zone.setSeverity("HIGH");
+        return zone;
+    }
+
+    private static Polygon square() {
+        return new GeometryFactory().createPolygon(new Coordinate[]{
+            new Coordinate(-122.4194, 37.7749),
+            new Coordinate(-122.4194, 37.7849),
+            new Coordinate(-122.4094, 37.7849),
+            new Coordinate(-122.4094, 37.7749),
+            new Coordinate(-122.4194, 37.7749)
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package com.geofencing.engine.spatial;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * CachedZoneRecord.contains (prepared geometry / indexed locator) must give the same
+ * answer as plain Geometry.contains, including on boundaries and in holes.
+ */
+class CachedZoneContainmentTest {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    @Test
+    void shouldAgreeWithGeometryContainsForPolygonWithHole() {
+        // Shell 0..10, hole 4..6 (x = longitude, y = latitude); exact in binary
+        LinearRing shell = square(0, 0, 10).getExteriorRing();
+        LinearRing hole = square(4, 4, 2).getExteriorRing();
+        Polygon polygon = GEOMETRY_FACTORY.createPolygon(shell, new LinearRing[]{hole});
+        CachedZoneRecord zone = CachedZoneRecord.fromEntity(1L, "Holed", polygon, "HIGH");
+
+        double[][] points = {
+            {2, 2},             // interior
+            {5, 5},             // inside the hole
+            {5, 4.5},           // inside the hole
+            {20, 5},            // outside
+            {0, 5}, {10, 3},    // on shell edges
+            {0, 0}, {10, 10},   // shell vertices
+            {4, 5}, {5, 6},     // on hole edges
+            {4, 4}, {6, 6},     // hole vertices
+            {3.5, 5}            // between shell and hole, next to the hole
+        };
+        for (double[] point : points) {
+            assertAgrees(zone, polygon, point[1], point[0]);
+        }
+        assertThat(zone.contains(2, 2)).isTrue();
+        assertThat(zone.contains(5, 5)).isFalse();
+        assertThat(zone.contains(5, 0)).isFalse();
+        assertThat(zone.contains(5, 4)).isFalse();
+    }
+
+    @Test
+    void shouldAgreeWithGeometryContainsOnRandomPointsAndVertices() {
+        Polygon star = TestPolygons.star(GEOMETRY_FACTORY, -122.4144, 37.7799, 0.01, 64, 7);
+        CachedZoneRecord zone = CachedZoneRecord.fromEntity(1L, "Star", star, "HIGH");
+        Random random = new Random(11);
+
+        for (int i = 0; i < 2000; i++) {
+            double latitude = 37.7799 + (random.nextDouble() - 0.5) * 0.025;
+            double longitude = -122.4144 + (random.nextDouble() - 0.5) * 0.025;
+            assertAgrees(zone, star, latitude, longitude);
+        }
+        for (Coordinate vertex : star.getCoordinates()) {
+            assertAgrees(zone, star, vertex.y, vertex.x);
+            assertThat(zone.contains(vertex.y, vertex.x)).isFalse();
+        }
+    }
+
+    @Test
+    void shouldContainNothingWithoutGeometry() {
+        CachedZoneRecord zone = CachedZoneRecord.fromEntity(1L, "Empty", null, "HIGH");
+
+        assertThat(zone.contains(37.7799, -122.4144)).isFalse();
+        assertThat(zone.contains(0, 0)).isFalse();
+    }
+
+    private static void assertAgrees(CachedZoneRecord zone, Polygon polygon, double latitude, double longitude) {
+        Point point = GEOMETRY_FACTORY.createPoint(new Coordinate(longitude, latitude));
+        assertThat(zone.contains(latitude, longitude))
+            .as("contains(%s, %s)", latitude, longitude)
+            .isEqualTo(polygon.contains(point));
+    }
+
+    private static Polygon square(double minX, double minY, double size) {
+        return GEOMETRY_FACTORY.createPolygon(new Coordinate[]{
+            new Coordinate(minX, minY),
+            new Coordinate(minX, minY + size),
+            new Coordinate(minX + size, minY + size),
+            new Coordinate(minX + size, minY),
+            new Coordinate(minX, minY)
+        });
+    }
+}
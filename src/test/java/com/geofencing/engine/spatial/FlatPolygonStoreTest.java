@@ -0,0 +1,125 @@
+package com.geofencing.engine.spatial;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.geofencing.engine.spatial.TestPolygons.star;
+import static com.geofencing.engine.spatial.TestPolygons.zone;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlatPolygonStoreTest {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    @Test
+    void shouldMatchJtsForRandomPoints() {
+        List<CachedZoneRecord> zones = new ArrayList<>();
+        Random random = new Random(5);
+        for (int i = 0; i < 20; i++) {
+            zones.add(zone(i, star(GEOMETRY_FACTORY,
+                    -122.43 + random.nextDouble() * 0.04, 37.76 + random.nextDouble() * 0.04,
+                    0.002 + random.nextDouble() * 0.006, 3 + random.nextInt(300), i)));
+        }
+        zones.add(CachedZoneRecord.fromEntity(20L, "No geometry", null, "LOW"));
+        Polygon shell = star(GEOMETRY_FACTORY, -122.41, 37.78, 0.01, 64, 99);
+        zones.add(zone(21, (Polygon) shell.difference(star(GEOMETRY_FACTORY, -122.41, 37.78, 0.003, 16, 7))));
+
+        FlatPolygonStore store = FlatPolygonStore.of(zones);
+        assertThat(store.size()).isEqualTo(zones.size());
+
+        for (int i = 0; i < 20_000; i++) {
+            double latitude = 37.75 + random.nextDouble() * 0.06;
+            double longitude = -122.44 + random.nextDouble() * 0.06;
+            for (int z = 0; z < zones.size(); z++) {
+                assertThat(store.contains(z, latitude, longitude))
+                        .as("zone %d at %f, %f", z, latitude, longitude)
+                        .isEqualTo(zones.get(z).contains(latitude, longitude));
+            }
+        }
+    }
+
+    @Test
+    void shouldCountWestAndSouthEdgesAsInside() {
+        // Exact in binary, so the points are exactly on the edges
+        CachedZoneRecord square = zone(1, GEOMETRY_FACTORY.createPolygon(new Coordinate[]{
+                new Coordinate(0, 0), new Coordinate(0, 10), new Coordinate(10, 10),
+                new Coordinate(10, 0), new Coordinate(0, 0)}));
+        FlatPolygonStore store = FlatPolygonStore.of(List.of(square));
+
+        // Half-open (see class doc); JTS and PostGIS never count the boundary
+        assertThat(store.contains(0, 5, 0)).isTrue();    // west edge
+        assertThat(store.contains(0, 0, 5)).isTrue();    // south edge
+        assertThat(store.contains(0, 5, 10)).isFalse();  // east edge
+        assertThat(store.contains(0, 10, 5)).isFalse();  // north edge
+        assertThat(square.contains(5, 0)).isFalse();
+        assertThat(square.contains(0, 5)).isFalse();
+    }
+
+    @Test
+    void vectorKernelShouldMatchScalarKernel() {
+        // The build adds jdk.incubator.vector to the test JVM (surefire argLine)
+        assertThat(FlatPolygonStore.isVectorKernelAvailable()).isTrue();
+
+        List<CachedZoneRecord> zones = new ArrayList<>();
+        Random random = new Random(17);
+        for (int i = 0; i < 40; i++) {
+            // Vertex counts around and between lane multiples, up to traced-park sizes
+            int vertexCount = i < 20 ? 3 + i : 100 + random.nextInt(8000);
+            zones.add(zone(i, star(GEOMETRY_FACTORY,
+                    -122.43 + random.nextDouble() * 0.04, 37.76 + random.nextDouble() * 0.04,
+                    0.002 + random.nextDouble() * 0.006, vertexCount, i)));
+        }
+        Polygon shell = star(GEOMETRY_FACTORY, -122.41, 37.78, 0.01, 2000, 99);
+        zones.add(zone(40, (Polygon) shell.difference(star(GEOMETRY_FACTORY, -122.41, 37.78, 0.003, 500, 7))));
+
+        FlatPolygonStore scalar = FlatPolygonStore.of(zones);
+        FlatPolygonStore vector = FlatPolygonStore.of(zones, 0);
+        assertThat(scalar.vectorizedZoneCount()).isZero();
+        assertThat(vector.vectorizedZoneCount()).isEqualTo(zones.size());
+
+        for (int i = 0; i < 5_000; i++) {
+            double latitude = 37.75 + random.nextDouble() * 0.06;
+            double longitude = -122.44 + random.nextDouble() * 0.06;
+            int z = random.nextInt(zones.size());
+            if (i % 4 == 0) {
+                // Exactly on a vertex's latitude, or on the vertex itself: the edge cases of the comparisons
+                Coordinate[] coordinates = zones.get(z).geometry().getCoordinates();
+                Coordinate vertex = coordinates[random.nextInt(coordinates.length)];
+                latitude = vertex.y;
+                longitude = i % 8 == 0 ? vertex.x : longitude;
+            }
+            for (int candidate : new int[]{z, random.nextInt(zones.size())}) {
+                assertThat(vector.contains(candidate, latitude, longitude))
+                        .as("zone %d at %s, %s", candidate, latitude, longitude)
+                        .isEqualTo(scalar.contains(candidate, latitude, longitude));
+            }
+        }
+    }
+
+    @Test
+    void shouldGiveIndexSameAnswersWithEitherKernel() {
+        List<CachedZoneRecord> zones = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            zones.add(zone(i, star(GEOMETRY_FACTORY,
+                    -122.45 + (i % 10) * 0.003, 37.75 + (i / 10) * 0.003, 0.002, 48, i)));
+        }
+        ZoneSpatialIndex jts = new ZoneSpatialIndex(zones, null, ZoneContainmentKernel.JTS);
+        ZoneSpatialIndex flat = new ZoneSpatialIndex(zones, null, ZoneContainmentKernel.FLAT);
+
+        Random random = new Random(9);
+        for (int i = 0; i < 20_000; i++) {
+            double latitude = 37.748 + random.nextDouble() * 0.018;
+            double longitude = -122.452 + random.nextDouble() * 0.033;
+            assertThat(flat.findContainingZones(latitude, longitude))
+                    .containsExactlyInAnyOrderElementsOf(jts.findContainingZones(latitude, longitude));
+            assertThat(flat.containsAny(latitude, longitude)).isEqualTo(jts.containsAny(latitude, longitude));
+        }
+    }
+}
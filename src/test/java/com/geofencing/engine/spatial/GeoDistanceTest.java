@@ -0,0 +1,60 @@
+package com.geofencing.engine.spatial;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+/**
+ * Checks the equirectangular approximation against WGS84 geodesic distances
+ * (what PostGIS geography ST_Distance returns). Reference values were computed
+ * with Vincenty's inverse formula on the WGS84 ellipsoid.
+ */
+class GeoDistanceTest {
+
+    // Stated error bound of GeoDistance (up to 5 km, latitudes within +/-70 degrees)
+    private static final double MAX_ERROR_PERCENT = 0.05;
+
+    // {lat1, lon1, lat2, lon2, geodesic distance in metres}
+    private static final double[][] REFERENCE_DISTANCES = {
+            {0.0, 10.0, 0.0005, 10.0000, 55.287},
+            {0.0, 10.0, -0.0200, 10.0250, 3554.671},
+            {37.7799, -122.4144, 37.7799, -122.4138, 52.857},
+            {37.7799, -122.4144, 37.8099, -122.4244, 3444.295},
+            {52.52, 13.405, 52.5230, 13.4090, 430.303},
+            {60.17, 24.94, 60.1500, 24.9650, 2625.373},
+            {-33.87, 151.21, -33.8400, 151.2000, 3453.877},
+            {69.65, 18.96, 69.6700, 18.9900, 2516.644},
+    };
+
+    @Test
+    void shouldMatchGeodesicDistances() {
+        for (double[] reference : REFERENCE_DISTANCES) {
+            assertThat(GeoDistance.distanceMeters(reference[0], reference[1], reference[2], reference[3]))
+                    .as("%s,%s -> %s,%s", reference[0], reference[1], reference[2], reference[3])
+                    .isCloseTo(reference[4], withinPercentage(MAX_ERROR_PERCENT));
+        }
+    }
+
+    @Test
+    void shouldMatchGeodesicDistanceToPolygon() {
+        Polygon square = new GeometryFactory().createPolygon(new Coordinate[]{
+                new Coordinate(-122.4194, 37.7749),
+                new Coordinate(-122.4194, 37.7849),
+                new Coordinate(-122.4094, 37.7849),
+                new Coordinate(-122.4094, 37.7749),
+                new Coordinate(-122.4194, 37.7749)
+        });
+
+        // Points diagonally off a corner: the nearest point of the polygon is that corner
+        assertThat(GeoDistance.distanceToBoundaryMeters(square, 37.7889, -122.4044))
+                .isCloseTo(625.370, withinPercentage(MAX_ERROR_PERCENT));
+        assertThat(GeoDistance.distanceToBoundaryMeters(square, 37.7709, -122.4234))
+                .isCloseTo(566.835, withinPercentage(MAX_ERROR_PERCENT));
+        assertThat(GeoDistance.distanceToBoundaryMeters(square, 37.7649, -122.4394))
+                .isCloseTo(2082.548, withinPercentage(MAX_ERROR_PERCENT));
+    }
+}
@@ -0,0 +1,48 @@
+package com.geofencing.engine.spatial;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.Random;
+
+/**
+ * Synthetic zone polygons shared by the spatial tests and the benchmarks.
+ */
+public final class TestPolygons {
+
+    private TestPolygons() {
+    }
+
+    /**
+     * Builds an irregular, simple (non self-intersecting) star polygon.
+     *
+     * Vertices are placed at increasing angles with a random radius between
+     * 50% and 100% of {@code radiusDegrees}, which gives a jagged outline similar
+     * to a traced curb or park boundary.
+     */
+    public static Polygon star(GeometryFactory geometryFactory, double centerLon, double centerLat,
+                               double radiusDegrees, int vertexCount, long seed) {
+        Random random = new Random(seed);
+        Coordinate[] ring = new Coordinate[vertexCount + 1];
+
+        for (int i = 0; i < vertexCount; i++) {
+            double angle = 2 * Math.PI * i / vertexCount;
+            double radius = radiusDegrees * (0.5 + 0.5 * random.nextDouble());
+            ring[i] = new Coordinate(
+                    centerLon + radius * Math.cos(angle),
+                    centerLat + radius * Math.sin(angle));
+        }
+        ring[vertexCount] = ring[0].copy();
+
+        return geometryFactory.createPolygon(ring);
+    }
+
+    /**
+     * Cached zone "Zone {id}" with HIGH severity.
+     */
+    public static CachedZoneRecord zone(long id, Polygon polygon) {
+        return CachedZoneRecord.fromEntity(id, "Zone " + id, polygon, "HIGH");
+    }
+}
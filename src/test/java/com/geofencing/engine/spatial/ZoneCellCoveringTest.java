@@ -0,0 +1,79 @@
+package com.geofencing.engine.spatial;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static com.geofencing.engine.spatial.TestPolygons.star;
+import static com.geofencing.engine.spatial.TestPolygons.zone;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ZoneCellCoveringTest {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    private static final ZoneCellCovering.Resolution RESOLUTION = new ZoneCellCovering.Resolution(10, 20, 200_000);
+
+    @Test
+    void shouldMatchTreeLookupsForRandomPoints() {
+        List<CachedZoneRecord> zones = new ArrayList<>();
+        Random random = new Random(11);
+        for (int i = 0; i < 30; i++) {
+            // Overlapping jagged zones around downtown San Francisco
+            zones.add(zone(i + 1, star(GEOMETRY_FACTORY,
+                    -122.43 + random.nextDouble() * 0.04, 37.76 + random.nextDouble() * 0.04,
+                    0.002 + random.nextDouble() * 0.006, 8 + random.nextInt(120), i)));
+        }
+        // A zone with a hole
+        Polygon shell = star(GEOMETRY_FACTORY, -122.41, 37.78, 0.01, 64, 99);
+        zones.add(zone(99, (Polygon) shell.difference(star(GEOMETRY_FACTORY, -122.41, 37.78, 0.003, 16, 7))));
+
+        ZoneSpatialIndex tree = new ZoneSpatialIndex(zones);
+        ZoneSpatialIndex cells = new ZoneSpatialIndex(zones, RESOLUTION);
+
+        for (int i = 0; i < 50_000; i++) {
+            double latitude = 37.75 + random.nextDouble() * 0.06;
+            double longitude = -122.44 + random.nextDouble() * 0.06;
+
+            assertThat(cells.findContainingZones(latitude, longitude))
+                    .as("zones at %f, %f", latitude, longitude)
+                    .containsExactlyInAnyOrderElementsOf(tree.findContainingZones(latitude, longitude));
+            assertThat(cells.containsAny(latitude, longitude)).isEqualTo(tree.containsAny(latitude, longitude));
+        }
+
+        assertThat(cells.covering().finestLevel()).isEqualTo(20);
+        // Most of the sampled area is away from any edge at level 20 (~30m cells)
+        assertThat(cells.covering().resolvedFraction()).isGreaterThan(0.8);
+    }
+
+    @Test
+    void shouldStopAtCoarserLevelWhenCellBudgetIsReached() {
+        List<CachedZoneRecord> zones = List.of(zone(1, star(GEOMETRY_FACTORY, -122.41, 37.78, 0.01, 256, 3)));
+
+        ZoneCellCovering fine = ZoneCellCovering.build(zones, RESOLUTION);
+        ZoneCellCovering budgeted = ZoneCellCovering.build(zones, new ZoneCellCovering.Resolution(10, 20, 500));
+
+        assertThat(fine.finestLevel()).isEqualTo(20);
+        assertThat(budgeted.finestLevel()).isLessThan(20);
+        assertThat(budgeted.cellCount()).isLessThanOrEqualTo(500);
+
+        // Still exact: the centre is INTERIOR, a point outside has no cell
+        assertThat(budgeted.lookup(37.78, -122.41)).hasSize(1);
+        assertThat(ZoneCellCovering.isBoundary(budgeted.lookup(37.78, -122.41)[0])).isFalse();
+        assertThat(budgeted.lookup(37.70, -122.41)).isNull();
+    }
+
+    @Test
+    void shouldRejectInvalidLevels() {
+        assertThatThrownBy(() -> new ZoneCellCovering.Resolution(12, 10, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new ZoneCellCovering.Resolution(10, 30, 1000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
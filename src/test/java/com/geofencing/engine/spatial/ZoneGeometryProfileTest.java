@@ -0,0 +1,57 @@
+package com.geofencing.engine.spatial;
+
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class ZoneGeometryProfileTest {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    @Test
+    void shouldGradePointsInsideSquareZone() {
+        ZoneGeometryProfile profile = ZoneGeometryProfile.of(square(-122.4194, 37.7749, 0.01));
+
+        assertThat(profile.centroidLatitude()).isCloseTo(37.7799, within(1e-9));
+        assertThat(profile.centroidLongitude()).isCloseTo(-122.4144, within(1e-9));
+        assertThat(profile.distanceToCenterMeters(37.7799, -122.4144)).isCloseTo(0.0, within(1e-6));
+
+        // 0.001 degrees east of the west edge, on the centre line: ~88m in, ~352m from the centre
+        double metersPerDegreeLon = GeoDistance.metersPerDegreeLongitude(37.7799);
+        assertThat(profile.distanceToBoundaryMeters(37.7799, -122.4184))
+                .isCloseTo(0.001 * metersPerDegreeLon, withinPercentage(0.01));
+        assertThat(profile.distanceToCenterMeters(37.7799, -122.4184))
+                .isCloseTo(0.004 * metersPerDegreeLon, withinPercentage(0.01));
+    }
+
+    @Test
+    void shouldMatchGeoDistanceIncludingHoles() {
+        LinearRing shell = square(-122.4194, 37.7749, 0.01).getExteriorRing();
+        LinearRing hole = square(-122.4154, 37.7789, 0.002).getExteriorRing();
+        Polygon polygon = GEOMETRY_FACTORY.createPolygon(shell, new LinearRing[]{hole});
+        ZoneGeometryProfile profile = ZoneGeometryProfile.of(polygon);
+
+        for (int i = 0; i < 200; i++) {
+            double lat = 37.7749 + (i * 0.000731) % 0.01;
+            double lon = -122.4194 + (i * 0.000517) % 0.01;
+            assertThat(profile.distanceToBoundaryMeters(lat, lon))
+                    .isCloseTo(GeoDistance.distanceToBoundaryMeters(polygon, lat, lon), within(0.05));
+        }
+    }
+
+    private static Polygon square(double minLon, double minLat, double size) {
+        return GEOMETRY_FACTORY.createPolygon(new Coordinate[]{
+                new Coordinate(minLon, minLat),
+                new Coordinate(minLon, minLat + size),
+                new Coordinate(minLon + size, minLat + size),
+                new Coordinate(minLon + size, minLat),
+                new Coordinate(minLon, minLat)
+        });
+    }
+}
@@ -0,0 +1,65 @@
+package com.geofencing.engine.spatial;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ZoneSnapshotCodecTest {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    @Test
+    void shouldRoundTripZoneSet() {
+        List<CachedZoneRecord> zones = List.of(
+                zone(1L, "Pier 39 \"No Parking\"", "HIGH", -122.41),
+                zone(2L, "Café \\ Plaza", null, -122.40),
+                zone(3L, "Pier 39 \"No Parking\"", "LOW", -122.39)
+        );
+
+        ZoneSnapshotCodec.DecodedSnapshot decoded = ZoneSnapshotCodec.decode(ZoneSnapshotCodec.encode(42L, zones));
+
+        assertThat(decoded.version()).isEqualTo(42L);
+        assertThat(decoded.zones()).hasSize(3);
+        for (int i = 0; i < zones.size(); i++) {
+            CachedZoneRecord expected = zones.get(i);
+            CachedZoneRecord actual = decoded.zones().get(i);
+
+            assertThat(actual.zoneId()).isEqualTo(expected.zoneId());
+            assertThat(actual.name()).isEqualTo(expected.name());
+            assertThat(actual.severity()).isEqualTo(expected.severity());
+            assertThat(actual.geometry().equalsExact(expected.geometry())).isTrue();
+        }
+
+        // Interned name table: identical names decode to the same instance
+        assertThat(decoded.zones().get(0).name()).isSameAs(decoded.zones().get(2).name());
+    }
+
+    @Test
+    void shouldRejectCorruptPayload() {
+        byte[] payload = ZoneSnapshotCodec.encode(1L, List.of(zone(1L, "Zone", "HIGH", -122.41)));
+
+        assertThatThrownBy(() -> ZoneSnapshotCodec.decode(new byte[]{1, 2, 3, 4, 5}))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ZoneSnapshotCodec.decode(Arrays.copyOf(payload, payload.length - 10)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static CachedZoneRecord zone(long id, String name, String severity, double minLon) {
+        Polygon polygon = GEOMETRY_FACTORY.createPolygon(new Coordinate[]{
+                new Coordinate(minLon, 37.77),
+                new Coordinate(minLon, 37.78),
+                new Coordinate(minLon + 0.01, 37.78),
+                new Coordinate(minLon + 0.01, 37.77),
+                new Coordinate(minLon, 37.77)
+        });
+        return CachedZoneRecord.fromEntity(id, name, polygon, severity);
+    }
+}
@@ -0,0 +1,148 @@
+package com.geofencing.engine.spatial;
+
+import com.geofencing.engine.dto.CachedZoneRecord;
+import com.geofencing.engine.dto.NearbyZoneRecord;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.Polygon;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class ZoneSpatialIndexTest {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    @Test
+    void shouldFindOnlyZonesContainingPoint() {
+        ZoneSpatialIndex index = new ZoneSpatialIndex(List.of(
+                zone(1L, -122.4194, 37.7749, 0.01),
+                zone(2L, -122.4000, 37.7900, 0.01)
+        ));
+
+        assertThat(index.findContainingZones(37.7800, -122.4150))
+                .extracting(CachedZoneRecord::zoneId)
+                .containsExactly(1L);
+        assertThat(index.findContainingZones(37.7700, -122.5000)).isEmpty();
+    }
+
+    @Test
+    void shouldMatchLinearScanOnGrid() {
+        List<CachedZoneRecord> zones = new ArrayList<>();
+        long id = 1;
+        for (int row = 0; row < 40; row++) {
+            for (int col = 0; col < 40; col++) {
+                zones.add(zone(id++, -122.5 + col * 0.005, 37.7 + row * 0.005, 0.003));
+            }
+        }
+        ZoneSpatialIndex index = new ZoneSpatialIndex(zones);
+
+        assertThat(index.size()).isEqualTo(1600);
+        assertThat(index.depth()).isGreaterThan(1);
+
+        for (int i = 0; i < 500; i++) {
+            double lat = 37.7 + (i * 0.00037) % 0.2;
+            double lon = -122.5 + (i * 0.00053) % 0.2;
+
+            List<Long> expected = zones.stream()
+                    .filter(zone -> zone.contains(lat, lon))
+                    .map(CachedZoneRecord::zoneId)
+                    .toList();
+
+            assertThat(index.findContainingZones(lat, lon))
+                    .extracting(CachedZoneRecord::zoneId)
+                    .containsExactlyInAnyOrderElementsOf(expected);
+            assertThat(index.containsAny(lat, lon)).isEqualTo(!expected.isEmpty());
+        }
+    }
+
+    @Test
+    void shouldMatchLinearScanForCrossedZones() {
+        List<CachedZoneRecord> zones = new ArrayList<>();
+        long id = 1;
+        for (int row = 0; row < 40; row++) {
+            for (int col = 0; col < 40; col++) {
+                zones.add(zone(id++, -122.5 + col * 0.005, 37.7 + row * 0.005, 0.003));
+            }
+        }
+        ZoneSpatialIndex index = new ZoneSpatialIndex(zones);
+
+        for (int i = 0; i < 200; i++) {
+            double fromLat = 37.7 + (i * 0.00037) % 0.2;
+            double fromLon = -122.5 + (i * 0.00053) % 0.2;
+            double toLat = fromLat + ((i % 7) - 3) * 0.002;
+            double toLon = fromLon + ((i % 5) - 2) * 0.003;
+            LineString segment = ZoneSpatialIndex.segment(fromLat, fromLon, toLat, toLon);
+
+            List<Long> expected = zones.stream()
+                    .filter(zone -> zone.geometry().intersects(segment))
+                    .map(CachedZoneRecord::zoneId)
+                    .toList();
+
+            assertThat(index.findCrossedZones(fromLat, fromLon, toLat, toLon))
+                    .extracting(CachedZoneRecord::zoneId)
+                    .containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    @Test
+    void shouldMeasureDistanceToNearestBoundary() {
+        ZoneSpatialIndex index = new ZoneSpatialIndex(List.of(zone(1L, -122.4194, 37.7749, 0.01)));
+        double metersPerDegreeLon = GeoDistance.metersPerDegreeLongitude(37.7799);
+
+        // Inside, at the centre: the east/west edges are nearer than north/south (~440m vs ~556m)
+        assertThat(index.distanceToNearestBoundary(37.7799, -122.4144, 1000))
+                .isCloseTo(0.005 * metersPerDegreeLon, within(0.5));
+        // Outside, 0.01 degrees west of the zone
+        assertThat(index.distanceToNearestBoundary(37.7799, -122.4294, 2000))
+                .isCloseTo(0.01 * metersPerDegreeLon, within(0.5));
+        // Beyond the search radius
+        assertThat(index.distanceToNearestBoundary(37.7799, -122.4294, 500)).isEqualTo(500);
+        assertThat(ZoneSpatialIndex.empty().distanceToNearestBoundary(37.7799, -122.4294, 500)).isEqualTo(500);
+    }
+
+    @Test
+    void shouldFindZonesNearbyOrderedByDistance() {
+        ZoneSpatialIndex index = new ZoneSpatialIndex(List.of(
+                zone(1L, -122.4194, 37.7749, 0.01),
+                zone(2L, -122.4300, 37.7749, 0.005)
+        ));
+
+        // Between the zones: ~266m from zone 2's east edge, ~528m from zone 1's west edge
+        assertThat(index.findZonesNearby(37.7799, -122.4254, 600))
+                .extracting(NearbyZoneRecord::zoneId)
+                .containsExactly(2L, 1L);
+        assertThat(index.findZonesNearby(37.7799, -122.4254, 300))
+                .extracting(NearbyZoneRecord::zoneId)
+                .containsExactly(2L);
+        // Inside zone 1
+        assertThat(index.findZonesNearby(37.7799, -122.4144, 10))
+                .extracting(NearbyZoneRecord::distanceMeters)
+                .containsExactly(0.0);
+    }
+
+    @Test
+    void emptyIndexShouldReturnNoZones() {
+        ZoneSpatialIndex index = ZoneSpatialIndex.empty();
+
+        assertThat(index.isEmpty()).isTrue();
+        assertThat(index.findContainingZones(37.78, -122.415)).isEmpty();
+        assertThat(index.containsAny(37.78, -122.415)).isFalse();
+    }
+
+    private static CachedZoneRecord zone(long id, double minLon, double minLat, double size) {
+        Polygon polygon = GEOMETRY_FACTORY.createPolygon(new Coordinate[]{
+                new Coordinate(minLon, minLat),
+                new Coordinate(minLon, minLat + size),
+                new Coordinate(minLon + size, minLat + size),
+                new Coordinate(minLon + size, minLat),
+                new Coordinate(minLon, minLat)
+        });
+        return CachedZoneRecord.fromEntity(id, "Zone " + id, polygon, "HIGH");
+    }
+}